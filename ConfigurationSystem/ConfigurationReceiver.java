@@ -25,6 +25,12 @@ public interface ConfigurationReceiver extends com.zeroc.Ice.Object
 
     boolean updateElectionStatus(int electionId, String status, com.zeroc.Ice.Current current);
 
+    int beginConfigurationTransfer(int mesaId, String transferId, long totalBytes, int chunkCount, String sha256, com.zeroc.Ice.Current current);
+
+    int sendConfigurationChunk(int mesaId, String transferId, int index, byte[] data, int crc32, com.zeroc.Ice.Current current);
+
+    boolean commitConfigurationTransfer(int mesaId, String transferId, com.zeroc.Ice.Current current);
+
     /** @hidden */
     static final String[] _iceIds =
     {
@@ -137,15 +143,99 @@ public interface ConfigurationReceiver extends com.zeroc.Ice.Object
         return inS.setResult(ostr);
     }
 
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_beginConfigurationTransfer(ConfigurationReceiver obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_mesaId;
+        String iceP_transferId;
+        long iceP_totalBytes;
+        int iceP_chunkCount;
+        String iceP_sha256;
+        iceP_mesaId = istr.readInt();
+        iceP_transferId = istr.readString();
+        iceP_totalBytes = istr.readLong();
+        iceP_chunkCount = istr.readInt();
+        iceP_sha256 = istr.readString();
+        inS.endReadParams();
+        int ret = obj.beginConfigurationTransfer(iceP_mesaId, iceP_transferId, iceP_totalBytes, iceP_chunkCount, iceP_sha256, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        ostr.writeInt(ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_sendConfigurationChunk(ConfigurationReceiver obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_mesaId;
+        String iceP_transferId;
+        int iceP_index;
+        byte[] iceP_data;
+        int iceP_crc32;
+        iceP_mesaId = istr.readInt();
+        iceP_transferId = istr.readString();
+        iceP_index = istr.readInt();
+        iceP_data = istr.readByteSeq();
+        iceP_crc32 = istr.readInt();
+        inS.endReadParams();
+        int ret = obj.sendConfigurationChunk(iceP_mesaId, iceP_transferId, iceP_index, iceP_data, iceP_crc32, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        ostr.writeInt(ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_commitConfigurationTransfer(ConfigurationReceiver obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_mesaId;
+        String iceP_transferId;
+        iceP_mesaId = istr.readInt();
+        iceP_transferId = istr.readString();
+        inS.endReadParams();
+        boolean ret = obj.commitConfigurationTransfer(iceP_mesaId, iceP_transferId, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        ostr.writeBool(ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
     /** @hidden */
     final static String[] _iceOps =
     {
+        "beginConfigurationTransfer",
+        "commitConfigurationTransfer",
         "getConfigurationStatus",
         "ice_id",
         "ice_ids",
         "ice_isA",
         "ice_ping",
         "isReady",
+        "sendConfigurationChunk",
         "updateConfiguration",
         "updateElectionStatus"
     };
@@ -165,33 +255,45 @@ public interface ConfigurationReceiver extends com.zeroc.Ice.Object
         {
             case 0:
             {
-                return _iceD_getConfigurationStatus(this, in, current);
+                return _iceD_beginConfigurationTransfer(this, in, current);
             }
             case 1:
             {
-                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+                return _iceD_commitConfigurationTransfer(this, in, current);
             }
             case 2:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+                return _iceD_getConfigurationStatus(this, in, current);
             }
             case 3:
             {
-                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
             }
             case 4:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
             }
             case 5:
             {
-                return _iceD_isReady(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
             }
             case 6:
             {
-                return _iceD_updateConfiguration(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
             }
             case 7:
+            {
+                return _iceD_isReady(this, in, current);
+            }
+            case 8:
+            {
+                return _iceD_sendConfigurationChunk(this, in, current);
+            }
+            case 9:
+            {
+                return _iceD_updateConfiguration(this, in, current);
+            }
+            case 10:
             {
                 return _iceD_updateElectionStatus(this, in, current);
             }
@@ -181,6 +181,144 @@ public interface ConfigurationReceiverPrx extends com.zeroc.Ice.ObjectPrx
         return f;
     }
 
+    default int beginConfigurationTransfer(int mesaId, String transferId, long totalBytes, int chunkCount, String sha256)
+    {
+        return beginConfigurationTransfer(mesaId, transferId, totalBytes, chunkCount, sha256, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    default int beginConfigurationTransfer(int mesaId, String transferId, long totalBytes, int chunkCount, String sha256, java.util.Map<String, String> context)
+    {
+        return _iceI_beginConfigurationTransferAsync(mesaId, transferId, totalBytes, chunkCount, sha256, context, true).waitForResponse();
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Integer> beginConfigurationTransferAsync(int mesaId, String transferId, long totalBytes, int chunkCount, String sha256)
+    {
+        return _iceI_beginConfigurationTransferAsync(mesaId, transferId, totalBytes, chunkCount, sha256, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Integer> beginConfigurationTransferAsync(int mesaId, String transferId, long totalBytes, int chunkCount, String sha256, java.util.Map<String, String> context)
+    {
+        return _iceI_beginConfigurationTransferAsync(mesaId, transferId, totalBytes, chunkCount, sha256, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_mesaId -
+     * @param iceP_transferId -
+     * @param iceP_totalBytes -
+     * @param iceP_chunkCount -
+     * @param iceP_sha256 -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<java.lang.Integer> _iceI_beginConfigurationTransferAsync(int iceP_mesaId, String iceP_transferId, long iceP_totalBytes, int iceP_chunkCount, String iceP_sha256, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<java.lang.Integer> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "beginConfigurationTransfer", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_mesaId);
+                     ostr.writeString(iceP_transferId);
+                     ostr.writeLong(iceP_totalBytes);
+                     ostr.writeInt(iceP_chunkCount);
+                     ostr.writeString(iceP_sha256);
+                 }, istr -> {
+                     int ret;
+                     ret = istr.readInt();
+                     return ret;
+                 });
+        return f;
+    }
+
+    default int sendConfigurationChunk(int mesaId, String transferId, int index, byte[] data, int crc32)
+    {
+        return sendConfigurationChunk(mesaId, transferId, index, data, crc32, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    default int sendConfigurationChunk(int mesaId, String transferId, int index, byte[] data, int crc32, java.util.Map<String, String> context)
+    {
+        return _iceI_sendConfigurationChunkAsync(mesaId, transferId, index, data, crc32, context, true).waitForResponse();
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Integer> sendConfigurationChunkAsync(int mesaId, String transferId, int index, byte[] data, int crc32)
+    {
+        return _iceI_sendConfigurationChunkAsync(mesaId, transferId, index, data, crc32, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Integer> sendConfigurationChunkAsync(int mesaId, String transferId, int index, byte[] data, int crc32, java.util.Map<String, String> context)
+    {
+        return _iceI_sendConfigurationChunkAsync(mesaId, transferId, index, data, crc32, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_mesaId -
+     * @param iceP_transferId -
+     * @param iceP_index -
+     * @param iceP_data -
+     * @param iceP_crc32 -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<java.lang.Integer> _iceI_sendConfigurationChunkAsync(int iceP_mesaId, String iceP_transferId, int iceP_index, byte[] iceP_data, int iceP_crc32, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<java.lang.Integer> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "sendConfigurationChunk", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_mesaId);
+                     ostr.writeString(iceP_transferId);
+                     ostr.writeInt(iceP_index);
+                     ostr.writeByteSeq(iceP_data);
+                     ostr.writeInt(iceP_crc32);
+                 }, istr -> {
+                     int ret;
+                     ret = istr.readInt();
+                     return ret;
+                 });
+        return f;
+    }
+
+    default boolean commitConfigurationTransfer(int mesaId, String transferId)
+    {
+        return commitConfigurationTransfer(mesaId, transferId, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    default boolean commitConfigurationTransfer(int mesaId, String transferId, java.util.Map<String, String> context)
+    {
+        return _iceI_commitConfigurationTransferAsync(mesaId, transferId, context, true).waitForResponse();
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Boolean> commitConfigurationTransferAsync(int mesaId, String transferId)
+    {
+        return _iceI_commitConfigurationTransferAsync(mesaId, transferId, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    default java.util.concurrent.CompletableFuture<java.lang.Boolean> commitConfigurationTransferAsync(int mesaId, String transferId, java.util.Map<String, String> context)
+    {
+        return _iceI_commitConfigurationTransferAsync(mesaId, transferId, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_mesaId -
+     * @param iceP_transferId -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> _iceI_commitConfigurationTransferAsync(int iceP_mesaId, String iceP_transferId, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "commitConfigurationTransfer", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_mesaId);
+                     ostr.writeString(iceP_transferId);
+                 }, istr -> {
+                     boolean ret;
+                     ret = istr.readBool();
+                     return ret;
+                 });
+        return f;
+    }
+
     /**
      * Contacts the remote server to verify that the object implements this type.
      * Raises a local exception if a communication error occurs.
@@ -0,0 +1,254 @@
+package org.votaciones;
+
+import com.zeroc.Ice.ConnectionInfo;
+import com.zeroc.Ice.Current;
+import com.zeroc.Ice.IPConnectionInfo;
+import com.zeroc.Ice.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión del proxy:
+ * - token bucket por cliente (host remoto de la conexión) para todas las consultas;
+ * - semáforo de concurrencia hacia el upstream con una cola acotada y tiempo máximo de espera.
+ * Los hits del cache nunca esperan por el upstream, así que siguen respondiendo rápido aunque
+ * el servidor central esté saturado; los misses rechazados caen al valor expirado si existe.
+ */
+public class AdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+    private static final long IDLE_CLIENT_MS = 5 * 60 * 1000;
+
+    public static class OverloadedException extends RuntimeException {
+        public OverloadedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class TokenBucket {
+        private final double ratePerMs;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double ratePerSecond, double capacity, long now) {
+            this.ratePerMs = ratePerSecond / 1000.0;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerMs);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized long getLastRefill() {
+            return lastRefill;
+        }
+    }
+
+    private static class PendingCall<T> {
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // La reclama quien llegue primero: la cola para ejecutarla o el vencimiento para descartarla
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        PendingCall(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+    }
+
+    private final double clientRate;
+    private final int clientBurst;
+    private final int upstreamConcurrency;
+    private final int upstreamQueueSize;
+    private final long upstreamQueueTimeoutMs;
+    private final Set<String> trustedHosts;
+
+    private final Map<String, TokenBucket> clients = new ConcurrentHashMap<>();
+    private final Semaphore upstreamPermits;
+    private final Queue<PendingCall<?>> upstreamQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    private final AtomicLong rejectedClientRequests = new AtomicLong(0);
+    private final AtomicLong shedUpstreamCalls = new AtomicLong(0);
+
+    public AdmissionController(double clientRate, int clientBurst, int upstreamConcurrency,
+                               int upstreamQueueSize, long upstreamQueueTimeoutMs, Set<String> trustedHosts) {
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        this.upstreamConcurrency = upstreamConcurrency;
+        this.upstreamQueueSize = upstreamQueueSize;
+        this.upstreamQueueTimeoutMs = upstreamQueueTimeoutMs;
+        this.trustedHosts = Collections.unmodifiableSet(new HashSet<>(trustedHosts));
+        this.upstreamPermits = new Semaphore(upstreamConcurrency);
+    }
+
+    public static AdmissionController defaults() {
+        return new AdmissionController(50, 100, 32, 256, 2000, Collections.emptySet());
+    }
+
+    /**
+     * Lee ProxyCache.Admission.* (ClientRate, ClientBurst, UpstreamConcurrency, UpstreamQueueSize,
+     * UpstreamQueueTimeout y TrustedHosts, separados por coma).
+     */
+    public static AdmissionController fromProperties(Properties properties) {
+        String prefix = "ProxyCache.Admission.";
+        String trusted = properties.getPropertyWithDefault(prefix + "TrustedHosts", "");
+
+        Set<String> trustedHosts = new HashSet<>();
+        Arrays.stream(trusted.split(",")).map(String::trim).filter(h -> !h.isEmpty()).forEach(trustedHosts::add);
+
+        return new AdmissionController(
+                properties.getPropertyAsIntWithDefault(prefix + "ClientRate", 50),
+                properties.getPropertyAsIntWithDefault(prefix + "ClientBurst", 100),
+                properties.getPropertyAsIntWithDefault(prefix + "UpstreamConcurrency", 32),
+                properties.getPropertyAsIntWithDefault(prefix + "UpstreamQueueSize", 256),
+                properties.getPropertyAsIntWithDefault(prefix + "UpstreamQueueTimeout", 2000),
+                trustedHosts);
+    }
+
+    /**
+     * Consume un token del cliente que hizo la consulta. Las llamadas internas (sin conexión) y las
+     * de hosts de confianza (otros proxies del cluster o regionales) no se limitan.
+     */
+    public boolean admit(Current current) {
+        String client = clientOf(current);
+        if (client == null || trustedHosts.contains(client)) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        TokenBucket bucket = clients.computeIfAbsent(client, k -> new TokenBucket(clientRate, clientBurst, now));
+        if (bucket.tryConsume(now)) {
+            return true;
+        }
+
+        if (rejectedClientRequests.incrementAndGet() % 1000 == 1) {
+            logger.warn("Cliente {} supera el límite de {} consultas/s, se rechazan consultas", client, clientRate);
+        }
+        return false;
+    }
+
+    /**
+     * Ejecuta una llamada al upstream respetando el límite de concurrencia. Si no hay permisos la
+     * llamada espera en cola hasta {@code upstreamQueueTimeoutMs}; con la cola llena se rechaza de inmediato.
+     */
+    public <T> CompletableFuture<T> submitUpstream(Supplier<CompletableFuture<T>> call) {
+        if (upstreamPermits.tryAcquire()) {
+            return start(call);
+        }
+
+        if (queued.incrementAndGet() > upstreamQueueSize) {
+            queued.decrementAndGet();
+            shedUpstreamCalls.incrementAndGet();
+            return CompletableFuture.failedFuture(new OverloadedException("Cola hacia el servidor llena"));
+        }
+
+        PendingCall<T> pending = new PendingCall<>(call);
+        CompletableFuture.delayedExecutor(upstreamQueueTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (pending.claimed.compareAndSet(false, true)) {
+                shedUpstreamCalls.incrementAndGet();
+                pending.result.completeExceptionally(new OverloadedException("Tiempo de espera en cola agotado"));
+            }
+        });
+        upstreamQueue.add(pending);
+        drainQueue();
+        return pending.result;
+    }
+
+    public boolean isSaturated() {
+        return upstreamPermits.availablePermits() == 0;
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        return upstream.whenComplete((r, e) -> {
+            upstreamPermits.release();
+            drainQueue();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainQueue() {
+        while (!upstreamQueue.isEmpty() && upstreamPermits.tryAcquire()) {
+            PendingCall<Object> pending = (PendingCall<Object>) upstreamQueue.poll();
+            if (pending == null) {
+                upstreamPermits.release();
+                return;
+            }
+            queued.decrementAndGet();
+
+            // Vencida en la cola: el permiso pasa a la siguiente
+            if (!pending.claimed.compareAndSet(false, true)) {
+                upstreamPermits.release();
+                continue;
+            }
+
+            start(pending.call).whenComplete((r, e) -> {
+                if (e != null) {
+                    pending.result.completeExceptionally(e);
+                } else {
+                    pending.result.complete(r);
+                }
+            });
+        }
+    }
+
+    public void cleanIdleClients() {
+        long now = System.currentTimeMillis();
+        clients.entrySet().removeIf(entry -> now - entry.getValue().getLastRefill() > IDLE_CLIENT_MS);
+    }
+
+    public String getStats() {
+        return String.format("Control de admisión: %d consultas/s por cliente (ráfaga %d), %d clientes activos, %d rechazadas\n"
+                        + "Upstream: %d/%d llamadas en curso, %d en cola, %d descartadas por sobrecarga\n",
+                (int) clientRate, clientBurst, clients.size(), rejectedClientRequests.get(),
+                upstreamConcurrency - upstreamPermits.availablePermits(), upstreamConcurrency,
+                queued.get(), shedUpstreamCalls.get());
+    }
+
+    private static String clientOf(Current current) {
+        if (current == null || current.con == null) {
+            return null;
+        }
+        try {
+            for (ConnectionInfo info = current.con.getInfo(); info != null; info = info.underlying) {
+                if (info instanceof IPConnectionInfo) {
+                    return ((IPConnectionInfo) info).remoteAddress;
+                }
+            }
+        } catch (com.zeroc.Ice.LocalException e) {
+            logger.debug("No se pudo identificar al cliente: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,241 @@
+package org.votaciones;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Checkpoint del cache del proxy en un archivo mapeado en memoria para reinicios en caliente.
+ * Formato: cabecera (magic, versión, fecha, CRC32 del cuerpo), entradas (clave, fecha, datos) y
+ * patrones de consulta (buckets de su ventana deslizante).
+ *
+ * Al leer se verifica el CRC antes de interpretar el cuerpo, y cada largo y cantidad se compara
+ * con los bytes que quedan: un archivo dañado se descarta sin reservar memoria por un largo falso.
+ */
+public class CacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    private static final int MAGIC = 0x50435253; // "PCRS"
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+    // Bytes mínimos de una entrada (clave vacía, fecha, datos vacíos) y de un patrón sin buckets
+    private static final int MIN_ENTRY_SIZE = 4 + 8 + 4;
+    private static final int MIN_PATTERN_SIZE = 4 + 4 + 4 + 4 + 4;
+
+    public static class Entry {
+        public final String key;
+        public final String data;
+        public final long timestamp;
+
+        public Entry(String key, String data, long timestamp) {
+            this.key = key;
+            this.data = data;
+            this.timestamp = timestamp;
+        }
+    }
+
+    public static class Pattern {
+        public final String key;
+        public final String locationType;
+        public final int locationId;
+        public final int totalQueries;
+        public final long[] buckets;
+
+        public Pattern(String key, String locationType, int locationId, int totalQueries, long[] buckets) {
+            this.key = key;
+            this.locationType = locationType;
+            this.locationId = locationId;
+            this.totalQueries = totalQueries;
+            this.buckets = buckets;
+        }
+    }
+
+    private final Path file;
+    private long createdAt;
+    private List<Entry> entries = new ArrayList<>();
+    private List<Pattern> patterns = new ArrayList<>();
+
+    public CacheSnapshot(Path file) {
+        this.file = file;
+    }
+
+    public long getCreatedAt() { return createdAt; }
+    public List<Entry> getEntries() { return entries; }
+    public List<Pattern> getPatterns() { return patterns; }
+
+    /**
+     * Escribe el snapshot en un archivo temporal mapeado y lo reemplaza atómicamente,
+     * de modo que un reinicio nunca encuentra un archivo a medio escribir.
+     */
+    public void write(List<Entry> entries, List<Pattern> patterns) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        long size = HEADER_SIZE + 4 + 4;
+
+        for (Entry entry : entries) {
+            byte[] key = entry.key.getBytes(StandardCharsets.UTF_8);
+            byte[] data = entry.data.getBytes(StandardCharsets.UTF_8);
+            encoded.add(key);
+            encoded.add(data);
+            size += 4 + key.length + 8 + 4 + data.length;
+        }
+        for (Pattern pattern : patterns) {
+            byte[] key = pattern.key.getBytes(StandardCharsets.UTF_8);
+            byte[] type = pattern.locationType.getBytes(StandardCharsets.UTF_8);
+            encoded.add(key);
+            encoded.add(type);
+            size += 4 + key.length + 4 + type.length + 4 + 4 + 4 + 8L * pattern.buckets.length;
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot demasiado grande: " + size + " bytes");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putLong(System.currentTimeMillis());
+            int crcPosition = buffer.position();
+            buffer.putInt(0);
+
+            int i = 0;
+            buffer.putInt(entries.size());
+            for (Entry entry : entries) {
+                putBytes(buffer, encoded.get(i++));
+                buffer.putLong(entry.timestamp);
+                putBytes(buffer, encoded.get(i++));
+            }
+
+            buffer.putInt(patterns.size());
+            for (Pattern pattern : patterns) {
+                putBytes(buffer, encoded.get(i++));
+                putBytes(buffer, encoded.get(i++));
+                buffer.putInt(pattern.locationId);
+                buffer.putInt(pattern.totalQueries);
+                buffer.putInt(pattern.buckets.length);
+                for (long bucket : pattern.buckets) {
+                    buffer.putLong(bucket);
+                }
+            }
+
+            buffer.putInt(crcPosition, bodyCrc(buffer, HEADER_SIZE));
+            buffer.force();
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Snapshot escrito en {}: {} entradas, {} patrones ({} bytes)",
+                file, entries.size(), patterns.size(), size);
+    }
+
+    /**
+     * Carga el snapshot si existe. Devuelve false si no hay archivo o si está corrupto.
+     */
+    public boolean read() {
+        if (!Files.exists(file)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                logger.warn("Snapshot {} con formato no reconocido, se ignora", file);
+                return false;
+            }
+            long loadedCreatedAt = buffer.getLong();
+            if (buffer.getInt() != bodyCrc(buffer, HEADER_SIZE)) {
+                logger.warn("Snapshot {} dañado (CRC distinto), se ignora", file);
+                return false;
+            }
+
+            int entryCount = getCount(buffer, MIN_ENTRY_SIZE);
+            List<Entry> loadedEntries = new ArrayList<>(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                String key = getString(buffer);
+                long timestamp = buffer.getLong();
+                String data = getString(buffer);
+                loadedEntries.add(new Entry(key, data, timestamp));
+            }
+
+            int patternCount = getCount(buffer, MIN_PATTERN_SIZE);
+            List<Pattern> loadedPatterns = new ArrayList<>(patternCount);
+            for (int i = 0; i < patternCount; i++) {
+                String key = getString(buffer);
+                String locationType = getString(buffer);
+                int locationId = buffer.getInt();
+                int totalQueries = buffer.getInt();
+                long[] buckets = new long[getCount(buffer, 8)];
+                for (int j = 0; j < buckets.length; j++) {
+                    buckets[j] = buffer.getLong();
+                }
+                loadedPatterns.add(new Pattern(key, locationType, locationId, totalQueries, buckets));
+            }
+
+            if (buffer.hasRemaining()) {
+                throw new IOException(buffer.remaining() + " bytes sobrantes al final");
+            }
+
+            this.createdAt = loadedCreatedAt;
+            this.entries = loadedEntries;
+            this.patterns = loadedPatterns;
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            logger.warn("No se pudo leer el snapshot {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void putBytes(MappedByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(MappedByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[getCount(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee una cantidad (o un largo) y verifica que sus elementos, de al menos {@code minSize} bytes
+     * cada uno, quepan en lo que queda del archivo.
+     */
+    private static int getCount(ByteBuffer buffer, int minSize) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / minSize) {
+            throw new IOException("cantidad inválida " + count + " con " + buffer.remaining() + " bytes restantes");
+        }
+        return count;
+    }
+
+    private static int bodyCrc(ByteBuffer buffer, int bodyStart) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(bodyStart).limit(buffer.capacity());
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
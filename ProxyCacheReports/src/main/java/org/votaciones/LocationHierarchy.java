@@ -0,0 +1,212 @@
+package org.votaciones;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Árbol departamento → municipio → puesto → mesa aprendido de los reportes de ciudadanos,
+ * con "calor" (consultas recientes) por nodo. Una consulta calienta su nodo y todos sus ancestros;
+ * la planificación reparte el calor de un padre entre sus hijos para predecir qué puestos y mesas
+ * vecinas se van a consultar y precargarlos dentro de un presupuesto por ciclo.
+ */
+public class LocationHierarchy {
+
+    public enum Level { DEPARTMENT, MUNICIPALITY, PUESTO, MESA }
+
+    private static final long HEAT_WINDOW_MS = 10 * 60 * 1000;
+    private static final long HEAT_BUCKET_MS = 10 * 1000;
+    private static final long PREFETCH_COOLDOWN_MS = 3 * 60 * 1000;
+
+    private static class Node {
+        private final Level level;
+        private final int id;
+        private volatile Node parent;
+        private final Set<Integer> children = ConcurrentHashMap.newKeySet();
+        private final SlidingWindowCounter heat = new SlidingWindowCounter(HEAT_WINDOW_MS, HEAT_BUCKET_MS);
+        private volatile int lastElectionId = 0;
+        private volatile long lastPrefetch = 0;
+
+        Node(Level level, int id) {
+            this.level = level;
+            this.id = id;
+        }
+    }
+
+    public static class PrefetchTask {
+        public final Level level;
+        public final int id;
+        public final int electionId;
+        public final double predictedHits;
+        public final int cost;
+
+        PrefetchTask(Level level, int id, int electionId, double predictedHits, int cost) {
+            this.level = level;
+            this.id = id;
+            this.electionId = electionId;
+            this.predictedHits = predictedHits;
+            this.cost = cost;
+        }
+    }
+
+    private final Map<Long, Node> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Aprende la rama de ubicación de un reporte de ciudadano y devuelve su mesa (o -1).
+     * Formato de ubicación: deptId-dept-munId-mun-puestoId-puesto-dir-consec-mesaId-mesaConsec
+     */
+    public int learnFromCitizenReport(String citizenReport) {
+        try {
+            int start = citizenReport.indexOf('#');
+            int end = start < 0 ? -1 : citizenReport.indexOf('#', start + 1);
+            if (end < 0) {
+                return -1;
+            }
+
+            String[] location = citizenReport.substring(start + 1, end).split("-");
+            if (location.length < 10) {
+                return -1;
+            }
+
+            int departmentId = Integer.parseInt(location[0]);
+            int municipalityId = Integer.parseInt(location[2]);
+            int puestoId = Integer.parseInt(location[4]);
+            int mesaId = Integer.parseInt(location[8]);
+
+            link(node(Level.DEPARTMENT, departmentId), node(Level.MUNICIPALITY, municipalityId));
+            link(node(Level.MUNICIPALITY, municipalityId), node(Level.PUESTO, puestoId));
+            link(node(Level.PUESTO, puestoId), node(Level.MESA, mesaId));
+            return mesaId;
+
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public void recordQuery(Level level, int id, int electionId, long now) {
+        for (Node current = node(level, id); current != null; current = current.parent) {
+            current.heat.increment(now);
+            current.lastElectionId = electionId;
+        }
+    }
+
+    public int getParentId(Level level, int id) {
+        Node current = nodes.get(key(level, id));
+        Node parent = current == null ? null : current.parent;
+        return parent == null ? -1 : parent.id;
+    }
+
+    public int getElectionId(Level level, int id) {
+        Node current = nodes.get(key(level, id));
+        return current == null ? 1 : electionFor(current);
+    }
+
+    public Set<Integer> getChildren(Level level, int id) {
+        Node current = nodes.get(key(level, id));
+        return current == null ? Collections.emptySet() : Collections.unmodifiableSet(current.children);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Propone precargas de puestos y mesas ordenadas por consultas esperadas por unidad de costo,
+     * hasta agotar el presupuesto. Una mesa cuesta 1 llamada; un puesto completo, una por mesa conocida.
+     * Un puesto elegido después de algunas de sus mesas las reemplaza y recupera su costo.
+     */
+    public List<PrefetchTask> planPrefetch(long now, long burstWindowMs, double minPredictedHits,
+                                           int budget, Predicate<PrefetchTask> isWarm) {
+        List<PrefetchTask> candidates = new ArrayList<>();
+
+        for (Node node : nodes.values()) {
+            if (node.level != Level.PUESTO && node.level != Level.MESA) {
+                continue;
+            }
+            if (now - node.lastPrefetch < PREFETCH_COOLDOWN_MS) {
+                continue;
+            }
+
+            double predicted = node.heat.count(now, burstWindowMs);
+            Node parent = node.parent;
+            if (parent != null) {
+                // Calor del padre repartido entre sus hijos conocidos: las mesas vecinas de una mesa
+                // caliente heredan parte de su demanda a través del puesto.
+                predicted += (double) parent.heat.count(now, burstWindowMs) / Math.max(1, parent.children.size());
+            }
+            if (predicted < minPredictedHits) {
+                continue;
+            }
+
+            int cost = node.level == Level.PUESTO ? Math.max(1, node.children.size()) : 1;
+            PrefetchTask task = new PrefetchTask(node.level, node.id, electionFor(node), predicted, cost);
+            if (!isWarm.test(task)) {
+                candidates.add(task);
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble((PrefetchTask t) -> t.predictedHits / t.cost).reversed());
+
+        List<PrefetchTask> plan = new ArrayList<>();
+        Set<Integer> plannedPuestos = new HashSet<>();
+        Map<Integer, List<PrefetchTask>> plannedMesasByPuesto = new HashMap<>();
+        int remaining = budget;
+        for (PrefetchTask task : candidates) {
+            if (task.level == Level.MESA) {
+                int puestoId = getParentId(Level.MESA, task.id);
+                // Las mesas de un puesto que ya se va a precargar completo no se piden por separado
+                if (plannedPuestos.contains(puestoId) || task.cost > remaining) {
+                    continue;
+                }
+                plannedMesasByPuesto.computeIfAbsent(puestoId, k -> new ArrayList<>()).add(task);
+            } else {
+                // Las mesas de este puesto que ya se eligieron quedan cubiertas por él: salen del plan
+                List<PrefetchTask> covered = plannedMesasByPuesto.getOrDefault(task.id, Collections.emptyList());
+                int refund = 0;
+                for (PrefetchTask mesa : covered) {
+                    refund += mesa.cost;
+                }
+                if (task.cost > remaining + refund) {
+                    continue;
+                }
+                plan.removeAll(covered);
+                remaining += refund;
+                plannedPuestos.add(task.id);
+            }
+            plan.add(task);
+            remaining -= task.cost;
+            nodes.get(key(task.level, task.id)).lastPrefetch = now;
+        }
+        return plan;
+    }
+
+    // Una mesa nunca consultada hereda la elección de su ancestro más cercano con consultas
+    private static int electionFor(Node node) {
+        for (Node current = node; current != null; current = current.parent) {
+            if (current.lastElectionId > 0) {
+                return current.lastElectionId;
+            }
+        }
+        return 1;
+    }
+
+    private Node node(Level level, int id) {
+        return nodes.computeIfAbsent(key(level, id), k -> new Node(level, id));
+    }
+
+    private void link(Node parent, Node child) {
+        child.parent = parent;
+        parent.children.add(child.id);
+    }
+
+    private static long key(Level level, int id) {
+        return ((long) level.ordinal() << 32) | (id & 0xffffffffL);
+    }
+}
@@ -1,18 +1,26 @@
 package org.votaciones;
 
+import ReportsSystem.EligibilityFilter;
+import ReportsSystem.ReportsException;
 import ReportsSystem.ReportsService;
 import ReportsSystem.ReportsServicePrx;
 import com.zeroc.Ice.Current;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class ProxyCacheReports implements ReportsService {
@@ -22,8 +30,8 @@ public class ProxyCacheReports implements ReportsService {
     private final ReportsServicePrx reportsServer;
 
     private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
-    private static final long CACHE_TTL_MS = 5 * 60 * 1000; 
-    private static final int CACHE_TTL_MINUTES = 5;
+    // TTLs según el nivel del proxy (central o regional)
+    private final TierPolicy tierPolicy;
 
 
     private final Map<String, QueryPattern> queryPatterns = new ConcurrentHashMap<>();
@@ -34,6 +42,48 @@ public class ProxyCacheReports implements ReportsService {
     private final AtomicLong cacheHits = new AtomicLong(0);
     private final AtomicLong cacheMisses = new AtomicLong(0);
 
+    // Single-flight: una sola consulta al servidor por clave, el resto se encadena a ese futuro
+    private final Map<String, CompletableFuture<String>> inFlightLoads = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedRequests = new AtomicLong(0);
+    private final AtomicLong backgroundRefreshes = new AtomicLong(0);
+
+    private static final long UPSTREAM_TIMEOUT_MS = 15 * 1000;
+
+    // Invalidación por notificaciones de votos: election_* y geographic_* se refrescan cuando llegan votos
+    private final Map<Integer, Long> resultsChangedAt = new ConcurrentHashMap<>();
+    private final AtomicLong pushInvalidations = new AtomicLong(0);
+    private volatile boolean pushInvalidationEnabled = false;
+    private static final long RESULTS_MIN_REFRESH_MS = 5 * 1000;
+
+    // Snapshot para reinicios en caliente: entradas calientes y patrones de consulta
+    private volatile CacheSnapshot snapshot;
+    private final AtomicLong restoredEntries = new AtomicLong(0);
+
+    // Elegibilidad: filtro de Bloom del servidor + cache de respuestas (las negativas con TTL corto)
+    private volatile EligibilityFilter eligibilityFilter;
+    private final AtomicLong filterRejections = new AtomicLong(0);
+    private static final long ELIGIBILITY_NEGATIVE_TTL_MS = 30 * 1000;
+    private static final long READY_NEGATIVE_TTL_MS = 10 * 1000;
+    private static final int ELIGIBILITY_FILTER_REFRESH_MINUTES = 10;
+
+    // Control de admisión: límite por cliente y concurrencia acotada hacia el upstream
+    private volatile AdmissionController admission = AdmissionController.defaults();
+    // Códigos de ReportsException para las operaciones booleanas, que no pueden responder "ERROR-..."
+    private static final int ERROR_OVERLOADED = 503;
+    private static final int ERROR_UNAVAILABLE = 502;
+
+    // Cluster de proxies: cada clave se cachea solo en su nodo dueño
+    private volatile ProxyCluster cluster;
+    private final AtomicLong peerFetches = new AtomicLong(0);
+    private final AtomicLong peerFallbacks = new AtomicLong(0);
+    private static final long PEER_TIMEOUT_MS = 3 * 1000;
+    private static final int SNAPSHOT_INTERVAL_SECONDS = 60;
+    private static final int SNAPSHOT_MAX_ENTRIES = 20000;
+    private static final long SNAPSHOT_MAX_AGE_MS = 30 * 60 * 1000;
+
+    // Documentos por llamada a getCitizenReportsBatch durante la precarga
+    private static final int CITIZEN_BATCH_SIZE = 500;
+
     private static final long ANALYSIS_WINDOW_MS = 10 * 60 * 1000; 
     private static final long SHORT_BURST_WINDOW_MS = 2 * 60 * 1000; 
 
@@ -41,29 +91,66 @@ public class ProxyCacheReports implements ReportsService {
     private static final int MUNICIPALITY_THRESHOLD = 5;
     private static final int DEPARTMENT_THRESHOLD = 8;   
 
+    // Prefetch jerárquico: calor por departamento → municipio → puesto → mesa
+    private final LocationHierarchy hierarchy = new LocationHierarchy();
+    private final AtomicLong hierarchicalPrefetches = new AtomicLong(0);
+    private static final int PREFETCH_BUDGET_PER_CYCLE = 40;
+    private static final double PREFETCH_MIN_PREDICTED_HITS = 1.0;
+
     private static final double HIGH_INTENSITY = 2.0;    
     private static final double MEDIUM_INTENSITY = 1.0;  
 
+    // Diccionario de segmentos compartido por todas las entradas (ubicaciones y elecciones repetidas)
+    private static final ReportCodec codec = new ReportCodec();
+
     private static class CacheEntry {
-        private final String data;
+        private final Object data;
+        private final int rawLength;
         private final long timestamp;
+        private final boolean restored;
+        private volatile int mesaId = UNKNOWN_MESA;
+
+        static final int UNKNOWN_MESA = -2;
 
         public CacheEntry(String data, long timestamp) {
-            this.data = data;
+            this(data, timestamp, false);
+        }
+
+        public CacheEntry(String data, long timestamp, boolean restored) {
+            this.data = codec.encode(data);
+            this.rawLength = data.length();
             this.timestamp = timestamp;
+            this.restored = restored;
         }
 
-        public String getData() { return data; }
+        public String getData() { return codec.decode(data); }
+        public long getStoredSize() { return codec.sizeOf(data); }
+        public int getRawLength() { return rawLength; }
         public long getTimestamp() { return timestamp; }
 
+        // Entradas cargadas desde el snapshot: se sirven y se revalidan en el primer acceso
+        public boolean isRestored() { return restored; }
+
+        // Mesa del ciudadano, extraída una sola vez del reporte
+        public int getMesaId() { return mesaId; }
+        public void setMesaId(int mesaId) { this.mesaId = mesaId; }
+
         public boolean isExpired(long ttlMs) {
             return System.currentTimeMillis() - timestamp > ttlMs;
         }
+
+        // Entradas con más del 80% del TTL consumido se sirven y se refrescan en segundo plano
+        public boolean isNearExpiry(long ttlMs) {
+            return System.currentTimeMillis() - timestamp > ttlMs * 4 / 5;
+        }
     }
 
+    // Ventana deslizante por patrón: buckets de 10s en un anillo, sin locks ni asignaciones por consulta
+    private static final long PATTERN_BUCKET_MS = 10 * 1000;
+
     private static class QueryPattern {
-        private final Queue<Long> timestamps = new LinkedList<>();
-        private final AtomicInteger totalQueries = new AtomicInteger(0);
+        private final SlidingWindowCounter window = new SlidingWindowCounter(ANALYSIS_WINDOW_MS, PATTERN_BUCKET_MS);
+        private final LongAdder totalQueries = new LongAdder();
         private final String locationType;
         private final int locationId;
         private volatile long lastPredictiveLoad = 0;
@@ -74,35 +161,17 @@ public class ProxyCacheReports implements ReportsService {
             this.locationId = locationId;
         }
 
-        public synchronized void addQuery() {
-            long now = System.currentTimeMillis();
-            timestamps.offer(now);
-            totalQueries.incrementAndGet();
-
-            while (!timestamps.isEmpty() &&
-                    (now - timestamps.peek()) > ANALYSIS_WINDOW_MS) {
-                timestamps.poll();
-            }
+        public void addQuery() {
+            window.increment(System.currentTimeMillis());
+            totalQueries.increment();
         }
 
-        public synchronized int getRecentQueries() {
-            long now = System.currentTimeMillis();
-            while (!timestamps.isEmpty() &&
-                    (now - timestamps.peek()) > ANALYSIS_WINDOW_MS) {
-                timestamps.poll();
-            }
-            return timestamps.size();
+        public int getRecentQueries() {
+            return window.count(System.currentTimeMillis(), ANALYSIS_WINDOW_MS);
         }
 
-        public synchronized int getBurstQueries() {
-            long now = System.currentTimeMillis();
-            int burstCount = 0;
-            for (Long timestamp : timestamps) {
-                if ((now - timestamp) <= SHORT_BURST_WINDOW_MS) {
-                    burstCount++;
-                }
-            }
-            return burstCount;
+        public int getBurstQueries() {
+            return window.count(System.currentTimeMillis(), SHORT_BURST_WINDOW_MS);
         }
 
         public double getIntensity() {
@@ -137,6 +206,15 @@ public class ProxyCacheReports implements ReportsService {
             }
         }
 
+        public long[] getBuckets() {
+            return window.getBuckets();
+        }
+
+        public void restore(long[] savedBuckets, int savedTotal) {
+            window.restore(savedBuckets);
+            totalQueries.add(savedTotal);
+        }
+
         public void markPredictiveLoad() {
             this.lastPredictiveLoad = System.currentTimeMillis();
             this.isHotspot = true;
@@ -145,132 +223,286 @@ public class ProxyCacheReports implements ReportsService {
         // Getters
         public String getLocationType() { return locationType; }
         public int getLocationId() { return locationId; }
-        public int getTotalQueries() { return totalQueries.get(); }
+        public int getTotalQueries() { return totalQueries.intValue(); }
         public boolean isHotspot() { return isHotspot; }
     }
 
     public ProxyCacheReports(ReportsServicePrx reportsServer) {
+        this(reportsServer, TierPolicy.central());
+    }
+
+    /**
+     * El upstream puede ser el servidor de reportes o el proxy de un nivel superior:
+     * los misses de varios proxies regionales se agrupan en el single-flight del proxy central.
+     */
+    public ProxyCacheReports(ReportsServicePrx reportsServer, TierPolicy tierPolicy) {
         this.reportsServer = reportsServer;
-        logger.info(" ProxyCacheReports INTELIGENTE inicializado");
+        this.tierPolicy = tierPolicy;
+        logger.info(" ProxyCacheReports INTELIGENTE inicializado - nivel {}", tierPolicy);
 
         smartCacheScheduler.scheduleAtFixedRate(this::analyzeAndPreload, 30, 30, TimeUnit.SECONDS);
 
         smartCacheScheduler.scheduleAtFixedRate(this::cleanOldPatterns, 5, 5, TimeUnit.MINUTES);
 
+        smartCacheScheduler.scheduleAtFixedRate(() -> admission.cleanIdleClients(), 5, 5, TimeUnit.MINUTES);
+
+        smartCacheScheduler.scheduleAtFixedRate(this::refreshEligibilityFilter,
+                0, ELIGIBILITY_FILTER_REFRESH_MINUTES, TimeUnit.MINUTES);
+
         logger.info("Sistema de cache inteligente ACTIVO - Análisis cada 30s");
     }
 
 
     @Override
-    public String getCitizenReports(String documento, int electionId, Current current) {
-        totalQueries.incrementAndGet();
+    public CompletionStage<String> getCitizenReportsAsync(String documento, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(overloaded());
+        }
 
-        analyzeCitizenQuery(documento, electionId);
+        totalQueries.incrementAndGet();
 
         String cacheKey = generateCacheKey("citizen", documento, String.valueOf(electionId));
-        return getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando citizen reports para documento: {}", documento);
-            return reportsServer.getCitizenReports(documento, electionId);
-        });
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.getCitizenReportsAsync(documento, electionId, ctx),
+                () -> getFromCacheWithStats(cacheKey, () -> {
+                    logger.debug("Consultando citizen reports para documento: {}", documento);
+                    return reportsServer.getCitizenReportsAsync(documento, electionId);
+                })).whenComplete((report, e) -> analyzeCitizenQuery(cacheKey, electionId));
     }
 
     @Override
-    public String[] searchCitizenReports(String nombre, String apellido, int electionId, int limit, Current current) {
+    public CompletionStage<String[]> searchCitizenReportsAsync(String nombre, String apellido, int electionId, int limit, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         totalQueries.incrementAndGet();
 
         String cacheKey = generateCacheKey("search", nombre + "_" + apellido, electionId + "_" + limit);
-        String cachedResult = getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando search reports para: {} {}", nombre, apellido);
-            String[] results = reportsServer.searchCitizenReports(nombre, apellido, electionId, limit);
-            return String.join("###", results);
-        });
-
-        if (cachedResult.startsWith("ERROR-")) {
-            return new String[]{cachedResult};
-        }
-        return cachedResult.isEmpty() ? new String[0] : cachedResult.split("###");
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.searchCitizenReportsAsync(nombre, apellido, electionId, limit, ctx)
+                        .thenApply(results -> String.join("###", results)),
+                () -> getFromCacheWithStats(cacheKey, () -> {
+                    logger.debug("Consultando search reports para: {} {}", nombre, apellido);
+                    return reportsServer.searchCitizenReportsAsync(nombre, apellido, electionId, limit)
+                            .thenApply(results -> String.join("###", results));
+                })).thenApply(this::splitCachedArray);
     }
 
     @Override
-    public String[] getMesaCitizenReports(int mesaId, int electionId, Current current) {
+    public CompletionStage<String[]> getMesaCitizenReportsAsync(int mesaId, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         totalQueries.incrementAndGet();
 
         analyzeLocationQuery("mesa", mesaId, electionId);
 
         String cacheKey = generateCacheKey("mesa", String.valueOf(mesaId), String.valueOf(electionId));
-        String cachedResult = getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando mesa citizen reports para mesa: {}", mesaId);
-            String[] results = reportsServer.getMesaCitizenReports(mesaId, electionId);
-            return String.join("###", results);
-        });
-
-        if (cachedResult.startsWith("ERROR-")) {
-            return new String[]{cachedResult};
-        }
-        return cachedResult.isEmpty() ? new String[0] : cachedResult.split("###");
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.getMesaCitizenReportsAsync(mesaId, electionId, ctx)
+                        .thenApply(results -> String.join("###", results)),
+                () -> getFromCacheWithStats(cacheKey, () -> {
+                    logger.debug("Consultando mesa citizen reports para mesa: {}", mesaId);
+                    return reportsServer.getMesaCitizenReportsAsync(mesaId, electionId)
+                            .thenApply(results -> String.join("###", results));
+                })).thenApply(this::splitCachedArray);
     }
 
     @Override
-    public boolean validateCitizenEligibility(String documento, Current current) {
-        try {
-            logger.debug("Validando elegibilidad para documento: {}", documento);
-            return reportsServer.validateCitizenEligibility(documento);
-        } catch (Exception e) {
-            logger.error("Error validando elegibilidad para {}: {}", documento, e.getMessage());
-            return false;
+    public CompletionStage<Boolean> validateCitizenEligibilityAsync(String documento, Current current) {
+        if (!admission.admit(current)) {
+            return overloadedFailure();
         }
+
+        logger.debug("Validando elegibilidad para documento: {}", documento);
+
+        // El filtro no tiene falsos negativos: si no contiene el documento, no está habilitado
+        EligibilityFilter filter = eligibilityFilter;
+        if (filter != null && !filter.mightContain(documento)) {
+            filterRejections.incrementAndGet();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String cacheKey = generateCacheKey("eligible", documento, "");
+        return getFlagFromCache(cacheKey, ELIGIBILITY_NEGATIVE_TTL_MS,
+                () -> reportsServer.validateCitizenEligibilityAsync(documento));
     }
 
     @Override
-    public String getElectionReports(int electionId, Current current) {
+    public CompletionStage<String> getElectionReportsAsync(int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(overloaded());
+        }
+
         totalQueries.incrementAndGet();
 
         String cacheKey = generateCacheKey("election", String.valueOf(electionId), "");
-        return getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando election reports para elección: {}", electionId);
-            return reportsServer.getElectionReports(electionId);
-        });
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.getElectionReportsAsync(electionId, ctx),
+                () -> getResultsFromCache(cacheKey, electionId, () -> {
+                    logger.debug("Consultando election reports para elección: {}", electionId);
+                    return reportsServer.getElectionReportsAsync(electionId);
+                }));
     }
 
     @Override
-    public String[] getAvailableElections(Current current) {
+    public CompletionStage<String[]> getAvailableElectionsAsync(Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         totalQueries.incrementAndGet();
 
         String cacheKey = "available_elections";
-        String cachedResult = getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando elecciones disponibles");
-            String[] results = reportsServer.getAvailableElections();
-            return String.join("###", results);
-        });
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.getAvailableElectionsAsync(ctx)
+                        .thenApply(results -> String.join("###", results)),
+                () -> getFromCacheWithStats(cacheKey, () -> {
+                    logger.debug("Consultando elecciones disponibles");
+                    return reportsServer.getAvailableElectionsAsync()
+                            .thenApply(results -> String.join("###", results));
+                })).thenApply(this::splitCachedArray);
+    }
 
-        if (cachedResult.startsWith("ERROR-")) {
-            return new String[]{cachedResult};
+    @Override
+    public CompletionStage<Boolean> areReportsReadyAsync(int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return overloadedFailure();
         }
-        return cachedResult.isEmpty() ? new String[0] : cachedResult.split("###");
+
+        logger.debug("Verificando si reportes están listos para elección: {}", electionId);
+
+        String cacheKey = generateCacheKey("ready", String.valueOf(electionId), "");
+        return getFlagFromCache(cacheKey, READY_NEGATIVE_TTL_MS,
+                () -> reportsServer.areReportsReadyAsync(electionId));
     }
 
     @Override
-    public boolean areReportsReady(int electionId, Current current) {
-        try {
-            logger.debug("Verificando si reportes están listos para elección: {}", electionId);
-            return reportsServer.areReportsReady(electionId);
-        } catch (Exception e) {
-            logger.error("Error verificando reportes para elección {}: {}", electionId, e.getMessage());
-            return false;
+    public CompletionStage<byte[]> getEligibilityFilterAsync(Current current) {
+        // Un proxy regional recibe el filtro del proxy de nivel superior
+        EligibilityFilter filter = eligibilityFilter;
+        if (filter != null) {
+            return CompletableFuture.completedFuture(filter.toBytes());
         }
+        return reportsServer.getEligibilityFilterAsync().exceptionally(e -> new byte[0]);
     }
 
     @Override
-    public String getGeographicReports(int locationId, String locationType, int electionId, Current current) {
+    public CompletionStage<String> getGeographicReportsAsync(int locationId, String locationType, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(overloaded());
+        }
+
         totalQueries.incrementAndGet();
 
         analyzeLocationQuery(locationType, locationId, electionId);
 
         String cacheKey = generateCacheKey("geographic", locationType + "_" + locationId, String.valueOf(electionId));
-        return getFromCacheWithStats(cacheKey, () -> {
-            logger.debug("Consultando geographic reports para {} {}", locationType, locationId);
-            return reportsServer.getGeographicReports(locationId, locationType, electionId);
-        });
+        return getFromOwner(cacheKey, current,
+                (owner, ctx) -> owner.getGeographicReportsAsync(locationId, locationType, electionId, ctx),
+                () -> getResultsFromCache(cacheKey, electionId, () -> {
+                    logger.debug("Consultando geographic reports para {} {}", locationType, locationId);
+                    return reportsServer.getGeographicReportsAsync(locationId, locationType, electionId);
+                }));
+    }
+
+    @Override
+    public CompletionStage<String[]> getCitizenReportsBatchAsync(String[] documentos, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
+        totalQueries.incrementAndGet();
+
+        String[] reports = new String[documentos.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < documentos.length; i++) {
+            CacheEntry entry = cache.get(generateCacheKey("citizen", documentos[i], String.valueOf(electionId)));
+            if (entry != null && !entry.isExpired(tierPolicy.getDataTtlMs())) {
+                reports[i] = entry.getData();
+                cacheHits.incrementAndGet();
+            } else {
+                missing.add(i);
+                cacheMisses.incrementAndGet();
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(reports);
+        }
+
+        String[] missingDocuments = missing.stream().map(i -> documentos[i]).toArray(String[]::new);
+        logger.debug("Consultando lote de {} ciudadanos ({} en cache)", missingDocuments.length, documentos.length - missingDocuments.length);
+
+        return admission.submitUpstream(() -> reportsServer.getCitizenReportsBatchAsync(missingDocuments, electionId))
+                .thenCompose(fetched -> {
+                    if (fetched.length != missingDocuments.length) {
+                        if (fetched.length == 1 && fetched[0].startsWith("ERROR")) {
+                            // El servidor rechazó el lote completo: el mismo error para cada documento
+                            for (int i : missing) {
+                                reports[i] = fetched[0];
+                            }
+                            return CompletableFuture.completedFuture(reports);
+                        }
+                        logger.warn("Lote de ciudadanos desalineado ({} respuestas para {} documentos), consultando uno por uno",
+                                fetched.length, missingDocuments.length);
+                        return loadCitizensOneByOne(missingDocuments, missing, electionId, reports);
+                    }
+
+                    for (int j = 0; j < missingDocuments.length; j++) {
+                        String report = fetched[j];
+                        reports[missing.get(j)] = report;
+                        if (!report.startsWith("ERROR")) {
+                            putCitizenReport(missingDocuments[j], electionId, report, System.currentTimeMillis());
+                        }
+                    }
+                    return CompletableFuture.completedFuture(reports);
+                })
+                .exceptionally(e -> {
+                    logger.error("Error consultando lote de ciudadanos: {}", unwrap(e).getMessage());
+                    String error = "ERROR-No se pudo obtener el reporte-" + System.currentTimeMillis();
+                    for (int i : missing) {
+                        reports[i] = error;
+                    }
+                    return reports;
+                });
+    }
+
+    private CompletableFuture<String[]> loadCitizensOneByOne(String[] documents, List<Integer> positions,
+                                                             int electionId, String[] reports) {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[documents.length];
+        for (int j = 0; j < documents.length; j++) {
+            String documento = documents[j];
+            int position = positions.get(j);
+            String cacheKey = generateCacheKey("citizen", documento, String.valueOf(electionId));
+            loads[j] = getFromCacheWithStats(cacheKey, () -> reportsServer.getCitizenReportsAsync(documento, electionId))
+                    .thenAccept(report -> reports[position] = report);
+        }
+        return CompletableFuture.allOf(loads).thenApply(v -> reports);
+    }
+
+    @Override
+    public CompletionStage<String[]> getLocationCitizenReportsAsync(int locationId, String locationType, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
+        totalQueries.incrementAndGet();
+
+        analyzeLocationQuery(locationType, locationId, electionId);
+
+        logger.debug("Consultando reportes de ciudadanos para {} {}", locationType, locationId);
+        return admission.submitUpstream(() -> reportsServer.getLocationCitizenReportsAsync(locationId, locationType, electionId))
+                .thenApply(reports -> {
+                    cacheCitizenReports(reports, electionId);
+                    return reports;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error consultando reportes de {} {}: {}", locationType, locationId, unwrap(e).getMessage());
+                    return new String[]{"ERROR-No se pudo obtener el reporte-" + System.currentTimeMillis()};
+                });
     }
 
     public void preloadReports(int electionId, Current current) {
@@ -324,13 +556,31 @@ public class ProxyCacheReports implements ReportsService {
         stats.append(" ========== ESTADÍSTICAS CACHE INTELIGENTE ==========\n");
 
         stats.append(String.format("Total entradas en cache: %d\n", cache.size()));
-        stats.append(String.format("TTL configurado: %d minutos\n", CACHE_TTL_MINUTES));
+        stats.append(String.format("TTL configurado: %s\n", tierPolicy));
 
         stats.append("\nSistema Inteligente:\n");
         stats.append(String.format("Total consultas: %d\n", totalQueries.get()));
         stats.append(String.format("Precarga predictiva: %d\n", predictiveLoads.get()));
+        stats.append(String.format("Prefetch jerárquico: %d (%d ubicaciones conocidas)\n",
+                hierarchicalPrefetches.get(), hierarchy.size()));
         stats.append(String.format("Cache hits: %d\n", cacheHits.get()));
         stats.append(String.format("Cache misses: %d\n", cacheMisses.get()));
+        stats.append(String.format("Consultas coalescidas: %d\n", coalescedRequests.get()));
+        stats.append(String.format("Refrescos en segundo plano: %d\n", backgroundRefreshes.get()));
+        stats.append(String.format("Invalidaciones por votos: %d (%s)\n", pushInvalidations.get(),
+                pushInvalidationEnabled ? "TTL resultados " + (tierPolicy.getResultsPushTtlMs() / 60000) + " min" : "inactivas"));
+        stats.append(String.format("Entradas restauradas de snapshot: %d\n", restoredEntries.get()));
+        stats.append(admission.getStats());
+        EligibilityFilter filter = eligibilityFilter;
+        stats.append(filter != null
+                ? String.format("Filtro de elegibilidad: %d documentos, %d rechazos sin consultar al servidor\n",
+                        filter.getEntries(), filterRejections.get())
+                : "Filtro de elegibilidad: no disponible\n");
+        ProxyCluster activeCluster = cluster;
+        if (activeCluster != null) {
+            stats.append(String.format("Cluster: nodo %s de %d, consultas a proxies dueños: %d (fallbacks: %d)\n",
+                    activeCluster.getSelf(), activeCluster.size(), peerFetches.get(), peerFallbacks.get()));
+        }
 
         long totalCacheRequests = cacheHits.get() + cacheMisses.get();
         if (totalCacheRequests > 0) {
@@ -340,19 +590,30 @@ public class ProxyCacheReports implements ReportsService {
 
         stats.append(String.format("\nPatrones de consulta activos: %d\n", queryPatterns.size()));
 
-        List<QueryPattern> topHotspots = queryPatterns.values().stream()
-                .filter(p -> p.getRecentQueries() > 0)
-                .sorted((a, b) -> Integer.compare(b.getRecentQueries(), a.getRecentQueries()))
-                .limit(5)
-                .collect(Collectors.toList()); 
+        // Top-5 con un min-heap acotado: cada patrón se cuenta una sola vez
+        PriorityQueue<Map.Entry<QueryPattern, Integer>> topHeap =
+                new PriorityQueue<>(Comparator.comparingInt(Map.Entry::getValue));
+        for (QueryPattern pattern : queryPatterns.values()) {
+            int recent = pattern.getRecentQueries();
+            if (recent > 0) {
+                topHeap.offer(new AbstractMap.SimpleEntry<>(pattern, recent));
+                if (topHeap.size() > 5) {
+                    topHeap.poll();
+                }
+            }
+        }
+
+        List<Map.Entry<QueryPattern, Integer>> topHotspots = new ArrayList<>(topHeap);
+        topHotspots.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
 
         if (!topHotspots.isEmpty()) {
             stats.append("\nTop Hotspots:\n");
             for (int i = 0; i < topHotspots.size(); i++) {
-                QueryPattern pattern = topHotspots.get(i);
+                QueryPattern pattern = topHotspots.get(i).getKey();
+                int recent = topHotspots.get(i).getValue();
                 stats.append(String.format("   %d. %s %d: %d consultas (%.1f/min)%s\n",
                         i + 1, pattern.getLocationType(), pattern.getLocationId(),
-                        pattern.getRecentQueries(), pattern.getIntensity(),
+                        recent, recent / (ANALYSIS_WINDOW_MS / 60000.0),
                         pattern.isHotspot() ? " " : ""));
             }
         }
@@ -363,7 +624,7 @@ public class ProxyCacheReports implements ReportsService {
         for (Map.Entry<String, CacheEntry> entry : cache.entrySet()) {
             String key = entry.getKey();
             String type = key.split("_")[0];
-            long size = entry.getValue().getData().length();
+            long size = entry.getValue().getStoredSize();
 
             typeCount.merge(type, 1, Integer::sum);
             typeSize.merge(type, size, Long::sum);
@@ -379,90 +640,126 @@ public class ProxyCacheReports implements ReportsService {
                     type, count, size / 1024.0));
         }
 
-        long totalSize = cache.values().stream().mapToLong(e -> e.getData().length()).sum();
-        stats.append(String.format("\nMemoria total utilizada: %.2f MB\n", totalSize / (1024.0 * 1024.0)));
+        long totalSize = cache.values().stream().mapToLong(CacheEntry::getStoredSize).sum() + codec.getDictionaryChars();
+        long rawSize = cache.values().stream().mapToLong(CacheEntry::getRawLength).sum();
+        stats.append(String.format("\nMemoria total utilizada: %.2f MB (sin compactar: %.2f MB)\n",
+                totalSize / (1024.0 * 1024.0), rawSize / (1024.0 * 1024.0)));
+        stats.append(String.format("Segmentos compartidos: %d (%.1f KB)\n",
+                codec.getDictionarySize(), codec.getDictionaryChars() / 1024.0));
 
         return stats.toString();
     }
 
 
     @Override
-    public String[] getDepartmentCitizenDocuments(int departmentId, int electionId, Current current) {
+    public CompletionStage<String[]> getDepartmentCitizenDocumentsAsync(int departmentId, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         analyzeLocationQuery("department", departmentId, electionId);
 
         logger.debug("Proxy: getDepartmentCitizenDocuments para departamento {} elección {}", departmentId, electionId);
 
-        try {
-            String[] results = reportsServer.getDepartmentCitizenDocuments(departmentId, electionId);
-            logger.info("Obtenidos {} documentos de ciudadanos para departamento {}", results.length, departmentId);
-            return results;
-        } catch (Exception e) {
-            logger.error("Error obteniendo documentos de departamento {}: {}", departmentId, e.getMessage());
-            return new String[]{"ERROR-Error obteniendo documentos de departamento: " + e.getMessage()};
-        }
+        return admission.submitUpstream(() -> reportsServer.getDepartmentCitizenDocumentsAsync(departmentId, electionId))
+                .thenApply(results -> {
+                    logger.info("Obtenidos {} documentos de ciudadanos para departamento {}", results.length, departmentId);
+                    return results;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error obteniendo documentos de departamento {}: {}", departmentId, unwrap(e).getMessage());
+                    return new String[]{"ERROR-Error obteniendo documentos de departamento: " + unwrap(e).getMessage()};
+                });
     }
 
     @Override
-    public String[] getMunicipalityCitizenDocuments(int municipalityId, int electionId, Current current) {
+    public CompletionStage<String[]> getMunicipalityCitizenDocumentsAsync(int municipalityId, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         analyzeLocationQuery("municipality", municipalityId, electionId);
 
         logger.debug("Proxy: getMunicipalityCitizenDocuments para municipio {} elección {}", municipalityId, electionId);
 
-        try {
-            String[] results = reportsServer.getMunicipalityCitizenDocuments(municipalityId, electionId);
-            logger.info("Obtenidos {} documentos de ciudadanos para municipio {}", results.length, municipalityId);
-            return results;
-        } catch (Exception e) {
-            logger.error("Error obteniendo documentos de municipio {}: {}", municipalityId, e.getMessage());
-            return new String[]{"ERROR-Error obteniendo documentos de municipio: " + e.getMessage()};
-        }
+        return admission.submitUpstream(() -> reportsServer.getMunicipalityCitizenDocumentsAsync(municipalityId, electionId))
+                .thenApply(results -> {
+                    logger.info("Obtenidos {} documentos de ciudadanos para municipio {}", results.length, municipalityId);
+                    return results;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error obteniendo documentos de municipio {}: {}", municipalityId, unwrap(e).getMessage());
+                    return new String[]{"ERROR-Error obteniendo documentos de municipio: " + unwrap(e).getMessage()};
+                });
     }
 
     @Override
-    public String[] getPuestoCitizenDocuments(int puestoId, int electionId, Current current) {
+    public CompletionStage<String[]> getPuestoCitizenDocumentsAsync(int puestoId, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         analyzeLocationQuery("puesto", puestoId, electionId);
 
         logger.debug("Proxy: getPuestoCitizenDocuments para puesto {} elección {}", puestoId, electionId);
 
-        try {
-            String[] results = reportsServer.getPuestoCitizenDocuments(puestoId, electionId);
-            logger.info("Obtenidos {} documentos de ciudadanos para puesto {}", results.length, puestoId);
-            return results;
-        } catch (Exception e) {
-            logger.error("Error obteniendo documentos de puesto {}: {}", puestoId, e.getMessage());
-            return new String[]{"ERROR-Error obteniendo documentos de puesto: " + e.getMessage()};
-        }
+        return admission.submitUpstream(() -> reportsServer.getPuestoCitizenDocumentsAsync(puestoId, electionId))
+                .thenApply(results -> {
+                    logger.info("Obtenidos {} documentos de ciudadanos para puesto {}", results.length, puestoId);
+                    return results;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error obteniendo documentos de puesto {}: {}", puestoId, unwrap(e).getMessage());
+                    return new String[]{"ERROR-Error obteniendo documentos de puesto: " + unwrap(e).getMessage()};
+                });
     }
 
     @Override
-    public String[] getMesaCitizenDocuments(int mesaId, int electionId, Current current) {
+    public CompletionStage<String[]> getMesaCitizenDocumentsAsync(int mesaId, int electionId, Current current) {
+        if (!admission.admit(current)) {
+            return CompletableFuture.completedFuture(new String[]{overloaded()});
+        }
+
         analyzeLocationQuery("mesa", mesaId, electionId);
 
         logger.debug("Proxy: getMesaCitizenDocuments para mesa {} elección {}", mesaId, electionId);
 
-        try {
-            String[] results = reportsServer.getMesaCitizenDocuments(mesaId, electionId);
-            logger.info("Obtenidos {} documentos de ciudadanos para mesa {}", results.length, mesaId);
-            return results;
-        } catch (Exception e) {
-            logger.error("Error obteniendo documentos de mesa {}: {}", mesaId, e.getMessage());
-            return new String[]{"ERROR-Error obteniendo documentos de mesa: " + e.getMessage()};
-        }
+        return admission.submitUpstream(() -> reportsServer.getMesaCitizenDocumentsAsync(mesaId, electionId))
+                .thenApply(results -> {
+                    logger.info("Obtenidos {} documentos de ciudadanos para mesa {}", results.length, mesaId);
+                    return results;
+                })
+                .exceptionally(e -> {
+                    logger.error("Error obteniendo documentos de mesa {}: {}", mesaId, unwrap(e).getMessage());
+                    return new String[]{"ERROR-Error obteniendo documentos de mesa: " + unwrap(e).getMessage()};
+                });
     }
 
 
-    private void analyzeCitizenQuery(String documento, int electionId) {
-        try {
-            String citizenKey = generateCacheKey("citizen", documento, String.valueOf(electionId));
-            CacheEntry entry = cache.get(citizenKey);
+    /**
+     * Registra la consulta de un ciudadano como consulta a su mesa (y, por propagación, a su puesto,
+     * municipio y departamento). La mesa se extrae del reporte una sola vez por entrada de cache.
+     */
+    private void analyzeCitizenQuery(String citizenKey, int electionId) {
+        CacheEntry entry = cache.get(citizenKey);
+        if (entry == null) {
+            return;
+        }
 
-            if (entry != null) {
-                extractLocationFromCitizenReport(entry.getData(), electionId);
-            }
+        int mesaId = citizenMesa(entry);
+        if (mesaId >= 0) {
+            analyzeLocationQuery("mesa", mesaId, electionId);
+        }
+    }
 
-        } catch (Exception e) {
-            logger.debug("Error analizando consulta de ciudadano: {}", e.getMessage());
+    private int citizenMesa(CacheEntry entry) {
+        int mesaId = entry.getMesaId();
+        if (mesaId == CacheEntry.UNKNOWN_MESA) {
+            String report = entry.getData();
+            mesaId = report.startsWith("ERROR") ? -1 : hierarchy.learnFromCitizenReport(report);
+            entry.setMesaId(mesaId);
         }
+        return mesaId;
     }
 
     private void analyzeLocationQuery(String locationType, int locationId, int electionId) {
@@ -473,27 +770,29 @@ public class ProxyCacheReports implements ReportsService {
 
         pattern.addQuery();
 
+        LocationHierarchy.Level level = toHierarchyLevel(locationType);
+        if (level != null) {
+            hierarchy.recordQuery(level, locationId, electionId, System.currentTimeMillis());
+        }
+
         logger.debug("Patrón actualizado: {} {} - {} consultas recientes",
                 locationType, locationId, pattern.getRecentQueries());
     }
 
-    private void extractLocationFromCitizenReport(String citizenReport, int electionId) {
-        try {
-            String[] parts = citizenReport.split("#");
-            if (parts.length >= 2) {
-                String locationData = parts[1];
-                String[] locationParts = locationData.split("-");
-
-                if (locationParts.length >= 10) {
-                    int puestoId = Integer.parseInt(locationParts[4]);
-                    int mesaId = Integer.parseInt(locationParts[8]);
-
-                    analyzeLocationQuery("puesto", puestoId, electionId);
-                    analyzeLocationQuery("mesa", mesaId, electionId);
-                }
-            }
-        } catch (Exception e) {
-            logger.debug("Error extrayendo ubicación de reporte: {}", e.getMessage());
+    private static LocationHierarchy.Level toHierarchyLevel(String locationType) {
+        switch (locationType.toLowerCase()) {
+            case "department":
+            case "departamento":
+                return LocationHierarchy.Level.DEPARTMENT;
+            case "municipality":
+            case "municipio":
+                return LocationHierarchy.Level.MUNICIPALITY;
+            case "puesto":
+                return LocationHierarchy.Level.PUESTO;
+            case "mesa":
+                return LocationHierarchy.Level.MESA;
+            default:
+                return null;
         }
     }
 
@@ -504,6 +803,11 @@ public class ProxyCacheReports implements ReportsService {
             List<QueryPattern> hotspotsDetected = new ArrayList<>();
 
             for (QueryPattern pattern : queryPatterns.values()) {
+                // Puestos y mesas los cubre el prefetch jerárquico, con presupuesto por ciclo
+                LocationHierarchy.Level level = toHierarchyLevel(pattern.getLocationType());
+                if (level == LocationHierarchy.Level.PUESTO || level == LocationHierarchy.Level.MESA) {
+                    continue;
+                }
                 if (pattern.needsPredictiveLoad()) {
                     hotspotsDetected.add(pattern);
                     logger.info("HOTSPOT detectado: {} {} ({} consultas, intensidad: {:.1f})",
@@ -516,8 +820,11 @@ public class ProxyCacheReports implements ReportsService {
                 executePredictivePreload(hotspot);
             }
 
-            if (hotspotsDetected.size() > 0) {
-                logger.info("Análisis completado: {} hotspots procesados", hotspotsDetected.size());
+            int prefetches = executeHierarchicalPrefetch();
+
+            if (hotspotsDetected.size() > 0 || prefetches > 0) {
+                logger.info("Análisis completado: {} hotspots procesados, {} precargas jerárquicas",
+                        hotspotsDetected.size(), prefetches);
             }
 
         } catch (Exception e) {
@@ -527,7 +834,8 @@ public class ProxyCacheReports implements ReportsService {
 
     private void executePredictivePreload(QueryPattern hotspot) {
         try {
-            int electionId = 1; 
+            LocationHierarchy.Level level = toHierarchyLevel(hotspot.getLocationType());
+            int electionId = level == null ? 1 : hierarchy.getElectionId(level, hotspot.getLocationId());
 
             logger.info("Ejecutando precarga predictiva: {} {}",
                     hotspot.getLocationType(), hotspot.getLocationId());
@@ -553,6 +861,69 @@ public class ProxyCacheReports implements ReportsService {
         }
     }
 
+    /**
+     * Precarga los puestos y mesas con más consultas esperadas por llamada al servidor,
+     * de modo que las mesas vecinas de una mesa caliente estén en cache antes de que llegue la fila.
+     */
+    private int executeHierarchicalPrefetch() {
+        // Con el upstream saturado las precargas esperan: la capacidad es para los misses de los clientes
+        if (admission.isSaturated()) {
+            return 0;
+        }
+
+        List<LocationHierarchy.PrefetchTask> plan = hierarchy.planPrefetch(System.currentTimeMillis(),
+                SHORT_BURST_WINDOW_MS, PREFETCH_MIN_PREDICTED_HITS, PREFETCH_BUDGET_PER_CYCLE, this::isPrefetchWarm);
+
+        for (LocationHierarchy.PrefetchTask task : plan) {
+            logger.debug("Prefetch jerárquico: {} {} ({} consultas esperadas, costo {})",
+                    task.level, task.id, String.format("%.1f", task.predictedHits), task.cost);
+
+            CompletableFuture<String[]> load = admission.submitUpstream(() -> task.level == LocationHierarchy.Level.MESA
+                    ? reportsServer.getMesaCitizenReportsAsync(task.id, task.electionId)
+                    : reportsServer.getLocationCitizenReportsAsync(task.id, "puesto", task.electionId));
+
+            load.orTimeout(UPSTREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS).whenComplete((reports, e) -> {
+                if (e != null) {
+                    logger.debug("Error en prefetch de {} {}: {}", task.level, task.id, unwrap(e).getMessage());
+                    return;
+                }
+                if (task.level == LocationHierarchy.Level.PUESTO) {
+                    cachePuestoMesas(reports, task.electionId);
+                } else if (reports.length == 0 || !reports[0].startsWith("ERROR")) {
+                    cache.put(generateCacheKey("mesa", String.valueOf(task.id), String.valueOf(task.electionId)),
+                            new CacheEntry(String.join("###", reports), System.currentTimeMillis()));
+                    cacheCitizenReports(reports, task.electionId);
+                }
+                hierarchicalPrefetches.incrementAndGet();
+            });
+        }
+        return plan.size();
+    }
+
+    private boolean isPrefetchWarm(LocationHierarchy.PrefetchTask task) {
+        ProxyCluster activeCluster = cluster;
+        if (task.level == LocationHierarchy.Level.MESA) {
+            // En cluster, cada nodo precarga solo las mesas de las que es dueño
+            if (activeCluster != null && !activeCluster.isLocal(
+                    generateCacheKey("mesa", String.valueOf(task.id), String.valueOf(task.electionId)))) {
+                return true;
+            }
+            return isMesaWarm(task.id, task.electionId);
+        }
+        Set<Integer> mesas = hierarchy.getChildren(task.level, task.id);
+        for (int mesaId : mesas) {
+            if (!isMesaWarm(mesaId, task.electionId)) {
+                return false;
+            }
+        }
+        return !mesas.isEmpty();
+    }
+
+    private boolean isMesaWarm(int mesaId, int electionId) {
+        CacheEntry entry = cache.get(generateCacheKey("mesa", String.valueOf(mesaId), String.valueOf(electionId)));
+        return entry != null && !entry.isNearExpiry(tierPolicy.getDataTtlMs());
+    }
+
     private void cleanOldPatterns() {
         try {
             int initialSize = queryPatterns.size();
@@ -572,26 +943,58 @@ public class ProxyCacheReports implements ReportsService {
         }
     }
 
-    private String getFromCacheWithStats(String cacheKey, ServerCall serverCall) {
+    private CompletableFuture<String> getFromCacheWithStats(String cacheKey, ServerCall serverCall) {
+        return getFromCacheWithStats(cacheKey, tierPolicy.getDataTtlMs(), serverCall);
+    }
+
+    private CompletableFuture<String> getResultsFromCache(String cacheKey, int electionId, ServerCall serverCall) {
         CacheEntry entry = cache.get(cacheKey);
-        if (entry != null && !entry.isExpired(CACHE_TTL_MS)) {
+        if (entry != null && isOutdatedByVotes(entry, electionId)) {
+            refreshInBackground(cacheKey, serverCall);
+        }
+        return getFromCacheWithStats(cacheKey, getResultsTtl(), serverCall);
+    }
+
+    private boolean isOutdatedByVotes(CacheEntry entry, int electionId) {
+        Long changedAt = resultsChangedAt.get(electionId);
+        return changedAt != null
+                && entry.getTimestamp() < changedAt
+                && System.currentTimeMillis() - entry.getTimestamp() >= RESULTS_MIN_REFRESH_MS;
+    }
+
+    private long getResultsTtl() {
+        return pushInvalidationEnabled ? tierPolicy.getResultsPushTtlMs() : tierPolicy.getResultsTtlMs();
+    }
+
+    private long getTtlForKey(String cacheKey) {
+        return isResultsKey(cacheKey) ? getResultsTtl() : tierPolicy.getDataTtlMs();
+    }
+
+    private boolean isResultsKey(String cacheKey) {
+        return cacheKey.startsWith("election_") || cacheKey.startsWith("geographic_");
+    }
+
+    /**
+     * Los hits se responden en el hilo de despacho; los misses se completan cuando llega la
+     * respuesta asíncrona del servidor, sin ocupar un hilo de Ice mientras tanto.
+     */
+    private CompletableFuture<String> getFromCacheWithStats(String cacheKey, long ttlMs, ServerCall serverCall) {
+        CacheEntry entry = cache.get(cacheKey);
+        if (entry != null && !entry.isExpired(ttlMs)) {
             cacheHits.incrementAndGet();
             logger.debug("Cache HIT para: {}", cacheKey);
-            return entry.getData();
+
+            if (entry.isNearExpiry(ttlMs) || entry.isRestored()) {
+                refreshInBackground(cacheKey, serverCall);
+            }
+            return CompletableFuture.completedFuture(entry.getData());
         }
 
         cacheMisses.incrementAndGet();
-        try {
-            logger.debug("Cache MISS para: {} - consultando servidor", cacheKey);
-            String result = serverCall.call();
+        logger.debug("Cache MISS para: {} - consultando servidor", cacheKey);
 
-            cache.put(cacheKey, new CacheEntry(result, System.currentTimeMillis()));
-
-            logger.info("Resultado cacheado para: {}", cacheKey);
-            return result;
-
-        } catch (Exception e) {
-            logger.error(" Error consultando servidor para {}: {}", cacheKey, e.getMessage());
+        return loadSingleFlight(cacheKey, serverCall).exceptionally(e -> {
+            logger.error(" Error consultando servidor para {}: {}", cacheKey, unwrap(e).getMessage());
 
             if (entry != null) {
                 logger.warn("Usando cache expirado como fallback para: {}", cacheKey);
@@ -599,11 +1002,66 @@ public class ProxyCacheReports implements ReportsService {
             }
 
             return "ERROR-No se pudo obtener el reporte-" + System.currentTimeMillis();
+        });
+    }
+
+    private CompletableFuture<String> loadSingleFlight(String cacheKey, ServerCall serverCall) {
+        CompletableFuture<String> ownLoad = new CompletableFuture<>();
+        CompletableFuture<String> inFlight = inFlightLoads.putIfAbsent(cacheKey, ownLoad);
+
+        if (inFlight != null) {
+            coalescedRequests.incrementAndGet();
+            logger.debug("Consulta en curso para {} - esperando resultado compartido", cacheKey);
+            return inFlight;
+        }
+
+        CompletableFuture<String> upstream;
+        try {
+            upstream = admission.submitUpstream(serverCall::call).orTimeout(UPSTREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            upstream = CompletableFuture.failedFuture(e);
         }
+
+        upstream.whenComplete((result, error) -> {
+            if (error == null) {
+                cache.put(cacheKey, new CacheEntry(result, System.currentTimeMillis()));
+                logger.info("Resultado cacheado para: {}", cacheKey);
+            }
+            inFlightLoads.remove(cacheKey, ownLoad);
+
+            if (error == null) {
+                ownLoad.complete(result);
+            } else {
+                ownLoad.completeExceptionally(unwrap(error));
+            }
+        });
+        return ownLoad;
+    }
+
+    private void refreshInBackground(String cacheKey, ServerCall serverCall) {
+        if (inFlightLoads.containsKey(cacheKey)) {
+            return;
+        }
+
+        loadSingleFlight(cacheKey, serverCall).whenComplete((result, error) -> {
+            if (error == null) {
+                backgroundRefreshes.incrementAndGet();
+                logger.debug("Entrada refrescada en segundo plano: {}", cacheKey);
+            } else {
+                logger.debug("Error refrescando {} en segundo plano: {}", cacheKey, unwrap(error).getMessage());
+            }
+        });
+    }
+
+    private String[] splitCachedArray(String cachedResult) {
+        if (cachedResult.startsWith("ERROR-")) {
+            return new String[]{cachedResult};
+        }
+        return cachedResult.isEmpty() ? new String[0] : cachedResult.split("###");
     }
 
-    private String getFromCache(String cacheKey, ServerCall serverCall) {
-        return getFromCacheWithStats(cacheKey, serverCall);
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     private String generatePatternKey(String locationType, int locationId, int electionId) {
@@ -682,32 +1140,7 @@ public class ProxyCacheReports implements ReportsService {
             result.append(String.format("Encontrados %d ciudadanos\n", citizenDocuments.length));
 
             result.append("Precargando reportes de ciudadanos...\n");
-            int preloadedCitizens = 0;
-            int batchSize = 100;
-
-            for (int i = 0; i < citizenDocuments.length; i += batchSize) {
-                int batchEnd = Math.min(i + batchSize, citizenDocuments.length);
-
-                for (int j = i; j < batchEnd; j++) {
-                    try {
-                        String documento = citizenDocuments[j];
-                        String citizenKey = generateCacheKey("citizen", documento, String.valueOf(electionId));
-
-                        if (!cache.containsKey(citizenKey)) {
-                            String citizenReport = reportsServer.getCitizenReports(documento, electionId);
-                            cache.put(citizenKey, new CacheEntry(citizenReport, System.currentTimeMillis()));
-                            preloadedCitizens++;
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Error precargando ciudadano {}: {}", citizenDocuments[j], e.getMessage());
-                    }
-                }
-
-                if (i % (batchSize * 4) == 0) { 
-                    result.append(String.format("Progreso: %d/%d ciudadanos\n",
-                            Math.min(batchEnd, citizenDocuments.length), citizenDocuments.length));
-                }
-            }
+            int preloadedCitizens = preloadCitizensBatch(citizenDocuments, electionId, result);
 
             long duration = System.currentTimeMillis() - startTime;
             result.append(String.format("\n PRECARGA DEPARTAMENTO %d COMPLETADA\n", departmentId));
@@ -750,8 +1183,12 @@ public class ProxyCacheReports implements ReportsService {
         try {
             result.append(String.format("PRECARGA PUESTO %d\n", puestoId));
 
-            String[] citizenDocuments = reportsServer.getPuestoCitizenDocuments(puestoId, electionId);
-            int preloadedCitizens = preloadCitizensBatch(citizenDocuments, electionId, result);
+            String[] citizenReports = reportsServer.getLocationCitizenReports(puestoId, "puesto", electionId);
+            if (citizenReports.length > 0 && citizenReports[0].startsWith("ERROR")) {
+                result.append("    Error obteniendo ciudadanos: ").append(citizenReports[0]).append("\n");
+                return result.toString();
+            }
+            int preloadedCitizens = cacheCitizenReports(citizenReports, electionId);
 
             long duration = System.currentTimeMillis() - startTime;
             result.append(String.format("\n PRECARGA PUESTO %d COMPLETADA\n", puestoId));
@@ -775,6 +1212,8 @@ public class ProxyCacheReports implements ReportsService {
             String mesaKey = generateCacheKey("mesa", String.valueOf(mesaId), String.valueOf(electionId));
             cache.put(mesaKey, new CacheEntry(String.join("###", mesaCitizens), System.currentTimeMillis()));
 
+            cacheCitizenReports(mesaCitizens, electionId);
+
             result.append(String.format("Ciudadanos de mesa cacheados: %d\n", mesaCitizens.length));
 
             long duration = System.currentTimeMillis() - startTime;
@@ -803,41 +1242,189 @@ public class ProxyCacheReports implements ReportsService {
             return 0;
         }
 
+        List<String> pending = new ArrayList<>();
+        for (String documento : citizenDocuments) {
+            if (!cache.containsKey(generateCacheKey("citizen", documento, String.valueOf(electionId)))) {
+                pending.add(documento);
+            }
+        }
+
         int preloadedCitizens = 0;
-        int batchSize = 50;
 
-        result.append(String.format("Precargando %d ciudadanos...\n", citizenDocuments.length));
+        result.append(String.format("Precargando %d ciudadanos (%d ya en cache)...\n",
+                pending.size(), citizenDocuments.length - pending.size()));
 
-        for (int i = 0; i < citizenDocuments.length; i += batchSize) {
-            int batchEnd = Math.min(i + batchSize, citizenDocuments.length);
+        for (int i = 0; i < pending.size(); i += CITIZEN_BATCH_SIZE) {
+            int batchEnd = Math.min(i + CITIZEN_BATCH_SIZE, pending.size());
+            String[] batch = pending.subList(i, batchEnd).toArray(new String[0]);
 
-            for (int j = i; j < batchEnd; j++) {
-                try {
-                    String documento = citizenDocuments[j];
-                    String citizenKey = generateCacheKey("citizen", documento, String.valueOf(electionId));
+            try {
+                String[] reports = reportsServer.getCitizenReportsBatch(batch, electionId);
+                if (reports.length != batch.length) {
+                    logger.warn("Lote de ciudadanos rechazado por el servidor: {}", reports.length > 0 ? reports[0] : "vacío");
+                    continue;
+                }
 
-                    if (!cache.containsKey(citizenKey)) {
-                        String citizenReport = reportsServer.getCitizenReports(documento, electionId);
-                        cache.put(citizenKey, new CacheEntry(citizenReport, System.currentTimeMillis()));
+                long now = System.currentTimeMillis();
+                for (int j = 0; j < batch.length; j++) {
+                    if (!reports[j].startsWith("ERROR")) {
+                        putCitizenReport(batch[j], electionId, reports[j], now);
                         preloadedCitizens++;
                     }
-                } catch (Exception e) {
-                    logger.warn("Error precargando ciudadano {}: {}", citizenDocuments[j], e.getMessage());
                 }
+            } catch (Exception e) {
+                logger.warn("Error precargando lote de {} ciudadanos: {}", batch.length, e.getMessage());
             }
 
-            if (i % (batchSize * 4) == 0) { 
-                result.append(String.format("Progreso: %d/%d\n",
-                        Math.min(batchEnd, citizenDocuments.length), citizenDocuments.length));
-            }
+            result.append(String.format("Progreso: %d/%d\n", batchEnd, pending.size()));
         }
 
         return preloadedCitizens;
     }
 
+    /**
+     * Cachea reportes de ciudadano completos usando el documento que viene en cada reporte.
+     */
+    private int cacheCitizenReports(String[] citizenReports, int electionId) {
+        int cached = 0;
+        long now = System.currentTimeMillis();
+
+        for (String report : citizenReports) {
+            if (report.startsWith("ERROR")) {
+                continue;
+            }
+            String[] citizenFields = report.substring(0, Math.max(report.indexOf('#'), 0)).split("-");
+            if (citizenFields.length >= 2) {
+                putCitizenReport(citizenFields[1], electionId, report, now);
+                cached++;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Cachea el reporte de un ciudadano y aprende su rama departamento → mesa para el prefetch jerárquico.
+     */
+    private CacheEntry putCitizenReport(String documento, int electionId, String report, long now) {
+        CacheEntry entry = new CacheEntry(report, now);
+        citizenMesa(entry);
+        cache.put(generateCacheKey("citizen", documento, String.valueOf(electionId)), entry);
+        return entry;
+    }
+
+    /**
+     * Agrupa por mesa los reportes de un puesto precargado y guarda cada grupo como reporte de mesa.
+     */
+    private void cachePuestoMesas(String[] citizenReports, int electionId) {
+        Map<Integer, List<String>> byMesa = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (String report : citizenReports) {
+            if (report.startsWith("ERROR")) {
+                continue;
+            }
+            String[] citizenFields = report.substring(0, Math.max(report.indexOf('#'), 0)).split("-");
+            if (citizenFields.length >= 2) {
+                int mesaId = citizenMesa(putCitizenReport(citizenFields[1], electionId, report, now));
+                if (mesaId >= 0) {
+                    byMesa.computeIfAbsent(mesaId, k -> new ArrayList<>()).add(report);
+                }
+            }
+        }
+
+        byMesa.forEach((mesaId, reports) -> cache.put(
+                generateCacheKey("mesa", String.valueOf(mesaId), String.valueOf(electionId)),
+                new CacheEntry(String.join("###", reports), now)));
+    }
+
     @FunctionalInterface
     private interface ServerCall {
-        String call() throws Exception;
+        CompletableFuture<String> call();
+    }
+
+    /** Respuesta de las operaciones de texto cuando el control de admisión rechaza la consulta. */
+    private static String overloaded() {
+        return "ERROR-Demasiadas consultas, intente más tarde-" + System.currentTimeMillis();
+    }
+
+    /**
+     * El mismo aviso que {@link #overloaded()} para las operaciones booleanas: un false sería
+     * indistinguible de "no habilitado" o "no listo".
+     */
+    private static <T> CompletableFuture<T> overloadedFailure() {
+        return CompletableFuture.failedFuture(new ReportsException(overloaded(), ERROR_OVERLOADED));
+    }
+
+    /**
+     * Respuestas booleanas cacheadas como "true"/"false". Las negativas expiran a los
+     * {@code negativeTtlMs} para que un ciudadano recién habilitado o una elección recién cargada
+     * se vean pronto; un error del servidor falla con ReportsException sin cachearse.
+     */
+    private CompletableFuture<Boolean> getFlagFromCache(String cacheKey, long negativeTtlMs,
+                                                        Supplier<CompletableFuture<Boolean>> upstream) {
+        CacheEntry entry = cache.get(cacheKey);
+        if (entry != null && entry.isExpired(negativeTtlMs) && !Boolean.parseBoolean(entry.getData())) {
+            cache.remove(cacheKey, entry);
+        }
+        return getFromCacheWithStats(cacheKey, () -> upstream.get().thenApply(String::valueOf))
+                .thenApply(data -> {
+                    if (!"true".equals(data) && !"false".equals(data)) {
+                        throw new CompletionException(new ReportsException(data, ERROR_UNAVAILABLE));
+                    }
+                    return Boolean.parseBoolean(data);
+                });
+    }
+
+    private void refreshEligibilityFilter() {
+        reportsServer.getEligibilityFilterAsync().whenComplete((bytes, e) -> {
+            if (e != null) {
+                logger.warn("No se pudo obtener el filtro de elegibilidad: {}", unwrap(e).getMessage());
+                return;
+            }
+            if (bytes.length == 0) {
+                return;
+            }
+            try {
+                EligibilityFilter filter = EligibilityFilter.fromBytes(bytes);
+                eligibilityFilter = filter;
+                logger.info("Filtro de elegibilidad actualizado: {} documentos ({} KB)",
+                        filter.getEntries(), filter.getSizeBytes() / 1024);
+            } catch (RuntimeException ex) {
+                logger.warn("Filtro de elegibilidad inválido: {}", ex.getMessage());
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface PeerCall {
+        CompletableFuture<String> call(ReportsServicePrx owner, Map<String, String> context);
+    }
+
+    /**
+     * En modo cluster, las claves de otro nodo se piden a su dueño (sin cachearlas aquí);
+     * si el dueño no responde se resuelven localmente contra el servidor central.
+     */
+    private CompletableFuture<String> getFromOwner(String cacheKey, Current current, PeerCall peerCall,
+                                                   Supplier<CompletableFuture<String>> localLoad) {
+        ProxyCluster activeCluster = cluster;
+        ReportsServicePrx owner = activeCluster == null ? null : activeCluster.remoteOwner(cacheKey, current);
+        if (owner == null) {
+            return localLoad.get();
+        }
+
+        peerFetches.incrementAndGet();
+        return peerCall.call(owner, activeCluster.getPeerContext())
+                .orTimeout(PEER_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .handle((data, e) -> {
+                    if (e == null) {
+                        return CompletableFuture.completedFuture(data);
+                    }
+                    logger.warn("Error consultando {} al proxy dueño: {}", cacheKey, unwrap(e).getMessage());
+                    activeCluster.markFailed(cacheKey);
+                    peerFallbacks.incrementAndGet();
+                    return localLoad.get();
+                })
+                .thenCompose(future -> future);
     }
 
     public void cleanExpiredCache() {
@@ -845,7 +1432,7 @@ public class ProxyCacheReports implements ReportsService {
         AtomicInteger cleaned = new AtomicInteger();
 
         cache.entrySet().removeIf(entry -> {
-            if (entry.getValue().isExpired(CACHE_TTL_MS)) {
+            if (entry.getValue().isExpired(getTtlForKey(entry.getKey()))) {
                 cleaned.getAndIncrement();
                 return true;
             }
@@ -857,6 +1444,120 @@ public class ProxyCacheReports implements ReportsService {
         }
     }
 
+    /**
+     * Llamado por el VoteObserver cuando llega un voto: los reportes de resultados de la
+     * elección quedan desactualizados y se refrescan en la siguiente consulta.
+     */
+    public void onVoteNotification(int electionId) {
+        resultsChangedAt.put(electionId, System.currentTimeMillis());
+        pushInvalidations.incrementAndGet();
+    }
+
+    /**
+     * Elimina del cache los reportes de resultados (election_* y geographic_*) de una elección.
+     */
+    public void invalidateElectionResults(int electionId) {
+        String electionKey = generateCacheKey("election", String.valueOf(electionId), "");
+        String geographicSuffix = "_" + electionId;
+
+        int before = cache.size();
+        cache.keySet().removeIf(key -> key.equals(electionKey)
+                || (key.startsWith("geographic_") && key.endsWith(geographicSuffix)));
+        resultsChangedAt.put(electionId, System.currentTimeMillis());
+        pushInvalidations.incrementAndGet();
+
+        logger.info("Reportes de resultados invalidados para elección {}: {} entradas", electionId, before - cache.size());
+    }
+
+    public void setPushInvalidationEnabled(boolean enabled) {
+        this.pushInvalidationEnabled = enabled;
+        logger.info("Invalidación por notificaciones {}", enabled ? "ACTIVA" : "INACTIVA");
+    }
+
+    public void setAdmissionController(AdmissionController admission) {
+        this.admission = admission;
+    }
+
+    public void setCluster(ProxyCluster cluster) {
+        this.cluster = cluster;
+        logger.info("Modo cluster ACTIVO: nodo {} de {}", cluster.getSelf(), cluster.size());
+    }
+
+    /**
+     * Restaura el snapshot existente (si es reciente) y programa checkpoints periódicos.
+     */
+    public void enableSnapshots(Path snapshotFile) {
+        this.snapshot = new CacheSnapshot(snapshotFile);
+        restoreSnapshot();
+
+        smartCacheScheduler.scheduleAtFixedRate(this::saveSnapshot,
+                SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Snapshot del cache activo en {} (cada {}s)", snapshotFile, SNAPSHOT_INTERVAL_SECONDS);
+    }
+
+    private void restoreSnapshot() {
+        CacheSnapshot current = snapshot;
+        if (current == null || !current.read()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - current.getCreatedAt() > SNAPSHOT_MAX_AGE_MS) {
+            logger.info("Snapshot descartado: tiene más de {} minutos", SNAPSHOT_MAX_AGE_MS / 60000);
+            return;
+        }
+
+        int restored = 0;
+        for (CacheSnapshot.Entry entry : current.getEntries()) {
+            if (cache.putIfAbsent(entry.key, new CacheEntry(entry.data, now, true)) == null) {
+                restored++;
+            }
+        }
+
+        for (CacheSnapshot.Pattern saved : current.getPatterns()) {
+            queryPatterns.computeIfAbsent(saved.key, k -> new QueryPattern(saved.locationType, saved.locationId))
+                    .restore(saved.buckets, saved.totalQueries);
+        }
+
+        restoredEntries.addAndGet(restored);
+        logger.info("Snapshot restaurado: {} entradas y {} patrones (revalidación en el primer acceso)",
+                restored, current.getPatterns().size());
+    }
+
+    /**
+     * Guarda las entradas más recientes del cache y los patrones activos en el snapshot.
+     * Sincronizado porque lo llaman el scheduler, shutdown() y el hook de la JVM, y todos
+     * escriben el mismo .tmp antes del reemplazo atómico.
+     */
+    public synchronized void saveSnapshot() {
+        CacheSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            List<CacheSnapshot.Entry> entries = cache.entrySet().stream()
+                    .filter(e -> !e.getValue().getData().startsWith("ERROR-"))
+                    .sorted((a, b) -> Long.compare(b.getValue().getTimestamp(), a.getValue().getTimestamp()))
+                    .limit(SNAPSHOT_MAX_ENTRIES)
+                    .map(e -> new CacheSnapshot.Entry(e.getKey(), e.getValue().getData(), e.getValue().getTimestamp()))
+                    .collect(Collectors.toList());
+
+            List<CacheSnapshot.Pattern> patterns = new ArrayList<>();
+            for (Map.Entry<String, QueryPattern> e : queryPatterns.entrySet()) {
+                QueryPattern pattern = e.getValue();
+                if (pattern.getRecentQueries() > 0) {
+                    patterns.add(new CacheSnapshot.Pattern(e.getKey(), pattern.getLocationType(),
+                            pattern.getLocationId(), pattern.getTotalQueries(), pattern.getBuckets()));
+                }
+            }
+
+            current.write(entries, patterns);
+        } catch (Exception e) {
+            logger.error("Error guardando snapshot del cache: {}", e.getMessage());
+        }
+    }
+
     public void clearCache() {
         cache.clear();
         logger.info("Cache completamente limpiado");
@@ -865,6 +1566,7 @@ public class ProxyCacheReports implements ReportsService {
     public void shutdown() {
         try {
             logger.info("Cerrando sistema de cache inteligente...");
+            saveSnapshot();
             smartCacheScheduler.shutdown();
             if (!smartCacheScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
                 smartCacheScheduler.shutdownNow();
@@ -7,6 +7,7 @@ import com.zeroc.Ice.Exception;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -23,6 +24,8 @@ public class ProxyCacheServer {
     private static final Logger logger = LoggerFactory.getLogger(ProxyCacheServer.class);
     private static ScheduledExecutorService scheduler;
 
+    static final int OBSERVED_ELECTION_ID = 1;
+
     private static VoteObserverImpl voteObserver;
     private static ObjectAdapter observerAdapter;
 
@@ -32,31 +35,52 @@ public class ProxyCacheServer {
         try (Communicator communicator = Util.initialize(args, params)) {
 
             System.out.println("========== SERVIDOR PROXY CACHE + OBSERVER ==========");
-            System.out.println("Conectando al servidor principal...");
+            // Un proxy regional usa como upstream otro proxy (ProxyCacheReports) en vez del servidor central
+            TierPolicy tierPolicy = TierPolicy.fromProperties(communicator.getProperties());
+            String upstream = communicator.getProperties()
+                    .getPropertyWithDefault("ReportsServer.Proxy", "ReportsManager:default -h localhost -p 9001");
+
+            System.out.println(tierPolicy.isRegional()
+                    ? "Conectando al proxy de nivel superior..." : "Conectando al servidor principal...");
 
-            ObjectPrx base = communicator.stringToProxy("ReportsManager:default -h localhost -p 9001");
+            ObjectPrx base = communicator.stringToProxy(upstream);
             ReportsServicePrx reportsServer = ReportsServicePrx.checkedCast(base);
 
             if (reportsServer == null) {
-                System.err.println("Error: No se pudo conectar al servidor Reports en puerto 9001");
+                System.err.println("Error: No se pudo conectar al upstream de Reports: " + upstream);
                 System.err.println("Asegúrate de que el servidor principal esté ejecutándose");
                 return;
             }
 
-            System.out.println("Conectado al servidor Reports principal");
+            System.out.println("Conectado al upstream de Reports (" + upstream + ")");
 
+            String proxyEndpoints = communicator.getProperties()
+                    .getPropertyWithDefault("ProxyCacheAdapter.Endpoints", "default -h localhost -p 9999");
             ObjectAdapter adapter = communicator.createObjectAdapterWithEndpoints(
-                    "ProxyCacheAdapter", "default -h localhost -p 9999"
+                    "ProxyCacheAdapter", proxyEndpoints
             );
 
-            ProxyCacheReports proxyCache = new ProxyCacheReports(reportsServer);
+            ProxyCacheReports proxyCache = new ProxyCacheReports(reportsServer, tierPolicy);
+            proxyCache.setAdmissionController(AdmissionController.fromProperties(communicator.getProperties()));
+
+            ProxyCluster cluster = ProxyCluster.fromProperties(communicator);
+            if (cluster != null) {
+                proxyCache.setCluster(cluster);
+                System.out.println("Modo cluster: nodo " + cluster.getSelf() + " de " + cluster.size() + " proxies");
+            }
+
+            String snapshotFile = communicator.getProperties()
+                    .getPropertyWithDefault("ProxyCache.SnapshotFile", "data/proxycache.snapshot");
+            proxyCache.enableSnapshots(Paths.get(snapshotFile));
+            Runtime.getRuntime().addShutdownHook(new Thread(proxyCache::saveSnapshot));
 
             adapter.add((ReportsService) proxyCache, Util.stringToIdentity("ProxyCacheReports"));
 
 
             System.out.println("Configurando sistema Observer...");
 
-            ObjectPrx notifierBase = communicator.stringToProxy("VoteNotifier:default -h localhost -p 9002");
+            ObjectPrx notifierBase = communicator.stringToProxy(communicator.getProperties()
+                    .getPropertyWithDefault("VoteNotifierServer.Proxy", "VoteNotifier:default -h localhost -p 9002"));
             VoteNotifierPrx voteNotifier = VoteNotifierPrx.checkedCast(notifierBase);
 
             if (voteNotifier != null) {
@@ -67,14 +91,16 @@ public class ProxyCacheServer {
                 );
 
                 voteObserver = new VoteObserverImpl(proxyCache);
+                voteObserver.setVoteNotifier(voteNotifier);
                 observerAdapter.add((VoteObserver) voteObserver, Util.stringToIdentity("VoteObserver"));
                 observerAdapter.activate();
                 VoteObserverPrx observerProxy = VoteObserverPrx.uncheckedCast(
                         observerAdapter.createProxy(Util.stringToIdentity("VoteObserver"))
                 );
 
-                int electionId = 1;
+                int electionId = OBSERVED_ELECTION_ID;
                 voteNotifier.registerObserver(observerProxy, electionId);
+                proxyCache.setPushInvalidationEnabled(true);
 
                 System.out.println("Registrado como observer para elección " + electionId);
                 System.out.println("Ahora recibirás notificaciones de votos en tiempo real!");
@@ -88,16 +114,21 @@ public class ProxyCacheServer {
             adapter.activate();
 
             System.out.println("\n ========== PROXY CACHE + OBSERVER INICIADO ==========");
-            System.out.println("    Proxy Cache: localhost:9999");
-            System.out.println("    Servidor Backend: localhost:9001");
-            System.out.println("    VoteNotifier: localhost:9002");
-            System.out.println("    Cache TTL: 5 minutos");
+            System.out.println("    Proxy Cache: " + proxyEndpoints);
+            System.out.println("    Upstream: " + upstream);
+            System.out.println("    Nivel: " + tierPolicy);
             System.out.println("    Funcionalidades:");
             System.out.println("   - Cache local inteligente");
             System.out.println("   - Precarga geográfica");
             System.out.println("   - Fallback a cache expirado");
             System.out.println("   - Estadísticas detalladas");
             System.out.println("   - Notificaciones de votos en tiempo real");
+            System.out.println("   - Invalidación de resultados por votos recibidos");
+            System.out.println("   - Snapshot del cache para reinicios en caliente");
+            System.out.println("   - Límite de consultas por cliente y control de carga hacia el servidor");
+            if (cluster != null) {
+                System.out.println("   - Cluster de proxies con hash consistente");
+            }
             System.out.println();
 
 
@@ -127,7 +158,7 @@ public class ProxyCacheServer {
 
             System.out.println(" Limpieza automática del cache: cada 2 minutos");
             System.out.println(" Estadísticas de votos: cada 30 segundos");
-            System.out.println(" Esperando conexiones de clientes en puerto 9999...");
+            System.out.println(" Esperando conexiones de clientes en " + proxyEndpoints + "...");
             System.out.println(" Esperando notificaciones de votos del servidor...");
             System.out.println("================================================");
             System.out.println();
@@ -154,7 +185,7 @@ public class ProxyCacheServer {
                     VoteObserverPrx observerProxy = VoteObserverPrx.uncheckedCast(
                             observerAdapter.createProxy(Util.stringToIdentity("VoteObserver"))
                     );
-                    voteNotifier.unregisterObserver(observerProxy, 1); 
+                    voteNotifier.unregisterObserver(observerProxy, OBSERVED_ELECTION_ID);
                     System.out.println("Observer desregistrado del servidor central");
                 } catch (Exception e) {
                     logger.warn("Error desregistrando observer: {}", e.getMessage());
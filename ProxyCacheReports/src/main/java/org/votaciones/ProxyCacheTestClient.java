@@ -1,5 +1,6 @@
 package org.votaciones;
 
+import ReportsSystem.ReportsException;
 import ReportsSystem.ReportsServicePrx;
 import com.zeroc.Ice.*;
 import com.zeroc.Ice.Exception;
@@ -305,6 +306,8 @@ public class ProxyCacheTestClient {
             System.out.println("Validación completada en " + (endTime - startTime) + " ms");
             System.out.println("Resultado: " + (isValid ? " ELEGIBLE" : " NO ELEGIBLE"));
 
+        } catch (ReportsException e) {
+            System.err.println(" Error: " + e.reason);
         } catch (Exception e) {
             System.err.println(" Error: " + e.getMessage());
         }
@@ -0,0 +1,142 @@
+package org.votaciones;
+
+import ReportsSystem.ReportsServicePrx;
+import com.zeroc.Ice.Communicator;
+import com.zeroc.Ice.Current;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster de proxies con membresía estática. Cada clave de cache tiene un dueño según un anillo
+ * de hash consistente con nodos virtuales; un miss en un nodo que no es dueño se pide primero
+ * al dueño y solo después al servidor central.
+ *
+ * Configuración:
+ *   ProxyCache.Cluster.Self=proxy1
+ *   ProxyCache.Cluster.Member.proxy1=ProxyCacheReports:default -h localhost -p 9999
+ *   ProxyCache.Cluster.Member.proxy2=ProxyCacheReports:default -h localhost -p 9998
+ */
+public class ProxyCluster {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyCluster.class);
+
+    private static final String MEMBER_PREFIX = "ProxyCache.Cluster.Member.";
+    private static final int VIRTUAL_NODES = 160;
+    private static final long SUSPECT_MS = 10 * 1000;
+
+    // Marca en el contexto Ice de las consultas entre proxies: el receptor siempre las resuelve localmente
+    static final String PEER_CONTEXT_KEY = "proxy.peer";
+
+    private final String self;
+    private final Map<String, ReportsServicePrx> members;
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Map<String, Long> suspectUntil = new ConcurrentHashMap<>();
+    private final Map<String, String> peerContext;
+
+    public ProxyCluster(String self, Map<String, ReportsServicePrx> members) {
+        this.self = self;
+        this.members = Collections.unmodifiableMap(new HashMap<>(members));
+        this.peerContext = Collections.singletonMap(PEER_CONTEXT_KEY, self);
+
+        for (String member : members.keySet()) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    /**
+     * Crea el cluster desde las propiedades del communicator, o devuelve null si no hay
+     * miembros configurados (modo de un solo proxy).
+     */
+    public static ProxyCluster fromProperties(Communicator communicator) {
+        Map<String, String> configured = communicator.getProperties().getPropertiesForPrefix(MEMBER_PREFIX);
+        String self = communicator.getProperties().getProperty("ProxyCache.Cluster.Self");
+
+        if (configured.isEmpty() || self.isEmpty()) {
+            return null;
+        }
+
+        Map<String, ReportsServicePrx> members = new HashMap<>();
+        for (Map.Entry<String, String> entry : configured.entrySet()) {
+            String name = entry.getKey().substring(MEMBER_PREFIX.length());
+            members.put(name, name.equals(self) ? null
+                    : ReportsServicePrx.uncheckedCast(communicator.stringToProxy(entry.getValue())));
+        }
+
+        if (!members.containsKey(self)) {
+            logger.warn("ProxyCache.Cluster.Self={} no está entre los miembros, se agrega al anillo", self);
+            members.put(self, null);
+        }
+
+        logger.info("Cluster de proxies: {} miembros, nodo local {}", members.size(), self);
+        return new ProxyCluster(self, members);
+    }
+
+    public String getSelf() { return self; }
+    public int size() { return members.size(); }
+    public Map<String, String> getPeerContext() { return peerContext; }
+
+    public String ownerOf(String cacheKey) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(cacheKey));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public boolean isLocal(String cacheKey) {
+        return self.equals(ownerOf(cacheKey));
+    }
+
+    /**
+     * Proxy del dueño remoto de la clave, o null si la clave es local, si la consulta ya viene
+     * de otro proxy o si el dueño falló hace poco.
+     */
+    public ReportsServicePrx remoteOwner(String cacheKey, Current current) {
+        if (isPeerRequest(current)) {
+            return null;
+        }
+
+        String owner = ownerOf(cacheKey);
+        if (self.equals(owner)) {
+            return null;
+        }
+
+        Long until = suspectUntil.get(owner);
+        if (until != null && System.currentTimeMillis() < until) {
+            return null;
+        }
+        return members.get(owner);
+    }
+
+    public void markFailed(String cacheKey) {
+        String owner = ownerOf(cacheKey);
+        suspectUntil.put(owner, System.currentTimeMillis() + SUSPECT_MS);
+        logger.warn("Proxy {} no respondió, se consulta al servidor central durante {}s", owner, SUSPECT_MS / 1000);
+    }
+
+    public static boolean isPeerRequest(Current current) {
+        return current != null && current.ctx != null && current.ctx.containsKey(PEER_CONTEXT_KEY);
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (digest[i] & 0xff);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 no disponible", e);
+        }
+    }
+}
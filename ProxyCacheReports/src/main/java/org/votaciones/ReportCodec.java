@@ -0,0 +1,181 @@
+package org.votaciones;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Representación compacta de los reportes guardados en el cache del proxy.
+ * - Reportes de ciudadano (citizen#location#election#elections#version): los bloques de ubicación
+ *   y de elección se repiten en todos los ciudadanos de una mesa, así que se guardan una sola vez
+ *   en un diccionario compartido y cada entrada solo referencia el segmento.
+ * - Reportes grandes (geográficos, listas de una mesa): se comprimen con Deflate.
+ * - El resto se guarda tal cual.
+ */
+public class ReportCodec {
+
+    private static final int COMPRESS_THRESHOLD = 8 * 1024;
+    private static final double MIN_COMPRESSION_GAIN = 0.8;
+    private static final int MAX_DICTIONARY_SEGMENTS = 200_000;
+    private static final int CITIZEN_SEGMENTS = 5;
+
+    private final Map<String, String> dictionary = new ConcurrentHashMap<>();
+    private final AtomicLong dictionaryChars = new AtomicLong(0);
+
+    private static final class CitizenReport {
+        private final String citizen;
+        private final String location;
+        private final String election;
+        private final String elections;
+        private final String version;
+
+        CitizenReport(String citizen, String location, String election, String elections, String version) {
+            this.citizen = citizen;
+            this.location = location;
+            this.election = election;
+            this.elections = elections;
+            this.version = version;
+        }
+
+        String decode() {
+            return new StringBuilder(citizen.length() + location.length() + election.length()
+                    + elections.length() + version.length() + CITIZEN_SEGMENTS - 1)
+                    .append(citizen).append('#')
+                    .append(location).append('#')
+                    .append(election).append('#')
+                    .append(elections).append('#')
+                    .append(version)
+                    .toString();
+        }
+    }
+
+    private static final class Compressed {
+        private final byte[] bytes;
+        private final int utf8Length;
+
+        Compressed(byte[] bytes, int utf8Length) {
+            this.bytes = bytes;
+            this.utf8Length = utf8Length;
+        }
+    }
+
+    public Object encode(String data) {
+        if (data.length() >= COMPRESS_THRESHOLD) {
+            Compressed compressed = compress(data);
+            return compressed != null ? compressed : data;
+        }
+
+        String[] segments = splitCitizenReport(data);
+        if (segments == null) {
+            return data;
+        }
+        return new CitizenReport(segments[0], intern(segments[1]), intern(segments[2]),
+                intern(segments[3]), segments[4]);
+    }
+
+    public String decode(Object encoded) {
+        if (encoded instanceof CitizenReport) {
+            return ((CitizenReport) encoded).decode();
+        }
+        if (encoded instanceof Compressed) {
+            return decompress((Compressed) encoded);
+        }
+        return (String) encoded;
+    }
+
+    /**
+     * Tamaño aproximado que ocupa la entrada, sin contar los segmentos compartidos del diccionario.
+     */
+    public long sizeOf(Object encoded) {
+        if (encoded instanceof CitizenReport) {
+            CitizenReport report = (CitizenReport) encoded;
+            return report.citizen.length() + report.version.length() + 3 * Integer.BYTES;
+        }
+        if (encoded instanceof Compressed) {
+            return ((Compressed) encoded).bytes.length;
+        }
+        return ((String) encoded).length();
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    public long getDictionaryChars() {
+        return dictionaryChars.get();
+    }
+
+    // Un reporte con exactamente 4 separadores '#'; el segmento vacío de "###" descarta listas unidas
+    private static String[] splitCitizenReport(String data) {
+        if (data.startsWith("ERROR") || data.contains("##")) {
+            return null;
+        }
+        String[] segments = data.split("#", -1);
+        return segments.length == CITIZEN_SEGMENTS ? segments : null;
+    }
+
+    private String intern(String segment) {
+        String shared = dictionary.get(segment);
+        if (shared != null) {
+            return shared;
+        }
+        if (dictionary.size() >= MAX_DICTIONARY_SEGMENTS) {
+            return segment;
+        }
+        shared = dictionary.putIfAbsent(segment, segment);
+        if (shared == null) {
+            dictionaryChars.addAndGet(segment.length());
+            return segment;
+        }
+        return shared;
+    }
+
+    private static Compressed compress(String data) {
+        byte[] utf8 = data.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            byte[] bytes = out.toByteArray();
+            if (bytes.length > utf8.length * MIN_COMPRESSION_GAIN) {
+                return null;
+            }
+            return new Compressed(bytes, utf8.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decompress(Compressed compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.bytes);
+            byte[] utf8 = new byte[compressed.utf8Length];
+            int read = 0;
+            while (read < utf8.length && !inflater.finished()) {
+                int inflated = inflater.inflate(utf8, read, utf8.length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            return new String(utf8, 0, read, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Entrada comprimida del cache corrupta", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.votaciones;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de ventana deslizante sin bloqueos y de memoria constante.
+ * La ventana se divide en buckets de tamaño fijo guardados en un anillo; cada slot empaqueta
+ * la época del bucket (bits altos) y su conteo (bits bajos) en un solo long actualizado con CAS,
+ * así un bucket viejo se reinicia en la misma operación que registra la consulta.
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long bucketMs;
+    private final int bucketCount;
+    private final AtomicLongArray slots;
+
+    public SlidingWindowCounter(long windowMs, long bucketMs) {
+        this.bucketMs = bucketMs;
+        this.bucketCount = (int) Math.max(1, windowMs / bucketMs);
+        this.slots = new AtomicLongArray(bucketCount);
+    }
+
+    public void increment(long now) {
+        long epoch = now / bucketMs;
+        int index = (int) (epoch % bucketCount);
+
+        while (true) {
+            long current = slots.get(index);
+            long updated;
+            if ((current >>> COUNT_BITS) == epoch) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                updated = current + 1;
+            } else {
+                updated = (epoch << COUNT_BITS) | 1;
+            }
+            if (slots.compareAndSet(index, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Suma las consultas de los buckets que caen dentro de los últimos {@code spanMs} milisegundos.
+     */
+    public int count(long now, long spanMs) {
+        long currentEpoch = now / bucketMs;
+        long oldestEpoch = currentEpoch - Math.min(bucketCount, Math.max(1, spanMs / bucketMs)) + 1;
+
+        int total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long slot = slots.get(i);
+            long epoch = slot >>> COUNT_BITS;
+            if (epoch >= oldestEpoch && epoch <= currentEpoch) {
+                total += (int) (slot & COUNT_MASK);
+            }
+        }
+        return total;
+    }
+
+    public long[] getBuckets() {
+        long[] copy = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            copy[i] = slots.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Restaura buckets guardados (por ejemplo desde un snapshot); los que ya salieron
+     * de la ventana se descartan solos en el siguiente conteo.
+     */
+    public void restore(long[] savedBuckets) {
+        for (long slot : savedBuckets) {
+            long epoch = slot >>> COUNT_BITS;
+            int index = (int) (epoch % bucketCount);
+            slots.accumulateAndGet(index, slot, (current, saved) ->
+                    (saved >>> COUNT_BITS) > (current >>> COUNT_BITS) ? saved : current);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.votaciones;
+
+import com.zeroc.Ice.Properties;
+
+/**
+ * TTLs del cache según el nivel del proxy en la jerarquía.
+ * Un proxy "central" consulta directamente al servidor de reportes; un proxy "regional" usa
+ * otro proxy como upstream, así que sus datos ya pueden llegar con la edad del nivel superior:
+ * guarda más tiempo los datos de ciudadanos y mesas (casi estáticos) y menos los resultados.
+ */
+public class TierPolicy {
+
+    public static final String CENTRAL = "central";
+    public static final String REGIONAL = "regional";
+
+    private final String tier;
+    private final long dataTtlMs;
+    private final long resultsTtlMs;
+    private final long resultsPushTtlMs;
+
+    public TierPolicy(String tier, long dataTtlMs, long resultsTtlMs, long resultsPushTtlMs) {
+        this.tier = tier;
+        this.dataTtlMs = dataTtlMs;
+        this.resultsTtlMs = resultsTtlMs;
+        this.resultsPushTtlMs = resultsPushTtlMs;
+    }
+
+    public static TierPolicy central() {
+        return new TierPolicy(CENTRAL, 5 * 60 * 1000, 5 * 60 * 1000, 30 * 60 * 1000);
+    }
+
+    public static TierPolicy regional() {
+        return new TierPolicy(REGIONAL, 15 * 60 * 1000, 60 * 1000, 10 * 60 * 1000);
+    }
+
+    /**
+     * Lee ProxyCache.Tier y permite sobrescribir cada TTL con ProxyCache.TTL,
+     * ProxyCache.ElectionTTL y ProxyCache.ElectionPushTTL (en milisegundos).
+     */
+    public static TierPolicy fromProperties(Properties properties) {
+        String tier = properties.getPropertyWithDefault("ProxyCache.Tier", CENTRAL).trim().toLowerCase();
+        TierPolicy defaults = REGIONAL.equals(tier) ? regional() : central();
+
+        return new TierPolicy(defaults.tier,
+                properties.getPropertyAsIntWithDefault("ProxyCache.TTL", (int) defaults.dataTtlMs),
+                properties.getPropertyAsIntWithDefault("ProxyCache.ElectionTTL", (int) defaults.resultsTtlMs),
+                properties.getPropertyAsIntWithDefault("ProxyCache.ElectionPushTTL", (int) defaults.resultsPushTtlMs));
+    }
+
+    public String getTier() { return tier; }
+    public long getDataTtlMs() { return dataTtlMs; }
+    public long getResultsTtlMs() { return resultsTtlMs; }
+    public long getResultsPushTtlMs() { return resultsPushTtlMs; }
+
+    public boolean isRegional() {
+        return REGIONAL.equals(tier);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (datos %ds, resultados %ds, resultados con notificaciones %ds)",
+                tier, dataTtlMs / 1000, resultsTtlMs / 1000, resultsPushTtlMs / 1000);
+    }
+}
@@ -1,5 +1,6 @@
 package org.votaciones;
 
+import VoteNotification.VoteNotifierPrx;
 import VoteNotification.VoteObserver;
 import com.zeroc.Ice.Current;
 import org.slf4j.Logger;
@@ -7,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.Map;
 
 public class VoteObserverImpl implements VoteObserver {
@@ -18,11 +20,28 @@ public class VoteObserverImpl implements VoteObserver {
     private final AtomicInteger totalVotesReceived = new AtomicInteger(0);
     private volatile long lastVoteTimestamp = 0;
 
+    // Última secuencia de delta recibida por elección, para detectar deltas perdidos
+    private final Map<Integer, Long> lastDeltaSequence = new ConcurrentHashMap<>();
+    private final AtomicLong deltasReceived = new AtomicLong(0);
+    private final AtomicLong deltaGaps = new AtomicLong(0);
+    private final AtomicLong snapshotsReceived = new AtomicLong(0);
+
+    private static final long RESYNC_INTERVAL_MS = 5000;
+    private volatile VoteNotifierPrx voteNotifier;
+    private volatile long lastResyncRequest = 0;
+
     public VoteObserverImpl(ProxyCacheReports proxyCache) {
         this.proxyCache = proxyCache;
         logger.info(" VoteObserver inicializado - MODO TIEMPO REAL");
     }
 
+    /**
+     * Notifier al que se le pide un snapshot nuevo (forceResultsUpdate) cuando se pierden deltas.
+     */
+    public void setVoteNotifier(VoteNotifierPrx voteNotifier) {
+        this.voteNotifier = voteNotifier;
+    }
+
     @Override
     public void onVoteReceived(String voteInfo, Current current) {
         try {
@@ -37,6 +56,8 @@ public class VoteObserverImpl implements VoteObserver {
                 totalVotesReceived.incrementAndGet();
                 lastVoteTimestamp = timestamp;
 
+                proxyCache.onVoteNotification(electionId);
+
                 int candidateVotes = voteCount.get(candidateName).get();
                 int totalVotes = totalVotesReceived.get();
 
@@ -60,6 +81,71 @@ public class VoteObserverImpl implements VoteObserver {
         }
     }
 
+    /**
+     * Delta agregado del servidor: electionId#timestamp#total#candidato=n;...#maquina=n;...
+     * Los deltas ya incluidos en el último snapshot se ignoran. Si falta alguna secuencia los
+     * conteos locales quedan incompletos: se invalidan los resultados cacheados y se pide un
+     * snapshot nuevo al servidor.
+     *
+     * La revisión de la secuencia y la suma de los conteos se hacen bajo el mismo monitor que
+     * applySnapshot, así un delta repetido (o uno que llega junto con un snapshot) no se suma dos
+     * veces.
+     */
+    @Override
+    public void onVoteDelta(long sequence, String delta, Current current) {
+        try {
+            String[] parts = delta.split("#", -1);
+            if (parts.length < 5) {
+                logger.warn("Formato de delta inválido: {}", delta);
+                return;
+            }
+
+            int electionId = Integer.parseInt(parts[0]);
+            long timestamp = Long.parseLong(parts[1]);
+            int total = Integer.parseInt(parts[2]);
+
+            Long previous;
+            synchronized (this) {
+                previous = lastDeltaSequence.get(electionId);
+                if (previous != null && sequence <= previous) {
+                    logger.debug("Delta {} de elección {} ya incluido en el snapshot {}", sequence, electionId, previous);
+                    return;
+                }
+                lastDeltaSequence.put(electionId, sequence);
+
+                for (String entry : parts[3].split(";")) {
+                    int separator = entry.lastIndexOf('=');
+                    if (separator > 0) {
+                        voteCount.computeIfAbsent(entry.substring(0, separator), k -> new AtomicInteger(0))
+                                .addAndGet(Integer.parseInt(entry.substring(separator + 1)));
+                    }
+                }
+                totalVotesReceived.addAndGet(total);
+            }
+            boolean gap = previous == null || sequence != previous + 1;
+            lastVoteTimestamp = timestamp;
+            deltasReceived.incrementAndGet();
+
+            if (gap) {
+                deltaGaps.incrementAndGet();
+                logger.warn("Deltas perdidos en elección {}: última secuencia {}, recibida {}", electionId, previous, sequence);
+                proxyCache.invalidateElectionResults(electionId);
+                requestResync(electionId);
+            } else {
+                proxyCache.onVoteNotification(electionId);
+            }
+
+            System.out.println(String.format(
+                    "\n DELTA #%d: %d voto(s) nuevos, %d en total (Elección: %d) [%s]",
+                    sequence, total, totalVotesReceived.get(), electionId, getCurrentTimeString()));
+
+            showCurrentDistribution();
+
+        } catch (Exception e) {
+            logger.error("Error procesando delta de votos: {}", e.getMessage());
+        }
+    }
+
     private void showCurrentDistribution() {
         if (voteCount.isEmpty()) {
             return;
@@ -106,10 +192,69 @@ public class VoteObserverImpl implements VoteObserver {
         return new java.text.SimpleDateFormat("HH:mm:ss").format(new java.util.Date());
     }
 
+    private void requestResync(int electionId) {
+        VoteNotifierPrx notifier = voteNotifier;
+        long now = System.currentTimeMillis();
+        if (notifier == null || now - lastResyncRequest < RESYNC_INTERVAL_MS) {
+            return;
+        }
+        lastResyncRequest = now;
+
+        notifier.forceResultsUpdateAsync(electionId).whenComplete((r, e) -> {
+            if (e != null) {
+                logger.warn("No se pudo pedir el snapshot de la elección {}: {}", electionId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Snapshot del conteo: SNAPSHOT#electionId#version#timestamp#total#candidato=n;...
+     * Reemplaza los conteos locales y fija la secuencia desde la que se aplican los deltas.
+     */
+    private boolean applySnapshot(String resultsData) {
+        String[] parts = resultsData.split("#", -1);
+        if (parts.length < 6 || !"SNAPSHOT".equals(parts[0])) {
+            return false;
+        }
+
+        int electionId = Integer.parseInt(parts[1]);
+        long version = Long.parseLong(parts[2]);
+        long timestamp = Long.parseLong(parts[3]);
+        int total = Integer.parseInt(parts[4]);
+
+        synchronized (this) {
+            voteCount.clear();
+            for (String entry : parts[5].split(";")) {
+                int separator = entry.lastIndexOf('=');
+                if (separator > 0) {
+                    voteCount.put(entry.substring(0, separator),
+                            new AtomicInteger(Integer.parseInt(entry.substring(separator + 1))));
+                }
+            }
+            totalVotesReceived.set(total);
+            lastDeltaSequence.put(electionId, version);
+        }
+        lastVoteTimestamp = timestamp;
+        snapshotsReceived.incrementAndGet();
+        proxyCache.invalidateElectionResults(electionId);
+
+        System.out.println(String.format(
+                "\n SNAPSHOT de elección %d (versión %d): %d votos [%s]",
+                electionId, version, total, getCurrentTimeString()));
+        showCurrentDistribution();
+        return true;
+    }
+
     @Override
     public void onElectionResultsUpdated(String resultsData, Current current) {
         try {
+            if (applySnapshot(resultsData)) {
+                return;
+            }
+
             logger.info("Resultados de elección actualizados: {}", resultsData);
+            proxyCache.invalidateElectionResults(ProxyCacheServer.OBSERVED_ELECTION_ID);
+
             System.out.println("\n ========== RESULTADOS OFICIALES ACTUALIZADOS ==========");
             System.out.println("<" + resultsData + ">");
             System.out.println("===========================================================\n");
@@ -157,6 +302,8 @@ public class VoteObserverImpl implements VoteObserver {
 
         stats.append(String.format("Total votos recibidos: %d\n", totalVotesReceived.get()));
         stats.append(String.format("Candidatos activos: %d\n", voteCount.size()));
+        stats.append(String.format("Deltas recibidos: %d (%d con secuencias perdidas), snapshots: %d\n",
+                deltasReceived.get(), deltaGaps.get(), snapshotsReceived.get()));
 
         if (lastVoteTimestamp > 0) {
             stats.append(String.format("Último voto: %s\n", new java.util.Date(lastVoteTimestamp)));
@@ -181,8 +328,11 @@ public class VoteObserverImpl implements VoteObserver {
 
 
     public void resetCounters() {
-        voteCount.clear();
-        totalVotesReceived.set(0);
+        synchronized (this) {
+            voteCount.clear();
+            totalVotesReceived.set(0);
+            lastDeltaSequence.clear();
+        }
         lastVoteTimestamp = 0;
         logger.info(" Contadores de votos reiniciados");
         System.out.println("\n ========== CONTADORES REINICIADOS ==========\n");
@@ -0,0 +1,142 @@
+package org.votaciones;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void escribeYLeeElMismoContenido() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("cache/snapshot.bin");
+        List<CacheSnapshot.Entry> entries = Arrays.asList(
+                new CacheSnapshot.Entry("mesa:12", "{\"votos\":40}", 1_700_000_000_000L),
+                new CacheSnapshot.Entry("puesto:ñandú", "Bogotá – centro", 1_700_000_000_500L));
+        List<CacheSnapshot.Pattern> patterns = Collections.singletonList(
+                new CacheSnapshot.Pattern("mesa:12", "mesa", 12, 7, new long[]{1L, 2L, Long.MAX_VALUE}));
+
+        long before = System.currentTimeMillis();
+        new CacheSnapshot(file).write(entries, patterns);
+        assertFalse(Files.exists(file.resolveSibling("snapshot.bin.tmp")));
+
+        CacheSnapshot loaded = new CacheSnapshot(file);
+        assertTrue(loaded.read());
+        assertTrue(loaded.getCreatedAt() >= before);
+
+        assertEquals(2, loaded.getEntries().size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).key, loaded.getEntries().get(i).key);
+            assertEquals(entries.get(i).data, loaded.getEntries().get(i).data);
+            assertEquals(entries.get(i).timestamp, loaded.getEntries().get(i).timestamp);
+        }
+
+        assertEquals(1, loaded.getPatterns().size());
+        CacheSnapshot.Pattern pattern = loaded.getPatterns().get(0);
+        assertEquals("mesa:12", pattern.key);
+        assertEquals("mesa", pattern.locationType);
+        assertEquals(12, pattern.locationId);
+        assertEquals(7, pattern.totalQueries);
+        assertArrayEquals(new long[]{1L, 2L, Long.MAX_VALUE}, pattern.buckets);
+    }
+
+    @Test
+    public void reemplazaUnSnapshotAnterior() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("snapshot.bin");
+        new CacheSnapshot(file).write(
+                Collections.singletonList(new CacheSnapshot.Entry("a", "viejo", 1L)), Collections.emptyList());
+        new CacheSnapshot(file).write(Collections.emptyList(), Collections.emptyList());
+
+        CacheSnapshot loaded = new CacheSnapshot(file);
+        assertTrue(loaded.read());
+        assertTrue(loaded.getEntries().isEmpty());
+        assertTrue(loaded.getPatterns().isEmpty());
+    }
+
+    @Test
+    public void sinArchivoNoCarga() {
+        CacheSnapshot snapshot = new CacheSnapshot(folder.getRoot().toPath().resolve("no-existe.bin"));
+        assertFalse(snapshot.read());
+        assertTrue(snapshot.getEntries().isEmpty());
+    }
+
+    @Test
+    public void unArchivoCortadoSeIgnora() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("snapshot.bin");
+        new CacheSnapshot(file).write(
+                Collections.singletonList(new CacheSnapshot.Entry("mesa:1", "datos de la mesa", 5L)),
+                Collections.emptyList());
+
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 6));
+
+        CacheSnapshot loaded = new CacheSnapshot(file);
+        assertFalse(loaded.read());
+        assertTrue(loaded.getEntries().isEmpty());
+    }
+
+    @Test
+    public void unByteCambiadoEnElCuerpoSeDetectaPorElCrc() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("snapshot.bin");
+        new CacheSnapshot(file).write(
+                Collections.singletonList(new CacheSnapshot.Entry("mesa:1", "datos de la mesa", 5L)),
+                Collections.emptyList());
+
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 10] ^= 0x01;
+        Files.write(file, content);
+
+        CacheSnapshot loaded = new CacheSnapshot(file);
+        assertFalse(loaded.read());
+        assertTrue(loaded.getEntries().isEmpty());
+    }
+
+    @Test
+    public void largosYCantidadesImposiblesSeRechazanSinReservarMemoria() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("snapshot.bin");
+
+        // Con CRC válido: solo la validación de largos puede rechazarlos
+        Files.write(file, withHeader(ByteBuffer.allocate(8).putInt(Integer.MAX_VALUE).putInt(0).array()));
+        assertFalse(new CacheSnapshot(file).read());
+
+        Files.write(file, withHeader(ByteBuffer.allocate(12).putInt(1).putInt(Integer.MAX_VALUE).putInt(0).array()));
+        assertFalse(new CacheSnapshot(file).read());
+
+        Files.write(file, withHeader(ByteBuffer.allocate(8).putInt(0).putInt(-1).array()));
+        assertFalse(new CacheSnapshot(file).read());
+
+        Files.write(file, withHeader(ByteBuffer.allocate(8).putInt(0).putInt(0).array()));
+        assertTrue(new CacheSnapshot(file).read());
+    }
+
+    /** Cabecera del formato actual (magic "PCRS", versión 3, fecha, CRC32 del cuerpo) y el cuerpo. */
+    private static byte[] withHeader(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return ByteBuffer.allocate(20 + body.length)
+                .putInt(0x50435253).putInt(3).putLong(1L).putInt((int) crc.getValue()).put(body).array();
+    }
+
+    @Test
+    public void otroFormatoSeIgnora() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("snapshot.bin");
+        Files.write(file, "no es un snapshot del cache".getBytes("UTF-8"));
+
+        assertFalse(new CacheSnapshot(file).read());
+    }
+}
@@ -0,0 +1,60 @@
+package org.votaciones;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocationHierarchyTest {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final long BURST_MS = 60_000;
+
+    /** Puesto 100 con las mesas 1001, 1002 y 1003; la 1001 muy consultada. */
+    private static LocationHierarchy puestoConMesaCaliente() {
+        LocationHierarchy hierarchy = new LocationHierarchy();
+        for (int mesa = 1001; mesa <= 1003; mesa++) {
+            hierarchy.learnFromCitizenReport("123#1-Valle-10-Cali-100-Colegio-Calle 1-1-" + mesa + "-1#");
+        }
+        for (int i = 0; i < 30; i++) {
+            hierarchy.recordQuery(LocationHierarchy.Level.MESA, 1001, 1, NOW);
+        }
+        return hierarchy;
+    }
+
+    @Test
+    public void unPuestoElegidoDespuesDeSuMesaLaReemplaza() {
+        LocationHierarchy hierarchy = puestoConMesaCaliente();
+
+        // Por consultas por llamada la mesa 1001 va antes que su puesto
+        List<LocationHierarchy.PrefetchTask> plan = hierarchy.planPrefetch(NOW, BURST_MS, 1, 4, task -> false);
+
+        assertEquals(1, plan.size());
+        assertEquals(LocationHierarchy.Level.PUESTO, plan.get(0).level);
+        assertEquals(100, plan.get(0).id);
+    }
+
+    @Test
+    public void elCostoDeLasMesasReemplazadasAlcanzaParaElPuesto() {
+        LocationHierarchy hierarchy = puestoConMesaCaliente();
+
+        // Tras la mesa 1001 quedan 2 llamadas; con la que se recupera alcanza para las 3 del puesto
+        List<LocationHierarchy.PrefetchTask> plan = hierarchy.planPrefetch(NOW, BURST_MS, 1, 3, task -> false);
+
+        assertEquals(1, plan.size());
+        assertEquals(LocationHierarchy.Level.PUESTO, plan.get(0).level);
+        assertEquals(3, plan.get(0).cost);
+    }
+
+    @Test
+    public void sinPresupuestoParaElPuestoQuedaLaMesa() {
+        LocationHierarchy hierarchy = puestoConMesaCaliente();
+
+        List<LocationHierarchy.PrefetchTask> plan = hierarchy.planPrefetch(NOW, BURST_MS, 1, 1, task -> false);
+
+        assertEquals(1, plan.size());
+        assertEquals(LocationHierarchy.Level.MESA, plan.get(0).level);
+        assertEquals(1001, plan.get(0).id);
+    }
+}
@@ -0,0 +1,111 @@
+package org.votaciones;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+public class SlidingWindowCounterTest {
+
+    private static final long BUCKET_MS = 1000;
+    private static final long WINDOW_MS = 10 * BUCKET_MS;
+
+    @Test
+    public void cuentaSoloLosBucketsDelIntervalo() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        long base = 1_000_000L;
+
+        counter.increment(base);
+        counter.increment(base + 100);
+        counter.increment(base + 3 * BUCKET_MS);
+        counter.increment(base + 5 * BUCKET_MS);
+
+        long now = base + 5 * BUCKET_MS;
+        assertEquals(1, counter.count(now, BUCKET_MS));
+        assertEquals(2, counter.count(now, 3 * BUCKET_MS));
+        assertEquals(4, counter.count(now, WINDOW_MS));
+    }
+
+    @Test
+    public void losBucketsViejosSalenDeLaVentana() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        long base = 1_000_000L;
+
+        counter.increment(base);
+        counter.increment(base);
+        assertEquals(2, counter.count(base + WINDOW_MS - 1, WINDOW_MS));
+        assertEquals(0, counter.count(base + WINDOW_MS, WINDOW_MS));
+    }
+
+    @Test
+    public void unBucketReutilizadoEmpiezaDeCero() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        long base = 1_000_000L;
+
+        for (int i = 0; i < 5; i++) {
+            counter.increment(base);
+        }
+        // Misma posición del anillo, una vuelta después
+        long later = base + WINDOW_MS;
+        counter.increment(later);
+
+        assertEquals(1, counter.count(later, WINDOW_MS));
+    }
+
+    @Test
+    public void restoreConservaElBucketMasReciente() {
+        SlidingWindowCounter original = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        long base = 1_000_000L;
+        original.increment(base);
+        original.increment(base + BUCKET_MS);
+        original.increment(base + BUCKET_MS);
+
+        SlidingWindowCounter restored = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        restored.restore(original.getBuckets());
+
+        long now = base + BUCKET_MS;
+        assertEquals(3, restored.count(now, WINDOW_MS));
+
+        // Un snapshot más viejo no pisa lo que ya se contó después
+        SlidingWindowCounter newer = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        newer.increment(base + WINDOW_MS);
+        newer.restore(original.getBuckets());
+        assertEquals(1, newer.count(base + WINDOW_MS, BUCKET_MS));
+        assertEquals(3, newer.count(base + WINDOW_MS, WINDOW_MS));
+    }
+
+    @Test
+    public void incrementosConcurrentesNoSePierden() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_MS, BUCKET_MS);
+        long now = 1_000_000L;
+        int threads = 8;
+        int perThread = 10_000;
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment(now);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, counter.count(now, WINDOW_MS));
+    }
+}
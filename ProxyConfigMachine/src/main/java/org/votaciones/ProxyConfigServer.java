@@ -0,0 +1,115 @@
+package org.votaciones;
+
+import VotingsSystem.ConfigurationService;
+import VotingsSystem.ConfigurationServicePrx;
+import com.zeroc.Ice.*;
+import com.zeroc.Ice.Exception;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxy regional de configuraciones: las mesas de la región le piden su configuración a este
+ * proceso en lugar de al servidor central.
+ */
+public class ProxyConfigServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyConfigServer.class);
+
+    public static void main(String[] args) {
+        List<String> params = new ArrayList<>();
+        ScheduledExecutorService scheduler = null;
+
+        try (Communicator communicator = Util.initialize(args, params)) {
+            Properties properties = communicator.getProperties();
+
+            System.out.println("========== PROXY REGIONAL DE CONFIGURACIONES ==========");
+            String upstream = properties.getPropertyWithDefault("ConfigurationServer.Proxy",
+                    "ConfigurationManager:default -h localhost -p 9003");
+
+            System.out.println("Conectando al servidor central de configuraciones...");
+            ConfigurationServicePrx central = ConfigurationServicePrx.checkedCast(communicator.stringToProxy(upstream));
+            if (central == null) {
+                System.err.println("Error: No se pudo conectar al ConfigurationService: " + upstream);
+                System.err.println("Asegúrate de que el servidor principal esté ejecutándose");
+                return;
+            }
+            System.out.println("Conectado al servidor central (" + upstream + ")");
+
+            long versionCheckMs = properties.getPropertyAsIntWithDefault("ProxyConfig.VersionCheckInterval", 30000);
+            RegionalConfigurationCache cache = new RegionalConfigurationCache(central, versionCheckMs);
+
+            String endpoints = properties.getPropertyWithDefault("ProxyConfigAdapter.Endpoints", "default -h localhost -p 9100");
+            ObjectAdapter adapter = communicator.createObjectAdapterWithEndpoints("ProxyConfigAdapter", endpoints);
+            // Misma identidad que el servicio central: las mesas solo cambian el endpoint
+            adapter.add((ConfigurationService) cache, Util.stringToIdentity("ConfigurationManager"));
+            adapter.activate();
+
+            int electionId = properties.getPropertyAsIntWithDefault("ProxyConfig.ElectionId", 1);
+            List<Integer> departments = parseIds(properties.getProperty("ProxyConfig.Departments"));
+
+            System.out.println("\n ========== PROXY DE CONFIGURACIONES INICIADO ==========");
+            System.out.println("    Endpoint: " + endpoints);
+            System.out.println("    Upstream: " + upstream);
+            System.out.println("    Elección: " + electionId);
+            System.out.println("    Departamentos de la región: " + (departments.isEmpty() ? "(se cargan a demanda)" : departments));
+            System.out.println("    Revisión de versión: cada " + versionCheckMs / 1000 + "s");
+            System.out.println();
+
+            if (!departments.isEmpty()) {
+                System.out.println("Precargando configuraciones de la región...");
+                cache.preloadDepartments(departments, electionId);
+            }
+
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            scheduler.scheduleAtFixedRate(() -> {
+                try {
+                    System.out.print("\n" + cache.getStats());
+                } catch (java.lang.Exception e) {
+                    logger.debug("Error mostrando estadísticas: {}", e.getMessage());
+                }
+            }, 60, 60, TimeUnit.SECONDS);
+
+            System.out.println(" Esperando solicitudes de mesas en " + endpoints + "...");
+            System.out.println("================================================");
+
+            communicator.waitForShutdown();
+
+            System.out.println("\nCerrando proxy de configuraciones...");
+            System.out.print(cache.getStats());
+
+        } catch (LocalException e) {
+            System.err.println(" Error de Ice en proxy de configuraciones: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println(" Error general en proxy de configuraciones: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+    }
+
+    private static List<Integer> parseIds(String value) {
+        List<Integer> ids = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return ids;
+        }
+        for (String id : value.split(",")) {
+            try {
+                ids.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Departamento inválido en ProxyConfig.Departments: {}", id);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,534 @@
+package org.votaciones;
+
+import ConfigurationSystem.ConfigurationCodec;
+import VotingsSystem.ConfigurationService;
+import VotingsSystem.ConfigurationServicePrx;
+import com.zeroc.Ice.Current;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache regional de configuraciones de mesa delante del ConfigurationService central.
+ *
+ * Las mesas de la región piden su configuración a este proxy. Un miss trae la mesa del servidor
+ * central (una sola consulta aunque muchas mesas la pidan a la vez) y en segundo plano trae todo
+ * su departamento con getDepartmentConfigurations, así que las demás mesas del departamento ya
+ * encuentran su paquete aquí. Los paquetes se guardan comprimidos.
+ *
+ * Cada elección tiene una versión: el hash de sus secciones de elección y candidatos, iguales en
+ * todas las mesas. Cada {@code versionCheckMs} se pide una mesa al central y, si la versión cambió,
+ * se descarta lo cacheado de esa elección. Si el central no responde se siguen sirviendo los
+ * paquetes que ya había.
+ *
+ * Cada consulta al central anota contra qué generación de la elección empezó y cuándo. Una
+ * respuesta con otra versión solo reemplaza la elección si nadie la cambió mientras tanto, y un
+ * paquete solo reemplaza a otro de la misma mesa si su consulta empezó después, así una respuesta
+ * lenta nunca vuelve a una versión anterior. Los datos de la mesa y sus ciudadanos no entran en la
+ * versión: un paquete (o departamento) con más de {@code versionCheckMs} se sigue sirviendo y se
+ * vuelve a pedir en segundo plano.
+ */
+public class RegionalConfigurationCache implements ConfigurationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionalConfigurationCache.class);
+
+    private static final long UPSTREAM_TIMEOUT_MS = 30 * 1000;
+    private static final int PRELOAD_BATCH_SIZE = 200;
+
+    // Sección de mesa: mesaId-consecutivo-puestoId-...-departamentoId-departamentoNombre-totalCiudadanos.
+    // Los nombres y direcciones pueden traer '-', así que el departamento se cuenta desde el final.
+    private static final int MESA_FIELD_ID = 0;
+    private static final int MESA_FIELD_PUESTO = 2;
+    private static final int MESA_FIELD_DEPARTMENT = -3;
+
+    /** Paquetes de una versión de una elección. */
+    private static final class ElectionCache {
+        private final String version;
+        private final long generation;
+        private final Map<Integer, Package> packages = new ConcurrentHashMap<>();
+        private final Map<Integer, Set<Integer>> mesasByDepartment = new ConcurrentHashMap<>();
+        private final Map<Integer, Long> loadedDepartments = new ConcurrentHashMap<>();
+        private final AtomicBoolean checking = new AtomicBoolean(false);
+        private volatile long checkedAt = System.currentTimeMillis();
+
+        private ElectionCache(String version, long generation) {
+            this.version = version;
+            this.generation = generation;
+        }
+    }
+
+    /** Paquete comprimido y cuándo empezó la consulta que lo trajo. */
+    private static final class Package {
+        private final byte[] data;
+        private final long fetchedAt;
+
+        private Package(byte[] data, long fetchedAt) {
+            this.data = data;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    /** Generación de la elección y hora al empezar una consulta al central. */
+    private static final class Fetch {
+        private final long generation;
+        private final long startedAt = System.currentTimeMillis();
+
+        private Fetch(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    private final ConfigurationServicePrx central;
+    private final long versionCheckMs;
+    private final Map<Integer, ElectionCache> elections = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong(0);
+
+    // Single-flight por mesa y por departamento
+    private final Map<String, CompletableFuture<String>> inFlightMesas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Integer>> inFlightDepartments = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong upstreamCalls = new AtomicLong(0);
+    private final AtomicLong staleServed = new AtomicLong(0);
+    private final AtomicLong versionChanges = new AtomicLong(0);
+    private final AtomicLong staleDropped = new AtomicLong(0);
+    private final AtomicLong refreshes = new AtomicLong(0);
+
+    public RegionalConfigurationCache(ConfigurationServicePrx central, long versionCheckMs) {
+        this.central = central;
+        this.versionCheckMs = versionCheckMs;
+    }
+
+    @Override
+    public CompletionStage<String> getConfigurationAsync(int mesaId, int electionId, Current current) {
+        ElectionCache cache = elections.get(electionId);
+        if (cache != null) {
+            revalidate(electionId, cache);
+            Package cached = cache.packages.get(mesaId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                if (expired(cached.fetchedAt)) {
+                    refreshes.incrementAndGet();
+                    loadMesa(mesaId, electionId);
+                }
+                return CompletableFuture.completedFuture(ConfigurationCodec.inflate(cached.data));
+            }
+        }
+
+        // El hilo de Ice queda libre mientras el central responde
+        misses.incrementAndGet();
+        return loadMesa(mesaId, electionId)
+                .orTimeout(UPSTREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    logger.warn("No se pudo obtener la configuración de mesa {} elección {}: {}", mesaId, electionId, e.getMessage());
+                    return createErrorString("Servidor central no disponible");
+                });
+    }
+
+    @Override
+    public boolean isConfigurationReady(int mesaId, int electionId, Current current) {
+        ElectionCache cache = elections.get(electionId);
+        if (cache != null && cache.packages.containsKey(mesaId)) {
+            return true;
+        }
+        try {
+            upstreamCalls.incrementAndGet();
+            return central.isConfigurationReady(mesaId, electionId);
+        } catch (Exception e) {
+            logger.warn("Error consultando disponibilidad de mesa {}: {}", mesaId, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void preloadConfigurations(int[] mesaIds, int electionId, Current current) {
+        logger.info("Precargando {} mesas de la elección {}", mesaIds.length, electionId);
+        for (int from = 0; from < mesaIds.length; from += PRELOAD_BATCH_SIZE) {
+            int[] batch = Arrays.copyOfRange(mesaIds, from, Math.min(mesaIds.length, from + PRELOAD_BATCH_SIZE));
+            getBatchConfigurations(batch, electionId, current);
+        }
+    }
+
+    @Override
+    public String[] getBatchConfigurations(int[] mesaIds, int electionId, Current current) {
+        ElectionCache cache = elections.get(electionId);
+        if (cache != null) {
+            revalidate(electionId, cache);
+        }
+
+        // Los paquetes vencidos se vuelven a pedir en el mismo lote; si el central falla se sirven igual
+        List<Integer> missing = new ArrayList<>();
+        int expired = 0;
+        for (int mesaId : mesaIds) {
+            Package cached = cache != null ? cache.packages.get(mesaId) : null;
+            if (cached == null) {
+                missing.add(mesaId);
+            } else if (expired(cached.fetchedAt)) {
+                missing.add(mesaId);
+                expired++;
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            try {
+                Fetch fetch = fetch(electionId);
+                upstreamCalls.incrementAndGet();
+                String[] fetched = central.getBatchConfigurationsAsync(missing.stream().mapToInt(Integer::intValue).toArray(), electionId)
+                        .get(UPSTREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                for (String configuration : fetched) {
+                    store(electionId, configuration, fetch);
+                }
+            } catch (Exception e) {
+                logger.warn("Error trayendo lote de {} mesas de la elección {}: {}", missing.size(), electionId, e.getMessage());
+            }
+            cache = elections.get(electionId);
+        }
+
+        refreshes.addAndGet(expired);
+        hits.addAndGet(mesaIds.length - missing.size() + expired);
+        misses.addAndGet(missing.size() - expired);
+        return collect(cache, Arrays.stream(mesaIds).boxed().toArray(Integer[]::new));
+    }
+
+    @Override
+    public String[] getDepartmentConfigurations(int departmentId, int electionId, Current current) {
+        ElectionCache cache = elections.get(electionId);
+        if (cache != null) {
+            revalidate(electionId, cache);
+        }
+
+        Long loadedAt = cache != null ? cache.loadedDepartments.get(departmentId) : null;
+        if (loadedAt == null) {
+            try {
+                loadDepartment(departmentId, electionId).get(UPSTREAM_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                logger.warn("Error trayendo departamento {} de la elección {}: {}", departmentId, electionId, e.getMessage());
+            }
+            cache = elections.get(electionId);
+        } else {
+            hits.incrementAndGet();
+            if (expired(loadedAt)) {
+                refreshes.incrementAndGet();
+                refreshDepartment(departmentId, electionId);
+            }
+        }
+
+        Set<Integer> mesas = cache != null ? cache.mesasByDepartment.get(departmentId) : null;
+        if (mesas == null || mesas.isEmpty()) {
+            return new String[]{createErrorString("No mesas found for department")};
+        }
+        return collect(cache, mesas.stream().sorted().toArray(Integer[]::new));
+    }
+
+    @Override
+    public String[] getPuestoConfigurations(int puestoId, int electionId, Current current) {
+        try {
+            upstreamCalls.incrementAndGet();
+            Fetch fetch = fetch(electionId);
+            String[] configurations = central.getPuestoConfigurations(puestoId, electionId);
+            for (String configuration : configurations) {
+                store(electionId, configuration, fetch);
+            }
+            return configurations;
+        } catch (Exception e) {
+            logger.warn("Error trayendo puesto {} de la elección {}: {}", puestoId, electionId, e.getMessage());
+
+            ElectionCache cache = elections.get(electionId);
+            if (cache != null) {
+                List<String> cached = new ArrayList<>();
+                for (Package stored : cache.packages.values()) {
+                    String configuration = ConfigurationCodec.inflate(stored.data);
+                    if (puestoId == mesaField(configuration, MESA_FIELD_PUESTO)) {
+                        cached.add(configuration);
+                    }
+                }
+                if (!cached.isEmpty()) {
+                    staleServed.addAndGet(cached.size());
+                    return cached.toArray(new String[0]);
+                }
+            }
+            return new String[]{createErrorString("Servidor central no disponible")};
+        }
+    }
+
+    @Override
+    public String getConfigurationStatistics(int electionId, Current current) {
+        try {
+            upstreamCalls.incrementAndGet();
+            return central.getConfigurationStatistics(electionId);
+        } catch (Exception e) {
+            return createErrorString("Servidor central no disponible");
+        }
+    }
+
+    @Override
+    public boolean isElectionReadyForConfiguration(int electionId, Current current) {
+        try {
+            upstreamCalls.incrementAndGet();
+            return central.isElectionReadyForConfiguration(electionId);
+        } catch (Exception e) {
+            // Sin central, la elección está lista si ya tenemos sus paquetes
+            ElectionCache cache = elections.get(electionId);
+            return cache != null && !cache.packages.isEmpty();
+        }
+    }
+
+    /**
+     * Trae los departamentos de la región al arrancar, uno tras otro para no cargar al central.
+     */
+    public void preloadDepartments(List<Integer> departmentIds, int electionId) {
+        for (Integer departmentId : departmentIds) {
+            try {
+                int loaded = loadDepartment(departmentId, electionId).get(UPSTREAM_TIMEOUT_MS * 4, TimeUnit.MILLISECONDS);
+                logger.info("Departamento {} precargado: {} mesas en cache", departmentId, loaded);
+            } catch (Exception e) {
+                logger.warn("No se pudo precargar el departamento {}: {}", departmentId, e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<String> loadMesa(int mesaId, int electionId) {
+        String key = electionId + ":" + mesaId;
+        CompletableFuture<String> pending = inFlightMesas.get(key);
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return pending;
+        }
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+        pending = inFlightMesas.putIfAbsent(key, load);
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return pending;
+        }
+
+        Fetch fetch = fetch(electionId);
+        upstreamCalls.incrementAndGet();
+        central.getConfigurationAsync(mesaId, electionId).whenComplete((configuration, error) -> {
+            inFlightMesas.remove(key);
+            if (error != null) {
+                load.completeExceptionally(error);
+                return;
+            }
+
+            load.complete(configuration);
+            int departmentId = store(electionId, configuration, fetch);
+            if (departmentId >= 0) {
+                // El resto del departamento llegará a pedir lo mismo en breve
+                loadDepartment(departmentId, electionId);
+            }
+        });
+        return load;
+    }
+
+    private CompletableFuture<Integer> loadDepartment(int departmentId, int electionId) {
+        ElectionCache cache = elections.get(electionId);
+        if (cache != null && cache.loadedDepartments.containsKey(departmentId)) {
+            return CompletableFuture.completedFuture(cache.mesasByDepartment.getOrDefault(departmentId, Set.of()).size());
+        }
+        return refreshDepartment(departmentId, electionId);
+    }
+
+    /** Trae el departamento del central aunque ya esté cacheado. */
+    private CompletableFuture<Integer> refreshDepartment(int departmentId, int electionId) {
+        String key = electionId + ":" + departmentId;
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+        CompletableFuture<Integer> pending = inFlightDepartments.putIfAbsent(key, load);
+        if (pending != null) {
+            coalesced.incrementAndGet();
+            return pending;
+        }
+
+        logger.info("Trayendo configuraciones del departamento {} elección {}", departmentId, electionId);
+        Fetch fetch = fetch(electionId);
+        upstreamCalls.incrementAndGet();
+        central.getDepartmentConfigurationsAsync(departmentId, electionId).whenComplete((configurations, error) -> {
+            inFlightDepartments.remove(key);
+            if (error != null) {
+                logger.warn("Error trayendo departamento {}: {}", departmentId, error.getMessage());
+                load.completeExceptionally(error);
+                return;
+            }
+
+            int stored = 0;
+            for (String configuration : configurations) {
+                if (store(electionId, configuration, fetch) >= 0) {
+                    stored++;
+                }
+            }
+            ElectionCache updated = elections.get(electionId);
+            if (updated != null && stored > 0) {
+                updated.loadedDepartments.put(departmentId, fetch.startedAt);
+            }
+            logger.info("Departamento {} elección {}: {} mesas en cache", departmentId, electionId, stored);
+            load.complete(stored);
+        });
+        return load;
+    }
+
+    private Fetch fetch(int electionId) {
+        ElectionCache cache = elections.get(electionId);
+        return new Fetch(cache != null ? cache.generation : 0);
+    }
+
+    private boolean expired(long fetchedAt) {
+        return System.currentTimeMillis() - fetchedAt >= versionCheckMs;
+    }
+
+    /**
+     * Guarda un paquete en la versión que le corresponde. Si trae una versión distinta a la
+     * cacheada y nadie cambió la elección desde que empezó {@code fetch}, la elección cambió: se
+     * descarta lo anterior. El cambio de versión y la inserción ocurren en el mismo paso atómico.
+     * Retorna el departamento de la mesa, o -1 si la respuesta era un error o quedó vieja.
+     */
+    private int store(int electionId, String configuration, Fetch fetch) {
+        if (configuration == null || configuration.startsWith("ERROR")) {
+            return -1;
+        }
+
+        String version = versionOf(configuration);
+        int mesaId = mesaField(configuration, MESA_FIELD_ID);
+        int departmentId = mesaField(configuration, MESA_FIELD_DEPARTMENT);
+        if (version == null || mesaId < 0) {
+            logger.warn("Configuración con formato inesperado para la elección {}, no se cachea", electionId);
+            return -1;
+        }
+
+        Package stored = new Package(ConfigurationCodec.deflate(configuration), fetch.startedAt);
+        boolean[] accepted = new boolean[1];
+        elections.compute(electionId, (id, existing) -> {
+            ElectionCache cache;
+            if (existing != null && existing.version.equals(version)) {
+                cache = existing;
+            } else if (existing != null && existing.generation > fetch.generation) {
+                // La elección cambió de versión después de que empezó esta consulta
+                return existing;
+            } else {
+                cache = new ElectionCache(version, generations.incrementAndGet());
+                if (existing != null) {
+                    versionChanges.incrementAndGet();
+                    logger.info("Elección {} cambió de versión ({} -> {}), se descartan {} paquetes",
+                            id, existing.version, version, existing.packages.size());
+                }
+            }
+
+            // Un paquete traído por una consulta más nueva no se reemplaza
+            cache.packages.merge(mesaId, stored, (old, fresh) -> fresh.fetchedAt >= old.fetchedAt ? fresh : old);
+            if (departmentId >= 0) {
+                cache.mesasByDepartment.computeIfAbsent(departmentId, k -> ConcurrentHashMap.newKeySet()).add(mesaId);
+            }
+            accepted[0] = true;
+            return cache;
+        });
+
+        if (!accepted[0]) {
+            staleDropped.incrementAndGet();
+            logger.debug("Respuesta vieja para mesa {} de la elección {} (versión {}), no se cachea", mesaId, electionId, version);
+            return -1;
+        }
+        return departmentId;
+    }
+
+    /**
+     * Si pasó el intervalo, pide al central una mesa ya cacheada para comparar versiones. Corre en
+     * segundo plano: mientras tanto se siguen sirviendo los paquetes actuales.
+     */
+    private void revalidate(int electionId, ElectionCache cache) {
+        if (System.currentTimeMillis() - cache.checkedAt < versionCheckMs || !cache.checking.compareAndSet(false, true)) {
+            return;
+        }
+
+        Integer sampleMesa = cache.packages.keySet().stream().findAny().orElse(null);
+        if (sampleMesa == null) {
+            cache.checking.set(false);
+            return;
+        }
+
+        Fetch fetch = new Fetch(cache.generation);
+        upstreamCalls.incrementAndGet();
+        central.getConfigurationAsync(sampleMesa, electionId).whenComplete((configuration, error) -> {
+            cache.checking.set(false);
+            if (error != null) {
+                staleServed.incrementAndGet();
+                logger.debug("Central no disponible al revalidar la elección {}: {}", electionId, error.getMessage());
+                return;
+            }
+            cache.checkedAt = System.currentTimeMillis();
+            store(electionId, configuration, fetch);
+        });
+    }
+
+    private String[] collect(ElectionCache cache, Integer[] mesaIds) {
+        List<String> configurations = new ArrayList<>(mesaIds.length);
+        if (cache != null) {
+            for (Integer mesaId : mesaIds) {
+                Package cached = cache.packages.get(mesaId);
+                if (cached != null) {
+                    configurations.add(ConfigurationCodec.inflate(cached.data));
+                }
+            }
+        }
+        return configurations.toArray(new String[0]);
+    }
+
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        stats.append("=== CACHE REGIONAL DE CONFIGURACIONES ===\n");
+        stats.append(String.format("Hits: %d, misses: %d, consultas unidas: %d, llamadas al central: %d\n",
+                hits.get(), misses.get(), coalesced.get(), upstreamCalls.get()));
+        stats.append(String.format("Cambios de versión: %d, respuestas sin poder revalidar: %d, respuestas viejas descartadas: %d, paquetes renovados: %d\n",
+                versionChanges.get(), staleServed.get(), staleDropped.get(), refreshes.get()));
+        for (Map.Entry<Integer, ElectionCache> entry : elections.entrySet()) {
+            ElectionCache cache = entry.getValue();
+            long bytes = cache.packages.values().stream().mapToLong(p -> p.data.length).sum();
+            stats.append(String.format("   Elección %d versión %s: %d mesas, %d departamentos completos, %.1f MB\n",
+                    entry.getKey(), cache.version, cache.packages.size(), cache.loadedDepartments.size(),
+                    bytes / 1048576.0));
+        }
+        return stats.toString();
+    }
+
+    // mesa#eleccion#candidatos#ciudadanos#metadata: la versión son las secciones de elección y candidatos
+    private static String versionOf(String configuration) {
+        int first = configuration.indexOf('#');
+        int second = first >= 0 ? configuration.indexOf('#', first + 1) : -1;
+        int third = second >= 0 ? configuration.indexOf('#', second + 1) : -1;
+        if (third < 0) {
+            return null;
+        }
+
+        return Long.toHexString(ConfigurationCodec.fnv64(ConfigurationCodec.FNV64_OFFSET, configuration, first + 1, third));
+    }
+
+    // Campo numérico de la sección de mesa; los índices negativos cuentan desde el final
+    private static int mesaField(String configuration, int field) {
+        int sectionEnd = configuration.indexOf('#');
+        String[] fields = (sectionEnd >= 0 ? configuration.substring(0, sectionEnd) : configuration).split("-");
+        int index = field >= 0 ? field : fields.length + field;
+        if (index < 0 || index >= fields.length) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fields[index]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String createErrorString(String message) {
+        return "ERROR-" + message + "-" + System.currentTimeMillis();
+    }
+}
@@ -20,50 +20,79 @@ public interface ReportsService extends com.zeroc.Ice.Object
     /**
      * Obtiene el reporte completo de un ciudadano
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String getCitizenReports(String documento, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<java.lang.String> getCitizenReportsAsync(String documento, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Busca ciudadanos por nombre y apellido
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] searchCitizenReports(String nombre, String apellido, int electionId, int limit, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> searchCitizenReportsAsync(String nombre, String apellido, int electionId, int limit, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene todos los ciudadanos de una mesa
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getMesaCitizenReports(int mesaId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getMesaCitizenReportsAsync(int mesaId, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Valida si un ciudadano es elegible para votar
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    boolean validateCitizenEligibility(String documento, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<java.lang.Boolean> validateCitizenEligibilityAsync(String documento, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene el reporte de resultados de una elección
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String getElectionReports(int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<java.lang.String> getElectionReportsAsync(int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene la lista de elecciones disponibles
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getAvailableElections(com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getAvailableElectionsAsync(com.zeroc.Ice.Current current);
 
     /**
      * Verifica si los reportes están listos para una elección
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    boolean areReportsReady(int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<java.lang.Boolean> areReportsReadyAsync(int electionId, com.zeroc.Ice.Current current);
+
+    /**
+     * Obtiene un filtro de Bloom con los documentos habilitados para votar (sin falsos negativos)
+     * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
+     **/
+    java.util.concurrent.CompletionStage<byte[]> getEligibilityFilterAsync(com.zeroc.Ice.Current current);
 
     /**
      * Obtiene reportes geográficos (departamento, municipio, puesto)
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
+     **/
+    java.util.concurrent.CompletionStage<java.lang.String> getGeographicReportsAsync(int locationId, String locationType, int electionId, com.zeroc.Ice.Current current);
+
+    /**
+     * Obtiene los reportes de varios ciudadanos en una sola llamada (mismo orden que los documentos)
+     * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
+     **/
+    java.util.concurrent.CompletionStage<String[]> getCitizenReportsBatchAsync(String[] documentos, int electionId, com.zeroc.Ice.Current current);
+
+    /**
+     * Obtiene los reportes de todos los ciudadanos de un puesto o mesa en una sola llamada
+     * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String getGeographicReports(int locationId, String locationType, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getLocationCitizenReportsAsync(int locationId, String locationType, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Precarga reportes de manera inteligente según el tipo
@@ -80,26 +109,30 @@ public interface ReportsService extends com.zeroc.Ice.Object
     /**
      * Obtiene los documentos de todos los ciudadanos de un departamento
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getDepartmentCitizenDocuments(int departmentId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getDepartmentCitizenDocumentsAsync(int departmentId, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene los documentos de todos los ciudadanos de un municipio
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getMunicipalityCitizenDocuments(int municipalityId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getMunicipalityCitizenDocumentsAsync(int municipalityId, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene los documentos de todos los ciudadanos de un puesto
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getPuestoCitizenDocuments(int puestoId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getPuestoCitizenDocumentsAsync(int puestoId, int electionId, com.zeroc.Ice.Current current);
 
     /**
      * Obtiene los documentos de ciudadanos de una mesa específica
      * @param current The Current object for the invocation.
+     * @return A completion stage that the servant will complete when the invocation completes.
      **/
-    String[] getMesaCitizenDocuments(int mesaId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<String[]> getMesaCitizenDocumentsAsync(int mesaId, int electionId, com.zeroc.Ice.Current current);
 
     /** @hidden */
     static final String[] _iceIds =
@@ -141,11 +174,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_documento = istr.readString();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String ret = obj.getCitizenReports(iceP_documento, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeString(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getCitizenReportsAsync(iceP_documento, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeString(ret);
+            });
     }
 
     /**
@@ -168,11 +200,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_electionId = istr.readInt();
         iceP_limit = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.searchCitizenReports(iceP_nombre, iceP_apellido, iceP_electionId, iceP_limit, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.searchCitizenReportsAsync(iceP_nombre, iceP_apellido, iceP_electionId, iceP_limit, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -191,11 +222,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_mesaId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.getMesaCitizenReports(iceP_mesaId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getMesaCitizenReportsAsync(iceP_mesaId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -212,11 +242,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         String iceP_documento;
         iceP_documento = istr.readString();
         inS.endReadParams();
-        boolean ret = obj.validateCitizenEligibility(iceP_documento, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeBool(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.validateCitizenEligibilityAsync(iceP_documento, current), (ostr, ret) ->
+            {
+                ostr.writeBool(ret);
+            });
     }
 
     /**
@@ -233,11 +262,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         int iceP_electionId;
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String ret = obj.getElectionReports(iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeString(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getElectionReportsAsync(iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeString(ret);
+            });
     }
 
     /**
@@ -251,11 +279,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
     {
         com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
         inS.readEmptyParams();
-        String[] ret = obj.getAvailableElections(current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getAvailableElectionsAsync(current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -272,11 +299,27 @@ public interface ReportsService extends com.zeroc.Ice.Object
         int iceP_electionId;
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        boolean ret = obj.areReportsReady(iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeBool(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.areReportsReadyAsync(iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeBool(ret);
+            });
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_getEligibilityFilter(ReportsService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        inS.readEmptyParams();
+        return inS.setResultFuture(obj.getEligibilityFilterAsync(current), (ostr, ret) ->
+            {
+                ostr.writeByteSeq(ret);
+            });
     }
 
     /**
@@ -297,11 +340,56 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_locationType = istr.readString();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String ret = obj.getGeographicReports(iceP_locationId, iceP_locationType, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeString(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getGeographicReportsAsync(iceP_locationId, iceP_locationType, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeString(ret);
+            });
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_getCitizenReportsBatch(ReportsService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        String[] iceP_documentos;
+        int iceP_electionId;
+        iceP_documentos = istr.readStringSeq();
+        iceP_electionId = istr.readInt();
+        inS.endReadParams();
+        return inS.setResultFuture(obj.getCitizenReportsBatchAsync(iceP_documentos, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_getLocationCitizenReports(ReportsService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_locationId;
+        String iceP_locationType;
+        int iceP_electionId;
+        iceP_locationId = istr.readInt();
+        iceP_locationType = istr.readString();
+        iceP_electionId = istr.readInt();
+        inS.endReadParams();
+        return inS.setResultFuture(obj.getLocationCitizenReportsAsync(iceP_locationId, iceP_locationType, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -363,11 +451,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_departmentId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.getDepartmentCitizenDocuments(iceP_departmentId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getDepartmentCitizenDocumentsAsync(iceP_departmentId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -386,11 +473,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_municipalityId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.getMunicipalityCitizenDocuments(iceP_municipalityId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getMunicipalityCitizenDocumentsAsync(iceP_municipalityId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -409,11 +495,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_puestoId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.getPuestoCitizenDocuments(iceP_puestoId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getPuestoCitizenDocumentsAsync(iceP_puestoId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /**
@@ -432,11 +517,10 @@ public interface ReportsService extends com.zeroc.Ice.Object
         iceP_mesaId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String[] ret = obj.getMesaCitizenDocuments(iceP_mesaId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeStringSeq(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getMesaCitizenDocumentsAsync(iceP_mesaId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeStringSeq(ret);
+            });
     }
 
     /** @hidden */
@@ -446,9 +530,12 @@ public interface ReportsService extends com.zeroc.Ice.Object
         "getAvailableElections",
         "getCacheStats",
         "getCitizenReports",
+        "getCitizenReportsBatch",
         "getDepartmentCitizenDocuments",
         "getElectionReports",
+        "getEligibilityFilter",
         "getGeographicReports",
+        "getLocationCitizenReports",
         "getMesaCitizenDocuments",
         "getMesaCitizenReports",
         "getMunicipalityCitizenDocuments",
@@ -493,57 +580,69 @@ public interface ReportsService extends com.zeroc.Ice.Object
             }
             case 4:
             {
-                return _iceD_getDepartmentCitizenDocuments(this, in, current);
+                return _iceD_getCitizenReportsBatch(this, in, current);
             }
             case 5:
             {
-                return _iceD_getElectionReports(this, in, current);
+                return _iceD_getDepartmentCitizenDocuments(this, in, current);
             }
             case 6:
             {
-                return _iceD_getGeographicReports(this, in, current);
+                return _iceD_getElectionReports(this, in, current);
             }
             case 7:
             {
-                return _iceD_getMesaCitizenDocuments(this, in, current);
+                return _iceD_getEligibilityFilter(this, in, current);
             }
             case 8:
             {
-                return _iceD_getMesaCitizenReports(this, in, current);
+                return _iceD_getGeographicReports(this, in, current);
             }
             case 9:
             {
-                return _iceD_getMunicipalityCitizenDocuments(this, in, current);
+                return _iceD_getLocationCitizenReports(this, in, current);
             }
             case 10:
             {
-                return _iceD_getPuestoCitizenDocuments(this, in, current);
+                return _iceD_getMesaCitizenDocuments(this, in, current);
             }
             case 11:
             {
-                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+                return _iceD_getMesaCitizenReports(this, in, current);
             }
             case 12:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+                return _iceD_getMunicipalityCitizenDocuments(this, in, current);
             }
             case 13:
             {
-                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+                return _iceD_getPuestoCitizenDocuments(this, in, current);
             }
             case 14:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
             }
             case 15:
             {
-                return _iceD_preloadReports(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
             }
             case 16:
             {
-                return _iceD_searchCitizenReports(this, in, current);
+                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
             }
             case 17:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
+            }
+            case 18:
+            {
+                return _iceD_preloadReports(this, in, current);
+            }
+            case 19:
+            {
+                return _iceD_searchCitizenReports(this, in, current);
+            }
+            case 20:
             {
                 return _iceD_validateCitizenEligibility(this, in, current);
             }
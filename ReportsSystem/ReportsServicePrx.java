@@ -197,8 +197,10 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
 
     /**
      * Valida si un ciudadano es elegible para votar
+     * @throws ReportsException -
      **/
     default boolean validateCitizenEligibility(String documento)
+        throws ReportsException
     {
         return validateCitizenEligibility(documento, com.zeroc.Ice.ObjectPrx.noExplicitContext);
     }
@@ -206,10 +208,23 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
     /**
      * Valida si un ciudadano es elegible para votar
      * @param context The Context map to send with the invocation.
+     * @throws ReportsException -
      **/
     default boolean validateCitizenEligibility(String documento, java.util.Map<String, String> context)
+        throws ReportsException
     {
-        return _iceI_validateCitizenEligibilityAsync(documento, context, true).waitForResponse();
+        try
+        {
+            return _iceI_validateCitizenEligibilityAsync(documento, context, true).waitForResponseOrUserEx();
+        }
+        catch(ReportsException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
     }
 
     /**
@@ -240,7 +255,7 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
      **/
     default com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> _iceI_validateCitizenEligibilityAsync(String iceP_documento, java.util.Map<String, String> context, boolean sync)
     {
-        com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "validateCitizenEligibility", null, sync, null);
+        com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "validateCitizenEligibility", null, sync, _iceE_validateCitizenEligibility);
         f.invoke(true, context, null, ostr -> {
                      ostr.writeString(iceP_documento);
                  }, istr -> {
@@ -251,6 +266,12 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
         return f;
     }
 
+    /** @hidden */
+    static final Class<?>[] _iceE_validateCitizenEligibility =
+    {
+        ReportsException.class
+    };
+
     /**
      * Obtiene el reporte de resultados de una elección
      **/
@@ -362,8 +383,10 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
 
     /**
      * Verifica si los reportes están listos para una elección
+     * @throws ReportsException -
      **/
     default boolean areReportsReady(int electionId)
+        throws ReportsException
     {
         return areReportsReady(electionId, com.zeroc.Ice.ObjectPrx.noExplicitContext);
     }
@@ -371,10 +394,23 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
     /**
      * Verifica si los reportes están listos para una elección
      * @param context The Context map to send with the invocation.
+     * @throws ReportsException -
      **/
     default boolean areReportsReady(int electionId, java.util.Map<String, String> context)
+        throws ReportsException
     {
-        return _iceI_areReportsReadyAsync(electionId, context, true).waitForResponse();
+        try
+        {
+            return _iceI_areReportsReadyAsync(electionId, context, true).waitForResponseOrUserEx();
+        }
+        catch(ReportsException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
     }
 
     /**
@@ -405,7 +441,7 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
      **/
     default com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> _iceI_areReportsReadyAsync(int iceP_electionId, java.util.Map<String, String> context, boolean sync)
     {
-        com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "areReportsReady", null, sync, null);
+        com.zeroc.IceInternal.OutgoingAsync<java.lang.Boolean> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "areReportsReady", null, sync, _iceE_areReportsReady);
         f.invoke(true, context, null, ostr -> {
                      ostr.writeInt(iceP_electionId);
                  }, istr -> {
@@ -416,6 +452,65 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
         return f;
     }
 
+    /** @hidden */
+    static final Class<?>[] _iceE_areReportsReady =
+    {
+        ReportsException.class
+    };
+
+    /**
+     * Obtiene un filtro de Bloom con los documentos habilitados para votar (sin falsos negativos)
+     **/
+    default byte[] getEligibilityFilter()
+    {
+        return getEligibilityFilter(com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Obtiene un filtro de Bloom con los documentos habilitados para votar (sin falsos negativos)
+     * @param context The Context map to send with the invocation.
+     **/
+    default byte[] getEligibilityFilter(java.util.Map<String, String> context)
+    {
+        return _iceI_getEligibilityFilterAsync(context, true).waitForResponse();
+    }
+
+    /**
+     * Obtiene un filtro de Bloom con los documentos habilitados para votar (sin falsos negativos)
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<byte[]> getEligibilityFilterAsync()
+    {
+        return _iceI_getEligibilityFilterAsync(com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Obtiene un filtro de Bloom con los documentos habilitados para votar (sin falsos negativos)
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<byte[]> getEligibilityFilterAsync(java.util.Map<String, String> context)
+    {
+        return _iceI_getEligibilityFilterAsync(context, false);
+    }
+
+    /**
+     * @hidden
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<byte[]> _iceI_getEligibilityFilterAsync(java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<byte[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "getEligibilityFilter", null, sync, null);
+        f.invoke(true, context, null, null, istr -> {
+                     byte[] ret;
+                     ret = istr.readByteSeq();
+                     return ret;
+                 });
+        return f;
+    }
+
     /**
      * Obtiene reportes geográficos (departamento, municipio, puesto)
      **/
@@ -476,6 +571,124 @@ public interface ReportsServicePrx extends com.zeroc.Ice.ObjectPrx
         return f;
     }
 
+    /**
+     * Obtiene los reportes de varios ciudadanos en una sola llamada (mismo orden que los documentos)
+     **/
+    default String[] getCitizenReportsBatch(String[] documentos, int electionId)
+    {
+        return getCitizenReportsBatch(documentos, electionId, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Obtiene los reportes de varios ciudadanos en una sola llamada (mismo orden que los documentos)
+     * @param context The Context map to send with the invocation.
+     **/
+    default String[] getCitizenReportsBatch(String[] documentos, int electionId, java.util.Map<String, String> context)
+    {
+        return _iceI_getCitizenReportsBatchAsync(documentos, electionId, context, true).waitForResponse();
+    }
+
+    /**
+     * Obtiene los reportes de varios ciudadanos en una sola llamada (mismo orden que los documentos)
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<String[]> getCitizenReportsBatchAsync(String[] documentos, int electionId)
+    {
+        return _iceI_getCitizenReportsBatchAsync(documentos, electionId, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Obtiene los reportes de varios ciudadanos en una sola llamada (mismo orden que los documentos)
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<String[]> getCitizenReportsBatchAsync(String[] documentos, int electionId, java.util.Map<String, String> context)
+    {
+        return _iceI_getCitizenReportsBatchAsync(documentos, electionId, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_documentos -
+     * @param iceP_electionId -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<String[]> _iceI_getCitizenReportsBatchAsync(String[] iceP_documentos, int iceP_electionId, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<String[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "getCitizenReportsBatch", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeStringSeq(iceP_documentos);
+                     ostr.writeInt(iceP_electionId);
+                 }, istr -> {
+                     String[] ret;
+                     ret = istr.readStringSeq();
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Obtiene los reportes de todos los ciudadanos de un puesto o mesa en una sola llamada
+     **/
+    default String[] getLocationCitizenReports(int locationId, String locationType, int electionId)
+    {
+        return getLocationCitizenReports(locationId, locationType, electionId, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Obtiene los reportes de todos los ciudadanos de un puesto o mesa en una sola llamada
+     * @param context The Context map to send with the invocation.
+     **/
+    default String[] getLocationCitizenReports(int locationId, String locationType, int electionId, java.util.Map<String, String> context)
+    {
+        return _iceI_getLocationCitizenReportsAsync(locationId, locationType, electionId, context, true).waitForResponse();
+    }
+
+    /**
+     * Obtiene los reportes de todos los ciudadanos de un puesto o mesa en una sola llamada
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<String[]> getLocationCitizenReportsAsync(int locationId, String locationType, int electionId)
+    {
+        return _iceI_getLocationCitizenReportsAsync(locationId, locationType, electionId, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Obtiene los reportes de todos los ciudadanos de un puesto o mesa en una sola llamada
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<String[]> getLocationCitizenReportsAsync(int locationId, String locationType, int electionId, java.util.Map<String, String> context)
+    {
+        return _iceI_getLocationCitizenReportsAsync(locationId, locationType, electionId, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_locationId -
+     * @param iceP_locationType -
+     * @param iceP_electionId -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<String[]> _iceI_getLocationCitizenReportsAsync(int iceP_locationId, String iceP_locationType, int iceP_electionId, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<String[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "getLocationCitizenReports", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_locationId);
+                     ostr.writeString(iceP_locationType);
+                     ostr.writeInt(iceP_electionId);
+                 }, istr -> {
+                     String[] ret;
+                     ret = istr.readStringSeq();
+                     return ret;
+                 });
+        return f;
+    }
+
     /**
      * Precarga reportes de manera inteligente según el tipo
      **/
@@ -21,6 +21,8 @@ public interface VoteObserver extends com.zeroc.Ice.Object
 
     void onElectionResultsUpdated(String resultsData, com.zeroc.Ice.Current current);
 
+    void onVoteDelta(long sequence, String delta, com.zeroc.Ice.Current current);
+
     boolean ping(com.zeroc.Ice.Current current);
 
     /** @hidden */
@@ -83,6 +85,26 @@ public interface VoteObserver extends com.zeroc.Ice.Object
         return inS.setResult(inS.writeEmptyParams());
     }
 
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_onVoteDelta(VoteObserver obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        long iceP_sequence;
+        String iceP_delta;
+        iceP_sequence = istr.readLong();
+        iceP_delta = istr.readString();
+        inS.endReadParams();
+        obj.onVoteDelta(iceP_sequence, iceP_delta, current);
+        return inS.setResult(inS.writeEmptyParams());
+    }
+
     /**
      * @hidden
      * @param obj -
@@ -109,6 +131,7 @@ public interface VoteObserver extends com.zeroc.Ice.Object
         "ice_isA",
         "ice_ping",
         "onElectionResultsUpdated",
+        "onVoteDelta",
         "onVoteReceived",
         "ping"
     };
@@ -148,9 +171,13 @@ public interface VoteObserver extends com.zeroc.Ice.Object
             }
             case 5:
             {
-                return _iceD_onVoteReceived(this, in, current);
+                return _iceD_onVoteDelta(this, in, current);
             }
             case 6:
+            {
+                return _iceD_onVoteReceived(this, in, current);
+            }
+            case 7:
             {
                 return _iceD_ping(this, in, current);
             }
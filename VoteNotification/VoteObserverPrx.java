@@ -89,6 +89,44 @@ public interface VoteObserverPrx extends com.zeroc.Ice.ObjectPrx
         return f;
     }
 
+    default void onVoteDelta(long sequence, String delta)
+    {
+        onVoteDelta(sequence, delta, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    default void onVoteDelta(long sequence, String delta, java.util.Map<String, String> context)
+    {
+        _iceI_onVoteDeltaAsync(sequence, delta, context, true).waitForResponse();
+    }
+
+    default java.util.concurrent.CompletableFuture<Void> onVoteDeltaAsync(long sequence, String delta)
+    {
+        return _iceI_onVoteDeltaAsync(sequence, delta, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    default java.util.concurrent.CompletableFuture<Void> onVoteDeltaAsync(long sequence, String delta, java.util.Map<String, String> context)
+    {
+        return _iceI_onVoteDeltaAsync(sequence, delta, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_sequence -
+     * @param iceP_delta -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<Void> _iceI_onVoteDeltaAsync(long iceP_sequence, String iceP_delta, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<Void> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "onVoteDelta", null, sync, null);
+        f.invoke(false, context, null, ostr -> {
+                     ostr.writeLong(iceP_sequence);
+                     ostr.writeString(iceP_delta);
+                 }, null);
+        return f;
+    }
+
     default boolean ping()
     {
         return ping(com.zeroc.Ice.ObjectPrx.noExplicitContext);
@@ -17,7 +17,7 @@ package VotingsSystem;
 
 public interface ConfigurationService extends com.zeroc.Ice.Object
 {
-    String getConfiguration(int mesaId, int electionId, com.zeroc.Ice.Current current);
+    java.util.concurrent.CompletionStage<java.lang.String> getConfigurationAsync(int mesaId, int electionId, com.zeroc.Ice.Current current);
 
     boolean isConfigurationReady(int mesaId, int electionId, com.zeroc.Ice.Current current);
 
@@ -73,11 +73,10 @@ public interface ConfigurationService extends com.zeroc.Ice.Object
         iceP_mesaId = istr.readInt();
         iceP_electionId = istr.readInt();
         inS.endReadParams();
-        String ret = obj.getConfiguration(iceP_mesaId, iceP_electionId, current);
-        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
-        ostr.writeString(ret);
-        inS.endWriteParams(ostr);
-        return inS.setResult(ostr);
+        return inS.setResultFuture(obj.getConfigurationAsync(iceP_mesaId, iceP_electionId, current), (ostr, ret) ->
+            {
+                ostr.writeString(ret);
+            });
     }
 
     /**
@@ -4,32 +4,28 @@ import java.util.Optional;
 
 public class AutenticationVoter implements AutenticationVoterInterface{
     private VoterRepository voterRepo;
+    private VoterAuthIndex index;
 
     public AutenticationVoter() {
         this.voterRepo = new VoterRepository();
+        this.index = new VoterAuthIndex(voterRepo.findAll());
     }
 
     @Override
     public boolean authenticate(String id, String password) {
-        Optional<Voter> opt = voterRepo.findById(id);
-        if (!opt.isPresent()) {
-            return false;
-        }
-        Voter v = opt.get();
-        return v.getPassword().equals(password);
+        return index.authenticate(id, password);
     }
 
     @Override
     public boolean hasAlreadyVoted(String id) {
-        Optional<Voter> opt = voterRepo.findById(id);
-        if (!opt.isPresent()) {
-            return false; 
-        }
-        return  opt.get().isAlreadyVote();
+        return index.hasVoted(index.find(id));
     }
     
     @Override
     public void markAsVoted(String id) {
+        if (!index.markVoted(index.find(id))) {
+            return;
+        }
         Optional<Voter> opt = voterRepo.findById(id);
         if (opt.isPresent()) {
             Voter v = opt.get();
@@ -0,0 +1,64 @@
+package Autentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Credenciales de los votantes: SHA-256(sal + contraseña) con una sal aleatoria por votante. En
+ * voters.json se guardan la sal y el hash en Base64; la contraseña en texto nunca se escribe.
+ */
+public final class PasswordHash {
+
+    public static final int SALT_SIZE = 16;
+    public static final int HASH_SIZE = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHash() {
+    }
+
+    public static byte[] newSalt() {
+        byte[] salt = new byte[SALT_SIZE];
+        RANDOM.nextBytes(salt);
+        return salt;
+    }
+
+    public static byte[] hash(byte[] salt, String password) {
+        return hash(sha256(), salt, 0, password);
+    }
+
+    /** SHA-256 de {@code salt[offset, offset + SALT_SIZE)} seguido de la contraseña en UTF-8. */
+    public static byte[] hash(MessageDigest digest, byte[] salt, int offset, String password) {
+        digest.reset();
+        digest.update(salt, offset, SALT_SIZE);
+        digest.update(password.getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    public static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /** Bytes de un valor en Base64, o null si falta o no es Base64 válido. */
+    public static byte[] decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
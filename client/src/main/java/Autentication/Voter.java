@@ -4,22 +4,54 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 
+/**
+ * Votante de la mesa. De la contraseña solo se conserva la sal y SHA-256(sal + contraseña)
+ * ({@link PasswordHash}); así se guarda también en voters.json.
+ */
 public class Voter {
     private String id;
     private String name;
-    private String password;
+    private String salt;
+    private String passwordHash;
     private AlreadyVote alreadyVote;
+    private boolean plaintextPassword;
 
+    /** Votante nuevo: se genera una sal y se descarta la contraseña en texto. */
+    public Voter(String id, String name, String password, AlreadyVote alreadyVote) {
+        byte[] newSalt = PasswordHash.newSalt();
+        this.id = id;
+        this.name = name;
+        this.salt = PasswordHash.encode(newSalt);
+        this.passwordHash = PasswordHash.encode(PasswordHash.hash(newSalt, password));
+        this.alreadyVote = alreadyVote;
+    }
+
+    public Voter(String id, String name, String salt, String passwordHash, AlreadyVote alreadyVote) {
+        this.id = id;
+        this.name = name;
+        this.salt = salt;
+        this.passwordHash = passwordHash;
+        this.alreadyVote = alreadyVote;
+    }
+
+    /**
+     * Votante leído de voters.json. Un archivo anterior trae la contraseña en texto ({@code password}):
+     * se convierte a sal y hash y {@link #hadPlaintextPassword()} avisa que hay que reescribirlo.
+     */
     @JsonCreator
-    public Voter(
+    static Voter fromJson(
             @JsonProperty("id") String id,
             @JsonProperty("name") String name,
+            @JsonProperty("salt") String salt,
+            @JsonProperty("passwordHash") String passwordHash,
             @JsonProperty("password") String password,
             @JsonProperty("alreadyVote") AlreadyVote alreadyVote) {
-        this.id = id;
-        this.name = name;
-        this.password = password;
-        this.alreadyVote = alreadyVote;
+        if (passwordHash == null && password != null) {
+            Voter voter = new Voter(id, name, password, alreadyVote);
+            voter.plaintextPassword = true;
+            return voter;
+        }
+        return new Voter(id, name, salt, passwordHash, alreadyVote);
     }
 
 
@@ -31,8 +63,14 @@ public class Voter {
         return name;
     }
 
-    public String getPassword() {
-        return password;
+    /** Sal en Base64. */
+    public String getSalt() {
+        return salt;
+    }
+
+    /** SHA-256(sal + contraseña) en Base64. */
+    public String getPasswordHash() {
+        return passwordHash;
     }
 
     public AlreadyVote getAlreadyVote() {
@@ -43,6 +81,11 @@ public class Voter {
         this.alreadyVote = alreadyVote;
     }
 
+    /** Si se leyó de un voters.json con la contraseña en texto, que hay que reescribir. */
+    public boolean hadPlaintextPassword() {
+        return plaintextPassword;
+    }
+
 
     public boolean isAlreadyVote() {
         return alreadyVote == Autentication.AlreadyVote.YES;
@@ -0,0 +1,136 @@
+package Autentication;
+
+import ConfigurationSystem.ConfigurationCodec;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Índice de autenticación de la mesa, armado una vez por configuración.
+ *
+ * Cada votante ocupa un slot. El documento se ubica con una tabla de direccionamiento abierto
+ * sobre su hash de 64 bits (arreglos de long/int, sin objetos por entrada), y el slot guarda el
+ * documento para descartar colisiones. De la contraseña solo se tienen la sal y el hash que ya
+ * vienen en voters.json ({@link PasswordHash}), y quién ya votó es un bit por slot. Así autenticar
+ * y marcar el voto cuestan lo mismo con 100 o con 10.000 votantes registrados.
+ */
+public class VoterAuthIndex {
+
+    private static final int HASH_SIZE = PasswordHash.HASH_SIZE;
+    private static final int SALT_SIZE = PasswordHash.SALT_SIZE;
+
+    private final String[] documents;
+    private final byte[] salts;
+    private final byte[] credentials;
+    private final BitSet voted;
+    private int indexed;
+
+    // Tabla hash -> slot + 1 (0 = vacío), capacidad potencia de 2 con factor de carga <= 0.5
+    private final long[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    public VoterAuthIndex(List<Voter> voters) {
+        int size = voters.size();
+        this.documents = new String[size];
+        this.salts = new byte[size * SALT_SIZE];
+        this.credentials = new byte[size * HASH_SIZE];
+        this.voted = new BitSet(size);
+
+        int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (int slot = 0; slot < size; slot++) {
+            Voter voter = voters.get(slot);
+            if (find(voter.getId()) >= 0) {
+                // Documento repetido en voters.json: se queda el primero, igual que la búsqueda anterior
+                continue;
+            }
+            byte[] salt = PasswordHash.decode(voter.getSalt());
+            byte[] hash = PasswordHash.decode(voter.getPasswordHash());
+            if (salt == null || salt.length != SALT_SIZE || hash == null || hash.length != HASH_SIZE) {
+                System.err.println("Votante " + voter.getId() + " sin credenciales válidas en voters.json, no se indexa");
+                continue;
+            }
+            documents[slot] = voter.getId();
+            System.arraycopy(salt, 0, salts, slot * SALT_SIZE, SALT_SIZE);
+            System.arraycopy(hash, 0, credentials, slot * HASH_SIZE, HASH_SIZE);
+            if (voter.isAlreadyVote()) {
+                voted.set(slot);
+            }
+            insert(voter.getId(), slot);
+            indexed++;
+        }
+    }
+
+    /** Votantes indexados (sin documentos repetidos ni votantes sin credenciales). */
+    public int size() {
+        return indexed;
+    }
+
+    /**
+     * Slot del votante, o -1 si el documento no está registrado en la mesa.
+     */
+    public int find(String document) {
+        if (document == null) {
+            return -1;
+        }
+        long key = ConfigurationCodec.fnv64(document);
+        for (int i = (int) mix(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key && document.equals(documents[slots[i] - 1])) {
+                return slots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean authenticate(String document, String password) {
+        int slot = find(document);
+        if (slot < 0 || password == null) {
+            return false;
+        }
+        byte[] candidate = PasswordHash.hash(PasswordHash.sha256(), salts, slot * SALT_SIZE, password);
+
+        int diff = 0;
+        int offset = slot * HASH_SIZE;
+        for (int i = 0; i < HASH_SIZE; i++) {
+            diff |= candidate[i] ^ credentials[offset + i];
+        }
+        return diff == 0;
+    }
+
+    public synchronized boolean hasVoted(int slot) {
+        return slot >= 0 && voted.get(slot);
+    }
+
+    /**
+     * Marca el voto del slot. Retorna false si ya estaba marcado.
+     */
+    public synchronized boolean markVoted(int slot) {
+        if (slot < 0 || voted.get(slot)) {
+            return false;
+        }
+        voted.set(slot);
+        return true;
+    }
+
+    public synchronized int getVotedCount() {
+        return voted.cardinality();
+    }
+
+    private void insert(String document, int slot) {
+        long key = ConfigurationCodec.fnv64(document);
+        int i = (int) mix(key) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        slots[i] = slot + 1;
+    }
+
+    private static long mix(long key) {
+        return key ^ (key >>> 32);
+    }
+}
@@ -3,16 +3,48 @@ package Autentication;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-
+/**
+ * Votantes de la mesa indexados por documento.
+ *
+ * voters.json se lee una sola vez; marcar a un votante como que ya votó no reescribe el archivo,
+ * solo agrega su documento al log voters.voted (una línea, con fsync). Al cargar, el log se aplica
+ * sobre voters.json, se compacta en él y se borra. Una línea incompleta al final del log (corte de
+ * energía a mitad de la escritura) se descarta.
+ *
+ * El receptor de configuración también escribe estos archivos; toda escritura de voters.json o del
+ * log pasa por {@link #withFilesLocked}, y al compactar solo se quita del log la parte que se
+ * incluyó, así un voto anotado en paralelo nunca se pierde.
+ */
 public class VoterRepository {
-    private static final String FILE_PATH = "client/data/voters.json";
+    public static final String FILE_PATH = "client/data/voters.json";
+    public static final String VOTED_LOG_PATH = "client/data/voters.voted";
+
+    private static final Object FILES_LOCK = new Object();
+
+    /** Operación sobre voters.json y voters.voted que se ejecuta con los archivos bloqueados. */
+    public interface FilesTask<T> {
+        T run() throws IOException;
+    }
+
     private List<Voter> voters;
+    private Map<String, Voter> byId;
     private ObjectMapper mapper;
 
     public VoterRepository() {
@@ -23,38 +55,66 @@ public class VoterRepository {
     private void loadOrInitialize() {
         File file = new File(FILE_PATH);
         if (!file.exists() || file.length() == 0) {
-            
-            voters = new ArrayList<>();
-            for (int i = 1; i <= 5; i++) {
-                String id = "voter" + i;
-                String name = "Votante " + i;
-                String pass = "pass" + i;
-                voters.add(new Voter(id, name, pass, AlreadyVote.NO));
-            }
+
+            voters = defaultVoters();
+            index();
             saveAll();
         } else {
-            
+
             try {
                 voters = mapper.readValue(file, new TypeReference<List<Voter>>() {});
+                index();
             } catch (IOException e) {
                 e.printStackTrace();
-                
-                voters = new ArrayList<>();
-                for (int i = 1; i <= 5; i++) {
-                    String id = "voter" + i;
-                    String name = "Votante " + i;
-                    String pass = "pass" + i;
-                    voters.add(new Voter(id, name, pass, AlreadyVote.NO));
-                }
+
+                voters = defaultVoters();
+                index();
+                saveAll();
+                return;
+            }
+
+            // Un voters.json anterior trae las contraseñas en texto: se reescribe con sal y hash
+            if (new File(VOTED_LOG_PATH).exists() || voters.stream().anyMatch(Voter::hadPlaintextPassword)) {
                 saveAll();
             }
         }
     }
 
+    private static List<Voter> defaultVoters() {
+        List<Voter> voters = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            String id = "voter" + i;
+            String name = "Votante " + i;
+            String pass = "pass" + i;
+            voters.add(new Voter(id, name, pass, AlreadyVote.NO));
+        }
+        return voters;
+    }
 
+    private void index() {
+        byId = new HashMap<>(voters.size() * 4 / 3 + 1);
+        for (Voter voter : voters) {
+            // Con documentos repetidos se queda el primero, igual que VoterAuthIndex
+            byId.putIfAbsent(voter.getId(), voter);
+        }
+    }
+
+    /**
+     * Aplica el log, reescribe voters.json completo (temporal + reemplazo atómico) y quita del log
+     * las líneas que quedaron incluidas.
+     */
     private void saveAll() {
         try {
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(FILE_PATH), voters);
+            withFilesLocked(() -> {
+                long merged = applyVotedLog(byId);
+                File file = new File(FILE_PATH);
+                file.getParentFile().mkdirs();
+                File tmp = new File(FILE_PATH + ".tmp");
+                mapper.writeValue(tmp, voters);
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                truncateVotedLog(merged);
+                return null;
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -65,16 +125,133 @@ public class VoterRepository {
     }
 
     public Optional<Voter> findById(String id) {
-        return voters.stream().filter(v -> v.getId().equals(id)).findFirst();
+        return Optional.ofNullable(byId.get(id));
     }
 
     public void update(Voter updated) {
+        Voter current = byId.get(updated.getId());
+        if (current == null) {
+            return;
+        }
+
+        if (current == updated || sameData(current, updated)) {
+            if (updated.isAlreadyVote()) {
+                current.setAlreadyVote(AlreadyVote.YES);
+                try {
+                    appendVoted(updated.getId());
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Error registrando voto en " + VOTED_LOG_PATH + ": " + e.getMessage());
+                }
+            }
+        }
+
+        // Cambio de otros datos del votante (o falla del log): se reescribe el archivo completo
         for (int i = 0; i < voters.size(); i++) {
             if (voters.get(i).getId().equals(updated.getId())) {
                 voters.set(i, updated);
+                byId.put(updated.getId(), updated);
                 saveAll();
                 return;
             }
         }
     }
+
+    private static boolean sameData(Voter a, Voter b) {
+        return a.getName().equals(b.getName()) && a.getSalt().equals(b.getSalt())
+                && a.getPasswordHash().equals(b.getPasswordHash());
+    }
+
+    private static void appendVoted(String id) throws IOException {
+        withFilesLocked(() -> {
+            File log = new File(VOTED_LOG_PATH);
+            log.getParentFile().mkdirs();
+            writeSynced(log, ByteBuffer.wrap((id + "\n").getBytes(StandardCharsets.UTF_8)),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return null;
+        });
+    }
+
+    private static void writeSynced(File file, ByteBuffer data, StandardOpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), options)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Ejecuta {@code task} con voters.json y el log bloqueados frente a las demás escrituras del
+     * proceso (votos de la mesa, compactación y configuración del servidor).
+     */
+    public static <T> T withFilesLocked(FilesTask<T> task) throws IOException {
+        synchronized (FILES_LOCK) {
+            return task.run();
+        }
+    }
+
+    /**
+     * Marca como que ya votaron a los votantes del log. Retorna cuántos bytes del log quedaron
+     * aplicados (las líneas completas; 0 si no existe), para pasarlo luego a
+     * {@link #truncateVotedLog}.
+     */
+    public static long applyVotedLog(Map<String, Voter> votersById) throws IOException {
+        File log = new File(VOTED_LOG_PATH);
+        if (!log.exists() || log.length() == 0) {
+            return 0;
+        }
+
+        byte[] content = Files.readAllBytes(log.toPath());
+        int complete = content.length;
+        while (complete > 0 && content[complete - 1] != '\n') {
+            complete--;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content, 0, complete), StandardCharsets.UTF_8))) {
+            String id;
+            while ((id = reader.readLine()) != null) {
+                Voter voter = votersById.get(id);
+                if (voter != null) {
+                    voter.vote();
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Quita del log los primeros {@code merged} bytes, que voters.json ya refleja; lo que se haya
+     * agregado después se conserva.
+     */
+    public static void truncateVotedLog(long merged) throws IOException {
+        if (merged <= 0) {
+            return;
+        }
+        withFilesLocked(() -> {
+            File log = new File(VOTED_LOG_PATH);
+            if (!log.exists()) {
+                return null;
+            }
+            byte[] content = Files.readAllBytes(log.toPath());
+            if (content.length <= merged) {
+                Files.delete(log.toPath());
+                return null;
+            }
+            File tmp = new File(VOTED_LOG_PATH + ".tmp");
+            writeSynced(tmp, ByteBuffer.wrap(content, (int) merged, content.length - (int) merged),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(tmp.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return null;
+        });
+    }
+
+    /**
+     * Borra el log de votos completo; lo usa una configuración nueva, que reemplaza a los votantes
+     * anteriores. Se llama con los archivos bloqueados, junto con el reemplazo de voters.json.
+     */
+    public static void clearVotedLog() throws IOException {
+        withFilesLocked(() -> Files.deleteIfExists(new File(VOTED_LOG_PATH).toPath()));
+    }
 }
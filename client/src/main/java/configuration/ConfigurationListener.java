@@ -0,0 +1,12 @@
+package configuration;
+
+/**
+ * Recibe los avisos de {@link ConfigurationReceiverImpl} cuando el servidor cambia la
+ * configuración de la mesa (lo implementa el controlador de la UI).
+ */
+public interface ConfigurationListener {
+
+    void onConfigurationUpdated();
+
+    void onElectionStatusChanged(int electionId, String newStatus);
+}
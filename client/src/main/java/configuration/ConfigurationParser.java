@@ -0,0 +1,140 @@
+package configuration;
+
+import votation.Candidate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser de una sola pasada para la configuración completa (mesa#eleccion#candidatos#ciudadanos#metadata).
+ *
+ * Recorre el texto por índices con indexOf/charAt, sin split ni expresiones regulares: las
+ * secciones se ubican por sus límites y los ciudadanos se entregan campo por campo sin crear
+ * arreglos ni subcadenas de la sección completa.
+ */
+final class ConfigurationParser {
+
+    static final int SECTIONS = 5;
+    static final int MESA = 0;
+    static final int ELECTION = 1;
+    static final int CANDIDATES = 2;
+    static final int CITIZENS = 3;
+    static final int METADATA = 4;
+
+    private static final char SECTION_SEPARATOR = '#';
+    private static final char RECORD_SEPARATOR = '|';
+    private static final char FIELD_SEPARATOR = ':';
+
+    /** Recibe los campos de cada ciudadano (id:documento:nombre:apellido). */
+    interface CitizenSink {
+        void accept(String document, String firstName, String lastName) throws IOException;
+    }
+
+    private ConfigurationParser() {
+    }
+
+    /**
+     * Límites de las secciones: {@code [inicio0, fin0, inicio1, fin1, ...]}, o null si faltan
+     * separadores. Lo que siga a la quinta sección se ignora.
+     */
+    static int[] sectionBounds(String data) {
+        int[] bounds = new int[SECTIONS * 2];
+        int start = 0;
+        for (int section = 0; section < SECTIONS; section++) {
+            int end = data.indexOf(SECTION_SEPARATOR, start);
+            if (end < 0) {
+                if (section < SECTIONS - 1) {
+                    return null;
+                }
+                end = data.length();
+            }
+            bounds[section * 2] = start;
+            bounds[section * 2 + 1] = end;
+            start = end + 1;
+        }
+        return bounds;
+    }
+
+    static String section(String data, int[] bounds, int section) {
+        return data.substring(bounds[section * 2], bounds[section * 2 + 1]);
+    }
+
+    /**
+     * Entrega cada ciudadano de {@code data[from, to)} al sink. Retorna cuántos registros válidos leyó.
+     */
+    static int parseCitizens(String data, int from, int to, CitizenSink sink) throws IOException {
+        int count = 0;
+        int start = from;
+        while (start < to) {
+            int end = indexOf(data, RECORD_SEPARATOR, start, to);
+            if (end < 0) {
+                end = to;
+            }
+            if (parseCitizen(data, start, end, sink)) {
+                count++;
+            }
+            start = end + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Entrega un ciudadano de {@code data[from, to)}; retorna false si le faltan campos.
+     */
+    static boolean parseCitizen(String data, int from, int to, CitizenSink sink) throws IOException {
+        int document = indexOf(data, FIELD_SEPARATOR, from, to);
+        if (document < 0) {
+            return false;
+        }
+        int firstName = indexOf(data, FIELD_SEPARATOR, document + 1, to);
+        if (firstName < 0) {
+            return false;
+        }
+        int lastName = indexOf(data, FIELD_SEPARATOR, firstName + 1, to);
+        if (lastName < 0 || lastName + 1 == to) {
+            return false;
+        }
+        int end = indexOf(data, FIELD_SEPARATOR, lastName + 1, to);
+
+        sink.accept(data.substring(document + 1, firstName),
+                data.substring(firstName + 1, lastName),
+                data.substring(lastName + 1, end < 0 ? to : end));
+        return true;
+    }
+
+    /**
+     * Candidatos de la sección (id:nombre:partido|...). Los registros incompletos se omiten.
+     */
+    static List<Candidate> parseCandidates(String data) {
+        List<Candidate> candidates = new ArrayList<>();
+        int to = data.length();
+        int start = 0;
+        while (start < to) {
+            int end = indexOf(data, RECORD_SEPARATOR, start, to);
+            if (end < 0) {
+                end = to;
+            }
+            int name = indexOf(data, FIELD_SEPARATOR, start, end);
+            int party = name < 0 ? -1 : indexOf(data, FIELD_SEPARATOR, name + 1, end);
+            if (party >= 0 && party + 1 < end) {
+                int partyEnd = indexOf(data, FIELD_SEPARATOR, party + 1, end);
+                candidates.add(new Candidate(
+                        Integer.parseInt(data.substring(start, name)),
+                        data.substring(name + 1, party),
+                        data.substring(party + 1, partyEnd < 0 ? end : partyEnd)));
+            }
+            start = end + 1;
+        }
+        return candidates;
+    }
+
+    private static int indexOf(String data, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
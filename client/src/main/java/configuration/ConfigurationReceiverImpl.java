@@ -2,21 +2,34 @@ package configuration;
 
 import Autentication.AlreadyVote;
 import Autentication.Voter;
+import Autentication.VoterRepository;
+import ConfigurationSystem.ConfigurationPatch;
 import ConfigurationSystem.ConfigurationReceiver;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zeroc.Ice.Current;
-import controller.ControllerVoteUI;
 import votation.Candidate;
 import votation.Election;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
 
 
 /**
@@ -27,21 +40,23 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
 
 
     private static final String MACHINE_CONFIG_FILE = "machine.properties"; // Buscar en resources
-    private static final String VOTERS_JSON_PATH = "client/data/voters.json";       // ✅ CORREGIDO
+    private static final String VOTERS_JSON_PATH = VoterRepository.FILE_PATH;
     private static final String ELECTION_JSON_PATH = "client/data/election.json";   // Relativo al working directory
-    private static final String CONFIG_STATE_FILE = "client/config/configuration_state.properties";
+    private static final String CONFIG_STATE_FILE = ConfigurationState.FILE_PATH;
+    private static final String TRANSFER_DIR = "client/data/transfer";
+    private static final long MAX_TRANSFER_BYTES = 512L * 1024 * 1024;
 
     private static final String FIELD_SEPARATOR = "-";
-    private static final String RECORD_SEPARATOR = "#";
-    private static final String ARRAY_SEPARATOR = "\\|";
-    private static final String CANDIDATE_SEPARATOR = ":";
 
     private int machineId;
-    private ControllerVoteUI controller;
+    private ConfigurationListener controller;
     private ObjectMapper mapper;
     private boolean isConfigured = false;
 
-    public ConfigurationReceiverImpl(ControllerVoteUI controller) {
+    // Transferencia por bloques en curso; su estado también queda en disco para reanudarla
+    private TransferState activeTransfer;
+
+    public ConfigurationReceiverImpl(ConfigurationListener controller) {
         this.controller = controller;
         this.mapper = new ObjectMapper();
         this.machineId = loadMachineId();
@@ -72,9 +87,13 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
                 return false;
             }
 
-            cleanupPreviousConfiguration();
-
-            boolean success = parseAndApplyConfiguration(configurationData);
+            boolean success;
+            if (ConfigurationPatch.isPatch(configurationData)) {
+                success = applyPatch(ConfigurationPatch.parse(configurationData));
+            } else {
+                cleanupPreviousConfiguration();
+                success = parseAndApplyConfiguration(configurationData);
+            }
 
             if (success) {
                 isConfigured = true;
@@ -96,6 +115,278 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
         }
     }
 
+    /** Estado de una transferencia por bloques, guardado en TRANSFER_DIR/<id>.meta. */
+    private static final class TransferState {
+        private String id;
+        private long totalBytes;
+        private int chunkCount;
+        private String sha256;
+        private int received;
+        private long bytes;
+
+        private File partFile() {
+            return new File(TRANSFER_DIR, id + ".part");
+        }
+
+        private File metaFile() {
+            return new File(TRANSFER_DIR, id + ".meta");
+        }
+
+        private void save() throws IOException {
+            Properties meta = new Properties();
+            meta.setProperty("totalBytes", String.valueOf(totalBytes));
+            meta.setProperty("chunkCount", String.valueOf(chunkCount));
+            meta.setProperty("sha256", sha256);
+            meta.setProperty("received", String.valueOf(received));
+            meta.setProperty("bytes", String.valueOf(bytes));
+            File tmp = new File(TRANSFER_DIR, id + ".meta.tmp");
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                meta.store(out, "Configuration transfer");
+            }
+            Files.move(tmp.toPath(), metaFile().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private static TransferState load(String id) throws IOException {
+            File metaFile = new File(TRANSFER_DIR, id + ".meta");
+            if (!metaFile.exists()) {
+                return null;
+            }
+            Properties meta = new Properties();
+            try (InputStream in = new FileInputStream(metaFile)) {
+                meta.load(in);
+            }
+            TransferState state = new TransferState();
+            state.id = id;
+            state.totalBytes = Long.parseLong(meta.getProperty("totalBytes", "0"));
+            state.chunkCount = Integer.parseInt(meta.getProperty("chunkCount", "0"));
+            state.sha256 = meta.getProperty("sha256", "");
+            state.received = Integer.parseInt(meta.getProperty("received", "0"));
+            state.bytes = Long.parseLong(meta.getProperty("bytes", "0"));
+            return state;
+        }
+    }
+
+    @Override
+    public synchronized int beginConfigurationTransfer(int mesaId, String transferId, long totalBytes, int chunkCount,
+            String sha256, Current current) {
+        if (mesaId != this.machineId || !transferId.matches("[0-9a-f]{8,64}")
+                || totalBytes <= 0 || totalBytes > MAX_TRANSFER_BYTES || chunkCount <= 0) {
+            System.out.println("Transferencia de configuración rechazada: mesa=" + mesaId + ", id=" + transferId
+                    + ", bytes=" + totalBytes);
+            return -1;
+        }
+
+        try {
+            TransferState existing = activeTransfer != null && activeTransfer.id.equals(transferId)
+                    ? activeTransfer : TransferState.load(transferId);
+
+            if (existing != null && existing.totalBytes == totalBytes && existing.chunkCount == chunkCount
+                    && existing.sha256.equals(sha256) && existing.partFile().exists()) {
+                // Descartar lo escrito después del último bloque confirmado
+                try (RandomAccessFile part = new RandomAccessFile(existing.partFile(), "rw")) {
+                    part.setLength(existing.bytes);
+                }
+                activeTransfer = existing;
+                System.out.println("Reanudando transferencia " + transferId + " desde el bloque "
+                        + existing.received + "/" + chunkCount);
+                return existing.received;
+            }
+
+            // Transferencia nueva: se descartan las incompletas de versiones anteriores
+            deleteTransferFiles();
+            File dir = new File(TRANSFER_DIR);
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+
+            TransferState state = new TransferState();
+            state.id = transferId;
+            state.totalBytes = totalBytes;
+            state.chunkCount = chunkCount;
+            state.sha256 = sha256;
+            new FileOutputStream(state.partFile()).close();
+            state.save();
+            activeTransfer = state;
+
+            System.out.println("Iniciando transferencia de configuración " + transferId + ": "
+                    + totalBytes + " bytes en " + chunkCount + " bloques");
+            return 0;
+
+        } catch (IOException e) {
+            System.err.println("Error iniciando transferencia de configuración: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    @Override
+    public synchronized int sendConfigurationChunk(int mesaId, String transferId, int index, byte[] data, int crc32,
+            Current current) {
+        TransferState state = activeTransfer;
+        if (mesaId != this.machineId || state == null || !state.id.equals(transferId)) {
+            return -1;
+        }
+
+        // Bloque repetido o fuera de orden: se indica cuál se espera
+        if (index != state.received) {
+            return state.received;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if ((int) crc.getValue() != crc32 || state.bytes + data.length > state.totalBytes) {
+            System.out.println("Bloque " + index + " de la transferencia " + transferId + " corrupto, se pide de nuevo");
+            return state.received;
+        }
+
+        try (RandomAccessFile part = new RandomAccessFile(state.partFile(), "rw")) {
+            part.seek(state.bytes);
+            part.write(data);
+            state.bytes += data.length;
+            state.received++;
+            state.save();
+            return state.received;
+
+        } catch (IOException e) {
+            System.err.println("Error guardando bloque " + index + ": " + e.getMessage());
+            return state.received;
+        }
+    }
+
+    @Override
+    public synchronized boolean commitConfigurationTransfer(int mesaId, String transferId, Current current) {
+        TransferState state = activeTransfer;
+        if (mesaId != this.machineId || state == null || !state.id.equals(transferId)) {
+            return false;
+        }
+
+        if (state.received != state.chunkCount || state.bytes != state.totalBytes) {
+            System.out.println("Transferencia " + transferId + " incompleta: " + state.received + "/" + state.chunkCount + " bloques");
+            return false;
+        }
+
+        try {
+            if (!state.sha256.equals(sha256Of(state.partFile()))) {
+                System.out.println("Transferencia " + transferId + " rechazada - el SHA-256 no coincide");
+                deleteTransferFiles();
+                activeTransfer = null;
+                return false;
+            }
+
+            cleanupPreviousConfiguration();
+
+            boolean success;
+            try (InputStream in = new InflaterInputStream(new BufferedInputStream(new FileInputStream(state.partFile())))) {
+                success = applyConfigurationStream(in);
+            }
+
+            deleteTransferFiles();
+            activeTransfer = null;
+
+            if (success) {
+                isConfigured = true;
+                System.out.println("Configuración aplicada exitosamente para mesa " + mesaId + " (transferencia por bloques)");
+                if (controller != null) {
+                    controller.onConfigurationUpdated();
+                }
+            } else {
+                System.out.println("Error aplicando configuración para mesa " + mesaId);
+            }
+            return success;
+
+        } catch (Exception e) {
+            System.err.println("Error aplicando transferencia de configuración: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static String sha256Of(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteTransferFiles() {
+        File[] files = new File(TRANSFER_DIR).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Aplica una configuración completa leyéndola del stream: las secciones pequeñas se leen
+     * enteras y los votantes se escriben a voters.json a medida que llegan.
+     */
+    private boolean applyConfigurationStream(InputStream in) throws IOException {
+        ConfigurationStreamReader reader = new ConfigurationStreamReader(in);
+
+        String mesaInfo = reader.readSection();
+        String electionInfo = reader.readSection();
+        String candidatesInfo = reader.readSection();
+        if (mesaInfo == null || electionInfo == null || candidatesInfo == null) {
+            System.out.println("Formato de configuración inválido - secciones insuficientes");
+            return false;
+        }
+
+        processMesaInfo(mesaInfo);
+        boolean electionSuccess = processElectionAndCandidates(electionInfo, candidatesInfo);
+
+        int voters = writeVoters(reader);
+        System.out.println("Votantes procesados: " + voters);
+
+        String metadata = reader.readSection();
+        if (metadata != null) {
+            processMetadata(metadata);
+        }
+        System.out.println("Configuración leída: " + reader.getBytesRead() + " bytes");
+
+        String vector = reader.getVector();
+        if (electionSuccess && vector != null) {
+            Properties state = new Properties();
+            state.setProperty("config.vector", vector);
+            state.setProperty("section.mesa", mesaInfo);
+            state.setProperty("section.election", electionInfo);
+            state.setProperty("section.candidates", candidatesInfo);
+            saveConfigurationState(state);
+        }
+        return electionSuccess && vector != null;
+    }
+
+    /**
+     * Escribe los votantes de la sección de ciudadanos directamente a voters.json, uno por uno.
+     */
+    private int writeVoters(ConfigurationStreamReader reader) throws IOException {
+        File file = new File(VOTERS_JSON_PATH);
+        try (VoterJsonWriter writer = new VoterJsonWriter(mapper.getFactory(), file)) {
+            reader.forEachRecord(citizenStr -> {
+                try {
+                    ConfigurationParser.parseCitizen(citizenStr, 0, citizenStr.length(), writer::write);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            commitNewVoters(writer);
+            System.out.println("Archivo voters.json actualizado en: " + file.getAbsolutePath());
+            return writer.getCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     private void cleanupPreviousConfiguration() {
         System.out.println("Limpiando configuración previa...");
 
@@ -193,28 +484,8 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
             System.out.println("Estado: " + electionStatus);
             System.out.println("Horario de jornada: " + new java.util.Date(jornadaInicio) + " - " + new java.util.Date(jornadaFin));
 
-            // Parsear candidatos
-            List<Candidate> candidates = new ArrayList<>();
-
-            if (!candidatesInfo.trim().isEmpty()) {
-                String[] candidateStrings = candidatesInfo.split(ARRAY_SEPARATOR);
-
-                for (String candidateStr : candidateStrings) {
-                    String[] candidateParts = candidateStr.split(CANDIDATE_SEPARATOR);
-                    if (candidateParts.length >= 3) {
-                        int candidateId = Integer.parseInt(candidateParts[0]);
-                        String candidateName = candidateParts[1];
-                        String candidateParty = candidateParts[2];
-
-                        candidates.add(new Candidate(candidateId, candidateName, candidateParty));
-                    }
-                }
-            }
-
+            List<Candidate> candidates = ConfigurationParser.parseCandidates(candidatesInfo.trim());
             System.out.println("Candidatos procesados: " + candidates.size());
-            for (Candidate c : candidates) {
-                System.out.println("   - " + c.toString());
-            }
 
             Election election = new Election(electionId, candidates, jornadaInicio, jornadaFin);
 
@@ -253,23 +524,7 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
             System.out.println("Procesando elección (formato legacy): " + electionName + " (ID: " + electionId + ")");
             System.out.println("Sin horarios de jornada - votación siempre disponible");
 
-            // Parsear candidatos (igual que antes)
-            List<Candidate> candidates = new ArrayList<>();
-
-            if (!candidatesInfo.trim().isEmpty()) {
-                String[] candidateStrings = candidatesInfo.split(ARRAY_SEPARATOR);
-
-                for (String candidateStr : candidateStrings) {
-                    String[] candidateParts = candidateStr.split(CANDIDATE_SEPARATOR);
-                    if (candidateParts.length >= 3) {
-                        int candidateId = Integer.parseInt(candidateParts[0]);
-                        String candidateName = candidateParts[1];
-                        String candidateParty = candidateParts[2];
-
-                        candidates.add(new Candidate(candidateId, candidateName, candidateParty));
-                    }
-                }
-            }
+            List<Candidate> candidates = ConfigurationParser.parseCandidates(candidatesInfo.trim());
 
             // Crear elección sin horarios (usa constructor original)
             Election election = new Election(electionId, candidates);
@@ -292,52 +547,164 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
         }
     }
 
-    private boolean processVoters(String citizensInfo) {
-        try {
-            List<Voter> voters = new ArrayList<>();
+    /**
+     * Escribe los votantes de la sección de ciudadanos ({@code data[from, to)}) directamente a
+     * voters.json, sin armar la lista de votantes.
+     */
+    private int writeVoters(String data, int from, int to) throws IOException {
+        File file = new File(VOTERS_JSON_PATH);
+        try (VoterJsonWriter writer = new VoterJsonWriter(mapper.getFactory(), file)) {
+            ConfigurationParser.parseCitizens(data, from, to, writer::write);
+            commitNewVoters(writer);
+            System.out.println("Archivo voters.json actualizado en: " + file.getAbsolutePath());
+            return writer.getCount();
+        }
+    }
 
-            if (!citizensInfo.trim().isEmpty()) {
-                String[] citizenStrings = citizensInfo.split(ARRAY_SEPARATOR);
+    /**
+     * Reemplaza voters.json por los votantes de una configuración completa y descarta el log de
+     * votos anterior, con los archivos bloqueados frente a los votos de la mesa.
+     */
+    private static void commitNewVoters(VoterJsonWriter writer) throws IOException {
+        VoterRepository.withFilesLocked(() -> {
+            writer.commit();
+            VoterRepository.clearVotedLog();
+            return null;
+        });
+    }
 
-                for (String citizenStr : citizenStrings) {
-                    String[] citizenParts = citizenStr.split(CANDIDATE_SEPARATOR);
-                    if (citizenParts.length >= 4) {
-                        String citizenId = citizenParts[1]; // documento
-                        String firstName = citizenParts[2];
-                        String lastName = citizenParts[3];
-                        String fullName = firstName + " " + lastName;
+    private Voter parseVoter(String citizenStr) throws IOException {
+        Voter[] voter = new Voter[1];
+        ConfigurationParser.parseCitizen(citizenStr, 0, citizenStr.length(), (document, firstName, lastName) ->
+                voter[0] = new Voter(document, firstName + " " + lastName,
+                        VoterJsonWriter.defaultPassword(document), AlreadyVote.NO));
+        return voter[0];
+    }
 
-                        // Generar contraseña por defecto (puedes cambiar esta lógica)
-                        String password = "pass" + citizenId.substring(Math.max(0, citizenId.length() - 4));
+    private void writeVoters(Collection<Voter> voters) throws IOException {
+        File file = new File(VOTERS_JSON_PATH);
+        try (VoterJsonWriter writer = new VoterJsonWriter(mapper.getFactory(), file)) {
+            for (Voter voter : voters) {
+                writer.write(voter);
+            }
+            writer.commit();
+        }
+        System.out.println("Archivo voters.json actualizado en: " + file.getAbsolutePath());
+    }
 
-                        voters.add(new Voter(citizenId, fullName, password, AlreadyVote.NO));
-                    }
-                }
+    /**
+     * Aplica un parche sobre la configuración guardada. Solo se acepta si la versión local es la
+     * versión base del parche; si no, se responde false y el servidor envía la configuración completa.
+     * Los votantes existentes conservan su estado de voto.
+     */
+    private boolean applyPatch(ConfigurationPatch.Patch patch) {
+        try {
+            Properties state = loadConfigurationState();
+            String localVector = state.getProperty("config.vector");
+
+            if (!patch.getBaseVector().equals(localVector)) {
+                System.out.println("Parche rechazado - versión local " + localVector
+                        + " distinta de la base " + patch.getBaseVector());
+                return false;
             }
 
-            System.out.println("Votantes procesados: " + voters.size());
+            String mesaInfo = patch.getSection(ConfigurationPatch.MESA);
+            String electionInfo = patch.getSection(ConfigurationPatch.ELECTION);
+            String candidatesInfo = patch.getSection(ConfigurationPatch.CANDIDATES);
 
-            File file = new File(VOTERS_JSON_PATH);
-            if (!file.getParentFile().exists()) {
-                boolean dirsCreated = file.getParentFile().mkdirs();
-                if (dirsCreated) {
-                    System.out.println("Directorio creado: " + file.getParentFile().getAbsolutePath());
+            System.out.println("Aplicando parche de configuración: "
+                    + (mesaInfo != null ? "mesa " : "")
+                    + (electionInfo != null ? "elección " : "")
+                    + (candidatesInfo != null ? "candidatos " : "")
+                    + patch.getCitizenUpserts().size() + " votantes nuevos/modificados, "
+                    + patch.getCitizenRemovals().size() + " eliminados");
+
+            if (mesaInfo != null) {
+                processMesaInfo(mesaInfo);
+                state.setProperty("section.mesa", mesaInfo);
+            }
+
+            if (electionInfo != null || candidatesInfo != null) {
+                String election = electionInfo != null ? electionInfo : state.getProperty("section.election", "");
+                String candidates = candidatesInfo != null ? candidatesInfo : state.getProperty("section.candidates", "");
+                if (!processElectionAndCandidates(election, candidates)) {
+                    return false;
                 }
+                state.setProperty("section.election", election);
+                state.setProperty("section.candidates", candidates);
             }
 
-            // Guardar como JSON con formato limpio
-            mapper.writerWithDefaultPrettyPrinter().writeValue(file, voters);
+            if (patch.hasCitizenChanges() && !applyVoterChanges(patch)) {
+                return false;
+            }
 
-            System.out.println("Archivo voters.json actualizado en: " + file.getAbsolutePath());
+            processMetadata(patch.getMetadata());
+
+            state.setProperty("config.vector", patch.getTargetVector());
+            saveConfigurationState(state);
             return true;
 
         } catch (Exception e) {
-            System.err.println("Error procesando votantes: " + e.getMessage());
+            System.err.println("Error aplicando parche de configuración: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
     }
 
+    /**
+     * Lee, modifica y reescribe voters.json con los archivos de votantes bloqueados, para que un voto
+     * anotado en paralelo no se pierda; del log se quita solo la parte que quedó incluida.
+     */
+    private boolean applyVoterChanges(ConfigurationPatch.Patch patch) throws IOException {
+        return VoterRepository.withFilesLocked(() -> applyVoterChangesLocked(patch));
+    }
+
+    private boolean applyVoterChangesLocked(ConfigurationPatch.Patch patch) throws IOException {
+        File file = new File(VOTERS_JSON_PATH);
+        if (!file.exists()) {
+            System.out.println("Parche rechazado - no existe voters.json");
+            return false;
+        }
+
+        Map<String, Voter> voters = new LinkedHashMap<>();
+        for (Voter voter : mapper.readValue(file, new TypeReference<List<Voter>>() {})) {
+            voters.put(voter.getId(), voter);
+        }
+        // Los votos registrados desde la última compactación están en el log, no en voters.json
+        long merged = VoterRepository.applyVotedLog(voters);
+
+        voters.keySet().removeAll(patch.getCitizenRemovals());
+
+        for (String citizenStr : patch.getCitizenUpserts()) {
+            Voter voter = parseVoter(citizenStr);
+            if (voter == null) {
+                continue;
+            }
+            Voter previous = voters.get(voter.getId());
+            if (previous != null) {
+                voter.setAlreadyVote(previous.getAlreadyVote());
+            }
+            voters.put(voter.getId(), voter);
+        }
+
+        System.out.println("Votantes después del parche: " + voters.size());
+        writeVoters(voters.values());
+        VoterRepository.truncateVotedLog(merged);
+        return true;
+    }
+
+    private Properties loadConfigurationState() throws IOException {
+        return ConfigurationState.load();
+    }
+
+    /**
+     * Guarda el vector de versión y las secciones pequeñas (mesa, elección, candidatos) que un
+     * parche puede necesitar reprocesar aunque no las traiga. Las claves del controlador se conservan.
+     */
+    private void saveConfigurationState(Properties state) throws IOException {
+        ConfigurationState.update(state);
+    }
+
     @Override
     public boolean isReady(int mesaId, Current current) {
         boolean ready = mesaId == this.machineId && controller != null;
@@ -359,34 +726,23 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
     }
 
     /**
-     * Parsea el string de configuración y actualiza los archivos locales
+     * Parsea el string de configuración en una sola pasada y actualiza los archivos locales.
+     * La sección de ciudadanos se recorre por índices y se escribe directo a voters.json.
      */
     private boolean parseAndApplyConfiguration(String configurationData) {
         try {
-            System.out.println("Parseando configuración...");
-            System.out.println("Datos recibidos: " + configurationData.length() + " caracteres");
-
-            // Dividir el string por secciones
-            String[] sections = configurationData.split(RECORD_SEPARATOR);
+            System.out.println("Parseando configuración: " + configurationData.length() + " caracteres");
 
-            if (sections.length < 5) {
-                System.out.println("Formato de configuración inválido - secciones insuficientes: " + sections.length);
+            int[] bounds = ConfigurationParser.sectionBounds(configurationData);
+            if (bounds == null) {
+                System.out.println("Formato de configuración inválido - secciones insuficientes");
                 return false;
             }
 
-            // Parsear cada sección
-            String mesaInfo = sections[0];        // MESA_INFO
-            String electionInfo = sections[1];    // ELECTION_INFO
-            String candidatesInfo = sections[2];  // CANDIDATES
-            String citizensInfo = sections[3];    // CITIZENS
-            String metadata = sections[4];        // METADATA
-
-            System.out.println("Secciones parseadas:");
-            System.out.println("   - Mesa: " + mesaInfo);
-            System.out.println("   - Elección: " + electionInfo);
-            System.out.println("   - Candidatos: " + candidatesInfo.length() + " chars");
-            System.out.println("   - Ciudadanos: " + citizensInfo.length() + " chars");
-            System.out.println("   - Metadata: " + metadata);
+            String mesaInfo = ConfigurationParser.section(configurationData, bounds, ConfigurationParser.MESA);
+            String electionInfo = ConfigurationParser.section(configurationData, bounds, ConfigurationParser.ELECTION);
+            String candidatesInfo = ConfigurationParser.section(configurationData, bounds, ConfigurationParser.CANDIDATES);
+            String metadata = ConfigurationParser.section(configurationData, bounds, ConfigurationParser.METADATA);
 
             // 1. Procesar información de la mesa (opcional, para logs)
             processMesaInfo(mesaInfo);
@@ -394,13 +750,26 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
             // 2. Procesar y actualizar elección y candidatos
             boolean electionSuccess = processElectionAndCandidates(electionInfo, candidatesInfo);
 
-            // 3. Procesar y actualizar ciudadanos/votantes
-            boolean votersSuccess = processVoters(citizensInfo);
+            // 3. Escribir los votantes directamente desde la sección de ciudadanos
+            int citizensFrom = bounds[ConfigurationParser.CITIZENS * 2];
+            int citizensTo = bounds[ConfigurationParser.CITIZENS * 2 + 1];
+            int voters = writeVoters(configurationData, citizensFrom, citizensTo);
+            System.out.println("Votantes procesados: " + voters);
 
             // 4. Procesar metadata (opcional)
             processMetadata(metadata);
 
-            return electionSuccess && votersSuccess;
+            // 5. Guardar la versión aplicada para poder recibir parches
+            if (electionSuccess) {
+                Properties state = new Properties();
+                state.setProperty("config.vector", vectorOf(configurationData, bounds));
+                state.setProperty("section.mesa", mesaInfo);
+                state.setProperty("section.election", electionInfo);
+                state.setProperty("section.candidates", candidatesInfo);
+                saveConfigurationState(state);
+            }
+
+            return electionSuccess;
 
         } catch (Exception e) {
             System.err.println("Error parseando configuración: " + e.getMessage());
@@ -409,6 +778,20 @@ public class ConfigurationReceiverImpl implements ConfigurationReceiver {
         }
     }
 
+    /**
+     * Vector de versión de la configuración calculado sobre las secciones ya ubicadas, sin volver
+     * a dividir ni codificar el texto.
+     */
+    private static String vectorOf(String configurationData, int[] bounds) {
+        ConfigurationPatch.VectorBuilder vector = new ConfigurationPatch.VectorBuilder();
+        // La metadata no es parte del vector
+        for (int section = 0; section < ConfigurationParser.METADATA; section++) {
+            vector.update(configurationData, bounds[section * 2], bounds[section * 2 + 1]);
+            vector.nextSection();
+        }
+        return vector.getVector();
+    }
+
     private void processMesaInfo(String mesaInfo) {
         try {
             String[] parts = mesaInfo.split(FIELD_SEPARATOR);
@@ -0,0 +1,62 @@
+package configuration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Estado de configuración de la mesa (configuration_state.properties), compartido por el receptor
+ * (vector de versión y secciones para aplicar parches) y el controlador (versión mostrada).
+ *
+ * Cada escritura relee el archivo, cambia solo sus claves y lo reemplaza atómicamente, para que
+ * ninguno borre las claves del otro.
+ */
+public final class ConfigurationState {
+
+    public static final String FILE_PATH = "client/config/configuration_state.properties";
+
+    private ConfigurationState() {
+    }
+
+    public static synchronized Properties load() throws IOException {
+        Properties state = new Properties();
+        File file = new File(FILE_PATH);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                state.load(in);
+            }
+        }
+        return state;
+    }
+
+    /** Agrega o reemplaza las claves de {@code changes} conservando las demás. */
+    public static synchronized void update(Properties changes) throws IOException {
+        Properties state = load();
+        state.putAll(changes);
+
+        File file = new File(FILE_PATH);
+        if (!file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        File tmp = new File(FILE_PATH + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            state.store(out, "Configuration state");
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Marca la mesa como configurada desde el servidor con la versión mostrada en la UI. */
+    public static void saveServerVersion(String version) throws IOException {
+        Properties changes = new Properties();
+        changes.setProperty("configured.from.server", "true");
+        changes.setProperty("last.configuration.version", version);
+        changes.setProperty("last.update.timestamp", String.valueOf(System.currentTimeMillis()));
+        update(changes);
+    }
+}
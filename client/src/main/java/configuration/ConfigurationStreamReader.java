@@ -0,0 +1,147 @@
+package configuration;
+
+import ConfigurationSystem.ConfigurationPatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Lee una configuración completa (mesa#eleccion#candidatos#ciudadanos#metadata) desde un stream,
+ * sección por sección, sin cargarla entera en memoria. Los ciudadanos se entregan registro por
+ * registro. De paso calcula el vector de versión para poder recibir parches después.
+ */
+final class ConfigurationStreamReader implements Closeable {
+
+    private static final byte SECTION_SEPARATOR = '#';
+    private static final byte RECORD_SEPARATOR = '|';
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private byte[] token = new byte[256];
+    private int tokenLength;
+
+    private final ConfigurationPatch.VectorBuilder vector = new ConfigurationPatch.VectorBuilder();
+    private long bytesRead;
+
+    ConfigurationStreamReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Lee la siguiente sección completa. Retorna null si el stream ya terminó.
+     */
+    String readSection() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        tokenLength = 0;
+        while (fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != SECTION_SEPARATOR) {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                vector.nextSection();
+                break;
+            }
+        }
+        return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Entrega cada registro de la sección actual (separados por '|') y avanza a la siguiente
+     * sección. Retorna cuántos registros no vacíos leyó.
+     */
+    int forEachRecord(Consumer<String> consumer) throws IOException {
+        int records = 0;
+        tokenLength = 0;
+        while (fill()) {
+            int start = position;
+            while (position < limit && buffer[position] != RECORD_SEPARATOR && buffer[position] != SECTION_SEPARATOR) {
+                position++;
+            }
+            append(start, position);
+            if (position == limit) {
+                continue;
+            }
+
+            byte separator = buffer[position++];
+            if (separator == SECTION_SEPARATOR) {
+                // El '#' no es parte de la sección, pero el '|' sí lo es para el vector
+                vector.nextSection();
+            } else {
+                vector.update(buffer, position - 1, 1);
+            }
+
+            if (tokenLength > 0) {
+                consumer.accept(new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+                records++;
+            }
+            tokenLength = 0;
+            if (separator == SECTION_SEPARATOR) {
+                return records;
+            }
+        }
+
+        if (tokenLength > 0) {
+            consumer.accept(new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+            records++;
+        }
+        return records;
+    }
+
+    /** Vector de versión de lo leído, o null si faltaron secciones. */
+    String getVector() {
+        return vector.getVector();
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void append(int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return;
+        }
+        vector.update(buffer, start, length);
+        if (tokenLength + length > token.length) {
+            token = Arrays.copyOf(token, Math.max(token.length * 2, tokenLength + length));
+        }
+        System.arraycopy(buffer, start, token, tokenLength, length);
+        tokenLength += length;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        int n = in.read(buffer);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = n;
+        bytesRead += n;
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package configuration;
+
+import Autentication.AlreadyVote;
+import Autentication.PasswordHash;
+import Autentication.Voter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+
+/**
+ * Escribe voters.json votante por votante con un JsonGenerator, sin armar la lista de Voter en
+ * memoria. Los campos quedan en el mismo formato que lee VoterRepository; de la contraseña se
+ * escriben solo la sal y el hash ({@link PasswordHash}).
+ *
+ * Se escribe a un temporal y {@link #commit()} lo reemplaza de forma atómica, así una lectura
+ * concurrente nunca ve el archivo a medias. Si no se llama a commit, el temporal se descarta.
+ */
+final class VoterJsonWriter implements Closeable {
+
+    private final File target;
+    private final File tmp;
+    private final JsonGenerator generator;
+    private final MessageDigest digest = PasswordHash.sha256();
+    private int count;
+    private boolean committed;
+
+    VoterJsonWriter(JsonFactory factory, File target) throws IOException {
+        this.target = target;
+        this.tmp = new File(target.getPath() + ".tmp");
+        if (target.getParentFile() != null && !target.getParentFile().exists()) {
+            target.getParentFile().mkdirs();
+        }
+        this.generator = factory.createGenerator(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024));
+        generator.writeStartArray();
+    }
+
+    /** Votante nuevo con la contraseña por defecto y sin voto. */
+    void write(String document, String firstName, String lastName) throws IOException {
+        byte[] salt = PasswordHash.newSalt();
+        write(document, firstName + " " + lastName, PasswordHash.encode(salt),
+                PasswordHash.encode(PasswordHash.hash(digest, salt, 0, defaultPassword(document))), AlreadyVote.NO);
+    }
+
+    void write(Voter voter) throws IOException {
+        write(voter.getId(), voter.getName(), voter.getSalt(), voter.getPasswordHash(), voter.getAlreadyVote());
+    }
+
+    private void write(String id, String name, String salt, String passwordHash, AlreadyVote alreadyVote)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", id);
+        generator.writeStringField("name", name);
+        generator.writeStringField("salt", salt);
+        generator.writeStringField("passwordHash", passwordHash);
+        generator.writeStringField("alreadyVote", alreadyVote.name());
+        generator.writeEndObject();
+        count++;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /** Cierra el archivo y reemplaza voters.json. */
+    void commit() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            generator.close();
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    static String defaultPassword(String document) {
+        return "pass" + document.substring(Math.max(0, document.length() - 4));
+    }
+}
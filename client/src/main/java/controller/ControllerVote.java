@@ -83,9 +83,9 @@ public class ControllerVote {
         String opcion = view.showCandidatesAndGetChoice(election.getCandidates());
         long timestamp = System.currentTimeMillis();
         Vote nuevoVote = new Vote(ip.getHostAddress(), opcion,timestamp, election.getElectionId());
+        voteRepo.save(nuevoVote);
         rm.setServerProxy(dest);
         rm.sendMessage(nuevoVote);
-        voteRepo.save(nuevoVote);
 
         view.showInfo("Gracias por votar. Su elección (" + opcion + ") ha sido registrada.");
     }
@@ -6,7 +6,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zeroc.Ice.Communicator;
 import com.zeroc.Ice.ObjectAdapter;
 import com.zeroc.Ice.Util;
+import configuration.ConfigurationListener;
 import configuration.ConfigurationReceiverImpl;
+import configuration.ConfigurationState;
 import ConfigurationSystem.ConfigurationReceiver;
 import model.Vote;
 import reliableMessage.RMDestinationPrx;
@@ -17,14 +19,12 @@ import votation.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.Properties;
 
 
-public class ControllerVoteUI {
+public class ControllerVoteUI implements ConfigurationListener {
     private VotationInterface voteRepo;
     private AutenticationVoterInterface authVoter;
     private ElectionInterface electionRepo;
@@ -42,7 +42,6 @@ public class ControllerVoteUI {
     private ConfigurationReceiverImpl configurationReceiver;
     private ObjectAdapter configurationAdapter;
 
-    private static final String CONFIG_STATE_FILE = "client/config/configuration_state.properties";
     private boolean isConfiguredFromServer = false;
     private String lastConfigurationVersion = "";
 
@@ -68,10 +67,9 @@ public class ControllerVoteUI {
 
     private void loadConfigurationState() {
         try {
-            File stateFile = new File(CONFIG_STATE_FILE);
+            File stateFile = new File(ConfigurationState.FILE_PATH);
             if (stateFile.exists()) {
-                Properties props = new Properties();
-                props.load(new FileInputStream(stateFile));
+                Properties props = ConfigurationState.load();
 
                 isConfiguredFromServer = Boolean.parseBoolean(props.getProperty("configured.from.server", "false"));
                 lastConfigurationVersion = props.getProperty("last.configuration.version", "");
@@ -89,15 +87,8 @@ public class ControllerVoteUI {
 
     private void saveConfigurationState(String version) {
         try {
-            File stateFile = new File(CONFIG_STATE_FILE);
-            stateFile.getParentFile().mkdirs();
-
-            Properties props = new Properties();
-            props.setProperty("configured.from.server", "true");
-            props.setProperty("last.configuration.version", version);
-            props.setProperty("last.update.timestamp", String.valueOf(System.currentTimeMillis()));
-
-            props.store(new FileOutputStream(stateFile), "Configuration State - Auto Generated");
+            // Se conservan el vector de versión y las secciones que guarda el receptor para los parches
+            ConfigurationState.saveServerVersion(version);
 
             isConfiguredFromServer = true;
             lastConfigurationVersion = version;
@@ -304,9 +295,10 @@ public class ControllerVoteUI {
             long timestamp = System.currentTimeMillis();
             Vote vote = new Vote(ip.getHostAddress(), candidateId, timestamp, election.getElectionId());
 
+            // Primero el registro local: si no se puede guardar, el voto no sale de la mesa
+            voteRepo.save(vote);
             rm.setServerProxy(dest);
             rm.sendMessage(vote);
-            voteRepo.save(vote);
             authVoter.markAsVoted(currentVoterId);
 
             System.out.println("Voto registrado exitosamente - Votante: " + currentVoterId + ", Candidato: " + candidateId);
@@ -353,6 +345,7 @@ public class ControllerVoteUI {
         }
     }
 
+    @Override
     public void onConfigurationUpdated() {
         try {
             System.out.println("Procesando nueva configuración del servidor...");
@@ -384,6 +377,7 @@ public class ControllerVoteUI {
         }
     }
 
+    @Override
     public void onElectionStatusChanged(int electionId, String newStatus) {
         try {
             System.out.println("Procesando cambio de estado de elección " + electionId + " -> " + newStatus);
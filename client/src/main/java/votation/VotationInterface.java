@@ -1,8 +1,12 @@
 package votation;
 import model.Vote;
+
+import java.io.IOException;
+
 public interface VotationInterface {
 
-    void save(Vote newVote);
+    /** Guarda el voto en el registro local; si falla, el voto no quedó guardado. */
+    void save(Vote newVote) throws IOException;
 
 
 }
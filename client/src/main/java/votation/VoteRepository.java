@@ -2,67 +2,284 @@ package votation;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
 import model.Vote;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
+/**
+ * Registro local de votos de solo agregado (votes.ledger).
+ *
+ * Cada voto es un registro [largo][crc32][machineId, voto, fecha, elección] que se agrega al final
+ * del archivo; nunca se reescribe lo anterior. Por defecto se hace fsync después de cada voto
+ * ({@code syncEvery} = 1); con N > 1 se hace cada N votos y con 0 se deja al sistema operativo.
+ * Al abrir, se recorre el archivo y se trunca un registro incompleto o corrupto al final (corte a
+ * mitad de una escritura); los bytes descartados se copian a un archivo .tail aparte.
+ * {@link #replay} lee los votos en orden para auditoría o para conciliar con el servidor.
+ *
+ * Si una escritura falla, el archivo se trunca al final del último registro completo y el error
+ * se informa a quien guarda el voto. Si ni siquiera se puede truncar, el registro se cierra para no
+ * agregar votos detrás de bytes cortados.
+ */
 public class VoteRepository implements VotationInterface {
-    private static final String FILE_PATH = "client/data/votes_list.kryo";
-    private final File file = new File(FILE_PATH);
+    private static final String FILE_PATH = "client/data/votes.ledger";
+    private static final String LEGACY_FILE_PATH = "client/data/votes_list.kryo";
 
-    private final List<Vote> votes = new ArrayList<>();
+    private static final int MAGIC = 0x564C4731; // "VLG1"
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
 
-    private final Kryo kryo = new Kryo();
+    private final File file;
+    private final int syncEvery;
+    private FileChannel channel;
+    private int count;
+    private int scanned;
+    private int unsynced;
 
     public VoteRepository() {
-        kryo.register(ArrayList.class);
-        kryo.register(Vote.class);
-        loadFromDisk();
+        this(new File(FILE_PATH), 1);
+    }
+
+    public VoteRepository(File file, int syncEvery) {
+        this.file = file;
+        this.syncEvery = syncEvery;
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println("Error abriendo registro de votos " + file + ": " + e.getMessage());
+            // Sin registro válido no se escribe nada: el archivo podría no ser un registro de votos
+            closeQuietly();
+        }
     }
 
+    private void closeQuietly() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Ya se informó el error de apertura
+            }
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC), 0);
+            channel.force(true);
+        } else {
+            ByteBuffer magic = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(magic, 0);
+            if (magic.getInt(0) != MAGIC) {
+                throw new IOException("No es un registro de votos: " + file);
+            }
+        }
+
+        long valid = scan(null);
+        count = scanned;
+        if (valid < channel.size()) {
+            // Lo descartado se guarda aparte por si no era solo una escritura cortada
+            File tail = new File(file.getPath() + ".tail-" + System.currentTimeMillis());
+            try (FileChannel out = FileChannel.open(tail.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                channel.transferTo(valid, channel.size() - valid, out);
+            }
+            System.out.println("Registro de votos: se descartaron " + (channel.size() - valid)
+                    + " bytes inválidos al final (copiados a " + tail.getName() + ")");
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        channel.position(valid);
+
+        if (count == 0) {
+            migrateLegacyVotes();
+        }
+    }
+
+    /**
+     * Importa los votos del archivo Kryo anterior (votes_list.kryo) y lo renombra.
+     */
     @SuppressWarnings("unchecked")
-    private void loadFromDisk() {
-        file.getParentFile().mkdirs();
+    private void migrateLegacyVotes() throws IOException {
+        File legacy = new File(LEGACY_FILE_PATH);
+        if (!file.getPath().equals(new File(FILE_PATH).getPath()) || !legacy.exists()) {
+            return;
+        }
 
-        if (!file.exists()) {
+        Kryo kryo = new Kryo();
+        kryo.register(ArrayList.class);
+        kryo.register(Vote.class);
+        List<Vote> votes;
+        try (Input input = new Input(new FileInputStream(legacy))) {
+            votes = kryo.readObject(input, ArrayList.class);
+        } catch (RuntimeException e) {
+            System.err.println("Error leyendo votos con Kryo: " + e.getMessage());
             return;
         }
 
-        try (Input input = new Input(new FileInputStream(file))) {
-            Object obj = kryo.readObject(input, ArrayList.class);
-            if (obj instanceof ArrayList) {
-                votes.clear();
-                votes.addAll((ArrayList<Vote>) obj);
+        for (Vote vote : votes) {
+            append(vote);
+        }
+        channel.force(false);
+        unsynced = 0;
+
+        if (legacy.renameTo(new File(LEGACY_FILE_PATH + ".migrated"))) {
+            System.out.println("Registro de votos: " + votes.size() + " votos importados de " + LEGACY_FILE_PATH);
+        }
+    }
+
+    @Override
+    public synchronized void save(Vote vote) throws IOException {
+        if (channel == null) {
+            throw new IOException("Registro de votos no disponible: " + file);
+        }
+        append(vote);
+        if (syncEvery > 0 && unsynced >= syncEvery) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    private void append(Vote vote) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeUTF(vote.getMachineId() != null ? vote.getMachineId() : "");
+            out.writeUTF(vote.getVote() != null ? vote.getVote() : "");
+            out.writeLong(vote.getDate());
+            out.writeInt(vote.getElectionId());
+        }
+        byte[] data = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + data.length);
+        record.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+        long start = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
             }
         } catch (IOException e) {
-            System.err.println("Error cargando votos con Kryo: " + e.getMessage());
+            discardFrom(start, e);
+            throw e;
         }
+        count++;
+        unsynced++;
     }
 
-
-    private  void saveToDisk() {
-        try (Output output = new Output(new FileOutputStream(file))) {
-            kryo.writeObject(output, votes);
+    /** Quita lo que se alcanzó a escribir de un registro que falló. */
+    private void discardFrom(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            channel.position(start);
         } catch (IOException e) {
-            System.err.println("Error guardando votos con Kryo: " + e.getMessage());
+            cause.addSuppressed(e);
+            System.err.println("Registro de votos " + file + " cerrado: no se pudo descartar una escritura incompleta");
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Entrega los votos del registro en el orden en que se guardaron. Retorna cuántos leyó.
+     */
+    public synchronized int replay(Consumer<Vote> consumer) throws IOException {
+        if (channel == null) {
+            return 0;
+        }
+        scan(consumer);
+        return scanned;
+    }
+
+    /**
+     * Recorre los registros válidos desde el inicio y retorna dónde termina el último. Deja en
+     * {@code scanned} cuántos encontró.
+     */
+    private long scan(Consumer<Vote> consumer) throws IOException {
+        long end = channel.size();
+        long position = HEADER_SIZE;
+        scanned = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(file), 64 * 1024))) {
+            in.skipBytes(HEADER_SIZE);
+            byte[] data = new byte[256];
+            CRC32 crc = new CRC32();
+
+            while (position + RECORD_HEADER_SIZE <= end) {
+                int length = in.readInt();
+                int expected = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE || position + RECORD_HEADER_SIZE + length > end) {
+                    break;
+                }
+                if (data.length < length) {
+                    data = new byte[Math.max(length, data.length * 2)];
+                }
+                in.readFully(data, 0, length);
+
+                crc.reset();
+                crc.update(data, 0, length);
+                if ((int) crc.getValue() != expected) {
+                    break;
+                }
+
+                if (consumer != null) {
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(data, 0, length));
+                    consumer.accept(new Vote(record.readUTF(), record.readUTF(), record.readLong(), record.readInt()));
+                }
+                position += RECORD_HEADER_SIZE + length;
+                scanned++;
+            }
+        } catch (EOFException e) {
+            // El archivo terminó a mitad de un registro
         }
+        return position;
     }
 
     public List<Vote> findAll() {
-        synchronized (votes) {
-            return new ArrayList<>(votes);
+        List<Vote> votes = new ArrayList<>();
+        try {
+            replay(votes::add);
+        } catch (IOException e) {
+            System.err.println("Error leyendo registro de votos: " + e.getMessage());
         }
+        return votes;
     }
 
-    @Override
-    public void save(Vote vote) {
-            votes.add(vote);
-            saveToDisk();
+    public synchronized int size() {
+        return count;
+    }
+
+    /** Hace fsync de lo pendiente y cierra el archivo. */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error cerrando registro de votos: " + e.getMessage());
+        }
+        channel = null;
     }
 }
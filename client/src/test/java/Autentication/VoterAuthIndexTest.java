@@ -0,0 +1,116 @@
+package Autentication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoterAuthIndexTest {
+
+    @Test
+    void autenticaSoloConLaContrasenaCorrecta() {
+        VoterAuthIndex index = new VoterAuthIndex(Arrays.asList(
+                new Voter("100", "Ana", "clave-ana", AlreadyVote.NO),
+                new Voter("200", "Juan", "contraseña-ñ", AlreadyVote.NO)));
+
+        assertTrue(index.authenticate("100", "clave-ana"));
+        assertTrue(index.authenticate("200", "contraseña-ñ"));
+        assertFalse(index.authenticate("100", "clave-juan"));
+        assertFalse(index.authenticate("100", ""));
+        assertFalse(index.authenticate("100", null));
+        assertFalse(index.authenticate("300", "clave-ana"));
+        assertFalse(index.authenticate(null, "clave-ana"));
+    }
+
+    @Test
+    void ubicaATodosLosVotantesDeUnaMesaGrande() {
+        List<Voter> voters = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            voters.add(new Voter(String.valueOf(1_000_000_000L + i), "Votante " + i, "pass" + i, AlreadyVote.NO));
+        }
+        VoterAuthIndex index = new VoterAuthIndex(voters);
+
+        assertEquals(10_000, index.size());
+        for (int i = 0; i < voters.size(); i++) {
+            assertEquals(i, index.find(voters.get(i).getId()));
+        }
+        assertEquals(-1, index.find("999"));
+        assertTrue(index.authenticate("1000009999", "pass9999"));
+    }
+
+    @Test
+    void elVotoSeMarcaUnaSolaVez() {
+        VoterAuthIndex index = new VoterAuthIndex(Arrays.asList(
+                new Voter("100", "Ana", "a", AlreadyVote.NO),
+                new Voter("200", "Juan", "b", AlreadyVote.YES)));
+
+        int ana = index.find("100");
+        int juan = index.find("200");
+        assertEquals(1, index.getVotedCount());
+        assertTrue(index.hasVoted(juan));
+        assertFalse(index.markVoted(juan));
+
+        assertFalse(index.hasVoted(ana));
+        assertTrue(index.markVoted(ana));
+        assertFalse(index.markVoted(ana));
+        assertTrue(index.hasVoted(ana));
+        assertEquals(2, index.getVotedCount());
+
+        assertFalse(index.hasVoted(-1));
+        assertFalse(index.markVoted(-1));
+    }
+
+    @Test
+    void conDocumentosRepetidosSeQuedaElPrimero() {
+        VoterAuthIndex index = new VoterAuthIndex(Arrays.asList(
+                new Voter("100", "Ana", "primera", AlreadyVote.NO),
+                new Voter("100", "Ana bis", "segunda", AlreadyVote.YES)));
+
+        assertEquals(0, index.find("100"));
+        assertEquals(1, index.size());
+        assertTrue(index.authenticate("100", "primera"));
+        assertFalse(index.authenticate("100", "segunda"));
+        assertFalse(index.hasVoted(0));
+        assertEquals(0, index.getVotedCount());
+    }
+
+    @Test
+    void dosMarcasConcurrentesSoloCuentanUna() throws Exception {
+        VoterAuthIndex index = new VoterAuthIndex(Arrays.asList(new Voter("100", "Ana", "a", AlreadyVote.NO)));
+        int slot = index.find("100");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> marks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                marks.add(executor.submit(() -> {
+                    start.await();
+                    return index.markVoted(slot);
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> mark : marks) {
+                if (mark.get(10, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            assertEquals(1, accepted);
+            assertEquals(1, index.getVotedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package configuration;
+
+import Autentication.AlreadyVote;
+import Autentication.PasswordHash;
+import Autentication.Voter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import votation.Candidate;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compara el parser de configuración por índices con el anterior (split por '#', '|' y ':',
+ * lista de Voter y voters.json con pretty printer) para tamaños de mesa realistas.
+ *
+ * Uso: gradle :client:parserBenchmark --args="[iteraciones] [tamaño1,tamaño2,...]"
+ */
+public class ConfigurationParserBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {500, 1000, 2000, 5000};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final File votersFile;
+
+    private ConfigurationParserBenchmark(File votersFile) {
+        this.votersFile = votersFile;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1) {
+            String[] parts = args[1].split(",");
+            sizes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                sizes[i] = Integer.parseInt(parts[i].trim());
+            }
+        }
+
+        File dir = Files.createTempDirectory("config-parser-bench").toFile();
+        File votersFile = new File(dir, "voters.json");
+        ConfigurationParserBenchmark benchmark = new ConfigurationParserBenchmark(votersFile);
+
+        System.out.println("========== BENCHMARK PARSER DE CONFIGURACIÓN ==========");
+        System.out.println("Iteraciones por tamaño: " + iterations);
+        System.out.printf("%-10s %-10s %12s %12s %14s %14s %10s%n",
+                "Votantes", "Parser", "ms/config", "KB/config", "MB asignados", "voters.json", "Speedup");
+
+        try {
+            for (int voters : sizes) {
+                String configuration = configuration(voters);
+                benchmark.checkParity(configuration);
+
+                Result legacy = benchmark.run("split", configuration, iterations, benchmark::legacy);
+                Result indexed = benchmark.run("índices", configuration, iterations, benchmark::indexed);
+
+                print(voters, configuration, legacy, 1.0);
+                print(voters, configuration, indexed, legacy.nanos / (double) indexed.nanos);
+            }
+        } finally {
+            votersFile.delete();
+            dir.delete();
+        }
+        System.out.println("=======================================================");
+    }
+
+    private interface Parse {
+        int apply(String configuration) throws IOException;
+    }
+
+    private static final class Result {
+        private final String name;
+        private final long nanos;
+        private final long allocated;
+        private final long fileSize;
+
+        private Result(String name, long nanos, long allocated, long fileSize) {
+            this.name = name;
+            this.nanos = nanos;
+            this.allocated = allocated;
+            this.fileSize = fileSize;
+        }
+    }
+
+    private Result run(String name, String configuration, int iterations, Parse parse) throws IOException {
+        // Calentamiento para que el JIT compile ambos caminos
+        for (int i = 0; i < Math.max(20, iterations / 4); i++) {
+            parse.apply(configuration);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parse.apply(configuration);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        return new Result(name, elapsed / iterations, allocated / iterations, votersFile.length());
+    }
+
+    private static void print(int voters, String configuration, Result result, double speedup) {
+        System.out.printf("%-10d %-10s %12.3f %12.1f %14.2f %11.1f KB %9.1fx%n",
+                voters, result.name, result.nanos / 1e6, configuration.length() / 1024.0,
+                result.allocated / 1048576.0, result.fileSize / 1024.0, speedup);
+    }
+
+    /** Camino anterior: split de secciones, registros y campos, lista de Voter y pretty printer. */
+    private int legacy(String configuration) throws IOException {
+        String[] sections = configuration.split("#");
+        List<Candidate> candidates = new ArrayList<>();
+        for (String candidateStr : sections[2].split("\\|")) {
+            String[] parts = candidateStr.split(":");
+            if (parts.length >= 3) {
+                candidates.add(new Candidate(Integer.parseInt(parts[0]), parts[1], parts[2]));
+            }
+        }
+
+        List<Voter> voters = new ArrayList<>();
+        for (String citizenStr : sections[3].split("\\|")) {
+            String[] parts = citizenStr.split(":");
+            if (parts.length >= 4) {
+                voters.add(new Voter(parts[1], parts[2] + " " + parts[3],
+                        "pass" + parts[1].substring(Math.max(0, parts[1].length() - 4)), AlreadyVote.NO));
+            }
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(votersFile, voters);
+        return voters.size() + candidates.size();
+    }
+
+    /** Camino actual: límites de secciones por índices y votantes directo al archivo. */
+    private int indexed(String configuration) throws IOException {
+        int[] bounds = ConfigurationParser.sectionBounds(configuration);
+        List<Candidate> candidates = ConfigurationParser.parseCandidates(
+                ConfigurationParser.section(configuration, bounds, ConfigurationParser.CANDIDATES));
+
+        try (VoterJsonWriter writer = new VoterJsonWriter(mapper.getFactory(), votersFile)) {
+            ConfigurationParser.parseCitizens(configuration, bounds[ConfigurationParser.CITIZENS * 2],
+                    bounds[ConfigurationParser.CITIZENS * 2 + 1], writer::write);
+            writer.commit();
+            return writer.getCount() + candidates.size();
+        }
+    }
+
+    /** Ambos caminos deben dejar exactamente los mismos votantes. */
+    private void checkParity(String configuration) throws IOException {
+        legacy(configuration);
+        List<Voter> expected = mapper.readValue(votersFile, new TypeReference<List<Voter>>() {});
+        indexed(configuration);
+        List<Voter> actual = mapper.readValue(votersFile, new TypeReference<List<Voter>>() {});
+
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException("Cantidad de votantes distinta: " + expected.size() + " vs " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Voter a = expected.get(i);
+            Voter b = actual.get(i);
+            if (!a.getId().equals(b.getId()) || !a.getName().equals(b.getName())
+                    || !sameCredentials(a, b) || a.getAlreadyVote() != b.getAlreadyVote()) {
+                throw new IllegalStateException("Votante " + i + " distinto: " + a.getId() + " vs " + b.getId());
+            }
+        }
+    }
+
+    /** Las sales son aleatorias: se compara que ambos acepten la contraseña por defecto. */
+    private static boolean sameCredentials(Voter a, Voter b) {
+        String password = VoterJsonWriter.defaultPassword(a.getId());
+        return acceptsPassword(a, password) && acceptsPassword(b, password);
+    }
+
+    private static boolean acceptsPassword(Voter voter, String password) {
+        return Arrays.equals(PasswordHash.decode(voter.getPasswordHash()),
+                PasswordHash.hash(PasswordHash.decode(voter.getSalt()), password));
+    }
+
+    /** Configuración con el mismo formato que genera el servidor. */
+    private static String configuration(int voters) {
+        StringBuilder sb = new StringBuilder(voters * 48 + 512);
+        sb.append("1-1-10-Colegio San José-Cra. 5 No. 12-30-3-Cali-76-Valle del Cauca-").append(voters);
+        sb.append('#');
+
+        long now = System.currentTimeMillis();
+        sb.append("1-Elecciones Presidenciales 2026-DURING-").append(now).append('-').append(now + 86400000L)
+                .append('-').append(now).append('-').append(now + 36000000L);
+        sb.append('#');
+
+        String[] parties = {"Partido Verde", "Pacto Histórico", "Centro Democrático", "Partido Liberal"};
+        for (int i = 1; i <= 8; i++) {
+            if (i > 1) {
+                sb.append('|');
+            }
+            sb.append(i).append(":Candidato ").append(i).append(':').append(parties[i % parties.length]);
+        }
+        sb.append('#');
+
+        String[] names = {"María", "José", "Ana", "Luis", "Carmen", "Andrés", "Lucía", "Julián"};
+        String[] lastNames = {"Rodríguez", "Gómez", "Martínez", "López", "Hernández", "Peña", "Muñoz", "Castaño"};
+        for (int i = 0; i < voters; i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(100000 + i).append(':').append(1000000000L + i * 7919L).append(':')
+                    .append(names[i % names.length]).append(':').append(lastNames[(i / names.length) % lastNames.length]);
+        }
+        sb.append('#');
+
+        sb.append("1.0-").append(now);
+        return sb.toString();
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
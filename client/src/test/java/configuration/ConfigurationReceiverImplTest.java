@@ -0,0 +1,220 @@
+package configuration;
+
+import Autentication.AutenticationVoter;
+import Autentication.Voter;
+import Autentication.VoterRepository;
+import ConfigurationSystem.ConfigurationPatch;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Configuración completa y luego parches a través del receptor, con un controlador que guarda su
+ * versión en el mismo archivo de estado (como ControllerVoteUI).
+ *
+ * El receptor usa rutas relativas (client/data, client/config): gradle corre las pruebas del
+ * cliente en build/test-work para no tocar los datos de la mesa.
+ */
+class ConfigurationReceiverImplTest {
+
+    private static final int MESA = 6823;
+    private static final String MESA_INFO = "6823-1-1-Colegio Central-Calle 1-1-Cali-1-Valle-3";
+    private static final String ELECTION = "1-Presidencial-ACTIVE-0-4102444800000-0-4102444800000";
+    private static final String CANDIDATES = "1:Ana Gomez:Partido A|2:Luis Pena:Partido B";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private RecordingController controller;
+    private ConfigurationReceiverImpl receiver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assumeFalse(new File("client/src/main/java").exists(), "se ejecuta desde la raíz del repositorio");
+        deleteWorkFiles();
+        controller = new RecordingController();
+        receiver = new ConfigurationReceiverImpl(controller);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteWorkFiles();
+    }
+
+    @Test
+    void losParchesSeAplicanDespuesDeQueElControladorGuardaSuEstado() throws IOException {
+        String full = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Diaz|3:300:Eva:Mora");
+        assertTrue(receiver.updateConfiguration(MESA, full, null));
+        assertEquals(1, controller.updates);
+
+        Properties afterFull = ConfigurationState.load();
+        assertEquals(ConfigurationPatch.vectorOf(full), afterFull.getProperty("config.vector"));
+        assertEquals("true", afterFull.getProperty("configured.from.server"));
+
+        String second = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Diaz Perez|4:400:Leo:Vera");
+        assertTrue(receiver.updateConfiguration(MESA, patch(full, second), null));
+        assertEquals(2, controller.updates);
+        assertEquals(names(second), voterNames());
+
+        // Un segundo parche parte de la versión que dejó el primero
+        String third = configuration(CANDIDATES + "|3:Marta Nunez:Partido C", "1:100:Ana:Ruiz|4:400:Leo:Vera");
+        assertTrue(receiver.updateConfiguration(MESA, patch(second, third), null));
+        assertEquals(3, controller.updates);
+        assertEquals(names(third), voterNames());
+
+        Properties state = ConfigurationState.load();
+        assertEquals(ConfigurationPatch.vectorOf(third), state.getProperty("config.vector"));
+        assertEquals(CANDIDATES + "|3:Marta Nunez:Partido C", state.getProperty("section.candidates"));
+        assertEquals("v3", state.getProperty("last.configuration.version"));
+    }
+
+    @Test
+    void unParcheSobreOtraVersionSeRechaza() throws IOException {
+        String full = configuration(CANDIDATES, "1:100:Ana:Ruiz");
+        assertTrue(receiver.updateConfiguration(MESA, full, null));
+
+        String other = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Diaz");
+        String target = configuration(CANDIDATES, "2:200:Juan:Diaz");
+        assertFalse(receiver.updateConfiguration(MESA, patch(other, target), null));
+
+        assertEquals(1, controller.updates);
+        assertEquals(names(full), voterNames());
+    }
+
+    @Test
+    void losVotosAnotadosMientrasSeAplicaUnParcheNoSePierden() throws Exception {
+        StringBuilder citizens = new StringBuilder();
+        for (int i = 1; i <= 300; i++) {
+            citizens.append(citizens.length() == 0 ? "" : "|").append(i).append(':').append(1000 + i).append(":Votante:").append(i);
+        }
+        String full = configuration(CANDIDATES, citizens.toString());
+        assertTrue(receiver.updateConfiguration(MESA, full, null));
+
+        AutenticationVoter mesa = new AutenticationVoter();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> votes = pool.submit(() -> {
+                for (int i = 1; i <= 300; i++) {
+                    mesa.markAsVoted(String.valueOf(1000 + i));
+                }
+            });
+            String patched = full.replace(":1150:Votante:150", ":1150:Votante:Ciento Cincuenta");
+            assertTrue(receiver.updateConfiguration(MESA, patch(full, patched), null));
+            votes.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Lo que no quedó en voters.json sigue en el log y se aplica al recargar
+        VoterRepository reloaded = new VoterRepository();
+        assertEquals(300, reloaded.findAll().size());
+        for (Voter voter : reloaded.findAll()) {
+            assertTrue(voter.isAlreadyVote(), voter.getId());
+        }
+        assertEquals("Votante Ciento Cincuenta", reloaded.findById("1150").get().getName());
+    }
+
+    @Test
+    void votersJsonGuardaSoloLaSalYElHashDeLaContrasena() throws IOException {
+        assertTrue(receiver.updateConfiguration(MESA, configuration(CANDIDATES, "1:1001234:Ana:Ruiz"), null));
+
+        String json = Files.readString(new File(VoterRepository.FILE_PATH).toPath());
+        assertFalse(json.contains("\"password\""), json);
+        assertFalse(json.contains("pass1234"), json);
+
+        AutenticationVoter mesa = new AutenticationVoter();
+        assertTrue(mesa.authenticate("1001234", "pass1234"));
+        assertFalse(mesa.authenticate("1001234", "pass0000"));
+    }
+
+    @Test
+    void unVotersJsonConContrasenasEnTextoSeConvierteAlCargarlo() throws IOException {
+        File file = new File(VoterRepository.FILE_PATH);
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(),
+                "[{\"id\":\"100\",\"name\":\"Ana Ruiz\",\"password\":\"clave-ana\",\"alreadyVote\":\"YES\"}]");
+
+        AutenticationVoter mesa = new AutenticationVoter();
+        assertTrue(mesa.authenticate("100", "clave-ana"));
+        assertTrue(mesa.hasAlreadyVoted("100"));
+
+        String json = Files.readString(file.toPath());
+        assertFalse(json.contains("clave-ana"), json);
+        assertTrue(json.contains("\"passwordHash\""), json);
+    }
+
+    private static String configuration(String candidates, String citizens) {
+        return MESA_INFO + "#" + ELECTION + "#" + candidates + "#" + citizens + "#1.0-1700000000000";
+    }
+
+    private static String patch(String base, String target) {
+        return ConfigurationPatch.diff(ConfigurationPatch.snapshot(base), ConfigurationPatch.snapshot(target), target);
+    }
+
+    private static Map<String, String> names(String configuration) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String record : configuration.split("#", -1)[ConfigurationPatch.CITIZENS].split("\\|")) {
+            String[] fields = record.split(":");
+            names.put(fields[1], fields[2] + " " + fields[3]);
+        }
+        return names;
+    }
+
+    private Map<String, String> voterNames() throws IOException {
+        List<Voter> voters = mapper.readValue(new File("client/data/voters.json"), new TypeReference<List<Voter>>() {});
+        Map<String, String> names = new LinkedHashMap<>();
+        for (Voter voter : voters) {
+            names.put(voter.getId(), voter.getName());
+        }
+        return names;
+    }
+
+    private static void deleteWorkFiles() throws IOException {
+        for (String dir : new String[]{"client/data", "client/config"}) {
+            Path path = new File(dir).toPath();
+            if (Files.exists(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                }
+            }
+        }
+    }
+
+    /** Guarda su versión en el archivo de estado igual que ControllerVoteUI. */
+    private static class RecordingController implements ConfigurationListener {
+        int updates;
+
+        @Override
+        public void onConfigurationUpdated() {
+            updates++;
+            try {
+                ConfigurationState.saveServerVersion("v" + updates);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void onElectionStatusChanged(int electionId, String newStatus) {
+        }
+    }
+}
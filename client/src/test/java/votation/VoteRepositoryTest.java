@@ -0,0 +1,126 @@
+package votation;
+
+import model.Vote;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteRepositoryTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void losVotosSobrevivenAlReinicio() throws IOException {
+        File ledger = new File(dir, "votes.ledger");
+        VoteRepository repository = new VoteRepository(ledger, 1);
+        for (int i = 0; i < 3; i++) {
+            repository.save(vote(i));
+        }
+        repository.close();
+
+        VoteRepository reopened = new VoteRepository(ledger, 1);
+        assertEquals(3, reopened.size());
+        assertVotes(reopened.findAll(), 3);
+        reopened.close();
+    }
+
+    @Test
+    void seTruncaUnRegistroCortadoAlFinal() throws IOException {
+        File ledger = new File(dir, "votes.ledger");
+        VoteRepository repository = new VoteRepository(ledger, 4);
+        for (int i = 0; i < 3; i++) {
+            repository.save(vote(i));
+        }
+        repository.close();
+        long valid = ledger.length();
+
+        // Corte de energía a mitad de un registro: cabecera completa, datos a medias
+        byte[] torn = ByteBuffer.allocate(13).putInt(40).putInt(0x1234).put(new byte[]{1, 2, 3, 4, 5}).array();
+        Files.write(ledger.toPath(), torn, StandardOpenOption.APPEND);
+
+        VoteRepository recovered = new VoteRepository(ledger, 1);
+        assertEquals(3, recovered.size());
+        assertEquals(valid, ledger.length());
+        assertArrayEquals(torn, Files.readAllBytes(tailFile().toPath()));
+
+        // Los votos siguientes se agregan después del último registro válido
+        recovered.save(vote(3));
+        recovered.close();
+        assertVotes(new VoteRepository(ledger, 1).findAll(), 4);
+    }
+
+    @Test
+    void seDescartaElUltimoRegistroConCrcInvalido() throws IOException {
+        File ledger = new File(dir, "votes.ledger");
+        VoteRepository repository = new VoteRepository(ledger, 1);
+        repository.save(vote(0));
+        long firstEnd = ledger.length();
+        repository.save(vote(1));
+        repository.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(ledger, "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int b = file.read();
+            file.seek(last);
+            file.write(b ^ 0xff);
+        }
+
+        VoteRepository recovered = new VoteRepository(ledger, 1);
+        assertEquals(1, recovered.size());
+        assertEquals(firstEnd, ledger.length());
+        assertVotes(recovered.findAll(), 1);
+        recovered.close();
+    }
+
+    @Test
+    void noEscribeSobreUnArchivoQueNoEsUnRegistro() throws IOException {
+        File other = new File(dir, "votes.ledger");
+        byte[] content = "no es un registro de votos".getBytes("UTF-8");
+        Files.write(other.toPath(), content);
+
+        VoteRepository repository = new VoteRepository(other, 1);
+        assertThrows(IOException.class, () -> repository.save(vote(0)));
+        repository.close();
+
+        assertEquals(0, repository.size());
+        assertArrayEquals(content, Files.readAllBytes(other.toPath()));
+    }
+
+    private File tailFile() {
+        File[] tails = dir.listFiles((d, name) -> name.startsWith("votes.ledger.tail-"));
+        assertNotNull(tails);
+        assertEquals(1, tails.length);
+        return tails[0];
+    }
+
+    private static Vote vote(int i) {
+        return new Vote("mesa-" + i, "candidato-" + (i % 2), 1_700_000_000_000L + i, 1);
+    }
+
+    private static void assertVotes(List<Vote> votes, int count) {
+        assertEquals(count, votes.size());
+        for (int i = 0; i < count; i++) {
+            Vote expected = vote(i);
+            assertEquals(expected.getMachineId(), votes.get(i).getMachineId());
+            assertEquals(expected.getVote(), votes.get(i).getVote());
+            assertEquals(expected.getDate(), votes.get(i).getDate());
+            assertEquals(expected.getElectionId(), votes.get(i).getElectionId());
+        }
+        assertTrue(votes.stream().allMatch(v -> v.getElectionId() == 1));
+    }
+}
@@ -1,5 +1,6 @@
 package org.votaciones.service;
 
+import ReportsSystem.ReportsException;
 import ReportsSystem.ReportsServicePrx;
 import org.votaciones.connection.ProxyCacheConnection;
 import org.slf4j.Logger;
@@ -73,6 +74,10 @@ public class ReportsService {
         try {
             logger.info("Validando elegibilidad del ciudadano {}", documento);
             return connection.getProxyCache().validateCitizenEligibility(documento);
+        } catch (ReportsException e) {
+            // Proxy saturado o servidor no disponible: no se sabe si el ciudadano está habilitado
+            logger.warn("Elegibilidad no disponible: {}", e.reason);
+            throw new RuntimeException(e.reason, e);
         } catch (Exception e) {
             logger.error("Error al validar elegibilidad: {}", e.getMessage());
             throw new RuntimeException("Error en validación", e);
@@ -10,6 +10,8 @@ import java.sql.*;
 import java.util.*;
 import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 public class ConnectionDB implements ConnectionDBinterface {
@@ -138,6 +140,42 @@ public class ConnectionDB implements ConnectionDBinterface {
         return result;
     }
 
+    @Override
+    public Supplier<Map<Integer, Integer>> openVotesPerCandidate(int electionId) {
+        Connection conn;
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            // El snapshot de la transacción se toma en la primera consulta
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT 1");
+            }
+        } catch (SQLException e) {
+            logger.error("Error opening vote snapshot for election: {}", electionId, e);
+            return Collections::emptyMap;
+        }
+
+        return () -> {
+            Map<Integer, Integer> result = new HashMap<>();
+            String sql = "SELECT candidato_id, COUNT(*) AS total_votos " +
+                    "FROM votos WHERE election_id = ? GROUP BY candidato_id";
+            try (Connection snapshot = conn;
+                 PreparedStatement stmt = snapshot.prepareStatement(sql)) {
+                stmt.setInt(1, electionId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getInt("candidato_id"), rs.getInt("total_votos"));
+                    }
+                }
+                snapshot.rollback();
+            } catch (SQLException e) {
+                logger.error("Error reading vote snapshot for election: {}", electionId, e);
+            }
+            return result;
+        };
+    }
+
     @Override
     public Map<String, Map<Integer, Integer>> getVotesPerCandidateGroupedByMachine(int electionId) {
         Map<String, Map<Integer, Integer>> result = new HashMap<>();
@@ -1432,6 +1470,213 @@ public class ConnectionDB implements ConnectionDBinterface {
         return citizens;
     }
 
+    // =================== CONSULTAS EN LOTE PARA REPORTES ===================
+
+    @Override
+    public Map<String, Map<String, Object>> getCitizenVotingAssignmentsBatch(List<String> documentos) {
+        Map<String, Map<String, Object>> assignments = new HashMap<>();
+        if (documentos == null || documentos.isEmpty()) {
+            return assignments;
+        }
+
+        String sql = """
+        SELECT
+            c.id as ciudadano_id,
+            c.documento,
+            c.nombre,
+            c.apellido,
+            c.mesa_id,
+            mv.consecutive as mesa_consecutive,
+            pv.id as puesto_id,
+            pv.nombre as puesto_nombre,
+            pv.direccion as puesto_direccion,
+            pv.consecutive as puesto_consecutive,
+            m.id as municipio_id,
+            m.nombre as municipio_nombre,
+            d.id as departamento_id,
+            d.nombre as departamento_nombre
+        FROM ciudadano c
+        JOIN mesa_votacion mv ON c.mesa_id = mv.id
+        JOIN puesto_votacion pv ON mv.puesto_id = pv.id
+        JOIN municipio m ON pv.municipio_id = m.id
+        JOIN departamento d ON m.departamento_id = d.id
+        WHERE c.documento = ANY(?)
+        """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            Array documentosArray = conn.createArrayOf("varchar", documentos.toArray());
+            stmt.setArray(1, documentosArray);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, Object> assignment = mapVotingAssignment(rs);
+                    assignments.put((String) assignment.get("documento"), assignment);
+                }
+            }
+
+            logger.info("Retrieved {} voting assignments for {} documents in batch", assignments.size(), documentos.size());
+
+        } catch (SQLException e) {
+            logger.error("Error getting voting assignments for {} documents in batch", documentos.size(), e);
+        }
+
+        return assignments;
+    }
+
+    @Override
+    public List<Map<String, Object>> getCitizenVotingAssignmentsByMesa(int mesaId) {
+        List<Map<String, Object>> assignments = new ArrayList<>();
+
+        String sql = """
+        SELECT
+            c.id as ciudadano_id,
+            c.documento,
+            c.nombre,
+            c.apellido,
+            c.mesa_id,
+            mv.consecutive as mesa_consecutive,
+            pv.id as puesto_id,
+            pv.nombre as puesto_nombre,
+            pv.direccion as puesto_direccion,
+            pv.consecutive as puesto_consecutive,
+            m.id as municipio_id,
+            m.nombre as municipio_nombre,
+            d.id as departamento_id,
+            d.nombre as departamento_nombre
+        FROM ciudadano c
+        JOIN mesa_votacion mv ON c.mesa_id = mv.id
+        JOIN puesto_votacion pv ON mv.puesto_id = pv.id
+        JOIN municipio m ON pv.municipio_id = m.id
+        JOIN departamento d ON m.departamento_id = d.id
+        WHERE mv.id = ?
+        ORDER BY c.id
+        """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, mesaId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    assignments.add(mapVotingAssignment(rs));
+                }
+            }
+
+            logger.info("Retrieved {} voting assignments for mesa {}", assignments.size(), mesaId);
+
+        } catch (SQLException e) {
+            logger.error("Error getting voting assignments for mesa: {}", mesaId, e);
+        }
+
+        return assignments;
+    }
+
+    private Map<String, Object> mapVotingAssignment(ResultSet rs) throws SQLException {
+        Map<String, Object> assignment = new HashMap<>();
+        assignment.put("ciudadano_id", rs.getInt("ciudadano_id"));
+        assignment.put("documento", rs.getString("documento"));
+        assignment.put("nombre", rs.getString("nombre"));
+        assignment.put("apellido", rs.getString("apellido"));
+        assignment.put("mesa_id", rs.getInt("mesa_id"));
+        assignment.put("mesa_consecutive", rs.getInt("mesa_consecutive"));
+        assignment.put("puesto_id", rs.getInt("puesto_id"));
+        assignment.put("puesto_nombre", rs.getString("puesto_nombre"));
+        assignment.put("puesto_direccion", rs.getString("puesto_direccion"));
+        assignment.put("puesto_consecutive", rs.getInt("puesto_consecutive"));
+        assignment.put("municipio_id", rs.getInt("municipio_id"));
+        assignment.put("municipio_nombre", rs.getString("municipio_nombre"));
+        assignment.put("departamento_id", rs.getInt("departamento_id"));
+        assignment.put("departamento_nombre", rs.getString("departamento_nombre"));
+        return assignment;
+    }
+
+    @Override
+    public int countEligibleCitizens() {
+        String sql = "SELECT COUNT(*) FROM ciudadano WHERE mesa_id IS NOT NULL";
+
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            return rs.next() ? rs.getInt(1) : 0;
+
+        } catch (SQLException e) {
+            logger.error("Error counting eligible citizens", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int forEachEligibleDocument(Consumer<String> consumer) throws SQLException {
+        String sql = "SELECT documento FROM ciudadano WHERE mesa_id IS NOT NULL";
+        int count = 0;
+
+        try (Connection conn = getConnection()) {
+            // PostgreSQL solo usa cursor (fetch size) fuera de autocommit
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(10000);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(rs.getString(1));
+                        count++;
+                    }
+                }
+            } finally {
+                conn.commit();
+                conn.setAutoCommit(autoCommit);
+            }
+
+            logger.info("Streamed {} eligible citizen documents", count);
+
+        } catch (SQLException e) {
+            logger.error("Error streaming eligible citizen documents after {} rows", count, e);
+            throw e;
+        }
+
+        return count;
+    }
+
+    @Override
+    public Map<Integer, String> getMesaFingerprints(List<Integer> mesaIds) {
+        Map<Integer, String> fingerprints = new HashMap<>();
+        if (mesaIds == null || mesaIds.isEmpty()) {
+            return fingerprints;
+        }
+
+        // Mismos campos que arman el paquete de la mesa; solo viaja el md5, no los ciudadanos
+        String sql = "SELECT v.mesa_id, md5(concat_ws('|', v.mesa_consecutive, v.puesto_id, v.puesto_nombre, " +
+                "v.puesto_direccion, v.puesto_consecutive, v.municipio_id, v.municipio_nombre, v.departamento_id, " +
+                "v.departamento_nombre, v.total_ciudadanos, " +
+                "(SELECT string_agg(concat_ws(':', c.id, c.documento, c.nombre, c.apellido), '|' ORDER BY c.id) " +
+                "FROM ciudadano c WHERE c.mesa_id = v.mesa_id))) AS huella " +
+                "FROM vista_configuracion_mesa v WHERE v.mesa_id = ANY(?)";
+
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", mesaIds.toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    fingerprints.put(rs.getInt("mesa_id"), rs.getString("huella"));
+                }
+            }
+
+            logger.debug("Retrieved fingerprints for {} of {} mesas", fingerprints.size(), mesaIds.size());
+            return fingerprints;
+
+        } catch (SQLException e) {
+            logger.error("Error getting mesa fingerprints for {} mesas", mesaIds.size(), e);
+            return null;
+        }
+    }
 
 
 
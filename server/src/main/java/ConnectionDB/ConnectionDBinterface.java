@@ -1,9 +1,12 @@
 package ConnectionDB;
 
 import model.Vote;
+import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 
 public interface ConnectionDBinterface {
@@ -12,6 +15,13 @@ public interface ConnectionDBinterface {
     void storeElection(int id, String name, Date start, Date end, String status);
     void storeCandidate(int id, String name, String party, int electionId);
     Map<Integer, Integer> getVotesPerCandidate(int electionId);
+
+    /**
+     * Fija ya el punto de lectura de los votos (transacción REPEATABLE READ con su snapshot tomado) y
+     * devuelve la lectura de votos por candidato, que se puede hacer después sin ver votos posteriores.
+     * El Supplier se debe llamar una vez; cierra la conexión.
+     */
+    Supplier<Map<Integer, Integer>> openVotesPerCandidate(int electionId);
     Map<String, Map<Integer, Integer>> getVotesPerCandidateGroupedByMachine(int electionId);
     String getCandidateNameById(Integer key);
     List<Map<String, Object>> getCitizensByMesa(int mesaId);
@@ -56,5 +66,32 @@ public interface ConnectionDBinterface {
      */
     List<Map<String, Object>> getCitizensByPuesto(int puestoId);
 
+    /**
+     * Obtiene en una sola consulta la asignación completa de votación de varios documentos, indexada por documento
+     */
+    Map<String, Map<String, Object>> getCitizenVotingAssignmentsBatch(List<String> documentos);
+
+    /**
+     * Obtiene en una sola consulta la asignación completa de votación de todos los ciudadanos de una mesa
+     */
+    List<Map<String, Object>> getCitizenVotingAssignmentsByMesa(int mesaId);
+
+    /**
+     * Cuenta los ciudadanos habilitados para votar (con mesa asignada)
+     */
+    int countEligibleCitizens();
+
+    /**
+     * Recorre con un cursor los documentos de todos los ciudadanos habilitados, sin cargarlos en memoria.
+     * Si la consulta falla a mitad del recorrido lanza la excepción, para no confundir un recorrido parcial con uno completo
+     */
+    int forEachEligibleDocument(Consumer<String> consumer) throws SQLException;
+
+    /**
+     * Obtiene una huella (md5) de los datos de cada mesa y de sus ciudadanos, para saber si su paquete de configuración cambió.
+     * Retorna null si la consulta falla
+     */
+    Map<Integer, String> getMesaFingerprints(List<Integer> mesaIds);
+
 
 }
\ No newline at end of file
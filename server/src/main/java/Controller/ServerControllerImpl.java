@@ -21,6 +21,7 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 
 public class ServerControllerImpl implements ServerControllerInterface {
@@ -31,7 +32,7 @@ public class ServerControllerImpl implements ServerControllerInterface {
     private final ElectionInterface currentElection;
     private final ReportsManagerImpl reportsManager;
     private final VotingManagerImpl votingManager;
-    private final VoteNotifierImpl voteNotifier;
+    private VoteNotifierImpl voteNotifier;
     private ConfigurationSender configurationSender;
 
     private final Map<String, Object> systemCache = new ConcurrentHashMap<>();
@@ -167,6 +168,9 @@ public class ServerControllerImpl implements ServerControllerInterface {
 
             // Actualizar cache
             clearElectionCache();
+            if (configurationSender != null) {
+                configurationSender.invalidateConfigurationPackages(electionId);
+            }
 
             String message = remoteSuccess ?
                     "Estado cambiado exitosamente en servidor y mesas remotas" :
@@ -345,21 +349,9 @@ public class ServerControllerImpl implements ServerControllerInterface {
                 return ElectionResult.error("No se encontraron mesas en el departamento " + departmentId);
             }
 
-            // Enviar configuraciones en lotes usando CompletableFuture para paralelismo
-            int successCount = 0;
+            // Paquetes pre-generados y enviados en paralelo; el límite lo pone el broadcaster
             int totalMesas = mesaIds.size();
-
-            for (Integer mesaId : mesaIds) {
-                try {
-                    boolean success = configurationSender.sendConfigurationToMachine(mesaId, electionId);
-                    if (success) successCount++;
-
-                    // Pequeña pausa para no saturar la red
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    logger.warn(" Error configurando mesa {}: {}", mesaId, e.getMessage());
-                }
-            }
+            int successCount = configurationSender.sendConfigurationToMachines(mesaIds, electionId).getSucceeded();
 
             double successRate = (double) successCount / totalMesas * 100;
             String message = String.format("Configuración de departamento completada: %d/%d mesas (%.1f%%)",
@@ -448,20 +440,24 @@ public class ServerControllerImpl implements ServerControllerInterface {
             int candidateId = Integer.parseInt(vote.getVote());
             currentElection.addVoteToCandidate(candidateId, vote);
 
-            // Persistir en base de datos
-            connectionDB.storeVote(vote);
-
-            // Notificar observers si está configurado
+            // Persistir en base de datos y notificar observers si está configurado. El voto se guarda y
+            // se registra para los observers en un solo paso, para que un snapshot no lo cuente dos veces
+            String candidateName = null;
             if (voteNotifier != null) {
                 try {
-                    String candidateName = connectionDB.getCandidateNameById(candidateId);
-                    String voteInfo = formatVoteNotification(candidateName, vote);
-                    voteNotifier.notifyVoteReceived(voteInfo, vote.getElection());
+                    candidateName = connectionDB.getCandidateNameById(candidateId);
                 } catch (Exception e) {
                     logger.warn(" Error enviando notificación de voto: {}", e.getMessage());
                 }
             }
 
+            if (candidateName != null) {
+                voteNotifier.recordVote(vote.getElection(), candidateName, vote.getMachineId(),
+                        () -> connectionDB.storeVote(vote));
+            } else {
+                connectionDB.storeVote(vote);
+            }
+
             logger.info(" Voto registrado exitosamente para candidato ID: {}", candidateId);
 
             return ElectionResult.success("Voto registrado exitosamente",
@@ -592,6 +588,12 @@ public class ServerControllerImpl implements ServerControllerInterface {
                 status.put("observerStatistics", voteNotifier.getObserverStatistics());
             }
 
+            // Avance del último envío masivo a las mesas
+            if (configurationSender != null) {
+                status.put("configurationBroadcast", configurationSender.getBroadcastProgress());
+                status.put("configurationPackages", configurationSender.getConfigurationPackageStats());
+            }
+
             return ElectionResult.success("Estado del sistema obtenido", status);
 
         } catch (Exception e) {
@@ -709,10 +711,27 @@ public class ServerControllerImpl implements ServerControllerInterface {
 
 
     public void setVoteNotifier(VoteNotifierImpl voteNotifier) {
-        // No es necesario ya que se inicializa en el constructor, pero se deja para compatibilidad
+        // Debe ser la misma instancia publicada en el adapter, que es donde se registran los observers
+        if (this.voteNotifier != null && this.voteNotifier != voteNotifier) {
+            this.voteNotifier.shutdown();
+        }
+        this.voteNotifier = voteNotifier;
+        voteNotifier.setResultsLoader(this::openVotesByCandidateName);
         logger.info(" VoteNotifier configurado en el controller");
     }
 
+    // Conteo inicial para los snapshots de resultados que reciben los proxies
+    private Supplier<Map<String, Integer>> openVotesByCandidateName(int electionId) {
+        Supplier<Map<Integer, Integer>> votes = connectionDB.openVotesPerCandidate(electionId);
+        return () -> {
+            Map<String, Integer> votesByName = new HashMap<>();
+            for (Map.Entry<Integer, Integer> entry : votes.get().entrySet()) {
+                votesByName.merge(connectionDB.getCandidateNameById(entry.getKey()), entry.getValue(), Integer::sum);
+            }
+            return votesByName;
+        };
+    }
+
 
     private void initializeTestDataIfNeeded() {
         try {
@@ -766,12 +785,9 @@ public class ServerControllerImpl implements ServerControllerInterface {
 
     private void clearCandidatesCache(int electionId) {
         systemCache.remove("candidates_" + electionId);
-    }
-
-
-    private String formatVoteNotification(String candidateName, Vote vote) {
-
-        return candidateName + "-" + vote.getDate() + "-" + vote.getElection();
+        if (configurationSender != null) {
+            configurationSender.invalidateConfigurationPackages(electionId);
+        }
     }
 
 
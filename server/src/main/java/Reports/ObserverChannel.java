@@ -0,0 +1,253 @@
+package Reports;
+
+import VoteNotification.VoteObserverPrx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Canal de salida hacia un observer. Las notificaciones se encolan sin bloquear a quien registra
+ * el voto y se envían en orden con invocaciones asíncronas, sin esperar a los demás observers.
+ * Si la cola se llena se descartan las notificaciones más viejas; las que tienen clave de
+ * coalescencia reemplazan a la pendiente con la misma clave. Un observer con mala salud tiene
+ * una cola más corta, y tras varios fallos seguidos el canal se cierra y se avisa al notifier.
+ */
+public class ObserverChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserverChannel.class);
+
+    private static final int MAX_QUEUE = 1024;
+    private static final int UNHEALTHY_QUEUE = 64;
+    // Una llamada en vuelo por observer: los deltas tienen que llegar en orden de secuencia
+    private static final int MAX_IN_FLIGHT = 1;
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+    private static final int INVOCATION_TIMEOUT_MS = 5000;
+    private static final double UNHEALTHY_SCORE = 0.5;
+    private static final double HEALTH_WEIGHT = 0.2;
+    private static final int MAX_HEARTBEAT_MISSES = 3;
+    private static final long MIN_HEARTBEAT_BUDGET_MS = 500;
+    private static final long DEFAULT_HEARTBEAT_BUDGET_MS = 2000;
+
+    /** Una notificación pendiente para el observer. */
+    public static final class Notification {
+        private final String coalesceKey;
+        private final Function<VoteObserverPrx, CompletableFuture<Void>> send;
+
+        private Notification(String coalesceKey, Function<VoteObserverPrx, CompletableFuture<Void>> send) {
+            this.coalesceKey = coalesceKey;
+            this.send = send;
+        }
+
+        /** Notificación que nunca se fusiona con otra (cada voto cuenta). */
+        public static Notification of(Function<VoteObserverPrx, CompletableFuture<Void>> send) {
+            return new Notification(null, send);
+        }
+
+        /** Notificación que reemplaza a la pendiente con la misma clave (solo importa la última). */
+        public static Notification coalescing(String key, Function<VoteObserverPrx, CompletableFuture<Void>> send) {
+            return new Notification(key, send);
+        }
+    }
+
+    private final VoteObserverPrx registered;
+    private final VoteObserverPrx observer;
+    private final int electionId;
+    private final Consumer<ObserverChannel> onDead;
+
+    private final LinkedList<Notification> queue = new LinkedList<>();
+    private int inFlight;
+    private int consecutiveFailures;
+    private boolean closed;
+
+    private double health = 1.0;
+    private double avgLatencyMs;
+    private long sent;
+    private long failed;
+    private long dropped;
+    private long coalesced;
+
+    private long lastSuccessAt = System.currentTimeMillis();
+    private boolean heartbeatInFlight;
+    private int heartbeatMisses;
+
+    public ObserverChannel(VoteObserverPrx observer, int electionId, Consumer<ObserverChannel> onDead) {
+        this.registered = observer;
+        this.observer = observer.ice_invocationTimeout(INVOCATION_TIMEOUT_MS);
+        this.electionId = electionId;
+        this.onDead = onDead;
+    }
+
+    public VoteObserverPrx getObserver() { return observer; }
+    public VoteObserverPrx getRegistered() { return registered; }
+    public int getElectionId() { return electionId; }
+
+    /**
+     * Encola la notificación y arranca el envío si hay cupo. Nunca bloquea ni invoca de forma síncrona.
+     */
+    public void offer(Notification notification) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            if (notification.coalesceKey != null && replacePending(notification)) {
+                coalesced++;
+                return;
+            }
+
+            int capacity = health < UNHEALTHY_SCORE ? UNHEALTHY_QUEUE : MAX_QUEUE;
+            while (queue.size() >= capacity) {
+                dropOldest();
+                dropped++;
+            }
+            queue.addLast(notification);
+        }
+        pump();
+    }
+
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    public synchronized boolean isClosed() { return closed; }
+    public synchronized int getQueueSize() { return queue.size(); }
+    public synchronized double getHealth() { return health; }
+    public synchronized long getDropped() { return dropped; }
+    public synchronized long getSent() { return sent; }
+
+    public synchronized String describe() {
+        return String.format("salud %.2f, latencia %.1f ms, %d enviadas, %d fallidas, %d descartadas, %d fusionadas, %d en cola, %d en vuelo, %d heartbeats perdidos",
+                health, avgLatencyMs, sent, failed, dropped, coalesced, queue.size(), inFlight, heartbeatMisses);
+    }
+
+    /**
+     * Indica si hace falta un heartbeat: no hay otro en curso y no hubo una llamada exitosa
+     * en el último intervalo (el tráfico normal ya prueba que el observer está vivo).
+     */
+    synchronized boolean beginHeartbeat(long now, long intervalMs) {
+        if (closed || heartbeatInFlight || now - lastSuccessAt < intervalMs) {
+            return false;
+        }
+        heartbeatInFlight = true;
+        return true;
+    }
+
+    /**
+     * Tiempo máximo para el heartbeat de este observer: cuatro veces su latencia habitual,
+     * acotado entre 500 ms y el timeout de las notificaciones.
+     */
+    synchronized long getHeartbeatBudgetMs() {
+        if (sent == 0) {
+            return DEFAULT_HEARTBEAT_BUDGET_MS;
+        }
+        return Math.max(MIN_HEARTBEAT_BUDGET_MS, Math.min(INVOCATION_TIMEOUT_MS, (long) (avgLatencyMs * 4)));
+    }
+
+    /**
+     * Registra el resultado del heartbeat; devuelve true si el observer debe ser removido.
+     */
+    synchronized boolean endHeartbeat(boolean alive) {
+        heartbeatInFlight = false;
+        if (alive) {
+            heartbeatMisses = 0;
+            lastSuccessAt = System.currentTimeMillis();
+            health = health * (1 - HEALTH_WEIGHT) + HEALTH_WEIGHT;
+            return false;
+        }
+
+        health = health * (1 - HEALTH_WEIGHT);
+        if (++heartbeatMisses >= MAX_HEARTBEAT_MISSES && !closed) {
+            closed = true;
+            queue.clear();
+            return true;
+        }
+        return false;
+    }
+
+    // Se descarta primero lo que no tiene clave: las notificaciones con clave (snapshots) son
+    // las que permiten al observer recuperarse de lo descartado
+    private void dropOldest() {
+        for (ListIterator<Notification> it = queue.listIterator(); it.hasNext(); ) {
+            if (it.next().coalesceKey == null) {
+                it.remove();
+                return;
+            }
+        }
+        queue.pollFirst();
+    }
+
+    // La nueva ocupa el lugar de la pendiente: lo que se encoló después sigue llegando después
+    private boolean replacePending(Notification notification) {
+        for (ListIterator<Notification> it = queue.listIterator(); it.hasNext(); ) {
+            if (notification.coalesceKey.equals(it.next().coalesceKey)) {
+                it.set(notification);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void pump() {
+        while (true) {
+            Notification next;
+            synchronized (this) {
+                if (closed || inFlight >= MAX_IN_FLIGHT || queue.isEmpty()) {
+                    return;
+                }
+                next = queue.pollFirst();
+                inFlight++;
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<Void> call;
+            try {
+                call = next.send.apply(observer);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((r, e) -> complete(start, e));
+        }
+    }
+
+    private void complete(long start, Throwable error) {
+        boolean dead = false;
+        synchronized (this) {
+            inFlight--;
+            if (error == null) {
+                double latencyMs = (System.nanoTime() - start) / 1_000_000.0;
+                avgLatencyMs = sent == 0 ? latencyMs : avgLatencyMs * (1 - HEALTH_WEIGHT) + latencyMs * HEALTH_WEIGHT;
+                health = health * (1 - HEALTH_WEIGHT) + HEALTH_WEIGHT;
+                consecutiveFailures = 0;
+                lastSuccessAt = System.currentTimeMillis();
+                sent++;
+            } else {
+                health = health * (1 - HEALTH_WEIGHT);
+                failed++;
+                if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES && !closed) {
+                    closed = true;
+                    queue.clear();
+                    dead = true;
+                }
+            }
+        }
+
+        if (error != null) {
+            logger.debug("Fallo notificando a observer de elección {}: {}", electionId, error.toString());
+        }
+        if (dead) {
+            logger.warn("Observer de elección {} removido tras {} fallos consecutivos: {}",
+                    electionId, MAX_CONSECUTIVE_FAILURES, observer);
+            onDead.accept(this);
+            return;
+        }
+        pump();
+    }
+}
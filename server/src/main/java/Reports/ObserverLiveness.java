@@ -0,0 +1,97 @@
+package Reports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heartbeats periódicos a los observers. Los pings son asíncronos y cada uno usa el presupuesto
+ * de tiempo de su observer, así que un proxy colgado no retrasa la revisión de los demás; tras
+ * varios heartbeats perdidos seguidos el observer se saca del registro. Los observers que
+ * recibieron notificaciones con éxito durante el intervalo no se pinguean.
+ */
+public class ObserverLiveness {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserverLiveness.class);
+
+    public static final long DEFAULT_INTERVAL_MS = 10 * 1000;
+
+    private final ObserverRegistry registry;
+    private final long intervalMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong heartbeatsSent = new AtomicLong(0);
+    private final AtomicLong heartbeatsMissed = new AtomicLong(0);
+
+    public ObserverLiveness(ObserverRegistry registry, long intervalMs) {
+        this.registry = registry;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "observer-liveness");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::safeRound, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lanza un heartbeat a cada observer que lo necesite y retorna sin esperar las respuestas.
+     */
+    public int runRound() {
+        long now = System.currentTimeMillis();
+        AtomicInteger launched = new AtomicInteger(0);
+
+        registry.forEach(channel -> {
+            if (!channel.beginHeartbeat(now, intervalMs)) {
+                return;
+            }
+            launched.incrementAndGet();
+            heartbeatsSent.incrementAndGet();
+
+            try {
+                channel.getRegistered()
+                        .ice_invocationTimeout((int) channel.getHeartbeatBudgetMs())
+                        .pingAsync()
+                        .whenComplete((alive, e) -> finish(channel, e == null && Boolean.TRUE.equals(alive)));
+            } catch (RuntimeException e) {
+                finish(channel, false);
+            }
+        });
+
+        if (launched.get() > 0) {
+            logger.debug(" Heartbeat a {} observers", launched.get());
+        }
+        return launched.get();
+    }
+
+    private void finish(ObserverChannel channel, boolean alive) {
+        if (!alive) {
+            heartbeatsMissed.incrementAndGet();
+        }
+        if (channel.endHeartbeat(alive)) {
+            registry.evict(channel, "sin respuesta a heartbeats");
+        }
+    }
+
+    private void safeRound() {
+        try {
+            runRound();
+        } catch (Exception e) {
+            logger.warn(" Error en ronda de heartbeats: {}", e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    public String getStats() {
+        return String.format("Heartbeats: cada %ds, %d enviados, %d perdidos, %d observers removidos\n",
+                intervalMs / 1000, heartbeatsSent.get(), heartbeatsMissed.get(), registry.getEvicted());
+    }
+}
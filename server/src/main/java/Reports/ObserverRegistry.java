@@ -0,0 +1,95 @@
+package Reports;
+
+import VoteNotification.VoteObserverPrx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Observers registrados, particionados por elección. Cada partición es un mapa concurrente
+ * indexado por el proxy del observer: registrar o desregistrar es O(1) sin copiar la lista
+ * (a diferencia de CopyOnWriteArrayList), y recorrer una partición mientras otros proxies
+ * entran o salen no necesita lock.
+ */
+public class ObserverRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserverRegistry.class);
+
+    private final Map<Integer, Map<VoteObserverPrx, ObserverChannel>> shards = new ConcurrentHashMap<>();
+    private final AtomicLong evicted = new AtomicLong(0);
+
+    /**
+     * Agrega el canal; si el mismo proxy ya estaba registrado en la elección, su canal anterior se cierra.
+     */
+    public void add(ObserverChannel channel) {
+        ObserverChannel previous = shards.computeIfAbsent(channel.getElectionId(), k -> new ConcurrentHashMap<>())
+                .put(channel.getRegistered(), channel);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public boolean remove(int electionId, VoteObserverPrx observer) {
+        Map<VoteObserverPrx, ObserverChannel> shard = shards.get(electionId);
+        ObserverChannel channel = shard != null ? shard.remove(observer) : null;
+        if (channel == null) {
+            return false;
+        }
+        channel.close();
+        return true;
+    }
+
+    /**
+     * Quita el canal si sigue siendo el registrado para ese proxy (no uno que lo reemplazó).
+     */
+    public boolean evict(ObserverChannel channel, String reason) {
+        Map<VoteObserverPrx, ObserverChannel> shard = shards.get(channel.getElectionId());
+        if (shard == null || !shard.remove(channel.getRegistered(), channel)) {
+            return false;
+        }
+        channel.close();
+        evicted.incrementAndGet();
+
+        logger.info(" Observer removido de elección {} ({}): {}", channel.getElectionId(), reason, channel.getRegistered());
+        System.out.println(" Removido proxy desconectado de elección " + channel.getElectionId() + " (" + reason + ")");
+        return true;
+    }
+
+    /** Vista en vivo de los canales de una elección. */
+    public Collection<ObserverChannel> forElection(int electionId) {
+        Map<VoteObserverPrx, ObserverChannel> shard = shards.get(electionId);
+        return shard != null ? shard.values() : Collections.emptyList();
+    }
+
+    public int count(int electionId) {
+        Map<VoteObserverPrx, ObserverChannel> shard = shards.get(electionId);
+        return shard != null ? shard.size() : 0;
+    }
+
+    public Set<Integer> elections() {
+        return shards.keySet();
+    }
+
+    public void forEach(Consumer<ObserverChannel> action) {
+        shards.values().forEach(shard -> shard.values().forEach(action));
+    }
+
+    public int size() {
+        return shards.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public long getEvicted() {
+        return evicted.get();
+    }
+}
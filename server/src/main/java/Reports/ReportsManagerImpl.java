@@ -6,8 +6,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.Exception;
 import java.lang.Object;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import ReportsSystem.EligibilityFilter;
 
 public class ReportsManagerImpl implements ReportsSystem.ReportsService {
 
@@ -20,13 +26,106 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
     private static final String RECORD_SEPARATOR = "#";    // Para separar registros
     private static final String ARRAY_SEPARATOR = "|";     // Para separar arrays
 
+    // Filtro de Bloom de documentos habilitados que se envía a los proxies
+    private static final long ELIGIBILITY_FILTER_REBUILD_MS = 10 * 60 * 1000;
+    private static final double ELIGIBILITY_FALSE_POSITIVE_RATE = 0.01;
+    private volatile byte[] eligibilityFilterBytes;
+    private volatile long eligibilityFilterBuiltAt;
+    private final AtomicReference<CompletableFuture<byte[]>> eligibilityFilterBuild = new AtomicReference<>();
+
     public ReportsManagerImpl(ConnectionDBinterface connectionDB) {
         this.connectionDB = connectionDB;
         logger.info("ReportsManagerImpl initialized for Ice communication with string formatting");
     }
 
 
+    // ========== DESPACHO AMD ==========
+    // El esqueleto usa ["amd"]; el servidor responde con futuros ya completados
+    // para mantener la consulta a la BD en el hilo de despacho como antes.
+
+    @Override
+    public CompletionStage<String> getCitizenReportsAsync(String documento, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getCitizenReports(documento, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String> getElectionReportsAsync(int electionId, Current current) {
+        return CompletableFuture.completedFuture(getElectionReports(electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String> getGeographicReportsAsync(int locationId, String locationType, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getGeographicReports(locationId, locationType, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getCitizenReportsBatchAsync(String[] documentos, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getCitizenReportsBatch(documentos, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getLocationCitizenReportsAsync(int locationId, String locationType, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getLocationCitizenReports(locationId, locationType, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> searchCitizenReportsAsync(String nombre, String apellido, int electionId, int limit, Current current) {
+        return CompletableFuture.completedFuture(searchCitizenReports(nombre, apellido, electionId, limit, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getMesaCitizenReportsAsync(int mesaId, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getMesaCitizenReports(mesaId, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<Boolean> validateCitizenEligibilityAsync(String documento, Current current) {
+        return CompletableFuture.completedFuture(validateCitizenEligibility(documento, current));
+    }
+
+    @Override
+    public CompletionStage<Boolean> areReportsReadyAsync(int electionId, Current current) {
+        return CompletableFuture.completedFuture(areReportsReady(electionId, current));
+    }
+
     @Override
+    public CompletionStage<byte[]> getEligibilityFilterAsync(Current current) {
+        byte[] filter = eligibilityFilterBytes;
+        if (filter != null && System.currentTimeMillis() - eligibilityFilterBuiltAt < ELIGIBILITY_FILTER_REBUILD_MS) {
+            return CompletableFuture.completedFuture(filter);
+        }
+
+        // Se reconstruye fuera del hilo de despacho; mientras tanto se sigue enviando el filtro anterior
+        CompletableFuture<byte[]> build = rebuildEligibilityFilter();
+        return filter != null ? CompletableFuture.completedFuture(filter) : build;
+    }
+
+    @Override
+    public CompletionStage<String[]> getAvailableElectionsAsync(Current current) {
+        return CompletableFuture.completedFuture(getAvailableElections(current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getDepartmentCitizenDocumentsAsync(int departmentId, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getDepartmentCitizenDocuments(departmentId, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getMunicipalityCitizenDocumentsAsync(int municipalityId, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getMunicipalityCitizenDocuments(municipalityId, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getPuestoCitizenDocumentsAsync(int puestoId, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getPuestoCitizenDocuments(puestoId, electionId, current));
+    }
+
+    @Override
+    public CompletionStage<String[]> getMesaCitizenDocumentsAsync(int mesaId, int electionId, Current current) {
+        return CompletableFuture.completedFuture(getMesaCitizenDocuments(mesaId, electionId, current));
+    }
+
+
     public String getCitizenReports(String documento, int electionId, Current current) {
         logger.debug("Ice request: getCitizenReports for document {} election {}", documento, electionId);
 
@@ -38,7 +137,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String getElectionReports(int electionId, Current current) {
         logger.debug("Ice request: getElectionReports for election {}", electionId);
 
@@ -50,7 +148,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String getGeographicReports(int locationId, String locationType, int electionId, Current current) {
         logger.debug("Ice request: getGeographicReports for {} {} election {}", locationType, locationId, electionId);
 
@@ -74,7 +171,28 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
+    public String[] getCitizenReportsBatch(String[] documentos, int electionId, Current current) {
+        logger.debug("Ice request: getCitizenReportsBatch for {} documents election {}", documentos.length, electionId);
+
+        try {
+            return generateCitizenReportsBatchStrings(documentos, electionId);
+        } catch (Exception e) {
+            logger.error("Error generating citizen report batch for {} documents election {}", documentos.length, electionId, e);
+            return new String[]{createErrorString("Error generating citizen report batch: " + e.getMessage())};
+        }
+    }
+
+    public String[] getLocationCitizenReports(int locationId, String locationType, int electionId, Current current) {
+        logger.debug("Ice request: getLocationCitizenReports for {} {} election {}", locationType, locationId, electionId);
+
+        try {
+            return generateLocationCitizenReportsStrings(locationId, locationType, electionId);
+        } catch (Exception e) {
+            logger.error("Error generating citizen reports for {} {} election {}", locationType, locationId, electionId, e);
+            return new String[]{createErrorString("Error generating location citizen reports: " + e.getMessage())};
+        }
+    }
+
     public String[] searchCitizenReports(String nombre, String apellido, int electionId, int limit, Current current) {
         logger.debug("Ice request: searchCitizenReports for {} {} election {} limit {}", nombre, apellido, electionId, limit);
 
@@ -86,7 +204,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String[] getMesaCitizenReports(int mesaId, int electionId, Current current) {
         logger.debug("Ice request: getMesaCitizenReports for mesa {} election {}", mesaId, electionId);
 
@@ -98,17 +215,14 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public boolean validateCitizenEligibility(String documento, Current current) {
         return validateCitizenEligibility(documento);
     }
 
-    @Override
     public boolean areReportsReady(int electionId, Current current) {
         return isElectionReadyForReports(electionId);
     }
 
-    @Override
     public String[] getAvailableElections(Current current) {
         try {
             List<Map<String, Object>> electionsMap = getAvailableElections();
@@ -385,31 +499,87 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         logger.info("Generating citizen report strings for all citizens in mesa {} and election {}", mesaId, electionId);
 
         try {
+            String[] mesaReports = generateLocationCitizenReportsStrings(mesaId, "mesa", electionId);
 
-            List<Map<String, Object>> citizensMap = connectionDB.getCitizensByMesa(mesaId);
+            logger.info("Generated {} citizen report strings for mesa {}", mesaReports.length, mesaId);
+            return mesaReports;
 
+        } catch (Exception e) {
+            logger.error("Error generating mesa citizen report strings for mesa {} and election {}", mesaId, electionId, e);
+            return new String[]{createErrorString("Error generating mesa citizen reports: " + e.getMessage())};
+        }
+    }
 
-            List<String> documentos = new ArrayList<>();
-            for (Map<String, Object> citizen : citizensMap) {
-                documentos.add((String) citizen.get("documento"));
-            }
+    /**
+     * Genera los reportes de varios ciudadanos con una sola consulta de asignaciones.
+     * El resultado conserva el orden de los documentos; los no encontrados quedan como string de error.
+     */
+    public String[] generateCitizenReportsBatchStrings(String[] documentos, int electionId) {
+        logger.info("Generating citizen report strings in batch for {} documents and election {}", documentos.length, electionId);
 
+        Map<String, Object> electionInfoMap = connectionDB.getElectionInfo(electionId);
+        if (electionInfoMap == null) {
+            logger.error("Election {} not found", electionId);
+            return new String[]{createErrorString("Election not found")};
+        }
 
-            List<String> mesaReports = new ArrayList<>();
-            for (String documento : documentos) {
-                String citizenReport = generateCitizenReportString(documento, electionId);
-                if (!citizenReport.startsWith("ERROR")) {
-                    mesaReports.add(citizenReport);
-                }
-            }
+        String electionString = formatElectionString(electionInfoMap);
+        String availableElectionsString = formatElectionsArray(connectionDB.getAllActiveElections());
+        Map<String, Map<String, Object>> assignments = connectionDB.getCitizenVotingAssignmentsBatch(Arrays.asList(documentos));
 
-            logger.info("Generated {} citizen report strings for mesa {}", mesaReports.size(), mesaId);
-            return mesaReports.toArray(new String[0]);
+        String[] reports = new String[documentos.length];
+        for (int i = 0; i < documentos.length; i++) {
+            Map<String, Object> assignmentMap = assignments.get(documentos[i]);
+            reports[i] = assignmentMap == null
+                    ? createErrorString("No voting assignment found")
+                    : buildCitizenReportString(assignmentMap, electionString, availableElectionsString);
+        }
 
-        } catch (Exception e) {
-            logger.error("Error generating mesa citizen report strings for mesa {} and election {}", mesaId, electionId, e);
-            return new String[]{createErrorString("Error generating mesa citizen reports: " + e.getMessage())};
+        logger.info("Generated {} citizen report strings in batch ({} with assignment)", reports.length, assignments.size());
+        return reports;
+    }
+
+    /**
+     * Genera los reportes de todos los ciudadanos de un puesto o mesa con una sola consulta.
+     */
+    public String[] generateLocationCitizenReportsStrings(int locationId, String locationType, int electionId) {
+        Map<String, Object> electionInfoMap = connectionDB.getElectionInfo(electionId);
+        if (electionInfoMap == null) {
+            logger.error("Election {} not found", electionId);
+            return new String[]{createErrorString("Election not found")};
+        }
+
+        List<Map<String, Object>> assignments;
+        switch (locationType.toLowerCase()) {
+            case "puesto":
+                assignments = connectionDB.getCitizensByPuesto(locationId);
+                break;
+            case "mesa":
+                assignments = connectionDB.getCitizenVotingAssignmentsByMesa(locationId);
+                break;
+            default:
+                logger.warn("Unsupported location type for citizen reports: {}", locationType);
+                return new String[]{createErrorString("Unsupported location type: " + locationType)};
         }
+
+        String electionString = formatElectionString(electionInfoMap);
+        String availableElectionsString = formatElectionsArray(connectionDB.getAllActiveElections());
+
+        String[] reports = new String[assignments.size()];
+        for (int i = 0; i < reports.length; i++) {
+            reports[i] = buildCitizenReportString(assignments.get(i), electionString, availableElectionsString);
+        }
+
+        logger.info("Generated {} citizen report strings for {} {}", reports.length, locationType, locationId);
+        return reports;
+    }
+
+    private String buildCitizenReportString(Map<String, Object> assignmentMap, String electionString, String availableElectionsString) {
+        return formatCitizenString(assignmentMap) + RECORD_SEPARATOR +
+                formatLocationString(assignmentMap) + RECORD_SEPARATOR +
+                electionString + RECORD_SEPARATOR +
+                availableElectionsString + RECORD_SEPARATOR +
+                PACKAGE_VERSION + FIELD_SEPARATOR + System.currentTimeMillis();
     }
 
 
@@ -588,6 +758,51 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
+    private CompletableFuture<byte[]> rebuildEligibilityFilter() {
+        CompletableFuture<byte[]> running = eligibilityFilterBuild.get();
+        if (running != null) {
+            return running;
+        }
+
+        CompletableFuture<byte[]> build = new CompletableFuture<>();
+        if (!eligibilityFilterBuild.compareAndSet(null, build)) {
+            return eligibilityFilterBuild.get();
+        }
+
+        CompletableFuture.supplyAsync(this::buildEligibilityFilter).whenComplete((bytes, e) -> {
+            eligibilityFilterBuild.set(null);
+            if (e != null) {
+                // Se sigue enviando el filtro anterior; sin filtro previo, vacío (el proxy lo ignora)
+                logger.error("Error building eligibility filter, keeping the previous one", e);
+                byte[] previous = eligibilityFilterBytes;
+                build.complete(previous != null ? previous : new byte[0]);
+            } else {
+                build.complete(bytes);
+            }
+        });
+        return build;
+    }
+
+    private byte[] buildEligibilityFilter() {
+        long start = System.currentTimeMillis();
+
+        EligibilityFilter filter = EligibilityFilter.create(connectionDB.countEligibleCitizens(), ELIGIBILITY_FALSE_POSITIVE_RATE);
+        try {
+            connectionDB.forEachEligibleDocument(filter::add);
+        } catch (SQLException e) {
+            // Un filtro parcial daría falsos negativos: no se publica
+            throw new CompletionException(e);
+        }
+
+        byte[] bytes = filter.toBytes();
+        eligibilityFilterBytes = bytes;
+        eligibilityFilterBuiltAt = System.currentTimeMillis();
+
+        logger.info("Eligibility filter built: {} documents, {} KB in {} ms",
+                filter.getEntries(), bytes.length / 1024, eligibilityFilterBuiltAt - start);
+        return bytes;
+    }
+
     public boolean isElectionReadyForReports(int electionId) {
         try {
             return connectionDB.validateElectionDataCompleteness(electionId);
@@ -635,7 +850,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
     }
 
 
-    @Override
     public String[] getDepartmentCitizenDocuments(int departmentId, int electionId, Current current) {
         logger.debug("Ice request: getDepartmentCitizenDocuments for department {} election {}", departmentId, electionId);
 
@@ -665,7 +879,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String[] getMunicipalityCitizenDocuments(int municipalityId, int electionId, Current current) {
         logger.debug("Ice request: getMunicipalityCitizenDocuments for municipality {} election {}", municipalityId, electionId);
 
@@ -695,7 +908,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String[] getPuestoCitizenDocuments(int puestoId, int electionId, Current current) {
         logger.debug("Ice request: getPuestoCitizenDocuments for puesto {} election {}", puestoId, electionId);
 
@@ -725,7 +937,6 @@ public class ReportsManagerImpl implements ReportsSystem.ReportsService {
         }
     }
 
-    @Override
     public String[] getMesaCitizenDocuments(int mesaId, int electionId, Current current) {
         logger.debug("Ice request: getMesaCitizenDocuments for mesa {} election {}", mesaId, electionId);
 
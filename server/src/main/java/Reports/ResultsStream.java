@@ -0,0 +1,283 @@
+package Reports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Conteo en memoria de los votos de cada elección, versionado con la secuencia de los deltas.
+ * Se inicializa una vez desde la base de datos y luego avanza solo con los deltas publicados,
+ * así que un observer que se registra a mitad de la elección recibe un snapshot consistente
+ * (versión N) y después únicamente los deltas N+1, N+2, ...
+ *
+ * Formato del snapshot: SNAPSHOT#electionId#version#timestamp#total#candidato=n;candidato=n
+ *
+ * El estado se modifica dentro de {@link VoteDeltaPublisher#runLocked} o desde el sink del
+ * publisher, que corren con el mismo lock. La lectura de la base de datos se hace fuera del lock
+ * para no frenar {@link VoteDeltaPublisher#record}: antes de leer se anotan la secuencia publicada y
+ * la ventana abierta, mientras se lee se guardan los deltas que se publiquen, y al terminar se
+ * descuenta esa ventana y se suman esos deltas para quedar en la versión actual.
+ *
+ * Para que eso cuadre, la lectura debe ver exactamente los votos que ya están en la ventana o en un
+ * delta publicado. Los votos se guardan y se suman a la ventana en {@link #commit}, que comparte un
+ * read-write lock con el inicio de la lectura: mientras se anota la secuencia y se fija el snapshot
+ * de la base ({@link TallyLoader#open}) no hay ningún voto guardado que falte en la ventana, y los
+ * que se guarden después no son visibles para esa lectura.
+ */
+public class ResultsStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultsStream.class);
+
+    public static final String SNAPSHOT_PREFIX = "SNAPSHOT";
+
+    // Varios proxies pidiendo resync a la vez no deben releer la base de datos cada uno
+    private static final long MIN_RESYNC_INTERVAL_MS = 2000;
+
+    /** Lectura de los votos por candidato de la base de datos, en dos pasos. */
+    public interface TallyLoader {
+        /**
+         * Fija el punto de la lectura (p. ej. abre una transacción y toma su snapshot). Se llama
+         * con los votos detenidos, así que debe ser rápido; la lectura en sí la hace el Supplier
+         * devuelto, sin locks.
+         */
+        Supplier<Map<String, Integer>> open(int electionId);
+    }
+
+    private static final class Tally {
+        private final Map<String, Long> byCandidate = new LinkedHashMap<>();
+        private long total;
+        private long version;
+        private long seededAt;
+    }
+
+    /** Lectura de la base en curso y los deltas publicados desde que empezó. */
+    private static final class Seed {
+        private final int electionId;
+        private final long sequence;
+        private final Map<String, Integer> pending;
+        private final List<VoteDeltaPublisher.Delta> deltas = new ArrayList<>();
+        private Supplier<Map<String, Integer>> reader;
+
+        private Seed(int electionId, long sequence, Map<String, Integer> pending) {
+            this.electionId = electionId;
+            this.sequence = sequence;
+            this.pending = pending;
+        }
+    }
+
+    private final Map<Integer, Tally> tallies = new ConcurrentHashMap<>();
+    // Solo se usa con el lock del publisher
+    private final List<Seed> seeds = new ArrayList<>();
+    // Lectura: guardar un voto y sumarlo a la ventana. Escritura: fijar el punto de una lectura.
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private volatile TallyLoader loader;
+
+    /**
+     * Lectura de la base de datos de los votos por candidato de una elección.
+     */
+    public void setLoader(TallyLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Guarda un voto ({@code store}, p. ej. el INSERT) y lo suma a la ventana de deltas
+     * ({@code record}) sin que una lectura del conteo pueda fijarse entre los dos pasos. Los votos
+     * no se bloquean entre sí.
+     */
+    public void commit(Runnable store, Runnable record) {
+        commitGate.readLock().lock();
+        try {
+            store.run();
+            record.run();
+        } finally {
+            commitGate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un delta publicado. Si la elección todavía no tiene conteo solo se guarda para las
+     * lecturas de la base en curso; el primer snapshot la inicializa.
+     */
+    public void apply(VoteDeltaPublisher.Delta delta) {
+        for (Seed seed : seeds) {
+            if (seed.electionId == delta.getElectionId()) {
+                seed.deltas.add(delta);
+            }
+        }
+
+        Tally tally = tallies.get(delta.getElectionId());
+        if (tally != null) {
+            add(tally, delta);
+        }
+    }
+
+    /**
+     * Entrega a {@code action}, con el lock del publisher tomado, el snapshot de la elección. Si
+     * todavía no hay conteo se lee de la base de datos fuera del lock.
+     */
+    public void snapshot(int electionId, VoteDeltaPublisher publisher, Consumer<String> action) {
+        boolean[] sent = new boolean[1];
+        publisher.runLocked(() -> {
+            Tally tally = tallies.get(electionId);
+            if (tally != null) {
+                action.accept(format(electionId, tally));
+                sent[0] = true;
+            }
+        });
+        if (sent[0]) {
+            return;
+        }
+
+        Seed seed = begin(electionId, publisher);
+        Map<String, Integer> loaded = load(seed);
+        publisher.runLocked(() -> {
+            // Otra lectura pudo terminar primero; su conteo es igual de válido
+            Tally tally = tallies.get(electionId);
+            seeds.remove(seed);
+            action.accept(format(electionId, tally != null ? tally : finish(seed, loaded)));
+        });
+    }
+
+    /**
+     * Vuelve a leer el conteo de la base de datos y entrega el snapshot a {@code action} con el
+     * lock del publisher tomado.
+     */
+    public void resync(int electionId, VoteDeltaPublisher publisher, Consumer<String> action) {
+        boolean[] sent = new boolean[1];
+        publisher.runLocked(() -> {
+            Tally previous = tallies.get(electionId);
+            if (previous != null && System.currentTimeMillis() - previous.seededAt < MIN_RESYNC_INTERVAL_MS) {
+                action.accept(format(electionId, previous));
+                sent[0] = true;
+            }
+        });
+        if (sent[0]) {
+            return;
+        }
+
+        Seed seed = begin(electionId, publisher);
+        Map<String, Integer> loaded = load(seed);
+        publisher.runLocked(() -> {
+            seeds.remove(seed);
+            action.accept(format(electionId, finish(seed, loaded)));
+        });
+    }
+
+    public long getVersion(int electionId) {
+        Tally tally = tallies.get(electionId);
+        return tally != null ? tally.version : 0;
+    }
+
+    public long getTotal(int electionId) {
+        Tally tally = tallies.get(electionId);
+        return tally != null ? tally.total : 0;
+    }
+
+    /**
+     * Con los votos detenidos: anota la secuencia y la ventana abierta, y fija en ese mismo punto
+     * la lectura de la base, que así incluye exactamente esos votos.
+     */
+    private Seed begin(int electionId, VoteDeltaPublisher publisher) {
+        commitGate.writeLock().lock();
+        try {
+            Seed[] seed = new Seed[1];
+            publisher.runLocked(() -> {
+                seed[0] = new Seed(electionId, publisher.getLastSequence(electionId),
+                        publisher.getPendingByCandidate(electionId));
+                seeds.add(seed[0]);
+            });
+
+            TallyLoader currentLoader = loader;
+            if (currentLoader != null) {
+                try {
+                    seed[0].reader = currentLoader.open(electionId);
+                } catch (RuntimeException e) {
+                    logger.warn("No se pudo abrir la lectura del conteo de la elección {}: {}", electionId, e.getMessage());
+                }
+            }
+            return seed[0];
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    /** Sin locks: votos por candidato de la base de datos en el punto fijado por {@link #begin}. */
+    private Map<String, Integer> load(Seed seed) {
+        if (seed.reader != null) {
+            try {
+                return seed.reader.get();
+            } catch (RuntimeException e) {
+                logger.warn("No se pudo leer el conteo de la elección {} de la base de datos: {}", seed.electionId, e.getMessage());
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Con el lock: la lectura quedó en la versión {@code seed.sequence} más la ventana que estaba
+     * abierta. Se descuenta esa ventana, que llegó en el delta siguiente, y se suman los deltas
+     * publicados mientras se leía.
+     */
+    private Tally finish(Seed seed, Map<String, Integer> loaded) {
+        Tally tally = new Tally();
+        for (Map.Entry<String, Integer> entry : loaded.entrySet()) {
+            tally.byCandidate.merge(VoteDeltaPublisher.sanitize(entry.getKey()), (long) entry.getValue(), Long::sum);
+        }
+        for (Map.Entry<String, Integer> entry : seed.pending.entrySet()) {
+            long remaining = tally.byCandidate.merge(entry.getKey(), (long) -entry.getValue(), Long::sum);
+            if (remaining < 0) {
+                // La lectura no incluyó votos que ya estaban en la ventana: el conteo quedó corrido
+                logger.warn("Conteo de elección {} inconsistente: {} queda en {} al descontar la ventana abierta",
+                        seed.electionId, entry.getKey(), remaining);
+            }
+        }
+        tally.total = tally.byCandidate.values().stream().mapToLong(Long::longValue).sum();
+        tally.version = seed.sequence;
+        for (VoteDeltaPublisher.Delta delta : seed.deltas) {
+            add(tally, delta);
+        }
+        tally.seededAt = System.currentTimeMillis();
+        tallies.put(seed.electionId, tally);
+
+        logger.info("Conteo de elección {} inicializado: {} votos, {} candidatos (versión {}, {} deltas durante la lectura)",
+                seed.electionId, tally.total, tally.byCandidate.size(), tally.version, seed.deltas.size());
+        return tally;
+    }
+
+    private static void add(Tally tally, VoteDeltaPublisher.Delta delta) {
+        for (Map.Entry<String, Integer> entry : delta.getByCandidate().entrySet()) {
+            tally.byCandidate.merge(entry.getKey(), (long) entry.getValue(), Long::sum);
+        }
+        tally.total += delta.getTotal();
+        tally.version = delta.getSequence();
+    }
+
+    private static String format(int electionId, Tally tally) {
+        StringBuilder snapshot = new StringBuilder(64 + 24 * tally.byCandidate.size());
+        snapshot.append(SNAPSHOT_PREFIX).append('#')
+                .append(electionId).append('#')
+                .append(tally.version).append('#')
+                .append(System.currentTimeMillis()).append('#')
+                .append(tally.total).append('#');
+
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : tally.byCandidate.entrySet()) {
+            if (!first) {
+                snapshot.append(';');
+            }
+            snapshot.append(entry.getKey()).append('=').append(entry.getValue());
+            first = false;
+        }
+        return snapshot.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package Reports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agrupa los votos registrados durante una ventana corta y publica un solo delta por elección:
+ * cantidad de votos por candidato y por máquina de votación. Cada delta lleva un número de
+ * secuencia consecutivo por elección para que los observers detecten huecos.
+ *
+ * Formato del delta: electionId#timestamp#total#candidato=n;candidato=n#maquina=n;maquina=n
+ */
+public class VoteDeltaPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoteDeltaPublisher.class);
+
+    public static final long DEFAULT_WINDOW_MS = 250;
+
+    /** Recibe cada delta listo para enviar a los observers de la elección. */
+    public interface DeltaSink {
+        void publish(Delta delta);
+    }
+
+    private static final class Window {
+        private final Map<String, Integer> byCandidate = new HashMap<>();
+        private final Map<String, Integer> byLocation = new HashMap<>();
+        private int total;
+    }
+
+    /** Votos de una ventana ya cerrada. */
+    public static final class Delta {
+        private final int electionId;
+        private final long sequence;
+        private final long timestamp;
+        private final Window window;
+
+        private Delta(int electionId, long sequence, long timestamp, Window window) {
+            this.electionId = electionId;
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.window = window;
+        }
+
+        public int getElectionId() { return electionId; }
+        public long getSequence() { return sequence; }
+        public int getTotal() { return window.total; }
+        public Map<String, Integer> getByCandidate() { return Collections.unmodifiableMap(window.byCandidate); }
+
+        public String encode() {
+            return format(electionId, timestamp, window);
+        }
+    }
+
+    private final long windowMs;
+    private final DeltaSink sink;
+    private final ScheduledExecutorService scheduler;
+
+    private Map<Integer, Window> current = new HashMap<>();
+    private final Map<Integer, AtomicLong> sequences = new HashMap<>();
+
+    private final AtomicLong votesAggregated = new AtomicLong(0);
+    private final AtomicLong deltasPublished = new AtomicLong(0);
+
+    public VoteDeltaPublisher(long windowMs, DeltaSink sink) {
+        this.windowMs = windowMs;
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vote-delta-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Suma un voto a la ventana actual. Solo toma un lock corto, sin tocar la red.
+     */
+    public void record(int electionId, String candidateName, String location) {
+        synchronized (this) {
+            Window window = current.computeIfAbsent(electionId, k -> new Window());
+            window.byCandidate.merge(sanitize(candidateName), 1, Integer::sum);
+            window.byLocation.merge(sanitize(location), 1, Integer::sum);
+            window.total++;
+        }
+        votesAggregated.incrementAndGet();
+    }
+
+    /**
+     * Cierra la ventana actual y publica un delta por cada elección que recibió votos.
+     * La publicación se hace con el lock tomado (el sink solo actualiza memoria y encola), así
+     * {@link #runLocked} ve siempre un estado en el que cada voto está en un delta publicado o
+     * en la ventana abierta.
+     */
+    public synchronized void flush() {
+        if (current.isEmpty()) {
+            return;
+        }
+        Map<Integer, Window> closed = current;
+        current = new HashMap<>();
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, Window> entry : closed.entrySet()) {
+            int electionId = entry.getKey();
+            long sequence = sequences.computeIfAbsent(electionId, k -> new AtomicLong(0)).incrementAndGet();
+
+            try {
+                sink.publish(new Delta(electionId, sequence, now, entry.getValue()));
+                deltasPublished.incrementAndGet();
+            } catch (RuntimeException e) {
+                logger.warn("Error publicando delta {} de elección {}: {}", sequence, electionId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la acción sin que se cierre ninguna ventana mientras tanto (p. ej. tomar un snapshot
+     * y registrar un observer antes del próximo delta). La acción bloquea {@link #record}: no debe
+     * leer la base de datos ni tocar la red.
+     */
+    public synchronized void runLocked(Runnable action) {
+        action.run();
+    }
+
+    /** Votos por candidato de la ventana abierta, todavía no publicados. Llamar dentro de runLocked. */
+    public synchronized Map<String, Integer> getPendingByCandidate(int electionId) {
+        Window window = current.get(electionId);
+        return window != null ? new HashMap<>(window.byCandidate) : Collections.emptyMap();
+    }
+
+    public synchronized long getLastSequence(int electionId) {
+        AtomicLong sequence = sequences.get(electionId);
+        return sequence != null ? sequence.get() : 0;
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    public String getStats() {
+        long votes = votesAggregated.get();
+        long deltas = deltasPublished.get();
+        return String.format("Deltas de votos: ventana %d ms, %d votos agregados en %d deltas (%.1f votos/delta)\n",
+                windowMs, votes, deltas, deltas > 0 ? (double) votes / deltas : 0.0);
+    }
+
+    private static String format(int electionId, long timestamp, Window window) {
+        StringBuilder delta = new StringBuilder(64 + 16 * (window.byCandidate.size() + window.byLocation.size()));
+        delta.append(electionId).append('#').append(timestamp).append('#').append(window.total).append('#');
+        appendCounts(delta, window.byCandidate);
+        delta.append('#');
+        appendCounts(delta, window.byLocation);
+        return delta.toString();
+    }
+
+    private static void appendCounts(StringBuilder delta, Map<String, Integer> counts) {
+        boolean first = true;
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if (!first) {
+                delta.append(';');
+            }
+            delta.append(count.getKey()).append('=').append(count.getValue());
+            first = false;
+        }
+    }
+
+    // Los separadores del formato no pueden aparecer en nombres ni identificadores
+    static String sanitize(String value) {
+        if (value == null || value.isEmpty()) {
+            return "desconocido";
+        }
+        return value.replace('#', ' ').replace(';', ' ').replace('=', ' ');
+    }
+}
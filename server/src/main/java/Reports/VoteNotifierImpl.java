@@ -6,32 +6,52 @@ import com.zeroc.Ice.Current;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.ArrayList;
-
+import java.util.Collection;
+
+/**
+ * Notifica los votos a los proxies registrados. Cada observer tiene su propio {@link ObserverChannel}
+ * con cola acotada e invocaciones asíncronas, así que registrar un voto nunca espera a un proxy lento.
+ * Al registrarse, un observer recibe un snapshot del conteo (onElectionResultsUpdated) y después
+ * los deltas con secuencia mayor a la del snapshot (onVoteDelta). La vida de los observers la
+ * controla {@link ObserverLiveness} con heartbeats asíncronos.
+ */
 public class VoteNotifierImpl implements VoteNotifier {
 
     private static final Logger logger = LoggerFactory.getLogger(VoteNotifierImpl.class);
 
-    // Map: electionId -> Lista de observers registrados
-    private final Map<Integer, List<VoteObserverPrx>> observers = new ConcurrentHashMap<>();
+    // Canales de los observers registrados, particionados por elección
+    private final ObserverRegistry observers = new ObserverRegistry();
+
+    private final VoteDeltaPublisher deltaPublisher;
+    private final ResultsStream resultsStream = new ResultsStream();
+    private final ObserverLiveness liveness;
 
     public VoteNotifierImpl() {
-        logger.info(" VoteNotifier inicializado en el servidor central");
+        this(VoteDeltaPublisher.DEFAULT_WINDOW_MS);
+    }
+
+    public VoteNotifierImpl(long deltaWindowMs) {
+        this.deltaPublisher = new VoteDeltaPublisher(deltaWindowMs, this::publishDelta);
+        this.liveness = new ObserverLiveness(observers, ObserverLiveness.DEFAULT_INTERVAL_MS);
+        logger.info(" VoteNotifier inicializado en el servidor central (deltas cada {} ms)", deltaWindowMs);
     }
 
     @Override
     public void registerObserver(VoteObserverPrx observer, int electionId, Current current) {
         try {
-            observers.computeIfAbsent(electionId, k -> new CopyOnWriteArrayList<>()).add(observer);
+            // Snapshot y alta en el mismo lock que publica los deltas: el observer recibe primero
+            // el snapshot de versión N y a continuación el delta N+1
+            resultsStream.snapshot(electionId, deltaPublisher, snapshot -> {
+                // Un proxy que se vuelve a registrar reemplaza su canal anterior
+                ObserverChannel channel = new ObserverChannel(observer, electionId, this::evict);
+                observers.add(channel);
+                channel.offer(snapshotNotification(snapshot));
+            });
 
             logger.info(" Observer registrado para elección {}: {}", electionId, observer);
             System.out.println(" Nuevo proxy registrado como observer para elección " + electionId);
 
-            int totalObservers = observers.get(electionId).size();
+            int totalObservers = observers.count(electionId);
             System.out.println("📊 Total observers para elección " + electionId + ": " + totalObservers);
 
         } catch (Exception e) {
@@ -42,15 +62,11 @@ public class VoteNotifierImpl implements VoteNotifier {
     @Override
     public void unregisterObserver(VoteObserverPrx observer, int electionId, Current current) {
         try {
-            List<VoteObserverPrx> electionObservers = observers.get(electionId);
-            if (electionObservers != null) {
-                boolean removed = electionObservers.remove(observer);
-                if (removed) {
-                    logger.info(" Observer desregistrado para elección {}", electionId);
-                    System.out.println(" Proxy desregistrado de elección " + electionId);
-                } else {
-                    logger.warn(" Observer no encontrado para desregistrar en elección {}", electionId);
-                }
+            if (observers.remove(electionId, observer)) {
+                logger.info(" Observer desregistrado para elección {}", electionId);
+                System.out.println(" Proxy desregistrado de elección " + electionId);
+            } else {
+                logger.warn(" Observer no encontrado para desregistrar en elección {}", electionId);
             }
         } catch (Exception e) {
             logger.error(" Error desregistrando observer para elección {}: {}", electionId, e.getMessage());
@@ -59,56 +75,74 @@ public class VoteNotifierImpl implements VoteNotifier {
 
     @Override
     public int getObserverCount(int electionId, Current current) {
-        List<VoteObserverPrx> electionObservers = observers.get(electionId);
-        int count = electionObservers != null ? electionObservers.size() : 0;
+        int count = observers.count(electionId);
         logger.debug("📊 Conteo de observers para elección {}: {}", electionId, count);
         return count;
     }
 
+    /**
+     * Relee el conteo de la base de datos y envía un snapshot nuevo a todos los observers de la
+     * elección (lo piden los proxies que detectan deltas perdidos).
+     */
     @Override
     public void forceResultsUpdate(int electionId, Current current) {
+        try {
+            resultsStream.resync(electionId, deltaPublisher, snapshot -> {
+                ObserverChannel.Notification notification = snapshotNotification(snapshot);
+                observers.forElection(electionId).forEach(channel -> channel.offer(notification));
+            });
+            logger.info(" Resultados de elección {} reenviados a los observers (versión {})",
+                    electionId, resultsStream.getVersion(electionId));
+        } catch (Exception e) {
+            logger.error(" Error forzando actualización de resultados para elección {}: {}", electionId, e.getMessage());
+        }
+    }
 
+    /**
+     * Lectura de los votos por candidato desde la base de datos para el snapshot inicial.
+     */
+    public void setResultsLoader(ResultsStream.TallyLoader loader) {
+        resultsStream.setLoader(loader);
+    }
 
-
+    private static ObserverChannel.Notification snapshotNotification(String snapshot) {
+        // Un snapshot pendiente queda obsoleto con el siguiente: solo se envía el último
+        return ObserverChannel.Notification.coalescing(ResultsStream.SNAPSHOT_PREFIX,
+                observer -> observer.onElectionResultsUpdatedAsync(snapshot));
     }
 
 
-    public void notifyVoteReceived(String voteInfo, int electionId) {
-        List<VoteObserverPrx> electionObservers = observers.get(electionId);
+    /**
+     * Guarda el voto con {@code store} y lo registra en la ventana de deltas como un solo paso frente
+     * a los snapshots; los observers lo reciben agregado en el próximo onVoteDelta.
+     */
+    public void recordVote(int electionId, String candidateName, String location, Runnable store) {
+        resultsStream.commit(store, () -> deltaPublisher.record(electionId, candidateName, location));
+    }
 
-        if (electionObservers == null || electionObservers.isEmpty()) {
-            logger.debug(" No hay observers registrados para elección {}", electionId);
-            System.out.println(" No hay proxys para notificar (elección " + electionId + ")");
+    private void publishDelta(VoteDeltaPublisher.Delta published) {
+        int electionId = published.getElectionId();
+        long sequence = published.getSequence();
+        resultsStream.apply(published);
+
+        Collection<ObserverChannel> electionObservers = observers.forElection(electionId);
+        if (electionObservers.isEmpty()) {
             return;
         }
 
-        logger.info(" Notificando voto a {} observers para elección {}: {}",
-                electionObservers.size(), electionId, voteInfo);
-
-        System.out.println(" Enviando notificación a " + electionObservers.size() + " proxy(s): " + voteInfo);
-
-        // Usar una lista temporal para evitar ConcurrentModificationException
-        List<VoteObserverPrx> observersToNotify = new ArrayList<>(electionObservers);
-        List<VoteObserverPrx> failedObservers = new ArrayList<>();
+        String delta = published.encode();
+        logger.debug(" Delta {} de elección {} para {} observers: {}",
+                sequence, electionId, electionObservers.size(), delta);
 
-        // Notificar a cada observer
-        for (VoteObserverPrx observer : observersToNotify) {
-            try {
-                // Enviar notificación de voto
-                observer.onVoteReceived(voteInfo);
-                logger.debug(" Notificación enviada exitosamente a observer: {}", observer);
-
-            } catch (Exception e) {
-                logger.warn(" Error notificando a observer (será removido): {}", e.getMessage());
-                failedObservers.add(observer);
-            }
+        ObserverChannel.Notification notification =
+                ObserverChannel.Notification.of(observer -> observer.onVoteDeltaAsync(sequence, delta));
+        for (ObserverChannel channel : electionObservers) {
+            channel.offer(notification);
         }
+    }
 
-        // Remover observers que fallaron (conexión perdida)
-        if (!failedObservers.isEmpty()) {
-            electionObservers.removeAll(failedObservers);
-            System.out.println(" Removidos " + failedObservers.size() + " proxy(s) desconectado(s)");
-        }
+    private void evict(ObserverChannel channel) {
+        observers.evict(channel, "fallos consecutivos al notificar");
     }
 
 
@@ -120,55 +154,45 @@ public class VoteNotifierImpl implements VoteNotifier {
             stats.append(" No hay observers registrados\n");
         } else {
             int totalObservers = 0;
-            for (Map.Entry<Integer, List<VoteObserverPrx>> entry : observers.entrySet()) {
-                int electionId = entry.getKey();
-                int count = entry.getValue().size();
+            for (int electionId : observers.elections()) {
+                int count = observers.count(electionId);
                 totalObservers += count;
 
                 stats.append(String.format(" Elección %d: %d observer(s)\n", electionId, count));
+                for (ObserverChannel channel : observers.forElection(electionId)) {
+                    stats.append(String.format("   %s: %s\n", channel.getRegistered(), channel.describe()));
+                }
             }
 
             stats.append(String.format("📈 Total observers: %d\n", totalObservers));
-            stats.append(String.format(" Elecciones monitoreadas: %d\n", observers.size()));
+            stats.append(String.format(" Elecciones monitoreadas: %d\n", observers.elections().size()));
         }
 
+        stats.append(deltaPublisher.getStats());
+        stats.append(liveness.getStats());
         stats.append("----\n");
         return stats.toString();
     }
 
 
+    public void shutdown() {
+        liveness.shutdown();
+        deltaPublisher.shutdown();
+        observers.forEach(ObserverChannel::close);
+    }
+
+
     public void showStatistics() {
         System.out.println(getObserverStatistics());
     }
 
 
+    /**
+     * Lanza de inmediato una ronda de heartbeats; los observers que no respondan se remueven
+     * de forma asíncrona al agotar sus heartbeats.
+     */
     public void cleanDisconnectedObservers() {
-        int totalCleaned = 0;
-
-        for (Map.Entry<Integer, List<VoteObserverPrx>> entry : observers.entrySet()) {
-            int electionId = entry.getKey();
-            List<VoteObserverPrx> electionObservers = entry.getValue();
-            List<VoteObserverPrx> toRemove = new ArrayList<>();
-
-            for (VoteObserverPrx observer : electionObservers) {
-                try {
-                    // Hacer ping para verificar conexión
-                    observer.ping();
-                } catch (Exception e) {
-                    toRemove.add(observer);
-                }
-            }
-
-            if (!toRemove.isEmpty()) {
-                electionObservers.removeAll(toRemove);
-                totalCleaned += toRemove.size();
-                logger.info(" Limpiados {} observers desconectados de elección {}",
-                        toRemove.size(), electionId);
-            }
-        }
-
-        if (totalCleaned > 0) {
-            System.out.println(" Total observers desconectados removidos: " + totalCleaned);
-        }
+        int launched = liveness.runRound();
+        logger.info(" Heartbeat manual enviado a {} observers", launched);
     }
-}
\ No newline at end of file
+}
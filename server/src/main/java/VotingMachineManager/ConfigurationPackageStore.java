@@ -0,0 +1,389 @@
+package VotingMachineManager;
+
+import ConfigurationSystem.ConfigurationCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Paquetes de configuración de mesa ya renderizados, indexados por (mesa, versión de la elección).
+ *
+ * La versión es el hash de las secciones de elección y candidatos, que son las únicas compartidas
+ * por todas las mesas. Cada paquete se genera una sola vez por versión, se comprime con Deflate y
+ * se agrega a un archivo por versión; en memoria solo queda el índice (offset y tamaño). Los
+ * paquetes se comprimen a medida que se generan, de a una mesa, así que un lote grande no queda
+ * entero en memoria como texto. Cuando la elección cambia de versión se empieza un archivo nuevo
+ * y el anterior se borra.
+ *
+ * La versión se revisa contra la base de datos como máximo una vez cada {@code versionTtlMs}, así
+ * que un envío a todas las mesas no vuelve a leer la elección ni los candidatos por cada una.
+ *
+ * Los datos de la mesa y sus ciudadanos no entran en la versión: cada paquete guarda la huella de
+ * su mesa ({@code fingerprintLoader}) leída antes de generarlo, y con el mismo TTL se compara por
+ * lotes contra la base. Si no coincide, el paquete se descarta y se vuelve a generar; su espacio en
+ * el archivo se recupera cuando la elección cambia de versión.
+ */
+public class ConfigurationPackageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationPackageStore.class);
+
+    public static final long DEFAULT_VERSION_TTL_MS = 30 * 1000;
+    private static final int RENDER_BATCH_SIZE = 500;
+
+    /** Genera los paquetes de un lote de mesas. */
+    public interface Renderer {
+        /**
+         * Entrega cada paquete al sink apenas está listo y omite las mesas que no existen.
+         */
+        void render(List<Integer> mesaIds, String[] sections, BiConsumer<Integer, CharSequence> sink);
+    }
+
+    private static final class Entry {
+        private final long offset;
+        private final int length;
+        private final int rawLength;
+        private final String fingerprint;
+        private volatile long checkedAt;
+
+        private Entry(long offset, int length, int rawLength, String fingerprint) {
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+            this.fingerprint = fingerprint;
+            this.checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    /** Paquetes de una versión de la elección y el archivo donde están. */
+    private static final class Generation {
+        private final int electionId;
+        private final String version;
+        private final String[] sections;
+        private final Path file;
+        private final FileChannel channel;
+        private final Map<Integer, Entry> index = new ConcurrentHashMap<>();
+        private volatile long checkedAt;
+        private long size;
+        private long rawSize;
+
+        private Generation(int electionId, String version, String[] sections, Path file) throws IOException {
+            this.electionId = electionId;
+            this.version = version;
+            this.sections = sections;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final Path directory;
+    private final long versionTtlMs;
+    private final IntFunction<String[]> sectionsLoader;
+    private final Function<List<Integer>, Map<Integer, String>> fingerprintLoader;
+    private final Renderer renderer;
+    private final Map<Integer, Generation> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong rendered = new AtomicLong(0);
+    private final AtomicLong stale = new AtomicLong(0);
+
+    /**
+     * @param sectionsLoader    secciones {elección, candidatos} ya formateadas, o null si la elección no existe
+     * @param fingerprintLoader huella de los datos de cada mesa y sus ciudadanos, o null si no se pudo leer
+     * @param renderer          genera los paquetes completos de las mesas pedidas con esas secciones
+     */
+    public ConfigurationPackageStore(Path directory, long versionTtlMs, IntFunction<String[]> sectionsLoader,
+            Function<List<Integer>, Map<Integer, String>> fingerprintLoader, Renderer renderer) {
+        this.directory = directory;
+        this.versionTtlMs = versionTtlMs;
+        this.sectionsLoader = sectionsLoader;
+        this.fingerprintLoader = fingerprintLoader;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Paquete de la mesa para la versión actual de la elección, generándolo si todavía no existe.
+     * Retorna null si la mesa o la elección no existen.
+     */
+    public String get(int mesaId, int electionId) {
+        byte[] compressed = getCompressed(mesaId, electionId);
+        return compressed != null ? inflate(compressed) : null;
+    }
+
+    /**
+     * Bytes comprimidos (Deflate) del paquete, tal como están guardados.
+     */
+    public byte[] getCompressed(int mesaId, int electionId) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Generation generation = generation(electionId);
+            if (generation == null) {
+                return null;
+            }
+
+            refresh(generation, List.of(mesaId));
+            if (!generation.index.containsKey(mesaId)) {
+                render(generation, List.of(mesaId));
+            } else {
+                hits.incrementAndGet();
+            }
+
+            Entry entry = generation.index.get(mesaId);
+            if (entry == null) {
+                return null;
+            }
+
+            try {
+                return read(generation, entry);
+            } catch (IOException e) {
+                // La versión se reemplazó mientras se leía: se vuelve a pedir a la nueva
+                logger.debug("Package for mesa {} read from a retired version, retrying", mesaId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Genera los paquetes que falten de las mesas dadas, consultando los ciudadanos por lotes.
+     * Retorna cuántas de esas mesas tienen paquete en la versión actual.
+     */
+    public int prepare(List<Integer> mesaIds, int electionId) {
+        Generation generation = generation(electionId);
+        if (generation == null) {
+            return 0;
+        }
+
+        for (int from = 0; from < mesaIds.size(); from += RENDER_BATCH_SIZE) {
+            refresh(generation, mesaIds.subList(from, Math.min(mesaIds.size(), from + RENDER_BATCH_SIZE)));
+        }
+
+        List<Integer> missing = new ArrayList<>();
+        for (Integer mesaId : mesaIds) {
+            if (!generation.index.containsKey(mesaId)) {
+                missing.add(mesaId);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += RENDER_BATCH_SIZE) {
+            render(generation, missing.subList(from, Math.min(missing.size(), from + RENDER_BATCH_SIZE)));
+        }
+
+        int available = 0;
+        for (Integer mesaId : mesaIds) {
+            if (generation.index.containsKey(mesaId)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Versión actual de la elección, o null si no existe.
+     */
+    public String getVersion(int electionId) {
+        Generation generation = generation(electionId);
+        return generation != null ? generation.version : null;
+    }
+
+    /**
+     * Obliga a revisar la versión de la elección y la huella de cada mesa en el próximo acceso
+     * (p. ej. tras cambiar su estado, sus candidatos o sus ciudadanos).
+     */
+    public void invalidate(int electionId) {
+        Generation generation = generations.get(electionId);
+        if (generation != null) {
+            generation.checkedAt = 0;
+            for (Entry entry : generation.index.values()) {
+                entry.checkedAt = 0;
+            }
+        }
+    }
+
+    /**
+     * Descarta el paquete de la mesa en todas las elecciones; el próximo acceso lo vuelve a generar.
+     */
+    public void evict(int mesaId) {
+        for (Generation generation : generations.values()) {
+            if (generation.index.remove(mesaId) != null) {
+                stale.incrementAndGet();
+            }
+        }
+    }
+
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        stats.append(String.format("Paquetes de configuración: %d generados, %d servidos desde el almacén, %d descartados por cambios de la mesa\n",
+                rendered.get(), hits.get(), stale.get()));
+        for (Generation generation : generations.values()) {
+            synchronized (generation) {
+                stats.append(String.format("   Elección %d versión %s: %d mesas, %.1f MB (%.1f MB sin comprimir)\n",
+                        generation.electionId, generation.version, generation.index.size(),
+                        generation.size / 1048576.0, generation.rawSize / 1048576.0));
+            }
+        }
+        return stats.toString();
+    }
+
+    public void close() {
+        for (Generation generation : generations.values()) {
+            retire(generation);
+        }
+        generations.clear();
+    }
+
+    private Generation generation(int electionId) {
+        Generation current = generations.get(electionId);
+        if (current != null && System.currentTimeMillis() - current.checkedAt < versionTtlMs) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = generations.get(electionId);
+            if (current != null && System.currentTimeMillis() - current.checkedAt < versionTtlMs) {
+                return current;
+            }
+
+            String[] sections = sectionsLoader.apply(electionId);
+            if (sections == null) {
+                return null;
+            }
+
+            String version = versionOf(sections);
+            if (current != null && current.version.equals(version)) {
+                current.checkedAt = System.currentTimeMillis();
+                return current;
+            }
+
+            try {
+                Files.createDirectories(directory);
+                Path file = Files.createTempFile(directory, "election-" + electionId + "-" + version + "-", ".pkg");
+                file.toFile().deleteOnExit();
+
+                Generation next = new Generation(electionId, version, sections, file);
+                generations.put(electionId, next);
+                if (current != null) {
+                    logger.info("Election {} changed from version {} to {}, discarding {} packages",
+                            electionId, current.version, version, current.index.size());
+                    retire(current);
+                }
+                return next;
+
+            } catch (IOException e) {
+                logger.error("Could not create package file for election {} in {}", electionId, directory, e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Compara contra la base la huella de los paquetes cuyo TTL venció y descarta los que ya no
+     * corresponden a su mesa. Si la huella no se puede leer, los paquetes se conservan.
+     */
+    private void refresh(Generation generation, List<Integer> mesaIds) {
+        long now = System.currentTimeMillis();
+        Map<Integer, Entry> expired = new HashMap<>();
+        for (Integer mesaId : mesaIds) {
+            Entry entry = generation.index.get(mesaId);
+            if (entry != null && now - entry.checkedAt >= versionTtlMs) {
+                expired.put(mesaId, entry);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> fingerprints = fingerprintLoader.apply(new ArrayList<>(expired.keySet()));
+        if (fingerprints == null) {
+            return;
+        }
+
+        int discarded = 0;
+        for (Map.Entry<Integer, Entry> e : expired.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.fingerprint != null && entry.fingerprint.equals(fingerprints.get(e.getKey()))) {
+                entry.checkedAt = now;
+            } else if (generation.index.remove(e.getKey(), entry)) {
+                discarded++;
+            }
+        }
+        if (discarded > 0) {
+            stale.addAndGet(discarded);
+            logger.info("Discarded {} packages of election {} whose mesa or citizens changed",
+                    discarded, generation.electionId);
+        }
+    }
+
+    private void render(Generation generation, List<Integer> mesaIds) {
+        // La huella se lee antes de generar: si la mesa cambia en el medio, la próxima revisión lo detecta
+        Map<Integer, String> fingerprints = fingerprintLoader.apply(mesaIds);
+        renderer.render(mesaIds, generation.sections, (mesaId, rendering) ->
+                append(generation, mesaId, rendering, fingerprints != null ? fingerprints.get(mesaId) : null));
+    }
+
+    private void append(Generation generation, int mesaId, CharSequence rendering, String fingerprint) {
+        byte[] compressed = ConfigurationCodec.deflate(rendering);
+        // En caracteres: para las estadísticas alcanza y evita otra pasada para contar bytes UTF-8
+        int rawLength = rendering.length();
+
+        synchronized (generation) {
+            if (generation.index.containsKey(mesaId)) {
+                return;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(compressed);
+                long offset = generation.size;
+                while (buffer.hasRemaining()) {
+                    generation.channel.write(buffer, offset + buffer.position());
+                }
+                generation.size += compressed.length;
+                generation.rawSize += rawLength;
+                generation.index.put(mesaId, new Entry(offset, compressed.length, rawLength, fingerprint));
+                rendered.incrementAndGet();
+            } catch (IOException e) {
+                logger.error("Could not store package for mesa {} of election {}", mesaId, generation.electionId, e);
+            }
+        }
+    }
+
+    private static byte[] read(Generation generation, Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        while (buffer.hasRemaining()) {
+            if (generation.channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                throw new IOException("Package file truncated: " + generation.file);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void retire(Generation generation) {
+        try {
+            generation.channel.close();
+            Files.deleteIfExists(generation.file);
+        } catch (IOException e) {
+            logger.warn("Could not delete package file {}: {}", generation.file, e.getMessage());
+        }
+    }
+
+    /** Descomprime un paquete devuelto por {@link #getCompressed}. */
+    public static String inflate(byte[] compressed) {
+        return ConfigurationCodec.inflate(compressed);
+    }
+
+    private static String versionOf(String[] sections) {
+        return ConfigurationCodec.fnv64Hex(String.join("#", sections));
+    }
+}
@@ -1,14 +1,22 @@
 package configuration;
 
+import ConfigurationSystem.ConfigurationCodec;
+import ConfigurationSystem.ConfigurationPatch;
 import ConfigurationSystem.ConfigurationReceiverPrx;
+import VotingMachineManager.MesaBroadcaster;
 import VotingMachineManager.VotingManagerImpl;
 import VotingMachineManager.MesaConfigurationManager;
+import VotingMachineManager.ConfigurationTransfer;
 import com.zeroc.Ice.Communicator;
-import com.zeroc.Ice.ObjectPrx;
+import com.zeroc.Ice.OperationNotExistException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class ConfigurationSender {
@@ -19,11 +27,38 @@ public class ConfigurationSender {
 
 
     private final MesaConfigurationManager mesaConfigManager;
+    private final MesaBroadcaster broadcaster;
+    private final ConfigurationTransfer transfer;
+
+    // Última configuración que cada mesa confirmó, para enviarle solo lo que cambió
+    private final Map<Integer, DeliveredPackage> deliveredConfigurations = new ConcurrentHashMap<>();
+
+    /**
+     * Versión entregada a una mesa y su paquete tal como salió del almacén (comprimido). Solo se
+     * descomprime para calcular el próximo parche.
+     */
+    private static final class DeliveredPackage {
+        private final String vector;
+        private final byte[] compressed;
+
+        private DeliveredPackage(String vector, byte[] compressed) {
+            this.vector = vector;
+            this.compressed = compressed;
+        }
+    }
 
     public ConfigurationSender(VotingManagerImpl votingManager, Communicator communicator) {
         this.votingManager = votingManager;
         this.communicator = communicator;
         this.mesaConfigManager = new MesaConfigurationManager();
+        this.broadcaster = new MesaBroadcaster(communicator,
+                communicator.getProperties().getPropertyAsIntWithDefault("ConfigurationSender.Parallelism",
+                        MesaBroadcaster.DEFAULT_PARALLELISM),
+                communicator.getProperties().getPropertyAsIntWithDefault("ConfigurationSender.MaxAttempts",
+                        MesaBroadcaster.DEFAULT_MAX_ATTEMPTS));
+        this.transfer = new ConfigurationTransfer(
+                communicator.getProperties().getPropertyAsIntWithDefault("ConfigurationSender.ChunkSize",
+                        ConfigurationTransfer.DEFAULT_CHUNK_SIZE));
 
         logger.info(" ConfigurationSender inicializado");
         logRegisteredMesas();
@@ -48,40 +83,10 @@ public class ConfigurationSender {
             logger.info("   - IP: {}", mesaInfo.getIp());
             logger.info("   - Puerto: {}", mesaInfo.getPort());
             logger.info("   - Activa: {}", mesaInfo.isActive());
+            logger.info(" Conectando a endpoint: {}", mesaInfo.getEndpoint());
 
-            // 1. Generar configuración de la elección
-            String configurationData = votingManager.generateMachineConfigurationString(mesaId, electionId);
-
-            if (configurationData.startsWith("ERROR")) {
-                logger.error(" Error generando configuración: {}", configurationData);
-                return false;
-            }
-
-            logger.info(" Configuración generada - {} caracteres", configurationData.length());
-
-            // 2. Conectar usando la información del archivo
-            String endpoint = mesaInfo.getEndpoint(); // "ConfigurationReceiver:default -h localhost -p 10843"
-            logger.info(" Conectando a endpoint: {}", endpoint);
-
-            ObjectPrx base = communicator.stringToProxy(endpoint);
-            ConfigurationReceiverPrx receiver = ConfigurationReceiverPrx.checkedCast(base);
-
-            if (receiver == null) {
-                logger.error(" No se pudo conectar con la mesa {} en {}:{}",
-                        mesaId, mesaInfo.getIp(), mesaInfo.getPort());
-                return false;
-            }
-
-            // 3. Verificar que la mesa esté lista
-            logger.info(" Verificando si mesa {} está lista...", mesaId);
-            if (!receiver.isReady(mesaId)) {
-                logger.warn(" Mesa {} no está lista para recibir configuración", mesaId);
-                return false;
-            }
-
-            // 4. Enviar configuración
-            logger.info(" Enviando configuración a mesa {}...", mesaId);
-            boolean success = receiver.updateConfiguration(mesaId, configurationData);
+            ConfigurationReceiverPrx receiver = broadcaster.receiverFor(mesaInfo);
+            boolean success = sendConfigurationAsync(mesaInfo, receiver, electionId).join();
 
             if (success) {
                 logger.info(" Configuración enviada exitosamente a mesa {} ({})", mesaId, mesaInfo.getName());
@@ -102,6 +107,131 @@ public class ConfigurationSender {
     }
 
 
+    /**
+     * Envía la configuración a varias mesas en paralelo. Los paquetes se generan antes en lotes y
+     * cada envío solo lee los bytes ya preparados, así que el ritmo lo pone la red.
+     */
+    public MesaBroadcaster.Progress sendConfigurationToMachines(List<Integer> mesaIds, int electionId) {
+        List<MesaConfigurationManager.MesaInfo> targets = new ArrayList<>();
+        for (Integer mesaId : mesaIds) {
+            if (mesaConfigManager.isMesaRegistered(mesaId)) {
+                targets.add(mesaConfigManager.getMesaInfo(mesaId));
+            } else {
+                logger.warn(" Mesa {} NO está registrada en el archivo de configuración, se omite", mesaId);
+            }
+        }
+
+        List<Integer> targetIds = new ArrayList<>();
+        targets.forEach(mesa -> targetIds.add(mesa.getId()));
+        int prepared = votingManager.prepareConfigurationPackages(targetIds, electionId);
+        logger.info(" {} paquetes de configuración listos para {} mesas registradas", prepared, targets.size());
+
+        MesaBroadcaster.Progress progress = broadcaster.broadcast(
+                "Configuración de elección " + electionId, targets,
+                (mesaInfo, receiver) -> sendConfigurationAsync(mesaInfo, receiver, electionId)).join();
+        logger.info(" Envío de configuración completado: {}", progress);
+        return progress;
+    }
+
+
+    /**
+     * Envía la configuración a una mesa. Si la mesa ya tiene una versión anterior se envía solo el
+     * parche; la configuración completa va por bloques con los bytes comprimidos del almacén de
+     * paquetes (o en una sola llamada si la mesa no soporta la transferencia por bloques). El
+     * vector de versión se calcula mientras se descomprime; el texto completo solo se arma para
+     * calcular un parche o para una mesa sin transferencia por bloques.
+     */
+    private CompletableFuture<Boolean> sendConfigurationAsync(MesaConfigurationManager.MesaInfo mesaInfo,
+            ConfigurationReceiverPrx receiver, int electionId) {
+        int mesaId = mesaInfo.getId();
+        byte[] compressed = votingManager.getCompressedConfiguration(mesaId, electionId);
+        if (compressed == null) {
+            logger.error(" Error generando configuración de mesa {}: {}", mesaId,
+                    votingManager.generateMachineConfigurationString(mesaId, electionId));
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String vector = ConfigurationPatch.vectorOf(compressed);
+        String patch = buildPatch(mesaId, vector, compressed);
+
+        return receiver.isReadyAsync(mesaId).thenCompose(ready -> {
+            if (!ready) {
+                logger.debug(" Mesa {} no está lista para recibir configuración", mesaId);
+                return CompletableFuture.completedFuture(false);
+            }
+            if (patch == null) {
+                return sendFullConfiguration(receiver, mesaId, compressed);
+            }
+
+            logger.info(" Enviando parche a mesa {} ({} caracteres)", mesaId, patch.length());
+            return receiver.updateConfigurationAsync(mesaId, patch).thenCompose(success -> {
+                if (!success) {
+                    // La mesa no tiene la versión base del parche (p. ej. perdió su estado): envío completo
+                    logger.warn(" Mesa {} rechazó el parche, enviando configuración completa", mesaId);
+                    return sendFullConfiguration(receiver, mesaId, compressed);
+                }
+                return CompletableFuture.completedFuture(true);
+            });
+        }).whenComplete((success, error) -> {
+            if (error == null && Boolean.TRUE.equals(success) && vector != null) {
+                deliveredConfigurations.put(mesaId, new DeliveredPackage(vector, compressed));
+            } else {
+                deliveredConfigurations.remove(mesaId);
+            }
+        });
+    }
+
+
+    private CompletableFuture<Boolean> sendFullConfiguration(ConfigurationReceiverPrx receiver, int mesaId,
+            byte[] compressed) {
+        logger.info(" Enviando configuración a mesa {} por bloques ({} bytes comprimidos)", mesaId, compressed.length);
+        return transfer.send(receiver, mesaId, compressed).handle((success, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(success);
+            }
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof OperationNotExistException) {
+                // Mesa con una versión anterior del cliente
+                logger.info(" Mesa {} no soporta transferencia por bloques, envío en una sola llamada", mesaId);
+                return receiver.updateConfigurationAsync(mesaId, ConfigurationCodec.inflate(compressed));
+            }
+            return CompletableFuture.<Boolean>failedFuture(cause);
+        }).thenCompose(result -> result);
+    }
+
+
+    /**
+     * Descarta los paquetes preparados si la elección cambió (estado, candidatos).
+     */
+    public void invalidateConfigurationPackages(int electionId) {
+        votingManager.invalidateConfigurationPackages(electionId);
+    }
+
+
+    /**
+     * Parche desde la versión que la mesa confirmó, o null si no hay una versión anterior o el
+     * parche no resulta más corto que la configuración completa.
+     */
+    private String buildPatch(int mesaId, String vector, byte[] compressed) {
+        DeliveredPackage delivered = deliveredConfigurations.get(mesaId);
+        if (delivered == null || vector == null) {
+            return null;
+        }
+
+        ConfigurationPatch.Snapshot base = ConfigurationPatch.snapshot(ConfigurationCodec.inflate(delivered.compressed));
+        if (base == null) {
+            return null;
+        }
+        String configurationData = ConfigurationCodec.inflate(compressed);
+        String patch = ConfigurationPatch.diff(base, ConfigurationPatch.snapshot(configurationData), configurationData);
+        if (patch.length() >= configurationData.length()) {
+            return null;
+        }
+        logger.debug(" Parche para mesa {}: versión {} a {}", mesaId, delivered.vector, vector);
+        return patch;
+    }
+
+
     public boolean changeElectionStatusForAllMachines(int electionId, String newStatus) {
         logger.info(" Cambiando estado de elección {} a {} en mesas registradas", electionId, newStatus);
 
@@ -115,55 +245,40 @@ public class ConfigurationSender {
 
         logger.info(" Enviando cambio de estado a {} mesas registradas", activeMesas.size());
 
-        int successCount = 0;
-        for (MesaConfigurationManager.MesaInfo mesaInfo : activeMesas) {
-            boolean success = sendElectionStatusToMachine(mesaInfo, electionId, newStatus);
-            if (success) {
-                successCount++;
-                logger.info(" Mesa {} ({}) actualizada", mesaInfo.getId(), mesaInfo.getName());
-            } else {
-                logger.warn(" Error actualizando mesa {} ({})", mesaInfo.getId(), mesaInfo.getName());
-            }
-
-            // Pausa entre envíos
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
+        MesaBroadcaster.Progress progress = broadcaster.broadcast(
+                "Estado " + newStatus + " de elección " + electionId, activeMesas,
+                (mesaInfo, receiver) -> sendElectionStatusToMachine(mesaInfo, receiver, electionId, newStatus)).join();
 
-        boolean success = successCount > 0;
-        logger.info(" Cambio de estado completado: {}/{} mesas actualizadas",
-                successCount, activeMesas.size());
+        boolean success = progress.getSucceeded() > 0;
+        logger.info(" Cambio de estado completado: {}", progress);
 
         return success;
     }
 
 
-    private boolean sendElectionStatusToMachine(MesaConfigurationManager.MesaInfo mesaInfo, int electionId, String newStatus) {
-        try {
-            String endpoint = mesaInfo.getEndpoint();
-            ObjectPrx base = communicator.stringToProxy(endpoint);
-            ConfigurationReceiverPrx receiver = ConfigurationReceiverPrx.checkedCast(base);
-
-            if (receiver == null) {
-                logger.warn(" No se pudo conectar con mesa {}", mesaInfo.getId());
-                return false;
+    private CompletableFuture<Boolean> sendElectionStatusToMachine(MesaConfigurationManager.MesaInfo mesaInfo,
+            ConfigurationReceiverPrx receiver, int electionId, String newStatus) {
+        return receiver.isReadyAsync(mesaInfo.getId()).thenCompose(ready -> {
+            if (!ready) {
+                logger.debug(" Mesa {} no está lista", mesaInfo.getId());
+                return CompletableFuture.completedFuture(false);
             }
+            return receiver.updateElectionStatusAsync(electionId, newStatus);
+        });
+    }
 
-            if (!receiver.isReady(mesaInfo.getId())) {
-                logger.warn(" Mesa {} no está lista", mesaInfo.getId());
-                return false;
-            }
 
-            return receiver.updateElectionStatus(electionId, newStatus);
+    /**
+     * Avance del último envío masivo (en curso o terminado), con las mesas que fallaron.
+     */
+    public String getBroadcastProgress() {
+        MesaBroadcaster.Progress progress = broadcaster.getLastProgress();
+        return progress != null ? progress.toString() : "No se ha hecho ningún envío masivo";
+    }
+
 
-        } catch (Exception e) {
-            logger.error(" Error enviando estado a mesa {}: {}", mesaInfo.getId(), e.getMessage());
-            return false;
-        }
+    public String getConfigurationPackageStats() {
+        return votingManager.getConfigurationPackageStats() + transfer.getStats();
     }
 
 
@@ -0,0 +1,116 @@
+package VotingMachineManager;
+
+import ConfigurationSystem.ConfigurationReceiverPrx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Envía un paquete de configuración comprimido a una mesa en bloques de tamaño fijo, cada uno
+ * con su CRC32, y al final la mesa verifica el SHA-256 del paquete completo antes de aplicarlo.
+ *
+ * El id de la transferencia se deriva del contenido: si una transferencia se corta y se vuelve a
+ * intentar con el mismo paquete, la mesa responde desde qué bloque seguir en lugar de empezar de
+ * cero. Ningún mensaje supera el tamaño de un bloque, sin importar el tamaño de la mesa.
+ */
+public class ConfigurationTransfer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationTransfer.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_RETRIES = 3;
+
+    private final int chunkSize;
+
+    private final AtomicLong transfers = new AtomicLong(0);
+    private final AtomicLong resumed = new AtomicLong(0);
+    private final AtomicLong chunksSent = new AtomicLong(0);
+    private final AtomicLong chunksResent = new AtomicLong(0);
+    private final AtomicLong bytesSent = new AtomicLong(0);
+
+    public ConfigurationTransfer(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Transfiere el paquete y retorna si la mesa lo verificó y aplicó.
+     */
+    public CompletableFuture<Boolean> send(ConfigurationReceiverPrx receiver, int mesaId, byte[] compressed) {
+        String sha256 = sha256(compressed);
+        String transferId = sha256.substring(0, 32);
+        int chunkCount = Math.max(1, (compressed.length + chunkSize - 1) / chunkSize);
+        transfers.incrementAndGet();
+
+        return receiver.beginConfigurationTransferAsync(mesaId, transferId, compressed.length, chunkCount, sha256)
+                .thenCompose(start -> {
+                    if (start < 0) {
+                        logger.warn(" Mesa {} rechazó la transferencia {}", mesaId, transferId);
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    if (start > 0) {
+                        resumed.incrementAndGet();
+                        logger.info(" Mesa {}: reanudando transferencia {} desde el bloque {}/{}", mesaId, transferId, start, chunkCount);
+                    }
+                    return sendFrom(receiver, mesaId, transferId, compressed, start, chunkCount, 0)
+                            .thenCompose(complete -> complete
+                                    ? receiver.commitConfigurationTransferAsync(mesaId, transferId)
+                                    : CompletableFuture.completedFuture(false));
+                });
+    }
+
+    private CompletableFuture<Boolean> sendFrom(ConfigurationReceiverPrx receiver, int mesaId, String transferId,
+            byte[] compressed, int index, int chunkCount, int retries) {
+        if (index >= chunkCount) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        int from = index * chunkSize;
+        byte[] chunk = Arrays.copyOfRange(compressed, from, Math.min(compressed.length, from + chunkSize));
+        CRC32 crc = new CRC32();
+        crc.update(chunk, 0, chunk.length);
+
+        return receiver.sendConfigurationChunkAsync(mesaId, transferId, index, chunk, (int) crc.getValue())
+                .thenCompose(next -> {
+                    chunksSent.incrementAndGet();
+                    bytesSent.addAndGet(chunk.length);
+
+                    if (next < 0) {
+                        logger.warn(" Mesa {} perdió la transferencia {}", mesaId, transferId);
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    if (next <= index) {
+                        // La mesa pide de nuevo un bloque (CRC distinto o fuera de orden)
+                        chunksResent.incrementAndGet();
+                        if (retries >= MAX_CHUNK_RETRIES) {
+                            logger.warn(" Mesa {} rechazó el bloque {} de {} tras {} intentos", mesaId, next, transferId, retries + 1);
+                            return CompletableFuture.completedFuture(false);
+                        }
+                        return sendFrom(receiver, mesaId, transferId, compressed, next, chunkCount, retries + 1);
+                    }
+                    return sendFrom(receiver, mesaId, transferId, compressed, next, chunkCount, 0);
+                });
+    }
+
+    public String getStats() {
+        return String.format("Transferencias por bloques: %d (%d reanudadas), %d bloques enviados, %d reenviados, %.1f MB",
+                transfers.get(), resumed.get(), chunksSent.get(), chunksResent.get(), bytesSent.get() / 1048576.0);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package VotingMachineManager;
+
+import ConfigurationSystem.ConfigurationReceiverPrx;
+import com.zeroc.Ice.Communicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Envía una misma operación a muchas mesas en paralelo: como máximo {@code parallelism} llamadas
+ * asíncronas en curso, reintentos por mesa con backoff exponencial y proxies cacheados por endpoint
+ * (sin stringToProxy + checkedCast en cada envío). El avance se puede consultar mientras corre.
+ */
+public class MesaBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(MesaBroadcaster.class);
+
+    public static final int DEFAULT_PARALLELISM = 64;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final int INVOCATION_TIMEOUT_MS = 5000;
+    private static final int MAX_REPORTED_FAILURES = 50;
+
+    /** Avance de un envío masivo. */
+    public static class Progress {
+        private final String operation;
+        private final int total;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicInteger succeeded = new AtomicInteger(0);
+        private final AtomicInteger failed = new AtomicInteger(0);
+        private final AtomicInteger retries = new AtomicInteger(0);
+        private final Map<Integer, String> failures = new ConcurrentHashMap<>();
+        private volatile long finishedAt;
+
+        Progress(String operation, int total) {
+            this.operation = operation;
+            this.total = total;
+        }
+
+        public int getTotal() { return total; }
+        public int getSucceeded() { return succeeded.get(); }
+        public int getFailed() { return failed.get(); }
+        public Map<Integer, String> getFailures() { return failures; }
+        public boolean isFinished() { return finishedAt > 0; }
+
+        public int getCompleted() {
+            return succeeded.get() + failed.get();
+        }
+
+        @Override
+        public String toString() {
+            long elapsed = (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+            StringBuilder report = new StringBuilder(String.format(
+                    "%s: %d/%d mesas (%d exitosas, %d fallidas, %d reintentos) en %.1fs%s",
+                    operation, getCompleted(), total, succeeded.get(), failed.get(), retries.get(),
+                    elapsed / 1000.0, finishedAt > 0 ? "" : " - en curso"));
+            failures.entrySet().stream().limit(MAX_REPORTED_FAILURES).forEach(entry ->
+                    report.append(String.format("\n   Mesa %d: %s", entry.getKey(), entry.getValue())));
+            if (failures.size() > MAX_REPORTED_FAILURES) {
+                report.append(String.format("\n   ... y %d mesas más", failures.size() - MAX_REPORTED_FAILURES));
+            }
+            return report.toString();
+        }
+    }
+
+    private final Communicator communicator;
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Map<String, ConfigurationReceiverPrx> receivers = new ConcurrentHashMap<>();
+    private volatile Progress lastProgress;
+
+    public MesaBroadcaster(Communicator communicator) {
+        this(communicator, DEFAULT_PARALLELISM, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public MesaBroadcaster(Communicator communicator, int parallelism, int maxAttempts) {
+        this.communicator = communicator;
+        this.parallelism = parallelism;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Proxy de la mesa, creado una sola vez por endpoint. No se hace checkedCast: la primera
+     * invocación ya falla si el endpoint no es un ConfigurationReceiver.
+     */
+    public ConfigurationReceiverPrx receiverFor(MesaConfigurationManager.MesaInfo mesa) {
+        return receivers.computeIfAbsent(mesa.getEndpoint(), endpoint ->
+                ConfigurationReceiverPrx.uncheckedCast(communicator.stringToProxy(endpoint))
+                        .ice_invocationTimeout(INVOCATION_TIMEOUT_MS));
+    }
+
+    /**
+     * Ejecuta la operación en todas las mesas. La operación devuelve false o falla si la mesa no
+     * quedó actualizada; en ese caso se reintenta hasta {@code maxAttempts} veces.
+     */
+    public CompletableFuture<Progress> broadcast(String operation, List<MesaConfigurationManager.MesaInfo> mesas,
+            BiFunction<MesaConfigurationManager.MesaInfo, ConfigurationReceiverPrx, CompletableFuture<Boolean>> call) {
+        Progress progress = new Progress(operation, mesas.size());
+        lastProgress = progress;
+        CompletableFuture<Progress> done = new CompletableFuture<>();
+
+        if (mesas.isEmpty()) {
+            progress.finishedAt = System.currentTimeMillis();
+            done.complete(progress);
+            return done;
+        }
+
+        Iterator<MesaConfigurationManager.MesaInfo> pending = mesas.iterator();
+        int reportStep = Math.max(1, mesas.size() / 20);
+        int workers = Math.min(parallelism, mesas.size());
+        for (int i = 0; i < workers; i++) {
+            startNext(pending, progress, call, reportStep, done);
+        }
+        return done;
+    }
+
+    public Progress getLastProgress() {
+        return lastProgress;
+    }
+
+    private void startNext(Iterator<MesaConfigurationManager.MesaInfo> pending, Progress progress,
+            BiFunction<MesaConfigurationManager.MesaInfo, ConfigurationReceiverPrx, CompletableFuture<Boolean>> call,
+            int reportStep, CompletableFuture<Progress> done) {
+        MesaConfigurationManager.MesaInfo mesa;
+        synchronized (pending) {
+            if (!pending.hasNext()) {
+                return;
+            }
+            mesa = pending.next();
+        }
+
+        // Async: una mesa que falla de inmediato no encadena la siguiente en la misma pila
+        attempt(mesa, 1, progress, call).whenCompleteAsync((ok, error) -> {
+            int completed = progress.getCompleted();
+            if (completed % reportStep == 0 || completed == progress.total) {
+                logger.info(" {}: {}/{} mesas ({} fallidas)", progress.operation, completed, progress.total, progress.getFailed());
+            }
+            if (completed == progress.total) {
+                progress.finishedAt = System.currentTimeMillis();
+                done.complete(progress);
+            } else {
+                startNext(pending, progress, call, reportStep, done);
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> attempt(MesaConfigurationManager.MesaInfo mesa, int attempt, Progress progress,
+            BiFunction<MesaConfigurationManager.MesaInfo, ConfigurationReceiverPrx, CompletableFuture<Boolean>> call) {
+        CompletableFuture<Boolean> result;
+        try {
+            result = call.apply(mesa, receiverFor(mesa));
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        return result.handle((ok, error) -> {
+            if (error == null && Boolean.TRUE.equals(ok)) {
+                progress.succeeded.incrementAndGet();
+                return CompletableFuture.completedFuture(true);
+            }
+
+            String reason = error != null ? describe(error) : "la mesa rechazó la operación";
+            if (attempt >= maxAttempts) {
+                progress.failed.incrementAndGet();
+                progress.failures.put(mesa.getId(), reason);
+                logger.warn(" Mesa {} ({}) no actualizada tras {} intentos: {}", mesa.getId(), mesa.getName(), attempt, reason);
+                return CompletableFuture.completedFuture(false);
+            }
+
+            progress.retries.incrementAndGet();
+            long backoff = BASE_BACKOFF_MS * (1L << (attempt - 1));
+            long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(backoff + jitter, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(mesa, attempt + 1, progress, call));
+        }).thenCompose(next -> next);
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+    }
+}
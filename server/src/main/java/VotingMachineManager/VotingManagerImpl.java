@@ -5,9 +5,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.zeroc.Ice.Current;
 
+import java.nio.file.Paths;
 import java.security.Timestamp;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import VotingsSystem.ConfigurationService;
@@ -23,21 +27,26 @@ public class VotingManagerImpl implements ConfigurationService {
     private static final String RECORD_SEPARATOR = "#";
     private static final String ARRAY_SEPARATOR = "|";
 
+    private final ConfigurationPackageStore packageStore;
+
     public VotingManagerImpl(ConnectionDBinterface connectionDB) {
         this.connectionDB = connectionDB;
+        this.packageStore = new ConfigurationPackageStore(Paths.get("data", "config-packages"),
+                ConfigurationPackageStore.DEFAULT_VERSION_TTL_MS, this::loadElectionSections,
+                connectionDB::getMesaFingerprints, this::renderPackages);
         logger.info("VotingManagerImpl initialized for Ice communication with string formatting");
     }
 
 
     @Override
-    public String getConfiguration(int mesaId, int electionId, Current current) {
+    public CompletionStage<String> getConfigurationAsync(int mesaId, int electionId, Current current) {
         logger.debug("Ice request: getConfiguration for mesa {} election {}", mesaId, electionId);
 
         try {
-            return generateMachineConfigurationString(mesaId, electionId);
+            return CompletableFuture.completedFuture(generateMachineConfigurationString(mesaId, electionId));
         } catch (Exception e) {
             logger.error("Error generating configuration string for mesa {} election {}", mesaId, electionId, e);
-            return createErrorString("Error generating configuration: " + e.getMessage());
+            return CompletableFuture.completedFuture(createErrorString("Error generating configuration: " + e.getMessage()));
         }
     }
 
@@ -52,11 +61,9 @@ public class VotingManagerImpl implements ConfigurationService {
         logger.info("Ice request: preloadConfigurations for {} mesas election {}", mesaIds.length, electionId);
 
         try {
-            // Preload configurations for each mesa (caching logic could be added here)
-            for (int mesaId : mesaIds) {
-                generateMachineConfigurationString(mesaId, electionId);
-            }
-            logger.info("Preloading completed for {} mesas", mesaIds.length);
+            int prepared = packageStore.prepare(Arrays.stream(mesaIds).boxed().collect(Collectors.toList()), electionId);
+            logger.info("Preloading completed: {}/{} mesas have a package for election {} version {}",
+                    prepared, mesaIds.length, electionId, packageStore.getVersion(electionId));
         } catch (Exception e) {
             logger.error("Error during preloading for election {}", electionId, e);
         }
@@ -120,46 +127,19 @@ public class VotingManagerImpl implements ConfigurationService {
 
 
     public String generateMachineConfigurationString(int mesaId, int electionId) {
-        logger.info("Generating machine configuration string for mesa {} and election {}", mesaId, electionId);
+        logger.debug("Getting machine configuration string for mesa {} and election {}", mesaId, electionId);
 
         try {
-            Map<String, Object> mesaInfoMap = connectionDB.getMesaConfiguration(mesaId);
-            if (mesaInfoMap == null) {
+            String configuration = packageStore.get(mesaId, electionId);
+            if (configuration == null) {
+                if (connectionDB.getElectionInfo(electionId) == null) {
+                    logger.error("Election {} not found", electionId);
+                    return createErrorString("Election not found");
+                }
                 logger.error("Mesa {} not found", mesaId);
                 return createErrorString("Mesa not found");
             }
-
-
-            Map<String, Object> electionInfoMap = connectionDB.getElectionInfo(electionId);
-            if (electionInfoMap == null) {
-                logger.error("Election {} not found", electionId);
-                return createErrorString("Election not found");
-            }
-
-            List<Map<String, Object>> candidatesMap = connectionDB.getCandidatesByElection(electionId);
-
-
-            List<Map<String, Object>> citizensMap = connectionDB.getCitizensByMesa(mesaId);
-
-
-            StringBuilder config = new StringBuilder();
-
-            config.append(formatMesaInfoString(mesaInfoMap)).append(RECORD_SEPARATOR);
-
-            config.append(formatElectionInfoString(electionInfoMap)).append(RECORD_SEPARATOR);
-
-            config.append(formatCandidatesArray(candidatesMap)).append(RECORD_SEPARATOR);
-
-            config.append(formatCitizensArray(citizensMap)).append(RECORD_SEPARATOR);
-
-            config.append(PACKAGE_VERSION).append(FIELD_SEPARATOR).append(System.currentTimeMillis());
-
-            logger.info("Machine configuration string generated for mesa {} - {} citizens, {} candidates",
-                    mesaId, citizensMap.size(), candidatesMap.size());
-
-            logger.info("Election {} includes voting schedule restrictions", electionId);
-
-            return config.toString();
+            return configuration;
 
         } catch (Exception e) {
             logger.error("Error generating machine configuration string for mesa {} and election {}", mesaId, electionId, e);
@@ -171,47 +151,22 @@ public class VotingManagerImpl implements ConfigurationService {
         logger.info("Generating batch machine configuration strings for {} mesas and election {}", mesaIds.size(), electionId);
 
         try {
-            // 1. Get election info and candidates once (they're the same for all machines)
-            Map<String, Object> electionInfoMap = connectionDB.getElectionInfo(electionId);
-            if (electionInfoMap == null) {
+            if (packageStore.getVersion(electionId) == null) {
                 logger.error("Election {} not found", electionId);
                 return new String[]{createErrorString("Election not found")};
             }
 
-            List<Map<String, Object>> candidatesMap = connectionDB.getCandidatesByElection(electionId);
-
-            // Convert to formatted strings once
-            String electionInfoString = formatElectionInfoString(electionInfoMap);
-            String candidatesString = formatCandidatesArray(candidatesMap);
+            // Only the missing packages hit the database, in batches
+            packageStore.prepare(mesaIds, electionId);
 
-            // 2. Get citizens for all mesas in batch (optimized query)
-            Map<Integer, List<Map<String, Object>>> citizensByMesa = connectionDB.getCitizensByMesaBatch(mesaIds);
-
-            // 3. Generate configuration strings for each mesa
             List<String> batchConfigurations = new ArrayList<>();
             for (Integer mesaId : mesaIds) {
-                try {
-                    Map<String, Object> mesaInfoMap = connectionDB.getMesaConfiguration(mesaId);
-                    if (mesaInfoMap == null) {
-                        logger.warn("Mesa {} not found, skipping", mesaId);
-                        continue;
-                    }
-
-                    List<Map<String, Object>> assignedCitizensMap = citizensByMesa.getOrDefault(mesaId, new ArrayList<>());
-
-                    // Build configuration string
-                    StringBuilder config = new StringBuilder();
-                    config.append(formatMesaInfoString(mesaInfoMap)).append(RECORD_SEPARATOR);
-                    config.append(electionInfoString).append(RECORD_SEPARATOR);
-                    config.append(candidatesString).append(RECORD_SEPARATOR);
-                    config.append(formatCitizensArray(assignedCitizensMap)).append(RECORD_SEPARATOR);
-                    config.append(PACKAGE_VERSION).append(FIELD_SEPARATOR).append(System.currentTimeMillis());
-
-                    batchConfigurations.add(config.toString());
-
-                } catch (Exception e) {
-                    logger.error("Error generating configuration string for mesa {} in batch", mesaId, e);
+                String configuration = packageStore.get(mesaId, electionId);
+                if (configuration == null) {
+                    logger.warn("Mesa {} not found, skipping", mesaId);
+                    continue;
                 }
+                batchConfigurations.add(configuration);
             }
 
             logger.info("Batch configuration strings generated for {} mesas successfully", batchConfigurations.size());
@@ -223,6 +178,85 @@ public class VotingManagerImpl implements ConfigurationService {
         }
     }
 
+    /**
+     * Pre-builds the packages of the given mesas so later sends read them from the store.
+     */
+    public int prepareConfigurationPackages(List<Integer> mesaIds, int electionId) {
+        return packageStore.prepare(mesaIds, electionId);
+    }
+
+    /**
+     * Forces the next package lookup to re-check the election version and every mesa fingerprint.
+     */
+    public void invalidateConfigurationPackages(int electionId) {
+        packageStore.invalidate(electionId);
+    }
+
+    /**
+     * Drops the stored packages of a mesa, e.g. after its citizens were reassigned.
+     */
+    public void invalidateMesaConfiguration(int mesaId) {
+        packageStore.evict(mesaId);
+    }
+
+    /**
+     * Deflate-compressed package as stored, for chunked transfers; null if the mesa or election does not exist.
+     */
+    public byte[] getCompressedConfiguration(int mesaId, int electionId) {
+        return packageStore.getCompressed(mesaId, electionId);
+    }
+
+    public String getConfigurationPackageStats() {
+        return packageStore.getStats();
+    }
+
+    // Sections shared by every mesa of the election: {election, candidates}
+    private String[] loadElectionSections(int electionId) {
+        Map<String, Object> electionInfoMap = connectionDB.getElectionInfo(electionId);
+        if (electionInfoMap == null) {
+            return null;
+        }
+        List<Map<String, Object>> candidatesMap = connectionDB.getCandidatesByElection(electionId);
+        return new String[]{formatElectionInfoString(electionInfoMap), formatCandidatesArray(candidatesMap)};
+    }
+
+    private void renderPackages(List<Integer> mesaIds, String[] electionSections, BiConsumer<Integer, CharSequence> sink) {
+        int rendered = 0;
+        Map<Integer, List<Map<String, Object>>> citizensByMesa = connectionDB.getCitizensByMesaBatch(mesaIds);
+
+        for (Integer mesaId : mesaIds) {
+            try {
+                Map<String, Object> mesaInfoMap = connectionDB.getMesaConfiguration(mesaId);
+                if (mesaInfoMap == null) {
+                    continue;
+                }
+
+                List<Map<String, Object>> citizensMap = citizensByMesa.getOrDefault(mesaId, new ArrayList<>());
+                Object expectedCitizens = mesaInfoMap.get("total_ciudadanos");
+                if (citizensMap.isEmpty() && expectedCitizens instanceof Number && ((Number) expectedCitizens).intValue() > 0) {
+                    // The batch query failed; an empty package must not be stored for this version
+                    logger.warn("No citizens loaded for mesa {} (expected {}), package not generated", mesaId, expectedCitizens);
+                    continue;
+                }
+
+                StringBuilder config = new StringBuilder(128 + 48 * citizensMap.size());
+                config.append(formatMesaInfoString(mesaInfoMap)).append(RECORD_SEPARATOR);
+                config.append(electionSections[0]).append(RECORD_SEPARATOR);
+                config.append(electionSections[1]).append(RECORD_SEPARATOR);
+                config.append(formatCitizensArray(citizensMap)).append(RECORD_SEPARATOR);
+                config.append(PACKAGE_VERSION).append(FIELD_SEPARATOR).append(System.currentTimeMillis());
+
+                sink.accept(mesaId, config);
+                rendered++;
+
+            } catch (Exception e) {
+                logger.error("Error generating configuration string for mesa {} in batch", mesaId, e);
+            }
+        }
+
+        logger.info("Rendered {} configuration packages ({} requested)", rendered, mesaIds.size());
+    }
+
     public String[] generateDepartmentConfigurationStrings(int departmentId, int electionId) {
         logger.info("Generating configuration strings for department {} and election {}", departmentId, electionId);
 
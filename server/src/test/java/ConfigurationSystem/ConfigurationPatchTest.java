@@ -0,0 +1,164 @@
+package ConfigurationSystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationPatchTest {
+
+    private static final String MESA = "12-Colegio San José-Cali";
+    private static final String ELECTION = "1-Presidencial 2026-ACTIVE";
+    private static final String CANDIDATES = "1-Ana Gómez-Partido A|2-Luis Peña-Partido B";
+
+    // Documentos distintos con el mismo FNV-1a de 32 bits, que es el hash del índice de ciudadanos
+    private static final String COLLIDING_A = "1000214246";
+    private static final String COLLIDING_B = "1001155780";
+
+    @Test
+    void sinCambiosNoLlevaSecciones() {
+        String config = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Díaz");
+        ConfigurationPatch.Snapshot snapshot = ConfigurationPatch.snapshot(config);
+
+        String data = ConfigurationPatch.diff(snapshot, ConfigurationPatch.snapshot(config), config);
+        assertTrue(ConfigurationPatch.isPatch(data));
+
+        ConfigurationPatch.Patch patch = ConfigurationPatch.parse(data);
+        assertEquals(snapshot.getVector(), patch.getBaseVector());
+        assertEquals(snapshot.getVector(), patch.getTargetVector());
+        assertNull(patch.getSection(ConfigurationPatch.MESA));
+        assertNull(patch.getSection(ConfigurationPatch.ELECTION));
+        assertNull(patch.getSection(ConfigurationPatch.CANDIDATES));
+        assertFalse(patch.hasCitizenChanges());
+        assertEquals("meta", patch.getMetadata());
+    }
+
+    @Test
+    void llevaSoloLasSeccionesQueCambiaron() {
+        String base = configuration(CANDIDATES, "1:100:Ana:Ruiz");
+        String candidates = CANDIDATES + "|3-Marta Ñúñez-Partido C";
+        String target = configuration(candidates, "1:100:Ana:Ruiz");
+
+        ConfigurationPatch.Patch patch = ConfigurationPatch.parse(ConfigurationPatch.diff(
+                ConfigurationPatch.snapshot(base), ConfigurationPatch.snapshot(target), target));
+
+        assertNull(patch.getSection(ConfigurationPatch.MESA));
+        assertNull(patch.getSection(ConfigurationPatch.ELECTION));
+        assertEquals(candidates, patch.getSection(ConfigurationPatch.CANDIDATES));
+        assertFalse(patch.hasCitizenChanges());
+        assertNotEquals(patch.getBaseVector(), patch.getTargetVector());
+    }
+
+    @Test
+    void alAplicarloLosCiudadanosQuedanComoEnElDestino() {
+        String base = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Díaz|3:300:Eva:Mora");
+        String target = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Juan:Díaz Pérez|4:400:Leo:Vera");
+
+        ConfigurationPatch.Patch patch = ConfigurationPatch.parse(ConfigurationPatch.diff(
+                ConfigurationPatch.snapshot(base), ConfigurationPatch.snapshot(target), target));
+
+        assertEquals(Arrays.asList("2:200:Juan:Díaz Pérez", "4:400:Leo:Vera"), patch.getCitizenUpserts());
+        assertEquals(Collections.singleton("300"), patch.getCitizenRemovals());
+        assertEquals(citizens(target), apply(citizens(base), patch));
+    }
+
+    @Test
+    void documentosConElMismoHashNoSeConfunden() {
+        String a = "1:" + COLLIDING_A + ":Ana:Ruiz";
+        String b = "2:" + COLLIDING_B + ":Juan:Díaz";
+        String base = configuration(CANDIDATES, a + "|" + b);
+
+        // Se elimina uno de los dos: la baja es ese documento y el otro no se toca
+        String removed = configuration(CANDIDATES, b);
+        ConfigurationPatch.Patch removal = ConfigurationPatch.parse(ConfigurationPatch.diff(
+                ConfigurationPatch.snapshot(base), ConfigurationPatch.snapshot(removed), removed));
+        assertEquals(Collections.singleton(COLLIDING_A), removal.getCitizenRemovals());
+        assertTrue(removal.getCitizenUpserts().isEmpty());
+        assertEquals(citizens(removed), apply(citizens(base), removal));
+
+        // Se modifica uno de los dos: solo ese viaja como alta
+        String changed = "2:" + COLLIDING_B + ":Juan:Díaz Pérez";
+        String modified = configuration(CANDIDATES, a + "|" + changed);
+        ConfigurationPatch.Patch modification = ConfigurationPatch.parse(ConfigurationPatch.diff(
+                ConfigurationPatch.snapshot(base), ConfigurationPatch.snapshot(modified), modified));
+        assertEquals(Collections.singletonList(changed), modification.getCitizenUpserts());
+        assertTrue(modification.getCitizenRemovals().isEmpty());
+        assertEquals(citizens(modified), apply(citizens(base), modification));
+    }
+
+    @Test
+    void elVectorPorStreamingCoincideConElCompleto() {
+        String config = configuration(CANDIDATES, "1:100:Ana:Ruiz|2:200:Begoña:Díaz|3:300:Zoë:😀");
+
+        ConfigurationPatch.VectorBuilder fromBytes = new ConfigurationPatch.VectorBuilder();
+        ConfigurationPatch.VectorBuilder fromText = new ConfigurationPatch.VectorBuilder();
+        for (String section : config.split("#", -1)) {
+            byte[] bytes = section.getBytes(StandardCharsets.UTF_8);
+            // En dos partes, como llega por bloques
+            fromBytes.update(bytes, 0, bytes.length / 2);
+            fromBytes.update(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+            fromBytes.nextSection();
+            fromText.update(section, 0, section.length());
+            fromText.nextSection();
+        }
+
+        assertEquals(ConfigurationPatch.vectorOf(config), fromBytes.getVector());
+        assertEquals(ConfigurationPatch.vectorOf(config), fromText.getVector());
+    }
+
+    @Test
+    void elVectorDelPaqueteComprimidoCoincideConElDelTexto() {
+        StringBuilder citizens = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            // Varios bloques de descompresión, con caracteres de varios bytes en los bordes
+            citizens.append(i == 0 ? "" : "|").append(i).append(':').append(1_000_000 + i).append(":Begoña:Zoë😀");
+        }
+        String config = configuration(CANDIDATES, citizens.toString());
+
+        assertEquals(ConfigurationPatch.vectorOf(config), ConfigurationPatch.vectorOf(ConfigurationCodec.deflate(config)));
+        assertNull(ConfigurationPatch.vectorOf(ConfigurationCodec.deflate("solo#dos")));
+    }
+
+    @Test
+    void rechazaFormatosInvalidos() {
+        assertNull(ConfigurationPatch.snapshot("solo#dos"));
+        assertFalse(ConfigurationPatch.isPatch(configuration(CANDIDATES, "")));
+        assertThrows(IllegalArgumentException.class, () -> ConfigurationPatch.parse("PATCH#a#b"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigurationPatch.parse("OTRO#a#b#=#=#=###meta"));
+    }
+
+    private static String configuration(String candidates, String citizens) {
+        return MESA + "#" + ELECTION + "#" + candidates + "#" + citizens + "#meta";
+    }
+
+    private static Map<String, String> citizens(String configuration) {
+        Map<String, String> byDocument = new LinkedHashMap<>();
+        String section = configuration.split("#", -1)[ConfigurationPatch.CITIZENS];
+        if (!section.isEmpty()) {
+            for (String record : section.split("\\|")) {
+                byDocument.put(ConfigurationPatch.documentOf(record), record);
+            }
+        }
+        return byDocument;
+    }
+
+    /** Igual que la mesa: se quitan las bajas y se agregan o reemplazan las altas por documento. */
+    private static Map<String, String> apply(Map<String, String> citizens, ConfigurationPatch.Patch patch) {
+        Map<String, String> result = new LinkedHashMap<>(citizens);
+        result.keySet().removeAll(patch.getCitizenRemovals());
+        for (String record : patch.getCitizenUpserts()) {
+            result.put(ConfigurationPatch.documentOf(record), record);
+        }
+        return result;
+    }
+}
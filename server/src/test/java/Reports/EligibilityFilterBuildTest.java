@@ -0,0 +1,171 @@
+package Reports;
+
+import ConnectionDB.ConnectionDBinterface;
+import ReportsSystem.EligibilityFilter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EligibilityFilterBuildTest {
+
+    private static final int CITIZENS = 20_000;
+
+    @Test
+    void noTieneFalsosNegativosYConservaSuTasaDeFalsosPositivos() {
+        EligibilityFilter filter = EligibilityFilter.create(CITIZENS, 0.01);
+        for (String documento : documentos(CITIZENS)) {
+            filter.add(documento);
+        }
+
+        for (String documento : documentos(CITIZENS)) {
+            assertTrue(filter.mightContain(documento), documento);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < CITIZENS; i++) {
+            if (filter.mightContain("X" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < CITIZENS * 0.02, "falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void sobreviveLaSerializacion() {
+        EligibilityFilter filter = EligibilityFilter.create(100, 0.01);
+        for (String documento : documentos(100)) {
+            filter.add(documento);
+        }
+
+        byte[] bytes = filter.toBytes();
+        EligibilityFilter copy = EligibilityFilter.fromBytes(bytes);
+
+        assertEquals(100, copy.getEntries());
+        assertEquals(filter.getCreatedAt(), copy.getCreatedAt());
+        assertArrayEquals(bytes, copy.toBytes());
+        for (String documento : documentos(100)) {
+            assertTrue(copy.mightContain(documento));
+        }
+        assertThrows(IllegalArgumentException.class, () -> EligibilityFilter.fromBytes(new byte[8]));
+    }
+
+    @Test
+    void elServidorConstruyeElFiltroDesdeElCursor() throws Exception {
+        FakeCitizens db = new FakeCitizens(CITIZENS);
+        ReportsManagerImpl reports = new ReportsManagerImpl(db.proxy());
+
+        byte[] bytes = reports.getEligibilityFilterAsync(null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        EligibilityFilter filter = EligibilityFilter.fromBytes(bytes);
+
+        assertEquals(CITIZENS, filter.getEntries());
+        for (String documento : documentos(CITIZENS)) {
+            assertTrue(filter.mightContain(documento));
+        }
+        // Recién construido: se responde con el mismo filtro sin volver a la BD
+        assertSame(bytes, reports.getEligibilityFilterAsync(null).toCompletableFuture().get());
+        assertEquals(1, db.scans);
+    }
+
+    @Test
+    void unRecorridoCortadoNoSePublica() throws Exception {
+        FakeCitizens db = new FakeCitizens(CITIZENS);
+        db.failAfter = CITIZENS / 2;
+        ReportsManagerImpl reports = new ReportsManagerImpl(db.proxy());
+
+        // Sin filtro anterior se envía uno vacío, que el proxy ignora
+        byte[] first = reports.getEligibilityFilterAsync(null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(0, first.length);
+
+        db.failAfter = -1;
+        byte[] complete = reports.getEligibilityFilterAsync(null).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(CITIZENS, EligibilityFilter.fromBytes(complete).getEntries());
+
+        // Vencido el filtro, una reconstrucción fallida deja publicado el anterior completo
+        setField(reports, "eligibilityFilterBuiltAt", 0L);
+        db.failAfter = 10;
+        assertSame(complete, reports.getEligibilityFilterAsync(null).toCompletableFuture().get());
+        awaitBuild(reports);
+
+        assertSame(complete, reports.getEligibilityFilterAsync(null).toCompletableFuture().get());
+        assertEquals(3, db.scans);
+    }
+
+    private static List<String> documentos(int count) {
+        List<String> documentos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documentos.add(String.valueOf(1_000_000_000L + i * 7919L));
+        }
+        return documentos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void awaitBuild(ReportsManagerImpl reports) throws Exception {
+        Field field = ReportsManagerImpl.class.getDeclaredField("eligibilityFilterBuild");
+        field.setAccessible(true);
+        CompletableFuture<byte[]> build = ((AtomicReference<CompletableFuture<byte[]>>) field.get(reports)).get();
+        if (build != null) {
+            build.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * BD de prueba: solo responde el conteo y el cursor de documentos habilitados, que puede
+     * fallar a mitad del recorrido.
+     */
+    private static class FakeCitizens {
+        final int count;
+        volatile int failAfter = -1;
+        volatile int scans;
+
+        FakeCitizens(int count) {
+            this.count = count;
+        }
+
+        @SuppressWarnings("unchecked")
+        ConnectionDBinterface proxy() {
+            return (ConnectionDBinterface) Proxy.newProxyInstance(ConnectionDBinterface.class.getClassLoader(),
+                    new Class<?>[]{ConnectionDBinterface.class}, (self, method, args) -> {
+                        switch (method.getName()) {
+                            case "countEligibleCitizens":
+                                return count;
+                            case "forEachEligibleDocument":
+                                return scan((Consumer<String>) args[0]);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private int scan(Consumer<String> consumer) throws SQLException {
+            scans++;
+            List<String> documentos = documentos(count);
+            for (int i = 0; i < documentos.size(); i++) {
+                if (i == failAfter) {
+                    throw new SQLException("conexión cerrada");
+                }
+                consumer.accept(documentos.get(i));
+            }
+            return documentos.size();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package Reports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultsStreamTest {
+
+    private static final int ELECTION = 1;
+    // Ventana larga: los deltas se cierran solo con flush() explícito
+    private static final long MANUAL_WINDOW_MS = 3_600_000;
+
+    private final FakeVotes db = new FakeVotes();
+    private final ResultsStream stream = new ResultsStream();
+    // Observers registrados junto con su snapshot, como ReportsManagerImpl con los proxies
+    private final List<Consumer<VoteDeltaPublisher.Delta>> observers = new CopyOnWriteArrayList<>();
+    private final VoteDeltaPublisher publisher = new VoteDeltaPublisher(MANUAL_WINDOW_MS, this::deliver);
+
+    ResultsStreamTest() {
+        stream.setLoader(db::open);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void unVotoGuardadoAntesDelSnapshotYRegistradoDespuesSeCuentaUnaVez() throws Exception {
+        CountDownLatch stored = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // El voto queda guardado en la base pero todavía sin registrar en la ventana
+        Thread voter = new Thread(() -> stream.commit(() -> {
+            db.store("Ana");
+            stored.countDown();
+            await(release);
+        }, () -> publisher.record(ELECTION, "Ana", "mesa-1")));
+        voter.start();
+        assertTrue(stored.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<String> snapshot = new AtomicReference<>();
+        Thread observer = new Thread(() -> stream.snapshot(ELECTION, publisher, snapshot::set));
+        observer.start();
+
+        // La lectura no se fija mientras un voto está entre la base y la ventana
+        observer.join(200);
+        assertTrue(observer.isAlive());
+
+        release.countDown();
+        voter.join(5000);
+        observer.join(5000);
+
+        // El voto está en la ventana abierta: no entra en el snapshot N sino en el delta N+1
+        assertEquals(0, version(snapshot.get()));
+        assertEquals(0, total(snapshot.get()));
+        publisher.flush();
+        assertEquals(1, stream.getVersion(ELECTION));
+        assertEquals(1, stream.getTotal(ELECTION));
+    }
+
+    @Test
+    void unVotoGuardadoDuranteLaLecturaNoLaAfecta() {
+        vote("Ana");
+        publisher.flush();
+        vote("Luis");
+
+        // Mientras se lee la base llega un voto más y se publica su delta
+        db.duringRead = () -> {
+            vote("Ana");
+            publisher.flush();
+        };
+        AtomicReference<String> snapshot = new AtomicReference<>();
+        stream.snapshot(ELECTION, publisher, snapshot::set);
+
+        assertEquals(3, total(snapshot.get()));
+        assertEquals(2, version(snapshot.get()));
+        assertEquals(Map.of("Ana", 2L, "Luis", 1L), counts(snapshot.get()));
+    }
+
+    @Test
+    void despuesDelSnapshotNLlegaPrimeroElDeltaNMasUno() {
+        vote("Ana");
+        vote("Ana");
+        publisher.flush();
+        vote("Luis");
+
+        Observer observer = register();
+
+        // El voto de Luis estaba en la ventana abierta: no va en el snapshot sino en el delta 2
+        assertEquals(1, version(observer.snapshot));
+        assertEquals(2, total(observer.snapshot));
+        assertEquals(2L, counts(observer.snapshot).get("Ana"));
+        publisher.flush();
+        vote("Luis");
+        publisher.flush();
+
+        assertEquals(List.of(2L, 3L), observer.sequences());
+        assertEquals(db.size(), total(observer.snapshot) + observer.deltaTotal());
+    }
+
+    @Test
+    void unObserverQueLlegaConLosVotosEnCursoNoPierdeNiRepiteVotos() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> voters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String candidate = i % 2 == 0 ? "Ana" : "Luis";
+            Thread voter = new Thread(() -> {
+                while (running.get()) {
+                    vote(candidate);
+                }
+            });
+            voter.start();
+            voters.add(voter);
+        }
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                publisher.flush();
+                Thread.yield();
+            }
+        });
+        flusher.start();
+
+        Thread.sleep(20);
+        Observer observer = register();
+        Thread.sleep(20);
+
+        running.set(false);
+        for (Thread voter : voters) {
+            voter.join(5000);
+        }
+        flusher.join(5000);
+        publisher.flush();
+
+        // Deltas consecutivos desde el siguiente al snapshot y, entre todo, cada voto una vez
+        List<Long> sequences = observer.sequences();
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(version(observer.snapshot) + 1 + i, sequences.get(i));
+        }
+        assertEquals(db.size(), total(observer.snapshot) + observer.deltaTotal());
+        assertEquals(db.size(), stream.getTotal(ELECTION));
+    }
+
+    @Test
+    void losDeltasPublicadosDuranteLaLecturaAvanzanLaVersion() {
+        vote("Ana");
+        publisher.flush();
+
+        db.duringRead = () -> {
+            vote("Luis");
+            publisher.flush();
+            vote("Luis");
+            publisher.flush();
+        };
+        Observer observer = register();
+
+        // La lectura vio un voto; los dos deltas de la lectura se suman y dejan el conteo en la versión 3
+        assertEquals(3, version(observer.snapshot));
+        assertEquals(Map.of("Ana", 1L, "Luis", 2L), counts(observer.snapshot));
+        assertEquals(List.of(), observer.sequences());
+
+        db.duringRead = null;
+        vote("Ana");
+        publisher.flush();
+        assertEquals(List.of(4L), observer.sequences());
+        assertEquals(4, stream.getTotal(ELECTION));
+    }
+
+    /** Entrega cada delta al conteo y después a los observers, como el sink de ReportsManagerImpl. */
+    private void deliver(VoteDeltaPublisher.Delta delta) {
+        stream.apply(delta);
+        for (Consumer<VoteDeltaPublisher.Delta> observer : observers) {
+            observer.accept(delta);
+        }
+    }
+
+    /** Toma el snapshot y registra el observer con el lock del publisher, antes del próximo delta. */
+    private Observer register() {
+        Observer observer = new Observer();
+        stream.snapshot(ELECTION, publisher, snapshot -> {
+            observer.snapshot = snapshot;
+            observers.add(observer);
+        });
+        return observer;
+    }
+
+    private void vote(String candidate) {
+        stream.commit(() -> db.store(candidate), () -> publisher.record(ELECTION, candidate, "mesa-1"));
+    }
+
+    static long version(String snapshot) {
+        return Long.parseLong(snapshot.split("#")[2]);
+    }
+
+    static long total(String snapshot) {
+        return Long.parseLong(snapshot.split("#")[4]);
+    }
+
+    static Map<String, Long> counts(String snapshot) {
+        Map<String, Long> counts = new HashMap<>();
+        String[] fields = snapshot.split("#", -1);
+        if (!fields[5].isEmpty()) {
+            for (String entry : fields[5].split(";")) {
+                String[] pair = entry.split("=");
+                counts.put(pair[0], Long.parseLong(pair[1]));
+            }
+        }
+        return counts;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class Observer implements Consumer<VoteDeltaPublisher.Delta> {
+        private final List<VoteDeltaPublisher.Delta> deltas = new CopyOnWriteArrayList<>();
+        volatile String snapshot;
+
+        @Override
+        public void accept(VoteDeltaPublisher.Delta delta) {
+            deltas.add(delta);
+        }
+
+        List<Long> sequences() {
+            List<Long> sequences = new ArrayList<>();
+            for (VoteDeltaPublisher.Delta delta : deltas) {
+                sequences.add(delta.getSequence());
+            }
+            return sequences;
+        }
+
+        long deltaTotal() {
+            long total = 0;
+            for (VoteDeltaPublisher.Delta delta : deltas) {
+                total += delta.getTotal();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Tabla de votos en memoria con lectura por snapshot: {@code open} fija los votos visibles, como
+     * la transacción REPEATABLE READ de ConnectionDB.openVotesPerCandidate.
+     */
+    static class FakeVotes {
+        private final List<String> votes = new ArrayList<>();
+        volatile Runnable duringRead;
+
+        synchronized void store(String candidate) {
+            votes.add(candidate);
+        }
+
+        synchronized int size() {
+            return votes.size();
+        }
+
+        java.util.function.Supplier<Map<String, Integer>> open(int electionId) {
+            List<String> visible;
+            synchronized (this) {
+                visible = new ArrayList<>(votes);
+            }
+            return () -> {
+                Runnable hook = duringRead;
+                if (hook != null) {
+                    hook.run();
+                }
+                Map<String, Integer> counts = new HashMap<>();
+                for (String candidate : visible) {
+                    counts.merge(candidate, 1, Integer::sum);
+                }
+                return counts;
+            };
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package Reports;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoteDeltaPublisherTest {
+
+    // Ventana larga: los deltas se cierran solo con flush() explícito
+    private static final long MANUAL_WINDOW_MS = 3_600_000;
+
+    private final List<VoteDeltaPublisher.Delta> published = new ArrayList<>();
+    private final VoteDeltaPublisher publisher = new VoteDeltaPublisher(MANUAL_WINDOW_MS, published::add);
+
+    @AfterEach
+    void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    void losVotosDeUnaVentanaSalenEnUnSoloDelta() {
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.record(1, "Ana", "mesa-2");
+        publisher.record(1, "Luis", "mesa-1");
+        publisher.flush();
+
+        assertEquals(1, published.size());
+        assertEquals(3, published.get(0).getTotal());
+        assertEquals(Map.of("Ana", 2, "Luis", 1), published.get(0).getByCandidate());
+    }
+
+    @Test
+    void laSecuenciaEsConsecutivaPorEleccion() {
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.flush();
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.record(2, "Luis", "mesa-1");
+        publisher.flush();
+        publisher.record(2, "Luis", "mesa-1");
+        publisher.flush();
+
+        assertEquals(List.of(1L, 2L), sequences(1));
+        assertEquals(List.of(1L, 2L), sequences(2));
+        assertEquals(2, publisher.getLastSequence(1));
+        assertEquals(0, publisher.getLastSequence(3));
+    }
+
+    @Test
+    void unaVentanaSinVotosNoPublicaNiAvanzaLaSecuencia() {
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.flush();
+        publisher.flush();
+        publisher.flush();
+
+        assertEquals(1, published.size());
+        assertEquals(1, publisher.getLastSequence(1));
+
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.flush();
+        assertEquals(List.of(1L, 2L), sequences(1));
+    }
+
+    @Test
+    void losVotosPendientesSonLosDeLaVentanaAbierta() {
+        publisher.record(1, "Ana", "mesa-1");
+        publisher.flush();
+        publisher.record(1, "Luis", "mesa-1");
+
+        assertEquals(Map.of("Luis", 1), publisher.getPendingByCandidate(1));
+        assertEquals(Map.of(), publisher.getPendingByCandidate(2));
+    }
+
+    @Test
+    void elDeltaCodificadoNoContieneSeparadoresEnLosNombres() {
+        publisher.record(7, "Ana#Maria", "mesa;1=2");
+        publisher.flush();
+
+        String[] fields = published.get(0).encode().split("#", -1);
+        assertEquals(5, fields.length);
+        assertEquals("7", fields[0]);
+        assertTrue(Long.parseLong(fields[1]) > 0);
+        assertEquals("1", fields[2]);
+        assertEquals("Ana Maria=1", fields[3]);
+        assertEquals("mesa 1 2=1", fields[4]);
+    }
+
+    @Test
+    void unCandidatoSinNombreSeCuentaComoDesconocido() {
+        publisher.record(1, null, "");
+        publisher.flush();
+
+        assertEquals(Map.of("desconocido", 1), published.get(0).getByCandidate());
+        assertTrue(published.get(0).encode().endsWith("#desconocido=1#desconocido=1"));
+    }
+
+    private List<Long> sequences(int electionId) {
+        List<Long> sequences = new ArrayList<>();
+        for (VoteDeltaPublisher.Delta delta : published) {
+            if (delta.getElectionId() == electionId) {
+                sequences.add(delta.getSequence());
+            }
+        }
+        return sequences;
+    }
+}
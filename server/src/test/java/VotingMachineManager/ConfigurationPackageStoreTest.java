@@ -0,0 +1,189 @@
+package VotingMachineManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationPackageStoreTest {
+
+    private static final int ELECTION = 1;
+    private static final long LONG_TTL_MS = 3_600_000;
+
+    @TempDir
+    Path directory;
+
+    // Estado de la "base de datos" que leen los hooks del almacén
+    private volatile String[] sections = {"eleccion-v1", "candidatos-v1"};
+    private final Map<Integer, String> fingerprints = new ConcurrentHashMap<>(Map.of(10, "a", 11, "a", 12, "a"));
+    private volatile boolean fingerprintsUnavailable;
+    private volatile Runnable afterRender;
+    private final Map<Integer, AtomicInteger> renders = new ConcurrentHashMap<>();
+
+    private ConfigurationPackageStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void cadaPaqueteSeGeneraUnaVezPorVersion() {
+        store = newStore(LONG_TTL_MS);
+
+        assertEquals("eleccion-v1|mesa 10|a", store.get(10, ELECTION));
+        assertEquals("eleccion-v1|mesa 10|a", store.get(10, ELECTION));
+
+        assertEquals(1, renders(10));
+        assertTrue(store.getStats().contains("1 generados, 1 servidos desde el almacén"), store.getStats());
+    }
+
+    @Test
+    void unaMesaOEleccionQueNoExisteNoTienePaquete() {
+        store = newStore(LONG_TTL_MS);
+
+        assertNull(store.get(99, ELECTION));
+        sections = null;
+        assertNull(store.get(10, 2));
+        assertNull(store.getVersion(2));
+    }
+
+    @Test
+    void prepareGeneraSoloLasMesasQueFaltan() {
+        store = newStore(LONG_TTL_MS);
+        store.get(10, ELECTION);
+
+        assertEquals(3, store.prepare(List.of(10, 11, 12, 99), ELECTION));
+
+        assertEquals(1, renders(10));
+        assertEquals(1, renders(11));
+        assertEquals(1, renders(12));
+    }
+
+    @Test
+    void alCambiarLaVersionSeRetiraLaGeneracionAnterior() throws IOException {
+        store = newStore(LONG_TTL_MS);
+        store.get(10, ELECTION);
+        String oldVersion = store.getVersion(ELECTION);
+        List<Path> oldFiles = files();
+        assertEquals(1, oldFiles.size());
+
+        // Sin invalidar, dentro del TTL se sigue usando la versión revisada
+        sections = new String[]{"eleccion-v2", "candidatos-v1"};
+        assertEquals("eleccion-v1|mesa 10|a", store.get(10, ELECTION));
+
+        store.invalidate(ELECTION);
+        assertEquals("eleccion-v2|mesa 10|a", store.get(10, ELECTION));
+
+        String newVersion = store.getVersion(ELECTION);
+        assertNotEquals(oldVersion, newVersion);
+        assertEquals(2, renders(10));
+        List<Path> newFiles = files();
+        assertEquals(1, newFiles.size());
+        assertFalse(Files.exists(oldFiles.get(0)));
+        assertTrue(store.getStats().contains("versión " + newVersion + ": 1 mesas"), store.getStats());
+        assertFalse(store.getStats().contains(oldVersion), store.getStats());
+    }
+
+    @Test
+    void unaHuellaDistintaDescartaElPaquete() {
+        store = newStore(0);
+        store.get(10, ELECTION);
+
+        // TTL vencido pero la mesa no cambió: se revalida sin volver a generar
+        assertEquals("eleccion-v1|mesa 10|a", store.get(10, ELECTION));
+        assertEquals(1, renders(10));
+
+        fingerprints.put(10, "b");
+        assertEquals("eleccion-v1|mesa 10|b", store.get(10, ELECTION));
+        assertEquals(2, renders(10));
+        assertTrue(store.getStats().contains("1 descartados por cambios de la mesa"), store.getStats());
+    }
+
+    @Test
+    void siLaHuellaNoSePuedeLeerSeConservaElPaquete() {
+        store = newStore(0);
+        store.get(10, ELECTION);
+
+        fingerprintsUnavailable = true;
+        fingerprints.put(10, "b");
+        assertEquals("eleccion-v1|mesa 10|a", store.get(10, ELECTION));
+        assertEquals(1, renders(10));
+    }
+
+    @Test
+    void evictVuelveAGenerarElPaquete() {
+        store = newStore(LONG_TTL_MS);
+        store.get(10, ELECTION);
+        fingerprints.put(10, "b");
+
+        store.evict(10);
+
+        assertEquals("eleccion-v1|mesa 10|b", store.get(10, ELECTION));
+        assertEquals(2, renders(10));
+    }
+
+    @Test
+    void unaLecturaDeUnaVersionRetiradaSeReintentaEnLaNueva() {
+        store = newStore(LONG_TTL_MS);
+
+        // Apenas se guarda el paquete en la versión 1, otra llamada detecta la versión 2 y la retira
+        afterRender = () -> {
+            afterRender = null;
+            sections = new String[]{"eleccion-v2", "candidatos-v1"};
+            store.invalidate(ELECTION);
+            store.getVersion(ELECTION);
+        };
+
+        assertEquals("eleccion-v2|mesa 10|a", store.get(10, ELECTION));
+        assertEquals(2, renders(10));
+    }
+
+    private ConfigurationPackageStore newStore(long ttlMs) {
+        return new ConfigurationPackageStore(directory, ttlMs,
+                electionId -> electionId == ELECTION && sections != null ? sections.clone() : null,
+                mesaIds -> fingerprintsUnavailable ? null
+                        : mesaIds.stream().filter(fingerprints::containsKey)
+                                .collect(Collectors.toMap(id -> id, fingerprints::get)),
+                (mesaIds, current, sink) -> {
+                    for (Integer mesaId : mesaIds) {
+                        if (fingerprints.containsKey(mesaId)) {
+                            renders.computeIfAbsent(mesaId, k -> new AtomicInteger()).incrementAndGet();
+                            sink.accept(mesaId, current[0] + "|mesa " + mesaId + "|" + fingerprints.get(mesaId));
+                        }
+                    }
+                    Runnable hook = afterRender;
+                    if (hook != null) {
+                        hook.run();
+                    }
+                });
+    }
+
+    private int renders(int mesaId) {
+        AtomicInteger count = renders.get(mesaId);
+        return count != null ? count.get() : 0;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
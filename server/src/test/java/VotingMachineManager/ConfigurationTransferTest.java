@@ -0,0 +1,232 @@
+package VotingMachineManager;
+
+import ConfigurationSystem.ConfigurationReceiverPrx;
+import com.zeroc.Ice.ConnectionLostException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationTransferTest {
+
+    private static final int MESA = 12;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Test
+    void transfiereElPaqueteEnBloques() throws Exception {
+        byte[] data = randomBytes(10 * CHUNK_SIZE + 123);
+        FakeMesa mesa = new FakeMesa();
+
+        assertTrue(send(new ConfigurationTransfer(CHUNK_SIZE), mesa, data));
+
+        assertArrayEquals(data, mesa.applied);
+        assertEquals(11, mesa.indexes.size());
+        assertTrue(mesa.largestChunk <= CHUNK_SIZE);
+    }
+
+    @Test
+    void reanudaDesdeElUltimoBloqueConfirmado() throws Exception {
+        byte[] data = randomBytes(10 * CHUNK_SIZE);
+        FakeMesa mesa = new FakeMesa();
+        ConfigurationTransfer transfer = new ConfigurationTransfer(CHUNK_SIZE);
+
+        mesa.dropAfter = 4;
+        ExecutionException lost = assertThrows(ExecutionException.class, () -> send(transfer, mesa, data));
+        assertTrue(lost.getCause() instanceof ConnectionLostException);
+        assertEquals(Arrays.asList(0, 1, 2, 3), mesa.indexes);
+
+        mesa.dropAfter = -1;
+        mesa.indexes.clear();
+        assertTrue(send(transfer, mesa, data));
+
+        assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9), mesa.indexes);
+        assertArrayEquals(data, mesa.applied);
+        assertTrue(transfer.getStats().contains("(1 reanudadas)"), transfer.getStats());
+    }
+
+    @Test
+    void otroPaqueteEmpiezaDeCero() throws Exception {
+        FakeMesa mesa = new FakeMesa();
+        ConfigurationTransfer transfer = new ConfigurationTransfer(CHUNK_SIZE);
+
+        mesa.dropAfter = 3;
+        assertThrows(ExecutionException.class, () -> send(transfer, mesa, randomBytes(5 * CHUNK_SIZE)));
+
+        mesa.dropAfter = -1;
+        mesa.indexes.clear();
+        byte[] newer = randomBytes(5 * CHUNK_SIZE + 1);
+        assertTrue(send(transfer, mesa, newer));
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), mesa.indexes);
+        assertArrayEquals(newer, mesa.applied);
+    }
+
+    @Test
+    void reenviaUnBloqueQueLlegoCorrupto() throws Exception {
+        byte[] data = randomBytes(4 * CHUNK_SIZE);
+        FakeMesa mesa = new FakeMesa();
+        ConfigurationTransfer transfer = new ConfigurationTransfer(CHUNK_SIZE);
+
+        mesa.corruptIndex = 2;
+        mesa.corruptTimes = 1;
+        assertTrue(send(transfer, mesa, data));
+
+        assertEquals(Arrays.asList(0, 1, 2, 2, 3), mesa.indexes);
+        assertArrayEquals(data, mesa.applied);
+        assertTrue(transfer.getStats().contains("1 reenviados"), transfer.getStats());
+    }
+
+    @Test
+    void desisteSiElBloqueSigueLlegandoCorrupto() throws Exception {
+        FakeMesa mesa = new FakeMesa();
+
+        mesa.corruptIndex = 1;
+        mesa.corruptTimes = Integer.MAX_VALUE;
+        assertFalse(send(new ConfigurationTransfer(CHUNK_SIZE), mesa, randomBytes(3 * CHUNK_SIZE)));
+
+        assertEquals(0, mesa.commits);
+        assertNull(mesa.applied);
+    }
+
+    private static boolean send(ConfigurationTransfer transfer, FakeMesa mesa, byte[] data) throws Exception {
+        return transfer.send(mesa.proxy(), MESA, data).get(10, TimeUnit.SECONDS);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Mesa en memoria con el mismo protocolo que ConfigurationReceiverImpl: guarda el progreso de
+     * cada transferencia (como su archivo .meta) y responde el siguiente bloque que espera. Puede
+     * cortar la conexión tras N bloques o recibir corrupto un bloque.
+     */
+    private static class FakeMesa {
+        final Map<String, Transfer> transfers = new HashMap<>();
+        final List<Integer> indexes = new ArrayList<>();
+        int dropAfter = -1;
+        int corruptIndex = -1;
+        int corruptTimes;
+        int largestChunk;
+        int commits;
+        byte[] applied;
+
+        private static class Transfer {
+            long totalBytes;
+            int chunkCount;
+            String sha256;
+            int received;
+            ByteArrayOutputStream part = new ByteArrayOutputStream();
+        }
+
+        ConfigurationReceiverPrx proxy() {
+            return (ConfigurationReceiverPrx) Proxy.newProxyInstance(ConfigurationReceiverPrx.class.getClassLoader(),
+                    new Class<?>[]{ConfigurationReceiverPrx.class}, (self, method, args) -> {
+                        switch (method.getName()) {
+                            case "beginConfigurationTransferAsync":
+                                return CompletableFuture.completedFuture(
+                                        begin((String) args[1], (Long) args[2], (Integer) args[3], (String) args[4]));
+                            case "sendConfigurationChunkAsync":
+                                return chunk((String) args[1], (Integer) args[2], (byte[]) args[3], (Integer) args[4]);
+                            case "commitConfigurationTransferAsync":
+                                return CompletableFuture.completedFuture(commit((String) args[1]));
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private int begin(String id, long totalBytes, int chunkCount, String sha256) {
+            Transfer existing = transfers.get(id);
+            if (existing != null && existing.totalBytes == totalBytes && existing.chunkCount == chunkCount
+                    && existing.sha256.equals(sha256)) {
+                return existing.received;
+            }
+            // Transferencia nueva: se descartan las incompletas
+            transfers.clear();
+            Transfer transfer = new Transfer();
+            transfer.totalBytes = totalBytes;
+            transfer.chunkCount = chunkCount;
+            transfer.sha256 = sha256;
+            transfers.put(id, transfer);
+            return 0;
+        }
+
+        private CompletableFuture<Integer> chunk(String id, int index, byte[] data, int crc32) {
+            CompletableFuture<Integer> reply = new CompletableFuture<>();
+            if (dropAfter >= 0 && indexes.size() >= dropAfter) {
+                reply.completeExceptionally(new ConnectionLostException());
+                return reply;
+            }
+            indexes.add(index);
+            largestChunk = Math.max(largestChunk, data.length);
+
+            Transfer transfer = transfers.get(id);
+            if (transfer == null) {
+                reply.complete(-1);
+                return reply;
+            }
+            if (index != transfer.received) {
+                reply.complete(transfer.received);
+                return reply;
+            }
+
+            byte[] arrived = data;
+            if (index == corruptIndex && corruptTimes > 0) {
+                corruptTimes--;
+                arrived = data.clone();
+                arrived[0] ^= 1;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(arrived, 0, arrived.length);
+            if ((int) crc.getValue() != crc32) {
+                reply.complete(transfer.received);
+                return reply;
+            }
+
+            transfer.part.write(arrived, 0, arrived.length);
+            transfer.received++;
+            reply.complete(transfer.received);
+            return reply;
+        }
+
+        private boolean commit(String id) throws Exception {
+            commits++;
+            Transfer transfer = transfers.get(id);
+            if (transfer == null || transfer.received != transfer.chunkCount) {
+                return false;
+            }
+            byte[] data = transfer.part.toByteArray();
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            transfers.remove(id);
+            if (!hex.toString().equals(transfer.sha256)) {
+                return false;
+            }
+            applied = data;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package VotingMachineManager;
+
+import ConfigurationSystem.ConfigurationReceiverPrx;
+import com.zeroc.Ice.Communicator;
+import com.zeroc.Ice.ConnectionRefusedException;
+import com.zeroc.Ice.Util;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MesaBroadcasterTest {
+
+    private static final long BASE_BACKOFF_MS = 500;
+
+    // Solo para crear los proxies: las llamadas las responde la función de cada test
+    private final Communicator communicator = Util.initialize();
+
+    @AfterEach
+    void tearDown() {
+        communicator.destroy();
+    }
+
+    @Test
+    void noHayMasLlamadasEnCursoQueElParalelismo() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator, 4, 1);
+
+        MesaBroadcaster.Progress progress = broadcast(broadcaster, mesas(40), (mesa, receiver) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return true;
+            }, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS));
+        });
+
+        assertEquals(4, maxInFlight.get());
+        assertEquals(40, progress.getSucceeded());
+        assertEquals(0, progress.getFailed());
+    }
+
+    @Test
+    void unaMesaQueFallaSeReintentaConBackoff() throws Exception {
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator, 8, 3);
+
+        long start = System.currentTimeMillis();
+        MesaBroadcaster.Progress progress = broadcast(broadcaster, mesas(3), (mesa, receiver) -> {
+            int attempt = attempts.computeIfAbsent(mesa.getId(), k -> new AtomicInteger()).incrementAndGet();
+            if (mesa.getId() != 2 || attempt == 3) {
+                return CompletableFuture.completedFuture(true);
+            }
+            // Primero falla la llamada y después la mesa rechaza la operación
+            return attempt == 1 ? CompletableFuture.failedFuture(new ConnectionRefusedException())
+                    : CompletableFuture.completedFuture(false);
+        });
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, attempts.get(2).get());
+        assertEquals(1, attempts.get(1).get());
+        assertEquals(3, progress.getSucceeded());
+        assertEquals(0, progress.getFailed());
+        assertTrue(progress.toString().contains("2 reintentos"), progress.toString());
+        // Esperas de 500 ms y 1000 ms, más el jitter
+        assertTrue(elapsed >= BASE_BACKOFF_MS * 3, "elapsed " + elapsed);
+    }
+
+    @Test
+    void unaMesaQueNoSeActualizaQuedaEnLasFallas() throws Exception {
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator, 8, 2);
+
+        MesaBroadcaster.Progress progress = broadcast(broadcaster, mesas(5), (mesa, receiver) -> {
+            attempts.computeIfAbsent(mesa.getId(), k -> new AtomicInteger()).incrementAndGet();
+            if (mesa.getId() == 4) {
+                throw new IllegalStateException("sin conexión");
+            }
+            return CompletableFuture.completedFuture(true);
+        });
+
+        assertEquals(2, attempts.get(4).get());
+        assertEquals(4, progress.getSucceeded());
+        assertEquals(1, progress.getFailed());
+        assertEquals(5, progress.getCompleted());
+        assertEquals(Map.of(4, "IllegalStateException: sin conexión"), progress.getFailures());
+        assertTrue(progress.toString().contains("1 reintentos"), progress.toString());
+    }
+
+    @Test
+    void terminaCuandoTodasLasMesasTerminan() throws Exception {
+        List<CompletableFuture<Boolean>> replies = Collections.synchronizedList(new ArrayList<>());
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator, 8, 1);
+
+        CompletableFuture<MesaBroadcaster.Progress> done = broadcaster.broadcast("prueba", mesas(3), (mesa, receiver) -> {
+            CompletableFuture<Boolean> reply = new CompletableFuture<>();
+            replies.add(reply);
+            return reply;
+        });
+
+        assertEquals(3, replies.size());
+        replies.get(0).complete(true);
+        replies.get(1).complete(false);
+        Thread.sleep(50);
+        assertFalse(done.isDone());
+        assertFalse(broadcaster.getLastProgress().isFinished());
+        assertTrue(broadcaster.getLastProgress().toString().contains("en curso"));
+
+        replies.get(2).complete(true);
+        MesaBroadcaster.Progress progress = done.get(10, TimeUnit.SECONDS);
+        assertSame(broadcaster.getLastProgress(), progress);
+        assertTrue(progress.isFinished());
+        assertEquals(2, progress.getSucceeded());
+        assertEquals(1, progress.getFailed());
+        assertEquals("la mesa rechazó la operación", progress.getFailures().get(2));
+    }
+
+    @Test
+    void sinMesasTerminaEnseguida() throws Exception {
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator);
+
+        CompletableFuture<MesaBroadcaster.Progress> done = broadcaster.broadcast("prueba", List.of(),
+                (mesa, receiver) -> CompletableFuture.completedFuture(true));
+
+        assertTrue(done.isDone());
+        assertTrue(done.get().isFinished());
+        assertEquals(0, done.get().getTotal());
+    }
+
+    @Test
+    void losReintentosUsanElMismoProxyDeLaMesa() throws Exception {
+        Set<ConfigurationReceiverPrx> receivers = ConcurrentHashMap.newKeySet();
+        AtomicInteger attempts = new AtomicInteger();
+        MesaBroadcaster broadcaster = new MesaBroadcaster(communicator, 1, 2);
+
+        broadcast(broadcaster, mesas(1), (mesa, receiver) -> {
+            receivers.add(receiver);
+            return CompletableFuture.completedFuture(attempts.incrementAndGet() == 2);
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, receivers.size());
+        assertSame(receivers.iterator().next(), broadcaster.receiverFor(mesas(1).get(0)));
+    }
+
+    private static MesaBroadcaster.Progress broadcast(MesaBroadcaster broadcaster, List<MesaConfigurationManager.MesaInfo> mesas,
+            BiFunction<MesaConfigurationManager.MesaInfo, ConfigurationReceiverPrx, CompletableFuture<Boolean>> call)
+            throws Exception {
+        MesaBroadcaster.Progress progress = broadcaster.broadcast("prueba", mesas, call).get(10, TimeUnit.SECONDS);
+        assertTrue(progress.isFinished());
+        assertEquals(mesas.size(), progress.getCompleted());
+        return progress;
+    }
+
+    private static List<MesaConfigurationManager.MesaInfo> mesas(int count) {
+        List<MesaConfigurationManager.MesaInfo> mesas = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            mesas.add(new MesaConfigurationManager.MesaInfo(id, "127.0.0.1", 10000 + id, "Mesa " + id, 1, true));
+        }
+        return mesas;
+    }
+}
@@ -0,0 +1,128 @@
+package ConfigurationSystem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Hash FNV-1a de 64 bits y compresión Deflate de los paquetes de configuración, compartidos por el
+ * servidor, el proxy regional y las mesas para que todos calculen lo mismo.
+ *
+ * El hash se calcula sobre los bytes UTF-8 del texto sin codificarlo a un arreglo.
+ */
+public final class ConfigurationCodec {
+
+    public static final long FNV64_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV64_PRIME = 0x100000001b3L;
+
+    private ConfigurationCodec() {
+    }
+
+    /** Recibe los bytes UTF-8 descomprimidos de un paquete, de a un bloque. */
+    public interface ChunkSink {
+        void accept(byte[] bytes, int offset, int length);
+    }
+
+    public static long fnv64(CharSequence text) {
+        return fnv64(FNV64_OFFSET, text, 0, text.length());
+    }
+
+    /** Versión en hexadecimal, como la usan los vectores de configuración. */
+    public static String fnv64Hex(CharSequence text) {
+        return Long.toHexString(fnv64(text));
+    }
+
+    /**
+     * Continúa el hash {@code h} con los bytes UTF-8 de {@code text[from, to)}.
+     */
+    public static long fnv64(long h, CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                h = (h ^ c) * FNV64_PRIME;
+            } else if (c < 0x800) {
+                h = (h ^ (0xc0 | (c >> 6))) * FNV64_PRIME;
+                h = (h ^ (0x80 | (c & 0x3f))) * FNV64_PRIME;
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                h = (h ^ (0xf0 | (cp >> 18))) * FNV64_PRIME;
+                h = (h ^ (0x80 | ((cp >> 12) & 0x3f))) * FNV64_PRIME;
+                h = (h ^ (0x80 | ((cp >> 6) & 0x3f))) * FNV64_PRIME;
+                h = (h ^ (0x80 | (cp & 0x3f))) * FNV64_PRIME;
+            } else if (Character.isSurrogate(c)) {
+                // Igual que String.getBytes: un surrogate suelto se codifica como '?'
+                h = (h ^ '?') * FNV64_PRIME;
+            } else {
+                h = (h ^ (0xe0 | (c >> 12))) * FNV64_PRIME;
+                h = (h ^ (0x80 | ((c >> 6) & 0x3f))) * FNV64_PRIME;
+                h = (h ^ (0x80 | (c & 0x3f))) * FNV64_PRIME;
+            }
+        }
+        return h;
+    }
+
+    /** Continúa el hash {@code h} con {@code bytes[offset, offset + length)}. */
+    public static long fnv64(long h, byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ (bytes[i] & 0xff)) * FNV64_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Comprime el texto (UTF-8) con Deflate a medida que se codifica, sin armar antes el arreglo
+     * de bytes completo.
+     */
+    public static byte[] deflate(CharSequence text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() / 4 + 64);
+            try (Writer writer = new OutputStreamWriter(new DeflaterOutputStream(out, deflater, 8192), StandardCharsets.UTF_8)) {
+                writer.append(text);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream no lanza IOException
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Descomprime un paquete generado con {@link #deflate}. */
+    public static String inflate(byte[] compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+        inflate(compressed, out::write);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Descomprime un paquete generado con {@link #deflate} y entrega los bytes por bloques, sin
+     * armar el texto completo.
+     */
+    public static void inflate(byte[] compressed, ChunkSink sink) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Paquete de configuración comprimido incompleto");
+                }
+                sink.accept(buffer, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Paquete de configuración corrupto", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
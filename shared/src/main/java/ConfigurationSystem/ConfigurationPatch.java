@@ -0,0 +1,305 @@
+package ConfigurationSystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuración de mesa versionada por secciones, compartida por el servidor (que calcula los
+ * parches) y las mesas (que los aplican).
+ *
+ * La configuración completa es mesa#eleccion#candidatos#ciudadanos#metadata. Su vector de versión
+ * son los hashes de las cuatro primeras secciones. Un parche lleva el vector sobre el que se
+ * calculó y el resultante, las secciones que cambiaron (o "=" si no cambiaron) y, para los
+ * ciudadanos, solo los registros nuevos o modificados y los documentos eliminados:
+ *
+ *   PATCH#vectorBase#vectorNuevo#mesa#eleccion#candidatos#altas#bajas#metadata
+ *
+ * Las bajas son los documentos eliminados. Los hashes de documento solo se usan para ubicar
+ * candidatos en el índice; la decisión final siempre compara el documento y el registro completos.
+ */
+public final class ConfigurationPatch {
+
+    public static final String PATCH_PREFIX = "PATCH";
+    public static final String UNCHANGED = "=";
+
+    public static final int MESA = 0;
+    public static final int ELECTION = 1;
+    public static final int CANDIDATES = 2;
+    public static final int CITIZENS = 3;
+    public static final int METADATA = 4;
+
+    private static final int SECTIONS = 4;
+    private static final int PATCH_FIELDS = 9;
+
+    private ConfigurationPatch() {
+    }
+
+    /** Versión de una configuración completa ya entregada a una mesa. */
+    public static final class Snapshot {
+        private final String[] hashes;
+        private final String[] citizens;
+        // (hash del documento << 32) | posición en citizens, ordenado
+        private final long[] citizenIndex;
+
+        private Snapshot(String[] hashes, String[] citizens, long[] citizenIndex) {
+            this.hashes = hashes;
+            this.citizens = citizens;
+            this.citizenIndex = citizenIndex;
+        }
+
+        public String getVector() {
+            return String.join(".", hashes);
+        }
+
+        public int getCitizenCount() {
+            return citizens.length;
+        }
+
+        /** Registro del ciudadano con ese documento, o null si no está. */
+        private String findCitizen(String document, int docHash) {
+            int i = Arrays.binarySearch(citizenIndex, (long) docHash << 32);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            for (; i < citizenIndex.length && (int) (citizenIndex[i] >>> 32) == docHash; i++) {
+                String record = citizens[(int) citizenIndex[i]];
+                if (document.equals(documentOf(record))) {
+                    return record;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Parche ya separado en sus campos; las secciones sin cambios quedan en null. */
+    public static final class Patch {
+        private final String baseVector;
+        private final String targetVector;
+        private final String[] sections = new String[SECTIONS - 1];
+        private final List<String> citizenUpserts;
+        private final Set<String> citizenRemovals;
+        private final String metadata;
+
+        private Patch(String[] fields) {
+            this.baseVector = fields[1];
+            this.targetVector = fields[2];
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = UNCHANGED.equals(fields[3 + i]) ? null : fields[3 + i];
+            }
+            this.citizenUpserts = fields[6].isEmpty() ? Collections.emptyList() : Arrays.asList(fields[6].split("\\|"));
+
+            this.citizenRemovals = fields[7].isEmpty()
+                    ? Collections.emptySet() : new HashSet<>(Arrays.asList(fields[7].split("\\|")));
+            this.metadata = fields[8];
+        }
+
+        public String getBaseVector() { return baseVector; }
+        public String getTargetVector() { return targetVector; }
+        public List<String> getCitizenUpserts() { return citizenUpserts; }
+        /** Documentos de los ciudadanos eliminados. */
+        public Set<String> getCitizenRemovals() { return citizenRemovals; }
+        public String getMetadata() { return metadata; }
+
+        /** Sección MESA, ELECTION o CANDIDATES, o null si no cambió. */
+        public String getSection(int section) {
+            return sections[section];
+        }
+
+        public boolean hasCitizenChanges() {
+            return !citizenUpserts.isEmpty() || !citizenRemovals.isEmpty();
+        }
+    }
+
+    /**
+     * Vector de versión calculado mientras se lee una configuración completa (en UTF-8), sin
+     * tenerla en memoria. Se pasan los bytes de cada sección y se llama {@link #nextSection()} en
+     * cada separador '#'.
+     */
+    public static final class VectorBuilder {
+        private final String[] hashes = new String[SECTIONS];
+        private int section;
+        private long hash = ConfigurationCodec.FNV64_OFFSET;
+
+        public void update(byte[] bytes, int offset, int length) {
+            if (section < SECTIONS) {
+                hash = ConfigurationCodec.fnv64(hash, bytes, offset, length);
+            }
+        }
+
+        /**
+         * Igual que {@link #update(byte[], int, int)} con los bytes UTF-8 de {@code text[from, to)},
+         * sin codificarlos a un arreglo.
+         */
+        public void update(CharSequence text, int from, int to) {
+            if (section < SECTIONS) {
+                hash = ConfigurationCodec.fnv64(hash, text, from, to);
+            }
+        }
+
+        public void nextSection() {
+            if (section < SECTIONS) {
+                hashes[section] = Long.toHexString(hash);
+            }
+            section++;
+            hash = ConfigurationCodec.FNV64_OFFSET;
+        }
+
+        /** Vector de la configuración, o null si todavía no se leyeron las cuatro secciones. */
+        public String getVector() {
+            return section >= SECTIONS ? String.join(".", hashes) : null;
+        }
+    }
+
+    public static boolean isPatch(String data) {
+        return data != null && data.startsWith(PATCH_PREFIX + "#");
+    }
+
+    /**
+     * Versión de una configuración completa, o null si no tiene el formato esperado.
+     */
+    public static Snapshot snapshot(String configuration) {
+        String[] sections = configuration.split("#", -1);
+        if (sections.length < SECTIONS + 1) {
+            return null;
+        }
+
+        String[] hashes = new String[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            hashes[i] = sectionHash(sections[i]);
+        }
+
+        String[] citizens = citizenRecords(sections[CITIZENS]).toArray(new String[0]);
+        long[] index = new long[citizens.length];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = ((long) documentHash(documentOf(citizens[i])) << 32) | i;
+        }
+        Arrays.sort(index);
+        return new Snapshot(hashes, citizens, index);
+    }
+
+    /**
+     * Parche que lleva una mesa con la configuración {@code base} a {@code configuration}.
+     */
+    public static String diff(Snapshot base, Snapshot target, String configuration) {
+        String[] sections = configuration.split("#", -1);
+
+        StringBuilder patch = new StringBuilder(256);
+        patch.append(PATCH_PREFIX).append('#')
+                .append(base.getVector()).append('#')
+                .append(target.getVector()).append('#');
+
+        for (int i = MESA; i <= CANDIDATES; i++) {
+            patch.append(base.hashes[i].equals(target.hashes[i]) ? UNCHANGED : sections[i]).append('#');
+        }
+
+        Set<String> targetDocuments = new HashSet<>();
+        boolean firstUpsert = true;
+        if (!base.hashes[CITIZENS].equals(target.hashes[CITIZENS])) {
+            for (String record : target.citizens) {
+                String document = documentOf(record);
+                targetDocuments.add(document);
+                if (!record.equals(base.findCitizen(document, documentHash(document)))) {
+                    patch.append(firstUpsert ? "" : "|").append(record);
+                    firstUpsert = false;
+                }
+            }
+        }
+        patch.append('#');
+
+        boolean firstRemoval = true;
+        if (!base.hashes[CITIZENS].equals(target.hashes[CITIZENS])) {
+            for (String record : base.citizens) {
+                String document = documentOf(record);
+                if (!targetDocuments.contains(document)) {
+                    patch.append(firstRemoval ? "" : "|").append(document);
+                    firstRemoval = false;
+                }
+            }
+        }
+        patch.append('#').append(sections[METADATA]);
+        return patch.toString();
+    }
+
+    public static Patch parse(String data) {
+        String[] fields = data.split("#", -1);
+        if (fields.length != PATCH_FIELDS || !PATCH_PREFIX.equals(fields[0])) {
+            throw new IllegalArgumentException("Parche de configuración con formato inválido");
+        }
+        return new Patch(fields);
+    }
+
+    /** Vector de versión de una configuración completa. */
+    public static String vectorOf(String configuration) {
+        Snapshot snapshot = snapshot(configuration);
+        return snapshot != null ? snapshot.getVector() : null;
+    }
+
+    /**
+     * Vector de versión de una configuración completa comprimida con
+     * {@link ConfigurationCodec#deflate}, calculado mientras se descomprime. '#' es un byte ASCII,
+     * así que nunca aparece dentro de un carácter UTF-8 de varios bytes.
+     */
+    public static String vectorOf(byte[] compressed) {
+        VectorBuilder vector = new VectorBuilder();
+        ConfigurationCodec.inflate(compressed, (bytes, offset, length) -> {
+            int start = offset;
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '#') {
+                    vector.update(bytes, start, i - start);
+                    vector.nextSection();
+                    start = i + 1;
+                }
+            }
+            vector.update(bytes, start, offset + length - start);
+        });
+        return vector.getVector();
+    }
+
+    /** Registro de ciudadano: id:documento:nombre:apellido. */
+    public static String documentOf(String citizenRecord) {
+        int first = citizenRecord.indexOf(':');
+        int second = first >= 0 ? citizenRecord.indexOf(':', first + 1) : -1;
+        return second > first ? citizenRecord.substring(first + 1, second) : citizenRecord;
+    }
+
+    private static int documentHash(String document) {
+        return fnv32(document);
+    }
+
+    private static List<String> citizenRecords(String section) {
+        if (section.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> records = new ArrayList<>();
+        int start = 0;
+        while (start <= section.length()) {
+            int end = section.indexOf('|', start);
+            if (end < 0) {
+                end = section.length();
+            }
+            if (end > start) {
+                records.add(section.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    private static String sectionHash(String section) {
+        return ConfigurationCodec.fnv64Hex(section);
+    }
+
+    private static int fnv32(String value) {
+        int h = 0x811c9dc5;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x01000193;
+        }
+        return h;
+    }
+}
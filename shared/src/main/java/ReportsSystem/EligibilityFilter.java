@@ -0,0 +1,107 @@
+package ReportsSystem;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Filtro de Bloom de documentos habilitados para votar, compartido por el servidor (que lo
+ * construye) y los proxies (que lo consultan). Si {@link #mightContain} devuelve false el documento
+ * seguro no está habilitado; si devuelve true hay que confirmarlo con el servidor.
+ *
+ * Formato serializado: magic, k, número de bits, cantidad de documentos, fecha de creación, bits.
+ */
+public class EligibilityFilter {
+
+    private static final int MAGIC = 0x454C4246; // "ELBF"
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+
+    private final int hashFunctions;
+    private final int numBits;
+    private final long[] bits;
+    private final long createdAt;
+    private int entries;
+
+    private EligibilityFilter(int hashFunctions, int numBits, long[] bits, int entries, long createdAt) {
+        this.hashFunctions = hashFunctions;
+        this.numBits = numBits;
+        this.bits = bits;
+        this.entries = entries;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Dimensiona el filtro para la cantidad esperada de documentos y la tasa de falsos positivos deseada.
+     */
+    public static EligibilityFilter create(int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(1, expectedEntries);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int numBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        int k = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new EligibilityFilter(k, numBits, new long[(numBits + 63) / 64], 0, System.currentTimeMillis());
+    }
+
+    public static EligibilityFilter fromBytes(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Filtro de elegibilidad con formato no reconocido");
+        }
+        int k = buffer.getInt();
+        int numBits = buffer.getInt();
+        int entries = buffer.getInt();
+        long createdAt = buffer.getLong();
+
+        long[] bits = new long[(numBits + 63) / 64];
+        buffer.asLongBuffer().get(bits);
+        return new EligibilityFilter(k, numBits, bits, entries, createdAt);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bits.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(hashFunctions).putInt(numBits).putInt(entries).putLong(createdAt);
+        buffer.asLongBuffer().put(bits);
+        return buffer.array();
+    }
+
+    public void add(String documento) {
+        long hash = hash(documento);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        entries++;
+    }
+
+    public boolean mightContain(String documento) {
+        long hash = hash(documento);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getEntries() { return entries; }
+    public long getCreatedAt() { return createdAt; }
+    public int getSizeBytes() { return bits.length * Long.BYTES; }
+
+    // FNV-1a de 64 bits sobre UTF-8 con el mezclador final de MurmurHash3
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}